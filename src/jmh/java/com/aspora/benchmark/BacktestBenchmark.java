@@ -0,0 +1,66 @@
+package com.aspora.benchmark;
+
+import com.aspora.backtest.BacktestEngine;
+import com.aspora.backtest.BacktestReport;
+import com.aspora.backtest.BacktestWindows;
+import com.aspora.backtest.HistoricalWeather;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.RuleSet;
+import com.aspora.support.HistoricalWeathers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying every 3, 6 and 12 hour window of five years at 20 venues (about 2.6M windows) under
+ * the default rules and one profile, on one thread and on every core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BacktestBenchmark {
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private HistoricalWeather weather;
+    private List<CompiledRules> rules;
+    private BacktestWindows windows;
+    private BacktestEngine engine;
+
+    @Setup
+    public void setUp() {
+        weather = HistoricalWeathers.synthetic(20, 24 * (365 * 5 + 1), 11);
+        RuleSet cautious = new RuleSet();
+        cautious.setRainProbabilityRisky(40);
+        cautious.setWindRiskyKmh(25.0);
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setProfiles(Map.of("cautious", cautious));
+        rules = new ArrayList<>(new ClassificationRulesRegistry(properties).allRules());
+        windows = BacktestWindows.sweep(weather.hours(), new int[]{3, 6, 12}, 1);
+        engine = new BacktestEngine(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public BacktestReport sweep() {
+        return engine.run(weather, rules, windows);
+    }
+}
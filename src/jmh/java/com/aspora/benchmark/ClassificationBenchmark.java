@@ -0,0 +1,110 @@
+package com.aspora.benchmark;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.service.ClassificationService;
+import com.aspora.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ClassificationService#classify} over safe, risky and unsafe windows and a window of
+ * steady rain, with summarized and hourly reasons, with the forecast already in hand so only rule
+ * evaluation and response assembly are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassificationBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 14, 0);
+
+    public enum Scenario {
+        SAFE, RISKY, UNSAFE, RAINY
+    }
+
+    @Param
+    public Scenario scenario;
+
+    @Param({"4", "72"})
+    public int hours;
+
+    @Param({"summary", "hourly"})
+    public String reasons;
+
+    private ClassificationService classificationService;
+    private EventRequest request;
+
+    @Setup
+    public void setUp() {
+        ForecastFrame frame = frame(scenario, hours);
+        WeatherService weatherService = new WeatherService(null, null, null, null, null) {
+            @Override
+            public ForecastFrame fetchForecast(EventRequest request) {
+                return frame;
+            }
+        };
+        classificationService = new ClassificationService(weatherService,
+                new ClassificationRulesRegistry(new ClassificationProperties()),
+                new ForecastMetrics(new SimpleMeterRegistry()));
+        request = EventRequest.builder()
+                .name("Benchmark")
+                .location(new EventRequest.Location(19.076, 72.8777))
+                .startTime(START)
+                .endTime(START.plusHours(hours))
+                .reasons(reasons)
+                .build();
+    }
+
+    @Benchmark
+    public EventForecastResponse classify() {
+        return classificationService.classify(request);
+    }
+
+    static ForecastFrame frame(Scenario scenario, int hours) {
+        double[] temperature = new double[hours];
+        int[] rain = new int[hours];
+        int[] code = new int[hours];
+        double[] wind = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = 24.5;
+            rain[i] = 10;
+            code[i] = 1;
+            wind[i] = 12.0;
+        }
+        switch (scenario) {
+            case SAFE -> {
+            }
+            // A single wet hour late in the window, so evaluation scans nearly every hour
+            case RISKY -> rain[hours - 1] = 70;
+            case UNSAFE -> {
+                for (int i = 0; i < hours; i += 3) {
+                    code[i] = 95;
+                }
+            }
+            // Rain every hour: one reason per hour, or one for the whole window when summarized
+            case RAINY -> {
+                for (int i = 0; i < hours; i++) {
+                    code[i] = 61;
+                    rain[i] = 62 + i % 27;
+                }
+            }
+        }
+        return new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1), temperature, rain, code, wind);
+    }
+}
@@ -0,0 +1,88 @@
+package com.aspora.benchmark;
+
+import com.aspora.AsporaApplication;
+import com.aspora.support.OpenMeteoPayloads;
+import com.aspora.support.StubOpenMeteoServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * {@code POST /event-forecast} through the full Spring MVC stack via MockMvc, with Open-Meteo
+ * replaced by a local stub serving a canned 16-day payload. With the cache off every request
+ * pays for the upstream round trip and decode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EndToEndBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+    private static final String REQUEST = """
+            {"name": "Cricket Match", "location": {"latitude": 19.076, "longitude": 72.8777},
+             "start_time": "2026-01-12T14:00:00", "end_time": "2026-01-12T18:00:00"}
+            """;
+
+    @Param({"on", "off"})
+    public String cache;
+
+    private StubOpenMeteoServer upstream;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String payload = OpenMeteoPayloads.hourly(START, 16 * 24);
+        upstream = new StubOpenMeteoServer();
+        upstream.setHandler(exchange -> StubOpenMeteoServer.respond(exchange, 200, payload));
+        context = new SpringApplicationBuilder(AsporaApplication.class)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--openmeteo.base-url=" + upstream.baseUrl(),
+                        "--openmeteo.http.warm-up=false",
+                        "--openmeteo.cache.max-size=" + ("on".equals(cache) ? 10000 : 0));
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        int status = forecast().getResponse().getStatus();
+        if (status != 200) {
+            throw new IllegalStateException("Benchmark request failed with status " + status);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public byte[] eventForecast() throws Exception {
+        return forecast().getResponse().getContentAsByteArray();
+    }
+
+    private MvcResult forecast() throws Exception {
+        return mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(REQUEST))
+                .andReturn();
+    }
+}
@@ -0,0 +1,76 @@
+package com.aspora.benchmark;
+
+import com.aspora.dto.HourlyForecast;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.support.OpenMeteoPayloads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cutting a four-hour event window out of a 1-day and a 16-day Open-Meteo payload, with and
+ * without the decode step that precedes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ForecastWindowBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    @Param({"1", "16"})
+    public int days;
+
+    private final OpenMeteoHourlyParser parser = new OpenMeteoHourlyParser(Jackson2ObjectMapperBuilder.json().build());
+    private byte[] payload;
+    private ForecastFrame frame;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = OpenMeteoPayloads.hourly(START, days * 24).getBytes(StandardCharsets.UTF_8);
+        frame = parser.parse(new ByteArrayInputStream(payload)).get(0);
+        windowStart = START.plusHours(days * 12L);
+        windowEnd = windowStart.plusHours(4);
+    }
+
+    /** Cache hit: the frame is already decoded, only the window is cut. */
+    @Benchmark
+    public ForecastFrame slice() {
+        return frame.slice(windowStart, windowEnd);
+    }
+
+    /** Cache hit, materialising the window as the DTO rows the response carries. */
+    @Benchmark
+    public List<HourlyForecast> sliceToHourlyForecasts() {
+        return new ArrayList<>(frame.slice(windowStart, windowEnd).asHourlyForecasts());
+    }
+
+    /** Cache miss with caching enabled: the whole payload is decoded for reuse, then cut. */
+    @Benchmark
+    public ForecastFrame parseThenSlice() throws IOException {
+        return parser.parse(new ByteArrayInputStream(payload)).get(0).slice(windowStart, windowEnd);
+    }
+
+    /** Cache disabled: only the hours inside the window are decoded. */
+    @Benchmark
+    public ForecastFrame parseWindowed() throws IOException {
+        return parser.parse(new ByteArrayInputStream(payload), windowStart, windowEnd).get(0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.aspora.benchmark;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.openmeteo.OpenMeteoResponse;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.service.ClassificationService;
+import com.aspora.support.OpenMeteoPayloads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of the upstream {@link OpenMeteoResponse} and of the {@link EventForecastResponse}
+ * we return, for 1-day and 16-day windows, using the same mapper settings Spring Boot configures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonCodecBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    @Param({"1", "16"})
+    public int days;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] upstreamPayload;
+    private EventForecastResponse response;
+
+    @Setup
+    public void setUp() {
+        upstreamPayload = OpenMeteoPayloads.hourly(START, days * 24).getBytes(StandardCharsets.UTF_8);
+        ClassificationService classificationService = new ClassificationService(null,
+                new ClassificationRulesRegistry(new ClassificationProperties()),
+                new ForecastMetrics(new SimpleMeterRegistry()));
+        response = classificationService.classifyWindow(
+                ClassificationBenchmark.frame(ClassificationBenchmark.Scenario.UNSAFE, days * 24));
+    }
+
+    @Benchmark
+    public OpenMeteoResponse deserializeOpenMeteoResponse() throws IOException {
+        return objectMapper.readValue(upstreamPayload, OpenMeteoResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeEventForecastResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
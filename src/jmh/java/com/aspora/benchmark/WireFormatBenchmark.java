@@ -0,0 +1,85 @@
+package com.aspora.benchmark;
+
+import com.aspora.dto.ColumnarEventForecastResponse;
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.service.ClassificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialization of one event forecast in each representation {@code POST /event-forecast}
+ * negotiates: the hourly row list as JSON and CBOR, and the columnar shape as JSON and CBOR.
+ * Encoded and gzipped sizes are printed once per trial, since JMH only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"1", "16"})
+    public int days;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    private EventForecastResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ClassificationService classificationService = new ClassificationService(null,
+                new ClassificationRulesRegistry(new ClassificationProperties()),
+                new ForecastMetrics(new SimpleMeterRegistry()));
+        response = classificationService.classifyWindow(
+                ClassificationBenchmark.frame(ClassificationBenchmark.Scenario.RISKY, days * 24));
+
+        report("rows json", rowsJson());
+        report("rows cbor", rowsCbor());
+        report("columnar json", columnarJson());
+        report("columnar cbor", columnarCbor());
+    }
+
+    @Benchmark
+    public byte[] rowsJson() throws IOException {
+        return json.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] rowsCbor() throws IOException {
+        return cbor.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] columnarJson() throws IOException {
+        return json.writeValueAsBytes(ColumnarEventForecastResponse.of(response));
+    }
+
+    @Benchmark
+    public byte[] columnarCbor() throws IOException {
+        return cbor.writeValueAsBytes(ColumnarEventForecastResponse.of(response));
+    }
+
+    private void report(String format, byte[] encoded) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(encoded);
+        }
+        System.out.printf("%n%d-day %s: %d bytes, %d gzipped%n", days, format, encoded.length, compressed.size());
+    }
+}
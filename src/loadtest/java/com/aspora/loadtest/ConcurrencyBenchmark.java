@@ -0,0 +1,330 @@
+package com.aspora.loadtest;
+
+import com.aspora.support.LatencyModel;
+import com.aspora.support.OpenMeteoReplay;
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency capacity: launches the packaged service in a fresh JVM with a fixed heap, once with
+ * requests on Tomcat's platform worker pool and once on virtual threads, against a local
+ * Open-Meteo stand-in that answers every call after a fixed delay. {@code --clients} closed-loop
+ * clients send {@code POST /event-forecast} back to back. The forecast cache is off, so every
+ * request waits on the upstream and the upstream calls in progress count the requests the
+ * service holds in flight. Prints, per mode, throughput, latency percentiles, peak and mean
+ * in-flight requests, live threads and peak resident memory, and writes them to
+ * {@code target/concurrency-result.json}.
+ *
+ * <pre>
+ * mvn -Pconcurrency verify -Dconcurrency.args="--clients=2000 --latency=1s"
+ * </pre>
+ *
+ * Options (defaults in brackets): {@code --jar} the packaged service [target/aspora-1.0.0.jar],
+ * {@code --clients} [1000], {@code --duration} [30s], {@code --warmup} [15s], {@code --latency}
+ * upstream delay, see {@link LatencyModel} [5s], {@code --heap} service {@code -Xmx} [512m],
+ * {@code --venues} [5000], {@code --timeout} for the service to come up [60s], {@code --work-dir}
+ * for service logs [target/concurrency], {@code --output} [target/concurrency-result.json].
+ */
+public final class ConcurrencyBenchmark {
+
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(50);
+
+    private ConcurrencyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Path jar = Path.of(options.getOrDefault("jar", "target/aspora-1.0.0.jar")).toAbsolutePath();
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "15s"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "60s"));
+        String heap = options.getOrDefault("heap", "512m");
+        Path workDir = Path.of(options.getOrDefault("work-dir", "target/concurrency")).toAbsolutePath();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("No packaged service at " + jar + "; build it with mvn package");
+        }
+        Files.createDirectories(workDir);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        OpenMeteoReplay replay = OpenMeteoReplay.bundled(objectMapper, 42)
+                .latency(LatencyModel.parse(options.getOrDefault("latency", "5s")));
+        AtomicInteger upstreamInFlight = new AtomicInteger();
+        // Every request opens its upstream call at once, far more connections than the default backlog admits
+        try (StubOpenMeteoServer upstream = new StubOpenMeteoServer(clients)) {
+            upstream.setHandler(exchange -> {
+                upstreamInFlight.incrementAndGet();
+                try {
+                    replay.handle(exchange);
+                } finally {
+                    upstreamInFlight.decrementAndGet();
+                }
+            });
+            List<String> appArgs = List.of("--openmeteo.base-url=" + upstream.baseUrl(),
+                    "--openmeteo.http.warm-up=false", "--logging.level.root=WARN",
+                    "--openmeteo.cache.max-size=0", "--openmeteo.quota.enabled=false",
+                    "--openmeteo.request-deadline=0", "--openmeteo.http.connect-timeout=30s",
+                    "--openmeteo.http.read-timeout=60s",
+                    "--openmeteo.circuit-breaker.slow-call-duration=60s");
+            Workload workload = new Workload(Integer.parseInt(options.getOrDefault("venues", "5000")),
+                    LocalDate.now(ZoneOffset.UTC), 42);
+
+            Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+            for (String mode : List.of("platform", "virtual")) {
+                List<String> command = new ArrayList<>(List.of(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-Xms" + heap, "-Xmx" + heap, "-jar", jar.toString()));
+                command.addAll(appArgs);
+                command.add("--spring.threads.virtual.enabled=" + mode.equals("virtual"));
+                System.out.println("Running " + clients + " clients against the service on " + mode + " threads");
+                Map<String, Object> result = run(command, workDir.resolve(mode + ".log"), workload, clients,
+                        warmup, duration, timeout, upstreamInFlight);
+                report.put(mode, result);
+                System.out.print(describe(mode, result));
+            }
+
+            Path output = Path.of(options.getOrDefault("output", "target/concurrency-result.json"));
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            objectMapper.writeValue(output.toFile(), report);
+            System.out.println("Report written to " + output.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, Object> run(List<String> command, Path log, Workload workload, int clients,
+                                           Duration warmup, Duration duration, Duration timeout,
+                                           AtomicInteger upstreamInFlight) throws Exception {
+        int port = freePort();
+        List<String> launch = new ArrayList<>(command);
+        launch.add("--server.port=" + port);
+        Process process = new ProcessBuilder(launch).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .executor(executor)
+                    .build();
+            URI base = URI.create("http://127.0.0.1:" + port);
+            awaitReady(process, client, base, timeout, log);
+
+            Phase phase = new Phase();
+            SplittableRandom seeds = new SplittableRandom(42);
+            AtomicBoolean running = new AtomicBoolean(true);
+            for (int i = 0; i < clients; i++) {
+                SplittableRandom random = seeds.split();
+                executor.submit(() -> {
+                    while (running.get()) {
+                        HttpRequest request = HttpRequest.newBuilder(base.resolve("/event-forecast"))
+                                .timeout(Duration.ofSeconds(120))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(workload.nextRequest(random)))
+                                .build();
+                        long started = System.nanoTime();
+                        String status;
+                        try {
+                            status = String.valueOf(client.send(request, HttpResponse.BodyHandlers.discarding())
+                                    .statusCode());
+                        } catch (IOException ex) {
+                            status = "io_error";
+                        } catch (InterruptedException ex) {
+                            return;
+                        }
+                        phase.current().record(status, System.nanoTime() - started);
+                    }
+                });
+            }
+
+            Thread.sleep(warmup.toMillis());
+            Phase.Window window = phase.start();
+            long peakInFlight = 0;
+            long sampledInFlight = 0;
+            long samples = 0;
+            long measureUntil = System.nanoTime() + duration.toNanos();
+            while (System.nanoTime() < measureUntil) {
+                Thread.sleep(SAMPLE_INTERVAL.toMillis());
+                int inFlight = upstreamInFlight.get();
+                peakInFlight = Math.max(peakInFlight, inFlight);
+                sampledInFlight += inFlight;
+                samples++;
+            }
+            Map<String, Double> serverMetrics = scrape(client, base);
+            double elapsedSeconds = window.stop();
+            running.set(false);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("clients", clients);
+            result.put("completed", window.completed());
+            result.put("throughput_rps", window.completed() / elapsedSeconds);
+            result.put("status_counts", window.statusCounts());
+            result.put("latency_ms", LoadReport.percentiles(window.latencies()));
+            result.put("peak_in_flight", peakInFlight);
+            result.put("mean_in_flight", samples == 0 ? 0 : (double) sampledInFlight / samples);
+            result.put("live_threads", serverMetrics.getOrDefault("jvm_threads_live_threads", -1d).longValue());
+            result.put("heap_used_mb", serverMetrics.getOrDefault("heap", -1d) / (1 << 20));
+            result.put("peak_rss_mb", peakRssKilobytes(process) / 1024d);
+            executor.shutdownNow();
+            return result;
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void awaitReady(Process process, HttpClient client, URI base, Duration timeout, Path log)
+            throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(base.resolve("/actuator/health")).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException ex) {
+                // Not listening yet
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Service not up within " + timeout + ", see " + log);
+    }
+
+    /** Live threads and heap in use, read from the service's Prometheus endpoint. */
+    private static Map<String, Double> scrape(HttpClient client, URI base) {
+        Map<String, Double> values = new TreeMap<>();
+        try {
+            String body = client.send(HttpRequest.newBuilder(base.resolve("/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            for (String line : body.split("\n")) {
+                if (line.startsWith("jvm_threads_live_threads ")) {
+                    values.put("jvm_threads_live_threads", value(line));
+                } else if (line.startsWith("jvm_memory_used_bytes{") && line.contains("area=\"heap\"")) {
+                    values.merge("heap", value(line), Double::sum);
+                }
+            }
+        } catch (IOException ex) {
+            System.out.println("Could not read server metrics: " + ex.getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return values;
+    }
+
+    private static double value(String line) {
+        return Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+    }
+
+    /** High-water mark of the process' resident memory, or -1 where {@code /proc} is not available. */
+    private static long peakRssKilobytes(Process process) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // Not Linux, or the process is gone
+        }
+        return -1;
+    }
+
+    private static String describe(String mode, Map<String, Object> result) {
+        return String.format(Locale.ROOT, """
+                  %-8s  %.1f req/s, %s
+                            in flight: peak %d, mean %.0f; live threads %d; heap used %.0f MB; peak RSS %.0f MB
+                            latency: %s
+                """, mode, (double) result.get("throughput_rps"), result.get("status_counts"),
+                (long) result.get("peak_in_flight"), (double) result.get("mean_in_flight"),
+                (long) result.get("live_threads"), (double) result.get("heap_used_mb"),
+                (double) result.get("peak_rss_mb"), result.get("latency_ms"));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /** Responses recorded into whichever window is current, so warm-up traffic is left out. */
+    private static final class Phase {
+
+        private volatile Window current = new Window();
+
+        Window current() {
+            return current;
+        }
+
+        Window start() {
+            current = new Window();
+            return current;
+        }
+
+        static final class Window {
+
+            private final long started = System.nanoTime();
+            private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+            private volatile long stopped;
+
+            void record(String status, long latencyNanos) {
+                if (stopped == 0) {
+                    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                    latencies.add(latencyNanos);
+                }
+            }
+
+            double stop() {
+                stopped = System.nanoTime();
+                return (stopped - started) / 1e9;
+            }
+
+            long completed() {
+                return latencies.size();
+            }
+
+            long[] latencies() {
+                return latencies.stream().mapToLong(Long::longValue).toArray();
+            }
+
+            Map<String, Long> statusCounts() {
+                Map<String, Long> counts = new TreeMap<>();
+                statuses.forEach((status, count) -> counts.put(status, count.sum()));
+                return counts;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.aspora.loadtest;
+
+import com.aspora.support.OpenMeteoReplay;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: sends {@code POST /event-forecast} at a fixed rate whatever the
+ * server's response times, so a slow server shows up as latency rather than as a quietly lower
+ * request rate. Requests beyond {@code maxInFlight} outstanding are counted as dropped instead of
+ * being queued in the client.
+ */
+final class LoadGenerator {
+
+    private final URI target;
+    private final Workload workload;
+    private final int targetRps;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final HttpClient client;
+
+    LoadGenerator(URI target, Workload workload, int targetRps, int maxInFlight, long seed) {
+        if (targetRps <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("Target rate and in-flight limit must be positive");
+        }
+        this.target = target;
+        this.workload = workload;
+        this.targetRps = targetRps;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Runs for {@code duration}, waits up to 30 seconds for outstanding requests, and reports.
+     * {@code upstream} supplies the upstream call counts; it may be {@code null} when the
+     * service is pointed at something other than the replay stand-in.
+     */
+    LoadReport run(Duration duration, OpenMeteoReplay upstream) throws InterruptedException {
+        long upstreamRequests = upstream == null ? 0 : upstream.requestCount();
+        long upstreamLocations = upstream == null ? 0 : upstream.locationCount();
+        long upstreamErrors = upstream == null ? 0 : upstream.errorCount();
+
+        long total = Math.max(1, duration.toNanos() * targetRps / TimeUnit.SECONDS.toNanos(1));
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / targetRps;
+        long[] latencies = new long[(int) total];
+        AtomicInteger completed = new AtomicInteger();
+        Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long dropped = 0;
+
+        long started = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long scheduled = started + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped++;
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(target)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(workload.nextRequest(random)))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        long latency = System.nanoTime() - scheduled;
+                        String status = failure != null ? "io_error" : String.valueOf(response.statusCode());
+                        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                        latencies[completed.getAndIncrement()] = latency;
+                        inFlight.release();
+                    });
+        }
+        long sent = total - dropped;
+        inFlight.tryAcquire(maxInFlight, 30, TimeUnit.SECONDS);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        int done = completed.get();
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new LoadReport(targetRps, duration.toMillis() / 1000d, sent, done, dropped, done / elapsedSeconds,
+                statusCounts, LoadReport.percentiles(Arrays.copyOf(latencies, done)),
+                upstream == null ? 0 : upstream.requestCount() - upstreamRequests,
+                upstream == null ? 0 : upstream.locationCount() - upstreamLocations,
+                upstream == null ? 0 : upstream.errorCount() - upstreamErrors);
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,73 @@
+package com.aspora.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of one measured load phase. Latencies are taken from each request's scheduled send
+ * time, so time spent queued behind a saturated server or client counts against it.
+ */
+record LoadReport(@JsonProperty("target_rps") int targetRps,
+                  @JsonProperty("duration_seconds") double durationSeconds,
+                  @JsonProperty("sent") long sent,
+                  @JsonProperty("completed") long completed,
+                  @JsonProperty("dropped") long dropped,
+                  @JsonProperty("throughput_rps") double throughputRps,
+                  @JsonProperty("status_counts") Map<String, Long> statusCounts,
+                  @JsonProperty("latency_ms") Map<String, Double> latencyMillis,
+                  @JsonProperty("upstream_requests") long upstreamRequests,
+                  @JsonProperty("upstream_locations") long upstreamLocations,
+                  @JsonProperty("upstream_errors") long upstreamErrors) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Summarizes {@code latencyNanos} (sorted in place) into percentiles and the maximum. */
+    static Map<String, Double> percentiles(long[] latencyNanos) {
+        Arrays.sort(latencyNanos);
+        Map<String, Double> summary = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + format(percentile), millis(valueAt(latencyNanos, percentile)));
+        }
+        summary.put("max", millis(latencyNanos.length == 0 ? 0 : latencyNanos[latencyNanos.length - 1]));
+        return summary;
+    }
+
+    static long valueAt(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000d) / 100d;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    String describe() {
+        String statuses = statusCounts.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+        String latencies = latencyMillis.entrySet().stream()
+                .map(entry -> String.format(Locale.ROOT, "%s %.2f ms", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining(", "));
+        return String.format(Locale.ROOT, """
+                Target:     %d req/s for %.0f s
+                Throughput: %.1f req/s (%d sent, %d completed, %d dropped at the client)
+                Statuses:   %s
+                Latency:    %s
+                Upstream:   %d calls for %d locations (%d injected errors), %.3f calls per request
+                """, targetRps, durationSeconds, throughputRps, sent, completed, dropped, statuses, latencies,
+                upstreamRequests, upstreamLocations, upstreamErrors,
+                completed == 0 ? 0d : (double) upstreamRequests / completed);
+    }
+}
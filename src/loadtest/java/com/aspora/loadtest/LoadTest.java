@@ -0,0 +1,116 @@
+package com.aspora.loadtest;
+
+import com.aspora.AsporaApplication;
+import com.aspora.support.LatencyModel;
+import com.aspora.support.OpenMeteoRecorder;
+import com.aspora.support.OpenMeteoReplay;
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity run: starts the service on a random port against a local Open-Meteo stand-in, drives
+ * {@code POST /event-forecast} at a fixed rate and prints throughput, latency percentiles and
+ * upstream call counts. The report is also written to {@code target/load-result.json}.
+ *
+ * <pre>
+ * mvn -Pload verify -Dload.args="--rps=500 --duration=2m --latency=lognormal:80ms:400ms --error-rate=0.02"
+ * </pre>
+ *
+ * Options (defaults in brackets): {@code --rps} [200], {@code --duration} [60s], {@code --warmup}
+ * [15s], {@code --venues} distinct venues [2000], {@code --latency} upstream delay, see
+ * {@link LatencyModel} [lognormal:80ms:400ms], {@code --error-rate} [0], {@code --error-status}
+ * [503], {@code --payload-hours} fixed upstream body size, 0 for the requested range [0],
+ * {@code --recordings} directory of captured responses [bundled set], {@code --record} forward to
+ * this Open-Meteo base URL and capture responses into {@code --recordings} instead of replaying,
+ * {@code --max-in-flight} [2000], {@code --seed} [42], {@code --output} [target/load-result.json].
+ * Any {@code --app.<property>=<value>} is passed to the service, e.g.
+ * {@code --app.openmeteo.cache.max-size=0}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN",
+                "--openmeteo.http.warm-up=false"));
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            if (arg.startsWith("--app.")) {
+                appArgs.add("--" + arg.substring("--app.".length()));
+            } else {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "15s"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        OpenMeteoReplay replay = null;
+        try (StubOpenMeteoServer upstream = new StubOpenMeteoServer()) {
+            if (options.containsKey("record")) {
+                Path directory = Path.of(options.getOrDefault("recordings", "target/openmeteo-recordings"));
+                upstream.setHandler(new OpenMeteoRecorder(options.get("record"), directory));
+                System.out.println("Recording Open-Meteo responses from " + options.get("record") + " into " + directory);
+            } else {
+                replay = options.containsKey("recordings")
+                        ? OpenMeteoReplay.fromDirectory(objectMapper, Path.of(options.get("recordings")), seed)
+                        : OpenMeteoReplay.bundled(objectMapper, seed);
+                replay.latency(LatencyModel.parse(options.getOrDefault("latency", "lognormal:80ms:400ms")))
+                        .errors(Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                                Integer.parseInt(options.getOrDefault("error-status", "503")))
+                        .payloadHours(Integer.parseInt(options.getOrDefault("payload-hours", "0")));
+                upstream.setHandler(replay);
+            }
+            appArgs.add("--openmeteo.base-url=" + upstream.baseUrl());
+
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AsporaApplication.class)
+                    .run(appArgs.toArray(String[]::new))) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI target = URI.create("http://127.0.0.1:" + port + "/event-forecast");
+                Workload workload = new Workload(Integer.parseInt(options.getOrDefault("venues", "2000")),
+                        LocalDate.now(ZoneOffset.UTC), seed);
+                LoadGenerator generator = new LoadGenerator(target, workload, rps,
+                        Integer.parseInt(options.getOrDefault("max-in-flight", "2000")), seed);
+                try {
+                    if (!warmup.isZero()) {
+                        System.out.println("Warming up for " + warmup.toSeconds() + " s");
+                        generator.run(warmup, replay);
+                    }
+                    System.out.println("Measuring for " + duration.toSeconds() + " s");
+                    LoadReport report = generator.run(duration, replay);
+                    System.out.print(report.describe());
+
+                    Path output = Path.of(options.getOrDefault("output", "target/load-result.json"));
+                    Files.createDirectories(output.toAbsolutePath().getParent());
+                    objectMapper.writeValue(output.toFile(), report);
+                    System.out.println("Report written to " + output);
+                } finally {
+                    generator.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.aspora.loadtest;
+
+import com.aspora.support.OpenMeteoReplay;
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time to first successful response: from launching the packaged service in a fresh JVM
+ * until {@code POST /event-forecast} first answers 200, against a local Open-Meteo stand-in. Each
+ * run starts a new process, once as a plain {@code java -jar} and once the way the Docker image
+ * starts it (Spring AOT, the {@code faststart} profile and a class data sharing archive recorded
+ * by a training run beforehand). Prints the median per variant and writes every run to
+ * {@code target/startup-result.json}.
+ *
+ * <pre>
+ * mvn -Pfaststart verify -Dstartup.args="--runs=10"
+ * </pre>
+ *
+ * Options (defaults in brackets): {@code --jar} the packaged service [target/aspora-1.0.0.jar],
+ * {@code --runs} per variant [5], {@code --timeout} per run [60s], {@code --work-dir} for the
+ * extracted jar, archive and logs [target/startup], {@code --output} [target/startup-result.json].
+ */
+public final class StartupBenchmark {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(5);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Path jar = Path.of(options.getOrDefault("jar", "target/aspora-1.0.0.jar")).toAbsolutePath();
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "60s"));
+        Path workDir = Path.of(options.getOrDefault("work-dir", "target/startup")).toAbsolutePath();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("No packaged service at " + jar + "; build it with mvn -Pfaststart package");
+        }
+        Files.createDirectories(workDir);
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        try (StubOpenMeteoServer upstream = new StubOpenMeteoServer()) {
+            upstream.setHandler(OpenMeteoReplay.bundled(objectMapper, 42));
+            List<String> appArgs = List.of("--openmeteo.base-url=" + upstream.baseUrl(),
+                    "--openmeteo.http.warm-up=false", "--logging.level.root=WARN");
+
+            Path extracted = workDir.resolve("extracted");
+            Path archive = extracted.resolve("application.jsa");
+            exec(workDir.resolve("extract.log"), timeout,
+                    java("-Djarmode=tools", "-jar", jar.toString(), "extract", "--force",
+                            "--destination", extracted.toString()));
+            exec(workDir.resolve("training.log"), timeout,
+                    java(concat(List.of("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.aot.enabled=true",
+                            "-Dspring.context.exit=onRefresh", "-jar", extracted.resolve(jar.getFileName()).toString(),
+                            "--spring.profiles.active=faststart", "--server.port=0"), appArgs)));
+
+            Map<String, List<String>> variants = new LinkedHashMap<>();
+            variants.put("baseline", List.of("-jar", jar.toString()));
+            variants.put("faststart", List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                    "-jar", extracted.resolve(jar.getFileName()).toString(), "--spring.profiles.active=faststart"));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            Map<String, Long> medians = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                long[] millis = new long[runs];
+                for (int run = 0; run < runs; run++) {
+                    millis[run] = timeToFirstResponse(variant.getValue(), appArgs, timeout,
+                            workDir.resolve(variant.getKey() + "-" + run + ".log"));
+                    System.out.printf("%-10s run %d: %d ms%n", variant.getKey(), run + 1, millis[run]);
+                }
+                long[] sorted = millis.clone();
+                Arrays.sort(sorted);
+                medians.put(variant.getKey(), sorted[runs / 2]);
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("median_ms", sorted[runs / 2]);
+                summary.put("min_ms", sorted[0]);
+                summary.put("max_ms", sorted[runs - 1]);
+                summary.put("runs_ms", millis);
+                report.put(variant.getKey(), summary);
+            }
+
+            System.out.println();
+            System.out.println("Time to first successful response (median of " + runs + " runs)");
+            medians.forEach((name, median) -> System.out.printf("  %-10s %6d ms%n", name, median));
+            System.out.printf("  speedup    %6.2fx%n", (double) medians.get("baseline") / medians.get("faststart"));
+
+            Path output = Path.of(options.getOrDefault("output", "target/startup-result.json"));
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            objectMapper.writeValue(output.toFile(), report);
+            System.out.println("Report written to " + output.toAbsolutePath());
+        }
+    }
+
+    /** Starts the service and polls it until an event forecast succeeds; the process is stopped afterwards. */
+    private static long timeToFirstResponse(List<String> launch, List<String> appArgs, Duration timeout, Path log)
+            throws Exception {
+        int port = freePort();
+        List<String> command = java(concat(launch, concat(appArgs, List.of("--server.port=" + port))));
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/event-forecast"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {"name": "Startup probe", "location": {"latitude": 19.076, "longitude": 72.8777},
+                         "start_time": "%sT17:00", "end_time": "%sT20:00"}
+                        """.formatted(day, day)))
+                .build();
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long deadline = started + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Service exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return (System.nanoTime() - started) / 1_000_000;
+                    }
+                } catch (ConnectException ex) {
+                    // Not listening yet
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+            throw new IllegalStateException("No successful response within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void exec(Path log, Duration timeout, List<String> command) throws Exception {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("Timed out running " + command + ", see " + log);
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("Failed with " + process.exitValue() + ": " + command + ", see " + log);
+        }
+    }
+
+    private static List<String> java(String... args) {
+        return java(List.of(args));
+    }
+
+    private static List<String> java(List<String> args) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(args);
+        return command;
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> joined = new ArrayList<>(first);
+        joined.addAll(second);
+        return joined;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
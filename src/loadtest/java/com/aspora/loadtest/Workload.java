@@ -0,0 +1,88 @@
+package com.aspora.loadtest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The mix of {@code POST /event-forecast} bodies a load run sends. A fixed pool of venues
+ * scattered around a dozen cities is drawn with Zipf popularity, so a few venues (stadiums,
+ * parks) take most of the traffic and the long tail keeps missing the cache, as in production.
+ * Windows are mostly a few hours in the next few days, with some all-day and multi-day events.
+ */
+final class Workload {
+
+    private static final double[][] CITIES = {
+            {19.076, 72.8777}, {28.6139, 77.209}, {12.9716, 77.5946}, {1.3521, 103.8198},
+            {25.2048, 55.2708}, {51.5072, -0.1276}, {40.7128, -74.006}, {41.8781, -87.6298},
+            {-33.8688, 151.2093}, {35.6762, 139.6503}, {-23.5505, -46.6333}, {52.52, 13.405}};
+
+    private final double[][] venues;
+    private final double[] cumulativePopularity;
+    private final LocalDate today;
+
+    /**
+     * @param venueCount distinct venues; more venues means more distinct forecast cells and a lower cache hit rate
+     */
+    Workload(int venueCount, LocalDate today, long seed) {
+        if (venueCount <= 0) {
+            throw new IllegalArgumentException("Venue count must be positive, got " + venueCount);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        this.venues = new double[venueCount][];
+        this.cumulativePopularity = new double[venueCount];
+        this.today = today;
+        double total = 0;
+        for (int i = 0; i < venueCount; i++) {
+            double[] city = CITIES[i % CITIES.length];
+            // Within about 30 km of the city centre, i.e. across a few dozen 0.1° grid cells
+            venues[i] = new double[]{city[0] + random.nextDouble(-0.3, 0.3), city[1] + random.nextDouble(-0.3, 0.3)};
+            total += 1.0 / (i + 1);
+            cumulativePopularity[i] = total;
+        }
+        for (int i = 0; i < venueCount; i++) {
+            cumulativePopularity[i] /= total;
+        }
+    }
+
+    String nextRequest(SplittableRandom random) {
+        double[] venue = venues[venue(random.nextDouble())];
+        LocalDateTime start = today.plusDays(dayOffset(random)).atTime(8 + random.nextInt(14), 0);
+        LocalDateTime end = start.plusHours(durationHours(random));
+        return String.format(Locale.ROOT, """
+                {"name": "Load test event", "location": {"latitude": %.4f, "longitude": %.4f},
+                 "start_time": "%s", "end_time": "%s"}""",
+                venue[0], venue[1], start, end);
+    }
+
+    private int venue(double draw) {
+        int low = 0;
+        int high = cumulativePopularity.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulativePopularity[mid] < draw) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Mostly this week, thinning out towards the end of the 16-day forecast range. */
+    private static int dayOffset(SplittableRandom random) {
+        return Math.min(15, (int) Math.floor(-Math.log(1 - random.nextDouble()) * 4));
+    }
+
+    private static int durationHours(SplittableRandom random) {
+        double draw = random.nextDouble();
+        if (draw < 0.7) {
+            return 2 + random.nextInt(3);
+        }
+        if (draw < 0.9) {
+            return 5 + random.nextInt(6);
+        }
+        return 24 * (1 + random.nextInt(3));
+    }
+}
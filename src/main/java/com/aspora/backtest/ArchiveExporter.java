@@ -0,0 +1,121 @@
+package com.aspora.backtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads observed hourly weather for a list of venues from Open-Meteo's historical archive
+ * API, several venues per call, into a {@link HistoricalWeather} on a UTC hour axis. The archive
+ * reports precipitation amounts rather than probabilities, so an hour with at least
+ * {@link #WET_HOUR_MM} of precipitation counts as a 100% rain probability and any other hour as 0%;
+ * a source that does report {@code precipitation_probability} is used as is.
+ */
+public final class ArchiveExporter {
+
+    public static final String DEFAULT_BASE_URL = "https://archive-api.open-meteo.com/v1";
+
+    static final int VENUES_PER_REQUEST = 50;
+    static final double WET_HOUR_MM = 0.1;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    public ArchiveExporter(HttpClient client, ObjectMapper objectMapper, String baseUrl) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+    }
+
+    /** Exports every hour of the days {@code from} to {@code to}, both inclusive, for each {latitude, longitude}. */
+    public HistoricalWeather export(List<double[]> venues, LocalDate from, LocalDate to)
+            throws IOException, InterruptedException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Export end date " + to + " is before its start " + from);
+        }
+        LocalDateTime start = from.atStartOfDay();
+        int hours = (int) Duration.between(start, to.plusDays(1).atStartOfDay()).toHours();
+        HistoricalWeather.Builder builder = HistoricalWeather.builder(start, hours);
+        for (int first = 0; first < venues.size(); first += VENUES_PER_REQUEST) {
+            List<double[]> chunk = venues.subList(first, Math.min(first + VENUES_PER_REQUEST, venues.size()));
+            JsonNode body = fetch(chunk, from, to);
+            List<JsonNode> locations = new ArrayList<>();
+            if (body.isArray()) {
+                body.forEach(locations::add);
+            } else {
+                locations.add(body);
+            }
+            if (locations.size() != chunk.size()) {
+                throw new IOException("Archive answered " + locations.size() + " locations for " + chunk.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                addVenue(builder, chunk.get(i), locations.get(i).path("hourly"), start, hours);
+            }
+        }
+        return builder.build();
+    }
+
+    private JsonNode fetch(List<double[]> venues, LocalDate from, LocalDate to)
+            throws IOException, InterruptedException {
+        String latitudes = venues.stream().map(venue -> String.valueOf(venue[0])).collect(Collectors.joining(","));
+        String longitudes = venues.stream().map(venue -> String.valueOf(venue[1])).collect(Collectors.joining(","));
+        URI uri = URI.create(baseUrl + "/archive?latitude=" + latitudes + "&longitude=" + longitudes
+                + "&start_date=" + from + "&end_date=" + to
+                + "&hourly=weather_code,wind_speed_10m,precipitation&timezone=GMT");
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(2)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("Archive request failed with " + response.statusCode() + ": "
+                    + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void addVenue(HistoricalWeather.Builder builder, double[] venue, JsonNode hourly,
+                                 LocalDateTime start, int hours) {
+        int[] weatherCode = new int[hours];
+        double[] windSpeed = new double[hours];
+        int[] precipitationProbability = new int[hours];
+        Arrays.fill(weatherCode, -1);
+        Arrays.fill(windSpeed, Double.NaN);
+
+        JsonNode time = hourly.path("time");
+        JsonNode codes = hourly.path("weather_code");
+        JsonNode winds = hourly.path("wind_speed_10m");
+        JsonNode probabilities = hourly.path("precipitation_probability");
+        JsonNode amounts = hourly.path("precipitation");
+        for (int i = 0; i < time.size(); i++) {
+            long hour = Duration.between(start, LocalDateTime.parse(time.get(i).asText())).toHours();
+            if (hour < 0 || hour >= hours) {
+                continue;
+            }
+            int index = (int) hour;
+            if (codes.path(i).isNumber()) {
+                weatherCode[index] = codes.get(i).asInt();
+            }
+            if (winds.path(i).isNumber()) {
+                windSpeed[index] = winds.get(i).asDouble();
+            }
+            if (probabilities.path(i).isNumber()) {
+                precipitationProbability[index] = probabilities.get(i).asInt();
+            } else if (amounts.path(i).isNumber()) {
+                precipitationProbability[index] = amounts.get(i).asDouble() >= WET_HOUR_MM ? 100 : 0;
+            }
+        }
+        builder.venue(venue[0], venue[1], weatherCode, windSpeed, precipitationProbability);
+    }
+}
@@ -0,0 +1,149 @@
+package com.aspora.backtest;
+
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry to the backtesting engine. Exports historical weather for a list of venues
+ * once, then replays event windows over it under the configured classification profiles, printing
+ * the outcome and writing it to {@code target/backtest-result.json}.
+ *
+ * <pre>
+ * mvn -Pbacktest verify -Dbacktest.args="--export --venues=venues.csv --from=2021-01-01 --to=2025-12-31"
+ * mvn -Pbacktest verify -Dbacktest.args="--rules=candidate-rules.yml --windows=3h,6h,12h --stride=1h"
+ * </pre>
+ *
+ * Options (defaults in brackets): {@code --data} the historical weather file [target/history.wx];
+ * with {@code --export}: {@code --venues} CSV of latitude,longitude, {@code --from}, {@code --to}
+ * dates, {@code --archive-url} [{@value ArchiveExporter#DEFAULT_BASE_URL}]; otherwise
+ * {@code --rules} a YAML file in the {@code classification.*} layout whose default rules are the
+ * baseline and whose profiles are compared against it [built-in rules], {@code --windows} lengths
+ * to sweep [3h,6h,12h], {@code --stride} between sweep starts [1h], {@code --events} CSV of
+ * latitude,longitude,start_time,end_time (UTC) to replay instead of a sweep,
+ * {@code --parallelism} [all cores], {@code --output} [target/backtest-result.json].
+ */
+public final class Backtest {
+
+    private Backtest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--export")) {
+                options.put("export", "true");
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+        }
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        Path data = Path.of(options.getOrDefault("data", "target/history.wx"));
+
+        if (options.containsKey("export")) {
+            List<double[]> venues = readCsv(Path.of(required(options, "venues"))).stream()
+                    .map(row -> new double[]{Double.parseDouble(row[0]), Double.parseDouble(row[1])})
+                    .toList();
+            ArchiveExporter exporter = new ArchiveExporter(HttpClient.newHttpClient(), objectMapper,
+                    options.getOrDefault("archive-url", ArchiveExporter.DEFAULT_BASE_URL));
+            HistoricalWeather weather = exporter.export(venues, LocalDate.parse(required(options, "from")),
+                    LocalDate.parse(required(options, "to")));
+            Files.createDirectories(data.toAbsolutePath().getParent());
+            HistoricalWeatherFile.write(weather, data);
+            System.out.printf("Exported %d venues of %d hours to %s%n", weather.venueCount(), weather.hours(), data);
+            return;
+        }
+
+        HistoricalWeather weather = HistoricalWeatherFile.read(data);
+        List<CompiledRules> ruleSets = new ArrayList<>(rules(options.get("rules")).allRules());
+        BacktestWindows windows;
+        if (options.containsKey("events")) {
+            List<BacktestWindows.Event> events = readCsv(Path.of(options.get("events"))).stream()
+                    .map(row -> new BacktestWindows.Event(Double.parseDouble(row[0]), Double.parseDouble(row[1]),
+                            LocalDateTime.parse(row[2]), LocalDateTime.parse(row[3])))
+                    .toList();
+            windows = BacktestWindows.events(weather, events);
+        } else {
+            int[] lengths = List.of(options.getOrDefault("windows", "3h,6h,12h").split(",")).stream()
+                    .mapToInt(Backtest::wholeHours)
+                    .toArray();
+            windows = BacktestWindows.sweep(weather.hours(), lengths, wholeHours(options.getOrDefault("stride", "1h")));
+        }
+
+        BacktestReport report;
+        try (BacktestEngine engine = new BacktestEngine(Integer.parseInt(options.getOrDefault("parallelism", "0")))) {
+            report = engine.run(weather, ruleSets, windows);
+        }
+        System.out.print(report.describe());
+        Path output = Path.of(options.getOrDefault("output", "target/backtest-result.json"));
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        objectMapper.writeValue(output.toFile(), report);
+        System.out.println("Report written to " + output.toAbsolutePath());
+    }
+
+    private static ClassificationRulesRegistry rules(String rulesFile) {
+        ClassificationProperties properties = new ClassificationProperties();
+        if (rulesFile != null) {
+            if (!Files.isReadable(Path.of(rulesFile))) {
+                throw new IllegalArgumentException("Cannot read rules file " + rulesFile);
+            }
+            properties.setRulesFile(rulesFile);
+        }
+        return new ClassificationRulesRegistry(properties);
+    }
+
+    private static int wholeHours(String value) {
+        Duration duration = DurationStyle.detectAndParse(value.trim());
+        if (duration.isNegative() || duration.isZero() || duration.toSeconds() % 3600 != 0) {
+            throw new IllegalArgumentException("Expected a positive whole number of hours, got " + value);
+        }
+        return (int) duration.toHours();
+    }
+
+    /** Rows of a comma-separated file, skipping blank lines and a header whose first cell is not a number. */
+    private static List<String[]> readCsv(Path path) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] cells = line.split(",");
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = cells[i].trim();
+            }
+            if (rows.isEmpty() && !cells[0].matches("-?[0-9.]+")) {
+                continue;
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,213 @@
+package com.aspora.backtest;
+
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.Rule;
+import com.aspora.rules.Severity;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays event windows over historical weather through one or more compiled rule sets. For each
+ * venue the rules are evaluated once per hour and turned into a running count of hours per rule,
+ * so whether a rule fired anywhere in a window is one subtraction however long the window is.
+ * Venues, and windows within a venue, are split across a dedicated fork-join pool; each task
+ * tallies into its own {@link Tally} and tallies are summed on the way back up.
+ */
+public final class BacktestEngine implements AutoCloseable {
+
+    /** Windows replayed by one task before it stops splitting. */
+    static final int WINDOWS_PER_TASK = 16_384;
+
+    private static final int RULES = Rule.values().length;
+    private static final Severity[] SEVERITIES = Severity.values();
+
+    private final ForkJoinPool pool;
+
+    public BacktestEngine(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Classifies every window with every rule set. The first rule set is the baseline that the
+     * others' shifts are reported against.
+     */
+    public BacktestReport run(HistoricalWeather weather, List<CompiledRules> ruleSets, BacktestWindows windows) {
+        if (ruleSets.isEmpty()) {
+            throw new IllegalArgumentException("A backtest needs at least one rule set");
+        }
+        CompiledRules[] rules = ruleSets.toArray(CompiledRules[]::new);
+        long started = System.nanoTime();
+        Tally tally = pool.invoke(new Venues(weather, rules, windows, 0, weather.venueCount()));
+        return BacktestReport.of(weather, ruleSets, windows, tally, System.nanoTime() - started, parallelism());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Per rule set: windows per severity, windows in which each rule fired, windows in which each
+     * rule was the only one of the winning severity, and windows moved from each baseline
+     * severity to each severity.
+     */
+    static final class Tally {
+
+        static final int SEVERITY_OFFSET = 0;
+        static final int RULE_OFFSET = SEVERITY_OFFSET + 3;
+        static final int SOLE_OFFSET = RULE_OFFSET + RULES;
+        static final int SHIFT_OFFSET = SOLE_OFFSET + RULES;
+        static final int STRIDE = SHIFT_OFFSET + 9;
+
+        final long[] counts;
+
+        Tally(int ruleSets) {
+            this.counts = new long[ruleSets * STRIDE];
+        }
+
+        long severity(int ruleSet, Severity severity) {
+            return counts[ruleSet * STRIDE + SEVERITY_OFFSET + severity.ordinal()];
+        }
+
+        long ruleHits(int ruleSet, Rule rule) {
+            return counts[ruleSet * STRIDE + RULE_OFFSET + rule.ordinal()];
+        }
+
+        long soleCause(int ruleSet, Rule rule) {
+            return counts[ruleSet * STRIDE + SOLE_OFFSET + rule.ordinal()];
+        }
+
+        long shift(int ruleSet, Severity from, Severity to) {
+            return counts[ruleSet * STRIDE + SHIFT_OFFSET + from.ordinal() * 3 + to.ordinal()];
+        }
+
+        Tally add(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Running hour counts per rule set and rule for one venue: {@code hits[r][h]} is the number of
+     * hours before {@code h} in which rule {@code r % RULES} of rule set {@code r / RULES} fired.
+     */
+    static int[][] runningCounts(HistoricalWeather weather, CompiledRules[] rules, int venue) {
+        int hours = weather.hours();
+        int[][] hits = new int[rules.length * RULES][hours + 1];
+        for (int hour = 0; hour < hours; hour++) {
+            int weatherCode = weather.weatherCode(venue, hour);
+            double windSpeed = weather.windSpeed(venue, hour);
+            int precipitationProbability = weather.precipitationProbability(venue, hour);
+            for (int set = 0; set < rules.length; set++) {
+                int mask = rules[set].evaluate(weatherCode, windSpeed, precipitationProbability);
+                for (int rule = 0; rule < RULES; rule++) {
+                    int[] counts = hits[set * RULES + rule];
+                    counts[hour + 1] = counts[hour] + ((mask >>> rule) & 1);
+                }
+            }
+        }
+        return hits;
+    }
+
+    /** Splits a range of venues down to one, which then replays its windows. */
+    private static final class Venues extends RecursiveTask<Tally> {
+
+        private final HistoricalWeather weather;
+        private final CompiledRules[] rules;
+        private final BacktestWindows windows;
+        private final int from;
+        private final int to;
+
+        Venues(HistoricalWeather weather, CompiledRules[] rules, BacktestWindows windows, int from, int to) {
+            this.weather = weather;
+            this.rules = rules;
+            this.windows = windows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Venues right = new Venues(weather, rules, windows, middle, to);
+                right.fork();
+                Tally left = new Venues(weather, rules, windows, from, middle).compute();
+                return left.add(right.join());
+            }
+            if (to == from || windows.count(from) == 0) {
+                return new Tally(rules.length);
+            }
+            int[][] hits = runningCounts(weather, rules, from);
+            return new Windows(windows, hits, rules.length, from, 0, windows.count(from)).compute();
+        }
+    }
+
+    /** Replays windows {@code [from, to)} of one venue, splitting in halves down to {@link #WINDOWS_PER_TASK}. */
+    private static final class Windows extends RecursiveTask<Tally> {
+
+        private final BacktestWindows windows;
+        private final int[][] hits;
+        private final int ruleSets;
+        private final int venue;
+        private final int from;
+        private final int to;
+
+        Windows(BacktestWindows windows, int[][] hits, int ruleSets, int venue, int from, int to) {
+            this.windows = windows;
+            this.hits = hits;
+            this.ruleSets = ruleSets;
+            this.venue = venue;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > WINDOWS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Windows right = new Windows(windows, hits, ruleSets, venue, middle, to);
+                right.fork();
+                Tally left = new Windows(windows, hits, ruleSets, venue, from, middle).compute();
+                return left.add(right.join());
+            }
+            Tally tally = new Tally(ruleSets);
+            long[] counts = tally.counts;
+            for (int index = from; index < to; index++) {
+                int start = windows.start(venue, index);
+                int end = start + windows.length(venue, index);
+                int baseline = 0;
+                for (int set = 0; set < ruleSets; set++) {
+                    int base = set * Tally.STRIDE;
+                    int mask = 0;
+                    for (int rule = 0; rule < RULES; rule++) {
+                        int[] running = hits[set * RULES + rule];
+                        if (running[end] != running[start]) {
+                            mask |= 1 << rule;
+                            counts[base + Tally.RULE_OFFSET + rule]++;
+                        }
+                    }
+                    int severity = Rule.severityOf(mask).ordinal();
+                    counts[base + Tally.SEVERITY_OFFSET + severity]++;
+                    int tier = mask & Rule.maskOf(SEVERITIES[severity]);
+                    if (tier != 0 && (tier & (tier - 1)) == 0) {
+                        counts[base + Tally.SOLE_OFFSET + Integer.numberOfTrailingZeros(tier)]++;
+                    }
+                    if (set == 0) {
+                        baseline = severity;
+                    }
+                    counts[base + Tally.SHIFT_OFFSET + baseline * 3 + severity]++;
+                }
+            }
+            return tally;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.aspora.backtest;
+
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.Rule;
+import com.aspora.rules.Severity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of one backtest: how the replayed windows were classified under each rule set, which
+ * rules fired, and how each rule set moved windows relative to the first (baseline) one.
+ */
+public record BacktestReport(@JsonProperty("venues") int venues,
+                             @JsonProperty("from") LocalDateTime from,
+                             @JsonProperty("to") LocalDateTime to,
+                             @JsonProperty("windows") long windows,
+                             @JsonProperty("skipped_windows") long skippedWindows,
+                             @JsonProperty("elapsed_ms") double elapsedMillis,
+                             @JsonProperty("windows_per_second") double windowsPerSecond,
+                             @JsonProperty("parallelism") int parallelism,
+                             @JsonProperty("rule_sets") List<RuleSetOutcome> ruleSets) {
+
+    /**
+     * Windows per classification label; windows in which each rule fired anywhere; windows in
+     * which each rule alone decided the classification; and, except for the baseline, windows per
+     * baseline label moved to each label.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record RuleSetOutcome(@JsonProperty("profile") String profile,
+                                 @JsonProperty("classifications") Map<String, Long> classifications,
+                                 @JsonProperty("rule_hits") Map<String, Long> ruleHits,
+                                 @JsonProperty("sole_cause") Map<String, Long> soleCause,
+                                 @JsonProperty("shift_from_baseline") Map<String, Map<String, Long>> shiftFromBaseline) {
+    }
+
+    static BacktestReport of(HistoricalWeather weather, List<CompiledRules> rules, BacktestWindows windows,
+                             BacktestEngine.Tally tally, long elapsedNanos, int parallelism) {
+        long total = 0;
+        for (Severity severity : Severity.values()) {
+            total += tally.severity(0, severity);
+        }
+        List<RuleSetOutcome> outcomes = new ArrayList<>();
+        for (int set = 0; set < rules.size(); set++) {
+            Map<String, Long> classifications = new LinkedHashMap<>();
+            for (Severity severity : Severity.values()) {
+                classifications.put(severity.label(), tally.severity(set, severity));
+            }
+            Map<String, Long> ruleHits = new LinkedHashMap<>();
+            Map<String, Long> soleCause = new LinkedHashMap<>();
+            for (Rule rule : Rule.values()) {
+                ruleHits.put(name(rule), tally.ruleHits(set, rule));
+                soleCause.put(name(rule), tally.soleCause(set, rule));
+            }
+            Map<String, Map<String, Long>> shifts = null;
+            if (set > 0) {
+                shifts = new LinkedHashMap<>();
+                for (Severity from : Severity.values()) {
+                    Map<String, Long> to = new LinkedHashMap<>();
+                    for (Severity severity : Severity.values()) {
+                        to.put(severity.label(), tally.shift(set, from, severity));
+                    }
+                    shifts.put(from.label(), to);
+                }
+            }
+            outcomes.add(new RuleSetOutcome(rules.get(set).profile(), classifications, ruleHits, soleCause, shifts));
+        }
+        double elapsedMillis = elapsedNanos / 1e6;
+        return new BacktestReport(weather.venueCount(), weather.start(), weather.start().plusHours(weather.hours()),
+                total, windows.skipped(), Math.round(elapsedMillis * 100) / 100d,
+                elapsedNanos == 0 ? 0 : Math.round(total * 1e9 / elapsedNanos), parallelism, outcomes);
+    }
+
+    private static String name(Rule rule) {
+        return rule.name().toLowerCase(Locale.ROOT);
+    }
+
+    public String describe() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+                "Replayed %,d windows at %d venues from %s to %s in %.0f ms (%,.0f windows/s on %d threads)%n",
+                windows, venues, from, to, elapsedMillis, windowsPerSecond, parallelism));
+        if (skippedWindows > 0) {
+            text.append(String.format(Locale.ROOT, "Skipped %,d events outside the data%n", skippedWindows));
+        }
+        for (RuleSetOutcome outcome : ruleSets) {
+            text.append(String.format(Locale.ROOT, "%n%s%n", outcome.profile()));
+            outcome.classifications().forEach((label, count) -> text.append(String.format(Locale.ROOT,
+                    "  %-7s %,14d  %5.1f%%%n", label, count, percent(count))));
+            text.append(String.format(Locale.ROOT, "  %-22s %14s %14s%n", "rule", "fired in", "sole cause"));
+            outcome.ruleHits().forEach((rule, hits) -> text.append(String.format(Locale.ROOT,
+                    "  %-22s %,14d %,14d%n", rule, hits, outcome.soleCause().get(rule))));
+            if (outcome.shiftFromBaseline() != null) {
+                text.append("  versus ").append(ruleSets.get(0).profile()).append(':');
+                outcome.shiftFromBaseline().forEach((fromLabel, moved) -> moved.forEach((toLabel, count) -> {
+                    if (!fromLabel.equals(toLabel) && count > 0) {
+                        text.append(String.format(Locale.ROOT, " %s->%s %,d", fromLabel, toLabel, count));
+                    }
+                }));
+                text.append(String.format("%n"));
+            }
+        }
+        return text.toString();
+    }
+
+    private double percent(long count) {
+        return windows == 0 ? 0 : 100.0 * count / windows;
+    }
+}
@@ -0,0 +1,161 @@
+package com.aspora.backtest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The event windows to replay, per venue of a {@link HistoricalWeather}, as hour index ranges
+ * {@code [start, start + length)}. Either a sweep of every window of some lengths across the
+ * whole period, or a list of real past events.
+ */
+public abstract class BacktestWindows {
+
+    public abstract int count(int venue);
+
+    public abstract int start(int venue, int index);
+
+    public abstract int length(int venue, int index);
+
+    /** Windows that could not be placed in the data, such as events outside its period. */
+    public long skipped() {
+        return 0;
+    }
+
+    public long total(int venues) {
+        long total = 0;
+        for (int venue = 0; venue < venues; venue++) {
+            total += count(venue);
+        }
+        return total;
+    }
+
+    /**
+     * Every window of each of {@code lengths} hours starting every {@code stride} hours within
+     * {@code hours}, the same for every venue.
+     */
+    public static BacktestWindows sweep(int hours, int[] lengths, int stride) {
+        return new Sweep(hours, lengths, stride);
+    }
+
+    /** Past events placed at their nearest venue; events not fully inside the data are skipped. */
+    public static BacktestWindows events(HistoricalWeather weather, List<Event> events) {
+        return new Events(weather, events);
+    }
+
+    public record Event(double latitude, double longitude, LocalDateTime startTime, LocalDateTime endTime) {
+    }
+
+    private static final class Sweep extends BacktestWindows {
+
+        private final int[] lengths;
+        private final int stride;
+        /** Windows before each length's first one, so an index maps to a length by binary search. */
+        private final int[] firstIndex;
+        private final int count;
+
+        Sweep(int hours, int[] lengths, int stride) {
+            if (stride <= 0 || lengths.length == 0) {
+                throw new IllegalArgumentException("A window sweep needs a positive stride and at least one length");
+            }
+            this.lengths = lengths.clone();
+            this.stride = stride;
+            this.firstIndex = new int[lengths.length];
+            long count = 0;
+            for (int i = 0; i < lengths.length; i++) {
+                if (lengths[i] <= 0) {
+                    throw new IllegalArgumentException("Window lengths must be positive: " + lengths[i]);
+                }
+                firstIndex[i] = (int) count;
+                count += lengths[i] > hours ? 0 : (hours - lengths[i]) / stride + 1;
+            }
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many windows per venue: " + count);
+            }
+            this.count = (int) count;
+        }
+
+        @Override
+        public int count(int venue) {
+            return count;
+        }
+
+        @Override
+        public int start(int venue, int index) {
+            return (index - firstIndex[group(index)]) * stride;
+        }
+
+        @Override
+        public int length(int venue, int index) {
+            return lengths[group(index)];
+        }
+
+        private int group(int index) {
+            int found = Arrays.binarySearch(firstIndex, index);
+            if (found < 0) {
+                return -found - 2;
+            }
+            // Lengths longer than the period contribute no windows and share the next group's first index
+            while (found + 1 < firstIndex.length && firstIndex[found + 1] == index) {
+                found++;
+            }
+            return found;
+        }
+    }
+
+    private static final class Events extends BacktestWindows {
+
+        private final int[][] starts;
+        private final int[][] lengths;
+        private final long skipped;
+
+        Events(HistoricalWeather weather, List<Event> events) {
+            int venues = weather.venueCount();
+            List<List<int[]>> byVenue = new ArrayList<>(venues);
+            for (int venue = 0; venue < venues; venue++) {
+                byVenue.add(new ArrayList<>());
+            }
+            long skipped = 0;
+            for (Event event : events) {
+                long start = weather.hourIndex(event.startTime());
+                // An event ending mid-hour still covers that hour
+                long end = weather.hourIndex(event.endTime().minusNanos(1)) + 1;
+                if (venues == 0 || start < 0 || end > weather.hours() || end <= start) {
+                    skipped++;
+                    continue;
+                }
+                byVenue.get(weather.nearestVenue(event.latitude(), event.longitude()))
+                        .add(new int[]{(int) start, (int) (end - start)});
+            }
+            this.starts = new int[venues][];
+            this.lengths = new int[venues][];
+            for (int venue = 0; venue < venues; venue++) {
+                List<int[]> windows = byVenue.get(venue);
+                starts[venue] = windows.stream().mapToInt(window -> window[0]).toArray();
+                lengths[venue] = windows.stream().mapToInt(window -> window[1]).toArray();
+            }
+            this.skipped = skipped;
+        }
+
+        @Override
+        public int count(int venue) {
+            return starts[venue].length;
+        }
+
+        @Override
+        public int start(int venue, int index) {
+            return starts[venue][index];
+        }
+
+        @Override
+        public int length(int venue, int index) {
+            return lengths[venue][index];
+        }
+
+        @Override
+        public long skipped() {
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.aspora.backtest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Observed hourly weather for many venues over one shared UTC hour axis, held as flat columns in
+ * venue-major order: hour {@code h} of venue {@code v} is at {@code v * hours() + h}. Weather
+ * codes and rain probabilities fit a byte each and wind speeds a float, so five years of one
+ * venue take about 260 KB. A missing hour has weather code -1 and wind speed NaN, which no rule
+ * matches.
+ */
+public final class HistoricalWeather {
+
+    private final LocalDateTime start;
+    private final int hours;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final byte[] weatherCodes;
+    private final float[] windSpeeds;
+    private final byte[] precipitationProbabilities;
+
+    HistoricalWeather(LocalDateTime start, int hours, double[] latitudes, double[] longitudes,
+                      byte[] weatherCodes, float[] windSpeeds, byte[] precipitationProbabilities) {
+        long cells = (long) latitudes.length * hours;
+        if (longitudes.length != latitudes.length || weatherCodes.length != cells
+                || windSpeeds.length != cells || precipitationProbabilities.length != cells) {
+            throw new IllegalArgumentException("Historical weather columns do not match " + latitudes.length
+                    + " venues of " + hours + " hours");
+        }
+        this.start = start;
+        this.hours = hours;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.weatherCodes = weatherCodes;
+        this.windSpeeds = windSpeeds;
+        this.precipitationProbabilities = precipitationProbabilities;
+    }
+
+    public static Builder builder(LocalDateTime start, int hours) {
+        return new Builder(start, hours);
+    }
+
+    /** UTC hour of hour index 0. */
+    public LocalDateTime start() {
+        return start;
+    }
+
+    public int hours() {
+        return hours;
+    }
+
+    public int venueCount() {
+        return latitudes.length;
+    }
+
+    public double latitude(int venue) {
+        return latitudes[venue];
+    }
+
+    public double longitude(int venue) {
+        return longitudes[venue];
+    }
+
+    public int weatherCode(int venue, int hour) {
+        return weatherCodes[venue * hours + hour];
+    }
+
+    public double windSpeed(int venue, int hour) {
+        return windSpeeds[venue * hours + hour];
+    }
+
+    public int precipitationProbability(int venue, int hour) {
+        return precipitationProbabilities[venue * hours + hour];
+    }
+
+    /** Index of the hour containing {@code time}, which may lie outside {@code [0, hours())}. */
+    public long hourIndex(LocalDateTime time) {
+        return Math.floorDiv(Duration.between(start, time).getSeconds(), 3600);
+    }
+
+    /** The venue closest to the given point by great-circle distance. */
+    public int nearestVenue(double latitude, double longitude) {
+        int nearest = -1;
+        double best = Double.MAX_VALUE;
+        for (int venue = 0; venue < latitudes.length; venue++) {
+            double distance = distanceKm(latitude, longitude, latitudes[venue], longitudes[venue]);
+            if (distance < best) {
+                best = distance;
+                nearest = venue;
+            }
+        }
+        return nearest;
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    byte[] weatherCodes() {
+        return weatherCodes;
+    }
+
+    float[] windSpeeds() {
+        return windSpeeds;
+    }
+
+    byte[] precipitationProbabilities() {
+        return precipitationProbabilities;
+    }
+
+    /** Collects venues one at a time; every venue covers the same {@code hours} from {@code start}. */
+    public static final class Builder {
+
+        private final LocalDateTime start;
+        private final int hours;
+        private final List<double[]> locations = new ArrayList<>();
+        private final List<int[]> weatherCodes = new ArrayList<>();
+        private final List<double[]> windSpeeds = new ArrayList<>();
+        private final List<int[]> precipitationProbabilities = new ArrayList<>();
+
+        private Builder(LocalDateTime start, int hours) {
+            if (hours <= 0) {
+                throw new IllegalArgumentException("Historical weather needs at least one hour");
+            }
+            this.start = start;
+            this.hours = hours;
+        }
+
+        public Builder venue(double latitude, double longitude, int[] weatherCode, double[] windSpeed,
+                             int[] precipitationProbability) {
+            if (weatherCode.length != hours || windSpeed.length != hours || precipitationProbability.length != hours) {
+                throw new IllegalArgumentException("Venue at " + latitude + "," + longitude + " does not cover "
+                        + hours + " hours");
+            }
+            locations.add(new double[]{latitude, longitude});
+            this.weatherCodes.add(weatherCode);
+            this.windSpeeds.add(windSpeed);
+            this.precipitationProbabilities.add(precipitationProbability);
+            return this;
+        }
+
+        public HistoricalWeather build() {
+            int venues = locations.size();
+            if ((long) venues * hours > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(venues + " venues of " + hours + " hours exceed one dataset");
+            }
+            double[] latitudes = new double[venues];
+            double[] longitudes = new double[venues];
+            byte[] codes = new byte[venues * hours];
+            float[] winds = new float[venues * hours];
+            byte[] probabilities = new byte[venues * hours];
+            for (int venue = 0; venue < venues; venue++) {
+                latitudes[venue] = locations.get(venue)[0];
+                longitudes[venue] = locations.get(venue)[1];
+                int offset = venue * hours;
+                for (int hour = 0; hour < hours; hour++) {
+                    codes[offset + hour] = (byte) weatherCodes.get(venue)[hour];
+                    winds[offset + hour] = (float) windSpeeds.get(venue)[hour];
+                    probabilities[offset + hour] = (byte) precipitationProbabilities.get(venue)[hour];
+                }
+            }
+            return new HistoricalWeather(start, hours, latitudes, longitudes, codes, winds, probabilities);
+        }
+    }
+}
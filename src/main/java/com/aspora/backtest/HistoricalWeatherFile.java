@@ -0,0 +1,95 @@
+package com.aspora.backtest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Columnar file form of {@link HistoricalWeather}. A header with the hour axis and venue count
+ * is followed by the venue coordinates and then one column per variable, each covering every
+ * venue back to back: weather codes as bytes, wind speeds as floats, rain probabilities as bytes.
+ * Reading maps the file and fills each column with one bulk copy.
+ */
+public final class HistoricalWeatherFile {
+
+    private static final int MAGIC = 0x41575848;
+    private static final byte VERSION = 1;
+
+    static final int HEADER_SIZE = 4 + 1 + 8 + 4 + 4;
+
+    private HistoricalWeatherFile() {
+    }
+
+    public static void write(HistoricalWeather weather, Path path) throws IOException {
+        int venues = weather.venueCount();
+        int cells = venues * weather.hours();
+        long size = HEADER_SIZE + venues * 16L + cells * (1L + 4 + 1);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Historical weather of " + size + " bytes does not fit one file");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.putLong(weather.start().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(weather.hours());
+        buffer.putInt(venues);
+        for (int venue = 0; venue < venues; venue++) {
+            buffer.putDouble(weather.latitude(venue));
+            buffer.putDouble(weather.longitude(venue));
+        }
+        buffer.put(weather.weatherCodes());
+        buffer.asFloatBuffer().put(weather.windSpeeds());
+        buffer.position(buffer.position() + cells * 4);
+        buffer.put(weather.precipitationProbabilities());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static HistoricalWeather read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException(path + " is not a historical weather file");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported historical weather file version " + version
+                        + " in " + path);
+            }
+            LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+            int hours = buffer.getInt();
+            int venues = buffer.getInt();
+            long cells = (long) venues * hours;
+            if (hours <= 0 || venues < 0 || buffer.remaining() != venues * 16L + cells * (1 + 4 + 1)) {
+                throw new IllegalArgumentException(path + " is truncated or corrupt");
+            }
+
+            double[] latitudes = new double[venues];
+            double[] longitudes = new double[venues];
+            for (int venue = 0; venue < venues; venue++) {
+                latitudes[venue] = buffer.getDouble();
+                longitudes[venue] = buffer.getDouble();
+            }
+            byte[] weatherCodes = new byte[(int) cells];
+            float[] windSpeeds = new float[(int) cells];
+            byte[] precipitationProbabilities = new byte[(int) cells];
+            buffer.get(weatherCodes);
+            buffer.asFloatBuffer().get(windSpeeds);
+            buffer.position(buffer.position() + (int) cells * 4);
+            buffer.get(precipitationProbabilities);
+            return new HistoricalWeather(start, hours, latitudes, longitudes, weatherCodes, windSpeeds,
+                    precipitationProbabilities);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.aspora.cache;
+
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.store.ForecastStore;
+import com.aspora.store.StoredForecast;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of upstream forecasts. Entries are evicted least-recently-used
+ * once {@code openmeteo.cache.max-size} is reached and expire as soon as the upstream model
+ * publishes a new run, so a cached forecast is never older than the data Open-Meteo would serve.
+ * Expired entries stay in place until replaced or evicted, as the last known good copy to fall
+ * back on while the upstream is unavailable.
+ *
+ * <p>This is the near tier of the {@link com.aspora.store.TieredForecastStore}: every read is tried
+ * here before any store shared with other instances.
+ */
+@Component
+public class ForecastCache implements ForecastStore, MeterBinder {
+
+    public static final String TIER = "near";
+
+    private final int maxSize;
+    private final double gridResolution;
+    private final Duration windowGranularity;
+    private final ModelRunSchedule modelRunSchedule;
+    private final Map<ForecastKey, CachedForecast> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ForecastCache(@Value("${openmeteo.cache.max-size:10000}") int maxSize,
+                         @Value("${openmeteo.cache.grid-resolution:0.1}") double gridResolution,
+                         @Value("${openmeteo.cache.window-granularity:6h}") Duration windowGranularity,
+                         ModelRunSchedule modelRunSchedule) {
+        ForecastKey.blockHours(windowGranularity);
+        this.maxSize = maxSize;
+        this.gridResolution = gridResolution;
+        this.windowGranularity = windowGranularity;
+        this.modelRunSchedule = modelRunSchedule;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ForecastKey, CachedForecast> eldest) {
+                if (size() > ForecastCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public ForecastKey keyFor(EventRequest request) {
+        return ForecastKey.of(request, gridResolution, windowGranularity);
+    }
+
+    public ForecastKey keyFor(double latitude, double longitude, LocalDateTime startTime, LocalDateTime endTime) {
+        return ForecastKey.of(latitude, longitude, startTime, endTime, gridResolution, windowGranularity);
+    }
+
+    public ForecastFrame get(ForecastKey key) {
+        if (!isEnabled()) {
+            misses.increment();
+            return null;
+        }
+        Instant currentRun = modelRunSchedule.currentRun();
+        synchronized (entries) {
+            CachedForecast entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.expired() || entry.modelRun().isBefore(currentRun)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.forecast();
+        }
+    }
+
+    /**
+     * Stores a forecast fetched now under the current model run and returns it labelled with that
+     * run, as {@link #get} will return it. Returns the forecast as given when the cache is disabled.
+     */
+    public ForecastFrame put(ForecastKey key, ForecastFrame forecast) {
+        if (!isEnabled()) {
+            return forecast;
+        }
+        Instant modelRun = modelRunSchedule.currentRun();
+        CachedForecast entry = new CachedForecast(forecast.withModelRun(modelRun), modelRun,
+                modelRunSchedule.now(), false);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+        return entry.forecast();
+    }
+
+    /**
+     * Re-inserts a forecast persisted by an earlier process with its original model run and fetch
+     * time, so it is served as fresh only while that run is current and as stale after.
+     */
+    public void restore(ForecastKey key, ForecastFrame forecast, Instant modelRun, Instant fetchedAt) {
+        if (!isEnabled()) {
+            return;
+        }
+        CachedForecast entry = new CachedForecast(forecast.withModelRun(modelRun), modelRun, fetchedAt, false);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Expires the forecast held for {@code key} if it belongs to a model run older than
+     * {@code modelRun}, because a newer one was stored elsewhere. It stays available through
+     * {@link #getStale}. Returns whether an entry was expired.
+     */
+    public boolean expire(ForecastKey key, Instant modelRun) {
+        synchronized (entries) {
+            CachedForecast entry = entries.get(key);
+            if (entry == null || entry.expired() || !entry.modelRun().isBefore(modelRun)) {
+                return false;
+            }
+            entries.put(key, new CachedForecast(entry.forecast(), entry.modelRun(), entry.fetchedAt(), true));
+            return true;
+        }
+    }
+
+    @Override
+    public String tier() {
+        return TIER;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    /** The entry for {@code key} as stored, expired or not. Not counted as a hit or miss. */
+    @Override
+    public StoredForecast load(ForecastKey key) {
+        CachedForecast entry;
+        synchronized (entries) {
+            entry = isEnabled() ? entries.get(key) : null;
+        }
+        return entry == null ? null : new StoredForecast(key, entry.forecast(), entry.modelRun(), entry.fetchedAt());
+    }
+
+    @Override
+    public void save(StoredForecast forecast) {
+        restore(forecast.key(), forecast.frame(), forecast.modelRun(), forecast.fetchedAt());
+    }
+
+    /**
+     * Returns the last forecast stored for {@code key}, expired or not, flagged as stale with its
+     * age, or {@code null} if there is none younger than {@code maxAge}. Not counted as a hit
+     * or miss.
+     */
+    public ForecastFrame getStale(ForecastKey key, Duration maxAge) {
+        CachedForecast entry;
+        synchronized (entries) {
+            entry = isEnabled() ? entries.get(key) : null;
+        }
+        if (entry == null) {
+            return null;
+        }
+        Duration age = Duration.between(entry.fetchedAt(), modelRunSchedule.now());
+        return age.compareTo(maxAge) > 0 ? null : entry.forecast().asStale(age);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cache.size", this, ForecastCache::size)
+                .tag("cache", "forecasts")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, ForecastCache::hitCount)
+                .tag("cache", "forecasts")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", this, ForecastCache::missCount)
+                .tag("cache", "forecasts")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", this, ForecastCache::evictionCount)
+                .tag("cache", "forecasts")
+                .register(registry);
+    }
+
+    private record CachedForecast(ForecastFrame forecast, Instant modelRun, Instant fetchedAt, boolean expired) {
+    }
+}
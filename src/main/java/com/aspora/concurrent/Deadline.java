@@ -0,0 +1,84 @@
+package com.aspora.concurrent;
+
+import java.time.Duration;
+
+/**
+ * A point in time by which work on behalf of a request must be done. The deadline of the work in
+ * progress is bound to its thread, and carried into every subtask forked through a
+ * {@link TaskScope}, so waits deep in the call stack can give up when the request would have.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /** {@link System#nanoTime()} at the deadline, or {@code Long.MAX_VALUE} for none. */
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /** A deadline {@code timeout} from now; already passed for a zero or negative timeout. */
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + Math.max(0, timeout.toNanos()));
+    }
+
+    /** The deadline bound to the calling thread, or none. */
+    public static Deadline current() {
+        Deadline current = CURRENT.get();
+        return current != null ? current : NONE;
+    }
+
+    /**
+     * Binds this deadline to the calling thread until the returned binding is closed, which
+     * restores the one bound before.
+     */
+    public Binding bind() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public boolean isNone() {
+        return this == NONE;
+    }
+
+    public boolean hasPassed() {
+        return !isNone() && nanoTime - System.nanoTime() <= 0;
+    }
+
+    /** Time left, zero once passed; {@code Long.MAX_VALUE} without a deadline. */
+    public long remainingNanos() {
+        return isNone() ? Long.MAX_VALUE : Math.max(0, nanoTime - System.nanoTime());
+    }
+
+    /** The earlier of this deadline and {@code timeout} from now. */
+    public Deadline within(Duration timeout) {
+        Deadline other = after(timeout);
+        return isNone() || other.nanoTime - nanoTime < 0 ? other : this;
+    }
+
+    @Override
+    public String toString() {
+        return isNone() ? "Deadline[none]" : "Deadline[in " + Duration.ofNanos(remainingNanos()) + "]";
+    }
+
+    /** Undoes {@link #bind()}. */
+    @FunctionalInterface
+    public interface Binding extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,206 @@
+package com.aspora.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Structured fan-out: subtasks forked in a scope each run on their own virtual thread, see the
+ * scope's {@link Deadline}, and never outlive it. Closing the scope cancels the subtasks still
+ * running, by interrupting them, and waits for their threads to end. Interrupting a thread
+ * blocked in the JDK HTTP client aborts its exchange, so a cancelled upstream call releases its
+ * connection rather than running to completion unobserved.
+ *
+ * <pre>
+ * try (TaskScope&lt;Frame&gt; scope = TaskScope.open("forecast-fetch")) {
+ *     Subtask&lt;Frame&gt; a = scope.fork(() -&gt; fetch(a));
+ *     Subtask&lt;Frame&gt; b = scope.fork(() -&gt; fetch(b));
+ *     scope.join();
+ *     ...
+ * }
+ * </pre>
+ *
+ * Only the thread that opened a scope may fork, wait on or close it. This plays the part of the
+ * JDK's {@code StructuredTaskScope}, which is still a preview API in Java 21.
+ */
+public final class TaskScope<T> implements AutoCloseable {
+
+    private final Deadline deadline;
+    private final ThreadFactory threads;
+    private final Thread owner = Thread.currentThread();
+    private final List<Subtask<T>> subtasks = new ArrayList<>();
+    private final BlockingQueue<Subtask<T>> finished = new LinkedBlockingQueue<>();
+    private int unclaimed;
+    private boolean closed;
+
+    private TaskScope(String name, Deadline deadline) {
+        this.deadline = deadline;
+        this.threads = Thread.ofVirtual().name(name + "-", 1).factory();
+    }
+
+    /** Opens a scope under the calling thread's deadline. */
+    public static <T> TaskScope<T> open(String name) {
+        return new TaskScope<>(name, Deadline.current());
+    }
+
+    public static <T> TaskScope<T> open(String name, Deadline deadline) {
+        return new TaskScope<>(name, deadline);
+    }
+
+    public Deadline deadline() {
+        return deadline;
+    }
+
+    /** Starts {@code task} on a new virtual thread with this scope's deadline bound. */
+    public Subtask<T> fork(Callable<? extends T> task) {
+        checkOwner();
+        if (closed) {
+            throw new IllegalStateException("Task scope is closed");
+        }
+        Subtask<T> subtask = new Subtask<>();
+        subtask.thread = threads.newThread(() -> {
+            try (Deadline.Binding ignored = deadline.bind()) {
+                subtask.complete(task.call(), null);
+            } catch (Throwable ex) {
+                subtask.complete(null, ex);
+            }
+            finished.add(subtask);
+        });
+        subtasks.add(subtask);
+        unclaimed++;
+        subtask.thread.start();
+        return subtask;
+    }
+
+    /**
+     * The next subtask to finish, in the order they finish, waiting at most {@code timeout}.
+     * Returns {@code null} if none finishes within {@code timeout}, or once every subtask forked
+     * so far has been returned.
+     *
+     * @throws TimeoutException if the scope's deadline passes first
+     */
+    public Subtask<T> next(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        checkOwner();
+        if (unclaimed == 0) {
+            return null;
+        }
+        long remaining = deadline.remainingNanos();
+        long wait = Math.min(unit.toNanos(timeout), remaining);
+        Subtask<T> subtask = finished.poll(wait, TimeUnit.NANOSECONDS);
+        if (subtask == null) {
+            if (wait == remaining) {
+                throw new TimeoutException("Deadline passed with " + unclaimed + " subtasks running");
+            }
+            return null;
+        }
+        unclaimed--;
+        return subtask;
+    }
+
+    /** The next subtask to finish, waiting up to the scope's deadline; {@code null} once all are returned. */
+    public Subtask<T> next() throws InterruptedException, TimeoutException {
+        return next(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits until every subtask has finished.
+     *
+     * @throws TimeoutException if the scope's deadline passes first; the subtasks still running
+     *                          are cancelled when the scope closes
+     */
+    public void join() throws InterruptedException, TimeoutException {
+        Subtask<T> subtask;
+        do {
+            subtask = next();
+        } while (subtask != null);
+    }
+
+    /** Cancels the subtasks still running and waits for every subtask's thread to end. */
+    @Override
+    public void close() {
+        checkOwner();
+        if (closed) {
+            return;
+        }
+        closed = true;
+        subtasks.forEach(Subtask::cancel);
+        boolean interrupted = false;
+        for (Subtask<T> subtask : subtasks) {
+            while (true) {
+                try {
+                    subtask.thread.join();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Task scope used outside the thread that opened it");
+        }
+    }
+
+    /** One forked task; settles exactly once, as succeeded, failed or cancelled. */
+    public static final class Subtask<T> {
+
+        public enum State { RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+        private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+        private Thread thread;
+        private volatile T result;
+        private volatile Throwable exception;
+
+        public State state() {
+            return state.get();
+        }
+
+        /** The task's result; only for a subtask that {@link State#SUCCEEDED}. */
+        public T get() {
+            if (state.get() != State.SUCCEEDED) {
+                throw new IllegalStateException("Subtask has not succeeded: " + state.get());
+            }
+            return result;
+        }
+
+        /** What the task threw; only for a subtask that {@link State#FAILED}. */
+        public Throwable exception() {
+            if (state.get() != State.FAILED) {
+                throw new IllegalStateException("Subtask has not failed: " + state.get());
+            }
+            return exception;
+        }
+
+        /**
+         * Interrupts the task unless it has already settled. Tells whether this call settled it,
+         * in which case whatever the task returns or throws afterwards is ignored.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(State.RUNNING, State.CANCELLED)) {
+                thread.interrupt();
+                return true;
+            }
+            return false;
+        }
+
+        private void complete(T value, Throwable failure) {
+            if (failure == null) {
+                result = value;
+            } else {
+                exception = failure;
+            }
+            state.compareAndSet(State.RUNNING, failure == null ? State.SUCCEEDED : State.FAILED);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.aspora.config;
+
+import com.aspora.rules.ClassificationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ClassificationProperties.class)
+public class ClassificationConfig {
+}
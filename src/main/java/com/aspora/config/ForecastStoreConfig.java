@@ -0,0 +1,11 @@
+package com.aspora.config;
+
+import com.aspora.store.ForecastStoreProperties;
+import com.aspora.store.SharedStoreProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties({ForecastStoreProperties.class, SharedStoreProperties.class})
+public class ForecastStoreConfig {
+}
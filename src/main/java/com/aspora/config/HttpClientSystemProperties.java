@@ -0,0 +1,35 @@
+package com.aspora.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+/**
+ * Applies {@code openmeteo.http.pool-size} and {@code openmeteo.http.keep-alive} to the JDK HTTP
+ * client once, while the environment is prepared and before any client is created.
+ *
+ * <p>The JDK takes its connection pool limits from system properties, so they are process-wide:
+ * they apply to every {@link java.net.http.HttpClient} in the JVM, the Open-Meteo mirrors included.
+ * The JDK also reads them only once, when it creates its first client, so changing them later has
+ * no effect. Values already passed on the command line or through {@code JAVA_TOOL_OPTIONS} win.
+ */
+public class HttpClientSystemProperties implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        OpenMeteoHttpProperties properties = Binder.get(environment)
+                .bind("openmeteo.http", OpenMeteoHttpProperties.class)
+                .orElseGet(OpenMeteoHttpProperties::new);
+        String keepAlive = String.valueOf(properties.getKeepAlive().toSeconds());
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(properties.getPoolSize()));
+        setIfAbsent("jdk.httpclient.keepalive.timeout", keepAlive);
+        setIfAbsent("jdk.httpclient.keepalive.timeout.h2", keepAlive);
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
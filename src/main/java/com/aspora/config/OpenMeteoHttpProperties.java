@@ -0,0 +1,41 @@
+package com.aspora.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the upstream HTTP layer, bound from {@code openmeteo.http.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.http")
+public class OpenMeteoHttpProperties {
+
+    /** Time allowed to establish the TCP/TLS connection. */
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Deadline for the whole exchange, from sending the request until the last byte of the body
+     * has been read. A stalled upstream can never hold a request thread longer than this.
+     */
+    private Duration readTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum pooled HTTP/1.1 connections per host (0 = unbounded). Like {@link #keepAlive}, applied
+     * once at startup to every HTTP client in the JVM; see {@link HttpClientSystemProperties}.
+     */
+    private int poolSize = 20;
+
+    /** How long an idle pooled connection is kept open. */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /** Prefer HTTP/2 so concurrent calls are multiplexed over one connection. */
+    private boolean http2 = true;
+
+    /** Ask for gzip-compressed responses and inflate them transparently. */
+    private boolean gzip = true;
+
+    /** Open a connection to the API host at startup so the first request skips DNS/TLS setup. */
+    private boolean warmUp = true;
+}
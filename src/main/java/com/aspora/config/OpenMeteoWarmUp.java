@@ -0,0 +1,50 @@
+package com.aspora.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opens the pooled connection to the Open-Meteo host once the application is up, so the first
+ * user request does not pay for DNS resolution and the TLS handshake. Failures are only logged.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenMeteoWarmUp {
+
+    private final RestClient openMeteoRestClient;
+    private final OpenMeteoHttpProperties properties;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        connectAsync();
+    }
+
+    /** Starts connecting in the background unless warm-up is off or already under way. */
+    public void connectAsync() {
+        if (properties.isWarmUp() && started.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::connect);
+        }
+    }
+
+    void connect() {
+        long start = System.nanoTime();
+        try {
+            // Any status proves the connection is open; the endpoint rejects a bare request quickly
+            openMeteoRestClient.head()
+                    .uri("/forecast")
+                    .exchange((request, response) -> response.getStatusCode());
+            log.info("Warmed up OpenMeteo connection in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("OpenMeteo connection warm-up failed: {}", ex.getMessage());
+        }
+    }
+}
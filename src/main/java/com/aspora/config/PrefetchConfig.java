@@ -0,0 +1,10 @@
+package com.aspora.config;
+
+import com.aspora.prefetch.PrefetchProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PrefetchProperties.class)
+public class PrefetchConfig {
+}
@@ -0,0 +1,41 @@
+package com.aspora.config;
+
+import com.aspora.concurrent.Deadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds a {@link Deadline} of {@code openmeteo.request-deadline} to each request's thread. Waits
+ * for upstream budget, hedges and fail-over stop at it, including in subtasks forked on the
+ * request's behalf, and the request is answered from the last known good forecast or with a 503.
+ * Zero turns the deadline off.
+ */
+@Component
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    private final Duration deadline;
+
+    public RequestDeadlineFilter(@Value("${openmeteo.request-deadline:8s}") Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (deadline.isZero() || deadline.isNegative()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try (Deadline.Binding ignored = Deadline.after(deadline).bind()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.aspora.config;
+
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.resilience.QuotaProperties;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.service.WeatherService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties({CircuitBreakerProperties.class, QuotaProperties.class})
+public class ResilienceConfig {
+
+    @Bean
+    public CircuitBreaker openMeteoCircuitBreaker(CircuitBreakerProperties properties, Clock clock) {
+        return new CircuitBreaker("openmeteo", properties, clock, WeatherService::isUpstreamFault);
+    }
+
+    @Bean
+    public UpstreamQuota openMeteoQuota(QuotaProperties properties, Clock clock) {
+        return new UpstreamQuota(properties, clock);
+    }
+}
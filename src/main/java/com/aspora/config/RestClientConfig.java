@@ -1,20 +1,50 @@
 package com.aspora.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
+
 @Configuration
+@EnableConfigurationProperties(OpenMeteoHttpProperties.class)
 public class RestClientConfig {
 
     @Value("${openmeteo.base-url}")
     private String openMeteoBaseUrl;
 
     @Bean
-    public RestClient openMeteoRestClient() {
-        return RestClient.builder()
-                .baseUrl(openMeteoBaseUrl)
+    public RestClient openMeteoRestClient(OpenMeteoHttpProperties properties) {
+        return createRestClient(openMeteoBaseUrl, properties);
+    }
+
+    public static RestClient createRestClient(String baseUrl, OpenMeteoHttpProperties properties) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(createHttpClient(properties));
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+
+        RestClient.Builder builder = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .requestInterceptor(new TimeoutTranslatingInterceptor());
+        if (properties.isGzip()) {
+            builder.requestInterceptor(new GzipDecompressingInterceptor());
+        }
+        return builder.build();
+    }
+
+    static HttpClient createHttpClient(OpenMeteoHttpProperties properties) {
+        // Pool size and keep-alive are process-wide and set once at startup by HttpClientSystemProperties
+        return HttpClient.newBuilder()
+                .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                // The default executor is a cached pool that grows a platform thread per concurrent
+                // response; callers park on virtual threads, so the client's own work can as well
+                .executor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("openmeteo-http-", 1).factory()))
                 .build();
     }
 }
@@ -0,0 +1,20 @@
+package com.aspora.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * With {@code spring.main.lazy-initialization} on, keeps the application's own beans eager so
+     * the request path, schedulers and warm-up are ready when the port opens; only framework and
+     * library beans such as springdoc's are deferred to first use.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter applicationBeansEager() {
+        return (beanName, beanDefinition, beanType) ->
+                beanType != null && beanType.getName().startsWith("com.aspora.");
+    }
+}
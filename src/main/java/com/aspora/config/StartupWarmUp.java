@@ -0,0 +1,100 @@
+package com.aspora.config;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.service.ClassificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Runs the forecast pipeline on a canned Open-Meteo response once every bean exists but before
+ * the web server starts listening, so the first real request finds Jackson, the parser and the
+ * classification rules loaded and partly compiled instead of paying for that itself. The Open-Meteo
+ * connection is opened in the background at the same point. Off unless {@code startup.prewarm}
+ * is set, as in the {@code faststart} profile.
+ */
+@Slf4j
+@Component
+public class StartupWarmUp implements SmartInitializingSingleton {
+
+    private static final LocalDateTime CANNED_START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final OpenMeteoHourlyParser hourlyParser;
+    private final ObjectMapper objectMapper;
+    private final OpenMeteoWarmUp openMeteoWarmUp;
+    private final ClassificationService classificationService;
+    private final boolean enabled;
+    private final int iterations;
+
+    public StartupWarmUp(OpenMeteoHourlyParser hourlyParser,
+                         ObjectMapper objectMapper,
+                         OpenMeteoWarmUp openMeteoWarmUp,
+                         ClassificationRulesRegistry rulesRegistry,
+                         @Value("${startup.prewarm:false}") boolean enabled,
+                         @Value("${startup.prewarm-iterations:200}") int iterations) {
+        this.hourlyParser = hourlyParser;
+        this.objectMapper = objectMapper;
+        this.openMeteoWarmUp = openMeteoWarmUp;
+        // Same code path as requests, but its meters are thrown away so the warm-up is not reported
+        this.classificationService = new ClassificationService(null, rulesRegistry,
+                new ForecastMetrics(new SimpleMeterRegistry()));
+        this.enabled = enabled;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        openMeteoWarmUp.connectAsync();
+        long start = System.nanoTime();
+        byte[] payload = cannedResponse().getBytes(StandardCharsets.UTF_8);
+        try {
+            for (int i = 0; i < iterations; i++) {
+                ForecastFrame frame = hourlyParser.parse(new ByteArrayInputStream(payload)).get(0);
+                EventForecastResponse response = classificationService.classifyWindow(
+                        frame.slice(CANNED_START.plusHours(i % 12), CANNED_START.plusHours(12 + i % 12)));
+                objectMapper.writeValueAsBytes(response);
+            }
+            log.info("Warmed up forecast pipeline in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Forecast pipeline warm-up failed: {}", ex.getMessage());
+        }
+    }
+
+    /** One day of hourly data that moves through safe, risky and unsafe weather. */
+    static String cannedResponse() {
+        StringBuilder time = new StringBuilder();
+        StringBuilder temperature = new StringBuilder();
+        StringBuilder rain = new StringBuilder();
+        StringBuilder code = new StringBuilder();
+        StringBuilder wind = new StringBuilder();
+        for (int hour = 0; hour < 24; hour++) {
+            String separator = hour == 0 ? "" : ",";
+            time.append(separator).append('"').append(CANNED_START.plusHours(hour)).append('"');
+            temperature.append(separator).append(18 + hour % 12);
+            rain.append(separator).append(hour * 4);
+            code.append(separator).append(hour < 8 ? 0 : hour < 16 ? 61 : 95);
+            wind.append(separator).append(5 + hour * 2.5);
+        }
+        return "{\"latitude\":19.1,\"longitude\":72.9,\"hourly\":{"
+                + "\"time\":[" + time + "],"
+                + "\"temperature_2m\":[" + temperature + "],"
+                + "\"precipitation_probability\":[" + rain + "],"
+                + "\"weather_code\":[" + code + "],"
+                + "\"wind_speed_10m\":[" + wind + "]}}";
+    }
+}
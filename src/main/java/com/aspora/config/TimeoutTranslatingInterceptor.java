@@ -0,0 +1,31 @@
+package com.aspora.config;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * The JDK request factory enforces its read timeout by cancelling the pending response. Depending
+ * on timing that cancellation can escape as a raw {@link CancellationException}; rethrowing it as
+ * an I/O timeout lets RestClient report it as a {@code ResourceAccessException} like any other
+ * upstream failure.
+ */
+class TimeoutTranslatingInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        try {
+            return execution.execute(request, body);
+        } catch (CancellationException ex) {
+            HttpTimeoutException timeout = new HttpTimeoutException("Request timed out: " + request.getURI());
+            timeout.initCause(ex);
+            throw timeout;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.aspora.config;
+
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.service.WeatherService;
+import com.aspora.upstream.HedgingWeatherProvider;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.aspora.upstream.UpstreamProperties;
+import com.aspora.upstream.WeatherProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamConfig {
+
+    /** Name of the backend at {@code openmeteo.base-url}. */
+    public static final String PRIMARY_BACKEND = "open-meteo";
+
+    @Bean
+    public HedgingWeatherProvider weatherProvider(RestClient openMeteoRestClient, OpenMeteoHourlyParser hourlyParser,
+                                                  ForecastMetrics metrics, OpenMeteoHttpProperties http,
+                                                  UpstreamProperties properties, Clock clock) {
+        List<WeatherProvider> providers = new ArrayList<>();
+        providers.add(new OpenMeteoProvider(PRIMARY_BACKEND, openMeteoRestClient, hourlyParser, metrics));
+        for (UpstreamProperties.Mirror mirror : properties.getMirrors()) {
+            if (mirror.getName() == null || mirror.getBaseUrl() == null) {
+                throw new IllegalStateException("Every openmeteo.upstream.mirrors entry needs a name and a base-url");
+            }
+            providers.add(new OpenMeteoProvider(mirror.getName(),
+                    RestClientConfig.createRestClient(mirror.getBaseUrl(), http), hourlyParser, metrics));
+        }
+        return new HedgingWeatherProvider(providers, properties, WeatherService::isUpstreamFault, clock);
+    }
+}
@@ -0,0 +1,26 @@
+package com.aspora.config;
+
+import com.aspora.controller.ForecastMediaTypes;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Replaces the default CBOR converter so CBOR uses the application's Jackson settings and also
+     * writes the columnar CBOR media type.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        MappingJackson2CborHttpMessageConverter converter =
+                new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+        converter.setSupportedMediaTypes(List.of(ForecastMediaTypes.CBOR, ForecastMediaTypes.COLUMNAR_CBOR));
+        return converter;
+    }
+}
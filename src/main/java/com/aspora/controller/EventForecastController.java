@@ -1,35 +1,109 @@
 package com.aspora.controller;
 
+import com.aspora.dto.BatchForecastResponse;
+import com.aspora.dto.ColumnarEventForecastResponse;
 import com.aspora.dto.EventForecastResponse;
 import com.aspora.dto.EventRequest;
+import com.aspora.prefetch.EventPrefetchService;
+import com.aspora.service.BatchForecastService;
 import com.aspora.service.ClassificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.function.Function;
+
 @RestController
 @RequiredArgsConstructor
 @Tag(name = "Event Forecast")
 public class EventForecastController {
 
     private final ClassificationService classificationService;
+    private final BatchForecastService batchForecastService;
+    private final EventPrefetchService prefetchService;
+    private final ForecastETags forecastETags;
 
     @PostMapping("/event-forecast")
     @Operation(summary = "Get weather advisory for an event")
     public ResponseEntity<EventForecastResponse> getEventForecast(
-            @Valid @RequestBody EventRequest request) {
+            @Valid @RequestBody EventRequest request,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        return forecast(request, ifNoneMatch, MediaType.APPLICATION_JSON, Function.identity());
+    }
+
+    @PostMapping(path = "/event-forecast", produces = ForecastMediaTypes.CBOR_VALUE)
+    @Operation(summary = "Get weather advisory for an event, CBOR encoded")
+    public ResponseEntity<EventForecastResponse> getEventForecastCbor(
+            @Valid @RequestBody EventRequest request,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        return forecast(request, ifNoneMatch, ForecastMediaTypes.CBOR, Function.identity());
+    }
+
+    @PostMapping(path = "/event-forecast", produces = ForecastMediaTypes.COLUMNAR_JSON_VALUE)
+    @Operation(summary = "Get weather advisory for an event with the hourly forecast as columns")
+    public ResponseEntity<ColumnarEventForecastResponse> getColumnarEventForecast(
+            @Valid @RequestBody EventRequest request,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        return forecast(request, ifNoneMatch, ForecastMediaTypes.COLUMNAR_JSON, ColumnarEventForecastResponse::of);
+    }
+
+    @PostMapping(path = "/event-forecast", produces = ForecastMediaTypes.COLUMNAR_CBOR_VALUE)
+    @Operation(summary = "Get weather advisory for an event with the hourly forecast as columns, CBOR encoded")
+    public ResponseEntity<ColumnarEventForecastResponse> getColumnarEventForecastCbor(
+            @Valid @RequestBody EventRequest request,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
+        return forecast(request, ifNoneMatch, ForecastMediaTypes.COLUMNAR_CBOR, ColumnarEventForecastResponse::of);
+    }
+
+    @PostMapping("/event-forecast/batch")
+    @Operation(summary = "Get weather advisories for many events at once")
+    public ResponseEntity<BatchForecastResponse> getBatchEventForecast(
+            @RequestBody List<EventRequest> requests) {
+
+        return ResponseEntity.ok(batchForecastService.classifyAll(requests));
+    }
+
+    private <T> ResponseEntity<T> forecast(EventRequest request, String ifNoneMatch, MediaType representation,
+                                           Function<EventForecastResponse, T> render) {
         if (request.getEndTime().isBefore(request.getStartTime()) ||
                 request.getEndTime().isEqual(request.getStartTime())) {
             throw new IllegalArgumentException("End time must be after start time");
         }
 
-        EventForecastResponse response = classificationService.classify(request);
-        return ResponseEntity.ok(response);
+        String current = forecastETags.etag(request, representation);
+        CacheControl cacheControl = CacheControl.maxAge(forecastETags.maxAge());
+        if (ForecastETags.matches(ifNoneMatch, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(current).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+        }
+
+        EventForecastResponse response = prefetchService.precomputed(request);
+        if (response == null) {
+            response = classificationService.classify(request);
+        }
+        // Tag what was served: the fetch may have crossed into another model run
+        String etag = forecastETags.etag(request, representation, response.getWindow());
+        if (Boolean.TRUE.equals(response.getStale()) || etag == null) {
+            // A fallback is not what the tag describes; have clients ask again next time
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT)
+                    .body(render.apply(response));
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+                .body(render.apply(response));
     }
 }
@@ -0,0 +1,56 @@
+package com.aspora.controller;
+
+import com.aspora.dto.EventRegistrationResponse;
+import com.aspora.dto.EventRequest;
+import com.aspora.prefetch.EventPrefetchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/event-forecast/registrations")
+@Tag(name = "Event Registration")
+public class EventRegistrationController {
+
+    private final EventPrefetchService prefetchService;
+
+    @PostMapping
+    @Operation(summary = "Register an upcoming event so its advisory is prepared in the background")
+    public ResponseEntity<EventRegistrationResponse> register(@Valid @RequestBody EventRequest request) {
+        EventRegistrationResponse registration = prefetchService.register(request);
+        return ResponseEntity.created(URI.create("/event-forecast/registrations/" + registration.getId()))
+                .body(registration);
+    }
+
+    @GetMapping
+    @Operation(summary = "List registered events")
+    public ResponseEntity<List<EventRegistrationResponse>> list() {
+        return ResponseEntity.ok(prefetchService.registrations());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get a registered event")
+    public ResponseEntity<EventRegistrationResponse> get(@PathVariable String id) {
+        EventRegistrationResponse registration = prefetchService.registration(id);
+        return registration != null ? ResponseEntity.ok(registration) : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Stop prefetching a registered event")
+    public ResponseEntity<Void> unregister(@PathVariable String id) {
+        return prefetchService.unregister(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.aspora.controller;
+
+import com.aspora.stream.ForecastStreamBroker;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Event Forecast")
+public class EventStreamController {
+
+    private final ForecastStreamBroker streamBroker;
+
+    @GetMapping(path = "/event-forecast/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream forecast changes for registered events")
+    public SseEmitter stream(@RequestParam(required = false) List<String> ids) {
+        return streamBroker.subscribe(ids);
+    }
+}
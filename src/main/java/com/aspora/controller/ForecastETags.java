@@ -0,0 +1,117 @@
+package com.aspora.controller;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.ReasonDetail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Entity tags for event forecasts, derived from what a response depends on rather than from the
+ * response itself: the forecast grid cell, the model run, the event window and the
+ * classification rules and reason detail, plus the negotiated representation. The rules enter by
+ * content rather than by load counter, so every instance, before and after a restart or reload,
+ * tags the same response alike. A response for the same inputs is identical within a model run, so the tag for the current run is known before anything is
+ * fetched, classified or serialized.
+ *
+ * <p>The tag sent with a response names the run of the forecast actually served, which is not
+ * necessarily the run that was current when the request arrived: a fetch may cross into the next
+ * run. Clients then only hold the current run's tag once they hold the current run's response.
+ */
+@Component
+@RequiredArgsConstructor
+public class ForecastETags {
+
+    /** Bump when the response layout or wording changes, so clients do not keep an old rendering. */
+    static final int RESPONSE_FORMAT = 2;
+
+    private final ForecastCache forecastCache;
+    private final ModelRunSchedule modelRunSchedule;
+    private final ClassificationRulesRegistry rulesRegistry;
+
+    /**
+     * Strong entity tag, quoted, for the forecast of the given event under the current model run
+     * in the given representation.
+     */
+    public String etag(EventRequest request, MediaType representation) {
+        return etag(request, representation, modelRunSchedule.currentRun());
+    }
+
+    /**
+     * Strong entity tag, quoted, for a response built from {@code served}, or {@code null} if the
+     * model run of that forecast is not known.
+     */
+    public String etag(EventRequest request, MediaType representation, ForecastFrame served) {
+        if (served == null || served.modelRun() == null) {
+            return null;
+        }
+        return etag(request, representation, served.modelRun());
+    }
+
+    private String etag(EventRequest request, MediaType representation, Instant modelRun) {
+        ForecastKey key = forecastCache.keyFor(request);
+        CompiledRules rules = rulesRegistry.rules(request.getProfile());
+
+        long hash = RESPONSE_FORMAT;
+        hash = mix(hash, Double.doubleToLongBits(key.latitude()));
+        hash = mix(hash, Double.doubleToLongBits(key.longitude()));
+        hash = mix(hash, modelRun.getEpochSecond());
+        hash = mix(hash, epochSecond(request.getStartTime()));
+        hash = mix(hash, epochSecond(request.getEndTime()));
+        hash = mix(hash, rules.contentHash());
+        hash = mix(hash, Objects.hashCode(rules.profile()));
+        hash = mix(hash, ReasonDetail.of(request.getReasons()).ordinal());
+        hash = mix(hash, representation.hashCode());
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /** How long a fresh response stays valid: until the upstream model publishes its next run. */
+    public Duration maxAge() {
+        Duration untilNextUpdate = modelRunSchedule.untilNextUpdate();
+        return untilNextUpdate.isNegative() ? Duration.ZERO : untilNextUpdate;
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header names the given tag. Uses the weak comparison the
+     * header calls for, so a {@code W/} prefix added by an intermediary still matches.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long mix(long hash, long value) {
+        long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 32);
+    }
+}
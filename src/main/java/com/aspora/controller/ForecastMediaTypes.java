@@ -0,0 +1,21 @@
+package com.aspora.controller;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Representations of an event forecast offered through content negotiation on
+ * {@code POST /event-forecast}, besides plain {@code application/json}.
+ */
+public final class ForecastMediaTypes {
+
+    public static final String CBOR_VALUE = "application/cbor";
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.aspora.columnar+json";
+    public static final String COLUMNAR_CBOR_VALUE = "application/vnd.aspora.columnar+cbor";
+
+    public static final MediaType CBOR = MediaType.parseMediaType(CBOR_VALUE);
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType(COLUMNAR_JSON_VALUE);
+    public static final MediaType COLUMNAR_CBOR = MediaType.parseMediaType(COLUMNAR_CBOR_VALUE);
+
+    private ForecastMediaTypes() {
+    }
+}
@@ -0,0 +1,27 @@
+package com.aspora.controller;
+
+import com.aspora.dto.HeatmapRequest;
+import com.aspora.dto.HeatmapResponse;
+import com.aspora.service.HeatmapService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Event Forecast")
+public class HeatmapController {
+
+    private final HeatmapService heatmapService;
+
+    @PostMapping("/event-forecast/heatmap")
+    @Operation(summary = "Classify every cell of a bounding box over a time window")
+    public ResponseEntity<HeatmapResponse> getHeatmap(@Valid @RequestBody HeatmapRequest request) {
+        return ResponseEntity.ok(heatmapService.classify(request));
+    }
+}
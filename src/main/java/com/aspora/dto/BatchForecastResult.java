@@ -0,0 +1,27 @@
+package com.aspora.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchForecastResult {
+
+    private int index;
+
+    private String name;
+
+    private EventForecastResponse forecast;
+
+    private String error;
+
+    private List<String> details;
+}
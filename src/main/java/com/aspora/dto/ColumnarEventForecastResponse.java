@@ -0,0 +1,50 @@
+package com.aspora.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link EventForecastResponse} with the event window in {@link ColumnarForecast} form, for
+ * clients that ask for the columnar media types.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarEventForecastResponse {
+
+    private String classification;
+
+    private String summary;
+
+    private List<String> reason;
+
+    @JsonProperty("event_window_forecast")
+    private ColumnarForecast eventWindowForecast;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("age_seconds")
+    private Long ageSeconds;
+
+    public static ColumnarEventForecastResponse of(EventForecastResponse response) {
+        return ColumnarEventForecastResponse.builder()
+                .classification(response.getClassification())
+                .summary(response.getSummary())
+                .reason(response.getReason())
+                .eventWindowForecast(ColumnarForecast.of(Objects.requireNonNull(response.getWindow(),
+                        "Response was not built from a forecast frame")))
+                .stale(response.getStale())
+                .ageSeconds(response.getAgeSeconds())
+                .build();
+    }
+}
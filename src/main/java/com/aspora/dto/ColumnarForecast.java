@@ -0,0 +1,59 @@
+package com.aspora.dto;
+
+import com.aspora.forecast.ForecastFrame;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The event window as one array per variable: hour {@code i} is {@code start + i * step_minutes}
+ * in the venue's local time. Field names are written once instead of once per hour.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarForecast {
+
+    /** Local date and time of the first hour, ISO-8601. */
+    private String start;
+
+    @JsonProperty("step_minutes")
+    private long stepMinutes;
+
+    @JsonProperty("rain_prob")
+    private int[] rainProb;
+
+    @JsonProperty("wind_kmh")
+    private double[] windKmh;
+
+    @JsonProperty("temperature_c")
+    private double[] temperatureC;
+
+    @JsonProperty("weather_code")
+    private int[] weatherCode;
+
+    public static ColumnarForecast of(ForecastFrame frame) {
+        int size = frame.size();
+        int[] rainProb = new int[size];
+        double[] windKmh = new double[size];
+        double[] temperatureC = new double[size];
+        int[] weatherCode = new int[size];
+        for (int i = 0; i < size; i++) {
+            rainProb[i] = frame.precipitationProbability(i);
+            windKmh[i] = frame.windSpeed(i);
+            temperatureC[i] = frame.temperature(i);
+            weatherCode[i] = frame.weatherCode(i);
+        }
+        return ColumnarForecast.builder()
+                .start(frame.start().toString())
+                .stepMinutes(frame.step().toMinutes())
+                .rainProb(rainProb)
+                .windKmh(windKmh)
+                .temperatureC(temperatureC)
+                .weatherCode(weatherCode)
+                .build();
+    }
+}
@@ -1,10 +1,15 @@
 package com.aspora.dto;
 
+import com.aspora.forecast.ForecastFrame;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -22,4 +27,19 @@ public class EventForecastResponse {
 
     @JsonProperty("event_window_forecast")
     private List<HourlyForecast> eventWindowForecast;
+
+    /** Set when the upstream was unavailable and the last known good forecast was used. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+
+    /** How long ago a stale forecast was fetched. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("age_seconds")
+    private Long ageSeconds;
+
+    /** Frame the hourly rows are read from, for wire formats that write it column by column. */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private ForecastFrame window;
 }
@@ -0,0 +1,20 @@
+package com.aspora.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventForecastUpdate {
+
+    /** Registration id of the event. */
+    private String id;
+
+    private String name;
+
+    private EventForecastResponse forecast;
+}
@@ -0,0 +1,38 @@
+package com.aspora.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventRegistrationResponse {
+
+    private String id;
+
+    private String name;
+
+    @JsonProperty("start_time")
+    private LocalDateTime startTime;
+
+    @JsonProperty("end_time")
+    private LocalDateTime endTime;
+
+    private String profile;
+
+    /** Whether a response has been precomputed; {@code model_run} tells which run it reflects. */
+    private boolean precomputed;
+
+    /** Model run the precomputed response was classified from. */
+    @JsonProperty("model_run")
+    private Instant modelRun;
+}
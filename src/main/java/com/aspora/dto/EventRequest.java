@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -32,6 +33,16 @@ public class EventRequest {
     @JsonProperty("end_time")
     private LocalDateTime endTime;
 
+    /** Optional customer classification profile; the default rules apply when omitted. */
+    private String profile;
+
+    /**
+     * Optional reason detail: {@code summary} (the default) merges consecutive hours matching the
+     * same rule into one reason, {@code hourly} lists every matching hour.
+     */
+    @Pattern(regexp = "(?i)summary|hourly", message = "Reasons must be summary or hourly")
+    private String reasons;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,58 @@
+package com.aspora.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeatmapRequest {
+
+    @Valid
+    @NotNull(message = "Bounds are required")
+    private Bounds bounds;
+
+    /** Cell size in degrees of latitude and longitude. */
+    @NotNull(message = "Resolution is required")
+    @Positive(message = "Resolution must be positive")
+    private Double resolution;
+
+    @NotNull(message = "Start time is required")
+    @JsonProperty("start_time")
+    private LocalDateTime startTime;
+
+    @NotNull(message = "End time is required")
+    @JsonProperty("end_time")
+    private LocalDateTime endTime;
+
+    /** Optional customer classification profile; the default rules apply when omitted. */
+    private String profile;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bounds {
+
+        @NotNull(message = "North is required")
+        private Double north;
+
+        @NotNull(message = "South is required")
+        private Double south;
+
+        @NotNull(message = "East is required")
+        private Double east;
+
+        @NotNull(message = "West is required")
+        private Double west;
+    }
+}
@@ -0,0 +1,64 @@
+package com.aspora.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classification of every cell of a bounding box over one time window. Rows run north to south
+ * and columns west to east; the per-cell arrays are in that row-major order, and the cell at row
+ * {@code r}, column {@code c} is centred on {@code north - (r + 0.5) * resolution},
+ * {@code west + (c + 0.5) * resolution}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HeatmapResponse {
+
+    private double north;
+
+    private double west;
+
+    private double resolution;
+
+    private int rows;
+
+    private int columns;
+
+    @JsonProperty("start_time")
+    private LocalDateTime startTime;
+
+    @JsonProperty("end_time")
+    private LocalDateTime endTime;
+
+    /** One string per row with a character per cell: {@code S}afe, {@code R}isky, {@code U}nsafe, or {@code -} without data. */
+    private List<String> classification;
+
+    /** Hours from {@code start_time} to the first hour at the cell's classification; -1 for Safe cells and cells without data. */
+    @JsonProperty("worst_hour")
+    private int[] worstHour;
+
+    @JsonProperty("max_rain_prob")
+    private int[] maxRainProb;
+
+    @JsonProperty("max_wind_kmh")
+    private double[] maxWindKmh;
+
+    /** Cells per classification label. */
+    private Map<String, Integer> counts;
+
+    /** Cells whose forecast could not be fetched. */
+    private int missing;
+
+    /** Present and {@code true} when some cells were classified from a last known good forecast. */
+    private Boolean stale;
+}
@@ -0,0 +1,224 @@
+package com.aspora.forecast;
+
+import com.aspora.dto.HourlyForecast;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable hourly forecast for one location: a start time, a fixed step and one primitive
+ * column per variable. Hour {@code i} is {@code start + i * step} in the location's local time.
+ *
+ * <p>Because the axis is regular, {@link #slice} finds a window by arithmetic and returns a view
+ * over the same columns, so one cached frame can serve any number of event windows without
+ * copying. Frames own their arrays; callers must not modify arrays after handing them over.
+ *
+ * <p>A frame served from the last known good copy because the upstream was unavailable carries
+ * its age as {@link #staleAge()}; slices of it stay stale. A frame read from a forecast store
+ * carries the {@link #modelRun()} it was stored under, and slices of it keep that too.
+ */
+public final class ForecastFrame {
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final double latitude;
+    private final double longitude;
+    private final LocalDateTime origin;
+    private final Duration step;
+    private final long stepSeconds;
+    private final double[] temperature;
+    private final int[] precipitationProbability;
+    private final int[] weatherCode;
+    private final double[] windSpeed;
+    private final int offset;
+    private final int length;
+    private final Duration staleAge;
+    private final Instant modelRun;
+
+    public ForecastFrame(double latitude, double longitude, LocalDateTime start, Duration step,
+                         double[] temperature, int[] precipitationProbability,
+                         int[] weatherCode, double[] windSpeed) {
+        this(latitude, longitude, start, step, temperature, precipitationProbability, weatherCode, windSpeed,
+                0, temperature.length, null, null);
+        if (precipitationProbability.length != length || weatherCode.length != length || windSpeed.length != length) {
+            throw new IllegalArgumentException("All forecast columns must have the same length");
+        }
+        if (step.getSeconds() <= 0) {
+            throw new IllegalArgumentException("Forecast step must be at least one second");
+        }
+    }
+
+    private ForecastFrame(double latitude, double longitude, LocalDateTime origin, Duration step,
+                          double[] temperature, int[] precipitationProbability,
+                          int[] weatherCode, double[] windSpeed, int offset, int length, Duration staleAge,
+                          Instant modelRun) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.origin = origin;
+        this.step = step;
+        this.stepSeconds = step.getSeconds();
+        this.temperature = temperature;
+        this.precipitationProbability = precipitationProbability;
+        this.weatherCode = weatherCode;
+        this.windSpeed = windSpeed;
+        this.offset = offset;
+        this.length = length;
+        this.staleAge = staleAge;
+        this.modelRun = modelRun;
+    }
+
+    public static ForecastFrame empty(double latitude, double longitude, LocalDateTime start, Duration step) {
+        return new ForecastFrame(latitude, longitude, start, step, new double[0], new int[0], new int[0], new double[0]);
+    }
+
+    /**
+     * Returns the hours {@code t} with {@code from <= t < to} as a view sharing this frame's columns.
+     */
+    public ForecastFrame slice(LocalDateTime from, LocalDateTime to) {
+        int first = clamp(ceilIndex(from));
+        int last = Math.max(first, clamp(ceilIndex(to)));
+        if (first == 0 && last == length) {
+            return this;
+        }
+        return new ForecastFrame(latitude, longitude, origin, step, temperature, precipitationProbability,
+                weatherCode, windSpeed, offset + first, last - first, staleAge, modelRun);
+    }
+
+    public ForecastFrame withLocation(double latitude, double longitude) {
+        return new ForecastFrame(latitude, longitude, origin, step, temperature, precipitationProbability,
+                weatherCode, windSpeed, offset, length, staleAge, modelRun);
+    }
+
+    /** Returns this frame labelled with the model run it belongs to. */
+    public ForecastFrame withModelRun(Instant modelRun) {
+        if (Objects.equals(this.modelRun, modelRun)) {
+            return this;
+        }
+        return new ForecastFrame(latitude, longitude, origin, step, temperature, precipitationProbability,
+                weatherCode, windSpeed, offset, length, staleAge, modelRun);
+    }
+
+    /** Returns this frame flagged as a fallback copy that was fetched {@code age} ago. */
+    public ForecastFrame asStale(Duration age) {
+        return new ForecastFrame(latitude, longitude, origin, step, temperature, precipitationProbability,
+                weatherCode, windSpeed, offset, length, age, modelRun);
+    }
+
+    public boolean isStale() {
+        return staleAge != null;
+    }
+
+    /** Age of a stale frame, or {@code null} for a fresh one. */
+    public Duration staleAge() {
+        return staleAge;
+    }
+
+    /** Model run the frame was stored under, or {@code null} for one that never went through a store. */
+    public Instant modelRun() {
+        return modelRun;
+    }
+
+    public double latitude() {
+        return latitude;
+    }
+
+    public double longitude() {
+        return longitude;
+    }
+
+    public LocalDateTime start() {
+        return timeAt(0);
+    }
+
+    /** First hour after the frame, i.e. {@code start + size * step}. */
+    public LocalDateTime end() {
+        return timeAt(length);
+    }
+
+    public Duration step() {
+        return step;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public LocalDateTime timeAt(int index) {
+        return origin.plusSeconds((offset + (long) index) * stepSeconds);
+    }
+
+    public double temperature(int index) {
+        return temperature[offset + checkIndex(index)];
+    }
+
+    public int precipitationProbability(int index) {
+        return precipitationProbability[offset + checkIndex(index)];
+    }
+
+    public int weatherCode(int index) {
+        return weatherCode[offset + checkIndex(index)];
+    }
+
+    public double windSpeed(int index) {
+        return windSpeed[offset + checkIndex(index)];
+    }
+
+    public HourlyForecast hourlyForecast(int index) {
+        return HourlyForecast.builder()
+                .time(timeAt(index).format(HOUR_FORMATTER))
+                .rainProb(precipitationProbability(index))
+                .windKmh(windSpeed(index))
+                .temperatureC(temperature(index))
+                .weatherCode(weatherCode(index))
+                .build();
+    }
+
+    /**
+     * Read-only list view of this frame. Each element is built on access, so nothing is converted
+     * until the response is serialized.
+     */
+    public List<HourlyForecast> asHourlyForecasts() {
+        return new HourlyForecastView();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+        return index;
+    }
+
+    private int ceilIndex(LocalDateTime time) {
+        long seconds = ChronoUnit.SECONDS.between(origin, time);
+        long index = -Math.floorDiv(-seconds, stepSeconds) - offset;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, index));
+    }
+
+    private int clamp(int index) {
+        return Math.max(0, Math.min(length, index));
+    }
+
+    private final class HourlyForecastView extends AbstractList<HourlyForecast> implements RandomAccess {
+
+        @Override
+        public HourlyForecast get(int index) {
+            return hourlyForecast(index);
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.aspora.forecast;
+
+import com.aspora.dto.EventRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Identifies one upstream forecast: a location snapped to the forecast model's grid plus the
+ * local hours requested, from {@code startHour} inclusive to {@code endHour} exclusive. The hours
+ * are the event window widened to whole blocks of the window granularity, aligned to midnight,
+ * so events at the same venue in the same blocks share a key.
+ */
+public record ForecastKey(double latitude, double longitude, LocalDateTime startHour, LocalDateTime endHour) {
+
+    public static ForecastKey of(EventRequest request, double gridResolution, Duration windowGranularity) {
+        return of(request.getLocation().getLatitude(), request.getLocation().getLongitude(),
+                request.getStartTime(), request.getEndTime(), gridResolution, windowGranularity);
+    }
+
+    public static ForecastKey of(double latitude, double longitude, LocalDateTime startTime, LocalDateTime endTime,
+                                 double gridResolution, Duration windowGranularity) {
+        long blockHours = blockHours(windowGranularity);
+        return new ForecastKey(
+                snap(latitude, gridResolution),
+                snap(longitude, gridResolution),
+                floorToBlock(startTime, blockHours),
+                ceilToBlock(endTime, blockHours));
+    }
+
+    /** Identifies the hour range alone, for grouping keys that can share one upstream request. */
+    public String span() {
+        return startHour + "/" + endHour;
+    }
+
+    /**
+     * Checks that the granularity is a whole number of hours that divides a day, so blocks never
+     * straddle midnight differently from one day to the next.
+     */
+    public static long blockHours(Duration windowGranularity) {
+        long hours = windowGranularity.toHours();
+        if (hours <= 0 || !windowGranularity.equals(Duration.ofHours(hours)) || 24 % hours != 0) {
+            throw new IllegalArgumentException("Forecast window granularity must be a whole number of hours dividing "
+                    + "24, got " + windowGranularity);
+        }
+        return hours;
+    }
+
+    static LocalDateTime floorToBlock(LocalDateTime time, long blockHours) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.minusHours(hour.getHour() % blockHours);
+    }
+
+    static LocalDateTime ceilToBlock(LocalDateTime time, long blockHours) {
+        LocalDateTime floor = floorToBlock(time, blockHours);
+        return floor.equals(time) ? floor : floor.plusHours(blockHours);
+    }
+
+    static double snap(double coordinate, double gridResolution) {
+        if (gridResolution <= 0) {
+            return coordinate;
+        }
+        double snapped = Math.round(coordinate / gridResolution) * gridResolution;
+        // Strip floating point noise so equal cells produce equal keys (and tidy query params)
+        return Math.round(snapped * 10_000d) / 10_000d;
+    }
+}
@@ -0,0 +1,45 @@
+package com.aspora.forecast;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tracks the upstream model update cadence. Open-Meteo refreshes its forecasts on a fixed
+ * interval, so anything fetched within the same interval belongs to the same model run.
+ */
+@Component
+public class ModelRunSchedule {
+
+    private final Clock clock;
+    private final long intervalSeconds;
+
+    public ModelRunSchedule(Clock clock,
+                            @Value("${openmeteo.model-update-interval:1h}") Duration updateInterval) {
+        if (updateInterval.getSeconds() <= 0) {
+            throw new IllegalArgumentException("Model update interval must be at least one second");
+        }
+        this.clock = clock;
+        this.intervalSeconds = updateInterval.getSeconds();
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    public Instant currentRun() {
+        long now = clock.instant().getEpochSecond();
+        return Instant.ofEpochSecond(now - Math.floorMod(now, intervalSeconds));
+    }
+
+    public Instant nextUpdate() {
+        return currentRun().plusSeconds(intervalSeconds);
+    }
+
+    public Duration untilNextUpdate() {
+        return Duration.between(clock.instant(), nextUpdate());
+    }
+}
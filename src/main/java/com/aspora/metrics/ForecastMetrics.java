@@ -0,0 +1,97 @@
+package com.aspora.metrics;
+
+import com.aspora.rules.Severity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the forecast pipeline. Everything on the per-request path is registered up front,
+ * so recording is a lock-free histogram update with no tag lookup or allocation.
+ */
+@Component
+public class ForecastMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer parseTimer;
+    private final Timer sliceTimer;
+    private final Timer classifyTimer;
+    private final DistributionSummary payloadSize;
+    private final DistributionSummary windowHours;
+    private final Counter staleServed;
+    private final Map<Severity, Counter> outcomes = new EnumMap<>(Severity.class);
+
+    public ForecastMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.parseTimer = Timer.builder("forecast.parse")
+                .description("Time to decode an Open-Meteo response body, including streaming it off the wire")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.sliceTimer = Timer.builder("forecast.slice")
+                .description("Time to cut the event window out of a forecast")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.classifyTimer = Timer.builder("forecast.classify")
+                .description("Time to evaluate the classification rules over an event window")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.payloadSize = DistributionSummary.builder("openmeteo.response.size")
+                .description("Decoded size of Open-Meteo response bodies")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.windowHours = DistributionSummary.builder("forecast.window.hours")
+                .description("Forecast hours inside each classified event window")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.staleServed = Counter.builder("forecast.stale.served")
+                .description("Forecasts answered from the last known good copy because the upstream failed")
+                .register(registry);
+        for (Severity severity : Severity.values()) {
+            outcomes.put(severity, Counter.builder("forecast.classifications")
+                    .description("Event windows classified, by outcome")
+                    .tag("classification", severity.label())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Records one Open-Meteo call. {@code status} is the HTTP status, or 0 when no response
+     * arrived; upstream calls are slow enough that resolving the tagged timer here is noise.
+     */
+    public void recordUpstream(long nanos, int status, boolean timeout, int locations) {
+        Timer.builder("openmeteo.requests")
+                .description("Open-Meteo forecast calls, from request to fully decoded body")
+                .tag("status", status == 0 ? "IO_ERROR" : String.valueOf(status))
+                .tag("timeout", String.valueOf(timeout))
+                .tag("batch", String.valueOf(locations > 1))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordParse(long nanos, long bytes) {
+        parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+        payloadSize.record(bytes);
+    }
+
+    public void recordSlice(long nanos) {
+        sliceTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStaleServed() {
+        staleServed.increment();
+    }
+
+    public void recordClassification(long nanos, int hours, Severity severity) {
+        classifyTimer.record(nanos, TimeUnit.NANOSECONDS);
+        windowHours.record(hours);
+        outcomes.get(severity).increment();
+    }
+}
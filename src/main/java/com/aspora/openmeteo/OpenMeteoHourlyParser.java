@@ -0,0 +1,332 @@
+package com.aspora.openmeteo;
+
+import com.aspora.forecast.ForecastFrame;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming decoder for Open-Meteo {@code /forecast} responses. Hourly arrays are read token by
+ * token straight into the primitive columns of a {@link ForecastFrame}, so no boxed values or
+ * per-hour strings are created. Only the first two timestamps are parsed: the axis has a fixed
+ * step, which is enough to place every other value.
+ *
+ * <p>With a window hint, values outside {@code [windowStart, windowEnd)} are skipped without
+ * being decoded. This works best when {@code time} precedes the variables, as Open-Meteo sends it;
+ * otherwise the columns are trimmed once the axis is known.
+ */
+@Component
+public class OpenMeteoHourlyParser {
+
+    static final String TIME = "time";
+    static final String TEMPERATURE = "temperature_2m";
+    static final String PRECIPITATION_PROBABILITY = "precipitation_probability";
+    static final String WEATHER_CODE = "weather_code";
+    static final String WIND_SPEED = "wind_speed_10m";
+
+    public static final String HOURLY_VARIABLES =
+            String.join(",", TEMPERATURE, PRECIPITATION_PROBABILITY, WEATHER_CODE, WIND_SPEED);
+
+    private static final LocalDateTime EMPTY_AXIS_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JsonFactory jsonFactory;
+
+    public OpenMeteoHourlyParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Parses a single-location object or a multi-location array. Elements without an
+     * {@code hourly} block are returned as {@code null}.
+     */
+    public List<ForecastFrame> parse(InputStream body) throws IOException {
+        return parse(body, null, null);
+    }
+
+    public List<ForecastFrame> parse(InputStream body, LocalDateTime windowStart, LocalDateTime windowEnd)
+            throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            List<ForecastFrame> results = new ArrayList<>(1);
+            if (token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    results.add(readLocation(parser, windowStart, windowEnd));
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                results.add(readLocation(parser, windowStart, windowEnd));
+            } else {
+                throw new IOException("Unexpected OpenMeteo payload starting with " + token);
+            }
+            return results;
+        }
+    }
+
+    private ForecastFrame readLocation(JsonParser parser, LocalDateTime windowStart, LocalDateTime windowEnd)
+            throws IOException {
+        double latitude = Double.NaN;
+        double longitude = Double.NaN;
+        ForecastFrame hourly = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "latitude" -> latitude = parser.getDoubleValue();
+                case "longitude" -> longitude = parser.getDoubleValue();
+                case "hourly" -> hourly = value == JsonToken.START_OBJECT
+                        ? new HourlyReader(windowStart, windowEnd).read(parser)
+                        : null;
+                default -> parser.skipChildren();
+            }
+        }
+
+        return hourly == null ? null : hourly.withLocation(latitude, longitude);
+    }
+
+    private static final class HourlyReader {
+
+        private final LocalDateTime windowStart;
+        private final LocalDateTime windowEnd;
+
+        private LocalDateTime start;
+        private Duration step = Duration.ofHours(1);
+        private int count = -1;
+        private int from;
+        private int to;
+
+        // Global index of the first hour with a missing value in any column
+        private int firstMissing = Integer.MAX_VALUE;
+
+        private Column temperature;
+        private Column precipitationProbability;
+        private Column weatherCode;
+        private Column windSpeed;
+
+        private HourlyReader(LocalDateTime windowStart, LocalDateTime windowEnd) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+        }
+
+        private ForecastFrame read(JsonParser parser) throws IOException {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case TIME -> readAxis(parser);
+                    case TEMPERATURE -> temperature = readColumn(parser, false);
+                    case PRECIPITATION_PROBABILITY -> precipitationProbability = readColumn(parser, true);
+                    case WEATHER_CODE -> weatherCode = readColumn(parser, true);
+                    case WIND_SPEED -> windSpeed = readColumn(parser, false);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (count < 0) {
+                return null;
+            }
+            if (count == 0) {
+                return ForecastFrame.empty(Double.NaN, Double.NaN, EMPTY_AXIS_START, step);
+            }
+            if (temperature == null || precipitationProbability == null || weatherCode == null || windSpeed == null) {
+                firstMissing = 0;
+            }
+
+            int end = Math.max(from, Math.min(to, firstMissing));
+            return new ForecastFrame(Double.NaN, Double.NaN, start.plusSeconds(from * step.getSeconds()), step,
+                    trim(temperature, end).doubles,
+                    trim(precipitationProbability, end).ints,
+                    trim(weatherCode, end).ints,
+                    trim(windSpeed, end).doubles);
+        }
+
+        private void readAxis(JsonParser parser) throws IOException {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (index == 0) {
+                    start = LocalDateTime.parse(parser.getText());
+                } else if (index == 1) {
+                    step = Duration.between(start, LocalDateTime.parse(parser.getText()));
+                }
+                index++;
+            }
+            if (index > 1 && (step.isZero() || step.isNegative())) {
+                throw new IOException("OpenMeteo hourly axis is not increasing");
+            }
+            count = index;
+            from = 0;
+            to = count;
+            if (count > 0 && windowStart != null && windowEnd != null) {
+                from = clamp(ceilIndex(windowStart));
+                to = Math.max(from, clamp(ceilIndex(windowEnd)));
+            }
+        }
+
+        private Column readColumn(JsonParser parser, boolean integral) throws IOException {
+            // When the axis is already known only the window is kept; otherwise keep everything
+            boolean windowed = count >= 0;
+            int keepFrom = windowed ? from : 0;
+            int keepTo = windowed ? to : Integer.MAX_VALUE;
+            Column column = new Column(integral, keepFrom, windowed ? to - from : 64);
+
+            int index = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (index >= keepFrom && index < keepTo) {
+                    if (token == JsonToken.VALUE_NULL) {
+                        firstMissing = Math.min(firstMissing, index);
+                        column.add(0);
+                    } else if (integral) {
+                        column.add(parser.getIntValue());
+                    } else {
+                        column.add(readDouble(parser));
+                    }
+                }
+                index++;
+            }
+            if (!windowed) {
+                firstMissing = Math.min(firstMissing, index);
+            } else if (index < to) {
+                firstMissing = Math.min(firstMissing, index);
+            }
+            return column;
+        }
+
+        private Column trim(Column column, int end) {
+            if (column == null) {
+                return Column.empty();
+            }
+            return column.slice(from, end);
+        }
+
+        private int ceilIndex(LocalDateTime time) {
+            long seconds = Duration.between(start, time).getSeconds();
+            long index = -Math.floorDiv(-seconds, step.getSeconds());
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, index));
+        }
+
+        private int clamp(int index) {
+            return Math.max(0, Math.min(count, index));
+        }
+    }
+
+    /**
+     * Decodes short decimals such as {@code 12.5} straight from the token's characters. Jackson's
+     * own floating point path builds a String per value; a mantissa below 2^53 divided by an exact
+     * power of ten is correctly rounded, so the result is identical to {@link Double#parseDouble}.
+     */
+    static double readDouble(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+
+        boolean negative = chars[offset] == '-';
+        int position = negative ? offset + 1 : offset;
+        long mantissa = 0;
+        int fractionDigits = -1;
+        for (; position < end; position++) {
+            char c = chars[position];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9' && mantissa < MAX_EXACT_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                return parser.getDoubleValue();
+            }
+        }
+        if (fractionDigits < 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return parser.getDoubleValue();
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static final long MAX_EXACT_MANTISSA = (1L << 53) / 10;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private static final class Column {
+
+        private final boolean integral;
+        private final int offset;
+        private double[] doubles;
+        private int[] ints;
+        private int size;
+
+        private Column(boolean integral, int offset, int capacity) {
+            this.integral = integral;
+            this.offset = offset;
+            if (integral) {
+                ints = new int[capacity];
+            } else {
+                doubles = new double[capacity];
+            }
+        }
+
+        private static Column empty() {
+            Column column = new Column(false, 0, 0);
+            column.ints = new int[0];
+            return column;
+        }
+
+        private void add(double value) {
+            if (size == doubles.length) {
+                doubles = Arrays.copyOf(doubles, Math.max(16, size * 2));
+            }
+            doubles[size++] = value;
+        }
+
+        private void add(int value) {
+            if (integral) {
+                if (size == ints.length) {
+                    ints = Arrays.copyOf(ints, Math.max(16, size * 2));
+                }
+                ints[size++] = value;
+            } else {
+                add((double) value);
+            }
+        }
+
+        /**
+         * Returns this column restricted to global indices {@code [from, to)}. A column read before
+         * the axis may end before {@code from}; only the values it has are kept.
+         */
+        private Column slice(int from, int to) {
+            int start = Math.min(from - offset, size);
+            int length = Math.max(0, Math.min(to - from, size - start));
+            if (integral) {
+                if (start != 0 || length != ints.length) {
+                    ints = Arrays.copyOfRange(ints, start, start + length);
+                }
+                doubles = new double[0];
+            } else {
+                if (start != 0 || length != doubles.length) {
+                    doubles = Arrays.copyOfRange(doubles, start, start + length);
+                }
+                ints = new int[0];
+            }
+            return this;
+        }
+    }
+}
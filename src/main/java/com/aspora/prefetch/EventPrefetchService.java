@@ -0,0 +1,349 @@
+package com.aspora.prefetch;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.EventRegistrationResponse;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.HourMasks;
+import com.aspora.rules.ReasonDetail;
+import com.aspora.service.ClassificationService;
+import com.aspora.service.WeatherService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps classifications for registered upcoming events ready before anyone asks for them.
+ * A scheduler round picks the events whose response predates the current model run (or the
+ * current rules), waits out a per-venue jitter after each model update, fetches each venue once
+ * through {@link WeatherService#fetchForecasts} within an upstream call budget, and classifies
+ * every event at the fetched venues. {@code POST /event-forecast} for a registered event is then
+ * answered from memory.
+ *
+ * <p>Each event keeps the per-hour rule bits of its last evaluation, so a refresh only re-runs
+ * the rules for hours whose forecast changed. A {@link ForecastChangedEvent} is published when
+ * the resulting response differs from the previous one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventPrefetchService implements MeterBinder {
+
+    private final WeatherService weatherService;
+    private final ClassificationService classificationService;
+    private final ForecastCache forecastCache;
+    private final ClassificationRulesRegistry rulesRegistry;
+    private final ModelRunSchedule modelRunSchedule;
+    private final PrefetchProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, RegisteredEvent> registrations = new ConcurrentHashMap<>();
+    private final Map<EventWindow, RegisteredEvent> byWindow = new ConcurrentHashMap<>();
+    private final AtomicLong served = new AtomicLong();
+
+    @Value("${openmeteo.batch.max-locations-per-request:100}")
+    private int maxLocationsPerRequest = 100;
+
+    /**
+     * Registers an event for prefetching. Registering an event with the same venue cell, window
+     * and profile as an existing one returns the existing registration.
+     */
+    public synchronized EventRegistrationResponse register(EventRequest request) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        if (request.getEndTime().isBefore(expiryCutoff())) {
+            throw new IllegalArgumentException("Event has already ended");
+        }
+        String profile = normalize(request.getProfile());
+        rulesRegistry.rules(profile);
+
+        EventWindow window = windowOf(request);
+        RegisteredEvent existing = byWindow.get(window);
+        if (existing != null) {
+            return existing.describe();
+        }
+        if (registrations.size() >= properties.getMaxEvents()) {
+            throw new IllegalArgumentException("At most " + properties.getMaxEvents() + " events may be registered");
+        }
+        RegisteredEvent event = new RegisteredEvent(UUID.randomUUID().toString(), request.getName(), window);
+        registrations.put(event.id, event);
+        byWindow.put(window, event);
+        return event.describe();
+    }
+
+    public EventRegistrationResponse registration(String id) {
+        RegisteredEvent event = registrations.get(id);
+        return event != null ? event.describe() : null;
+    }
+
+    /** The most recent precomputed response for a registered event, whichever model run it is from. */
+    public EventForecastResponse latestResponse(String id) {
+        RegisteredEvent event = registrations.get(id);
+        Precomputed precomputed = event != null ? event.precomputed : null;
+        return precomputed != null ? precomputed.response : null;
+    }
+
+    public List<EventRegistrationResponse> registrations() {
+        return registrations.values().stream()
+                .sorted(Comparator.comparing(event -> event.window.startTime()))
+                .map(RegisteredEvent::describe)
+                .toList();
+    }
+
+    public synchronized boolean unregister(String id) {
+        RegisteredEvent event = registrations.remove(id);
+        if (event == null) {
+            return false;
+        }
+        byWindow.remove(event.window, event);
+        return true;
+    }
+
+    /**
+     * Returns the precomputed response for a registered event, or {@code null} if the event is not
+     * registered, its response is not up to date with the current model run and rules, or the
+     * request asks for other than the summarized reasons it was precomputed with.
+     */
+    public EventForecastResponse precomputed(EventRequest request) {
+        if (registrations.isEmpty() || ReasonDetail.of(request.getReasons()) != ReasonDetail.SUMMARY) {
+            return null;
+        }
+        RegisteredEvent event = byWindow.get(windowOf(request));
+        if (event == null) {
+            return null;
+        }
+        Precomputed precomputed = event.precomputed;
+        if (precomputed == null || !isCurrent(precomputed, event.window.profile(), modelRunSchedule.currentRun())) {
+            return null;
+        }
+        served.incrementAndGet();
+        return precomputed.response;
+    }
+
+    @Scheduled(fixedDelayString = "${prefetch.interval:10s}")
+    public void refresh() {
+        if (registrations.isEmpty()) {
+            return;
+        }
+        Instant now = modelRunSchedule.now();
+        Instant run = modelRunSchedule.currentRun();
+        expire();
+
+        Map<ForecastKey, List<RegisteredEvent>> due = selectDue(now, run);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<ForecastKey, ForecastFrame> forecasts = weatherService.fetchForecasts(due.keySet(),
+                UpstreamPriority.PREFETCH);
+        int refreshed = 0;
+        for (Map.Entry<ForecastKey, List<RegisteredEvent>> venue : due.entrySet()) {
+            ForecastFrame forecast = forecasts.get(venue.getKey());
+            if (forecast == null || forecast.isStale()) {
+                // Retried next round; the on-demand path serves these events meanwhile
+                continue;
+            }
+            for (RegisteredEvent event : venue.getValue()) {
+                if (precompute(event, forecast, run)) {
+                    refreshed++;
+                }
+            }
+        }
+        log.debug("Prefetched {} venues, {} events ready for model run {}", due.size(), refreshed, run);
+    }
+
+    public int registeredCount() {
+        return registrations.size();
+    }
+
+    public long readyCount() {
+        Instant run = modelRunSchedule.currentRun();
+        return registrations.values().stream()
+                .filter(event -> event.precomputed != null && event.precomputed.modelRun.equals(run))
+                .count();
+    }
+
+    public long servedCount() {
+        return served.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("prefetch.events", this, EventPrefetchService::registeredCount)
+                .description("Events registered for prefetching")
+                .register(registry);
+        Gauge.builder("prefetch.ready", this, EventPrefetchService::readyCount)
+                .description("Registered events with a response for the current model run")
+                .register(registry);
+        FunctionCounter.builder("prefetch.served", this, EventPrefetchService::servedCount)
+                .description("Event forecasts answered from a precomputed response")
+                .register(registry);
+    }
+
+    /**
+     * Groups the out-of-date events by venue, soonest events first, and stops adding venues once
+     * fetching them would exceed the round's upstream call budget. Venues sharing a date span are
+     * fetched together, so a call is only charged when a span needs another chunk.
+     */
+    private Map<ForecastKey, List<RegisteredEvent>> selectDue(Instant now, Instant run) {
+        List<RegisteredEvent> candidates = new ArrayList<>();
+        for (RegisteredEvent event : registrations.values()) {
+            if (event.precomputed == null || !isCurrent(event.precomputed, event.window.profile(), run)) {
+                if (!now.isBefore(run.plusMillis(jitterMillis(event.window.key(), run)))) {
+                    candidates.add(event);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparing(event -> event.window.startTime()));
+
+        Map<ForecastKey, List<RegisteredEvent>> due = new LinkedHashMap<>();
+        Map<String, Integer> venuesPerSpan = new HashMap<>();
+        int calls = 0;
+        for (RegisteredEvent event : candidates) {
+            ForecastKey key = event.window.key();
+            List<RegisteredEvent> venueEvents = due.get(key);
+            if (venueEvents == null) {
+                String span = key.span();
+                int venues = venuesPerSpan.getOrDefault(span, 0);
+                int cost = venues % maxLocationsPerRequest == 0 ? 1 : 0;
+                if (calls + cost > properties.getMaxUpstreamCallsPerRound()) {
+                    continue;
+                }
+                calls += cost;
+                venuesPerSpan.put(span, venues + 1);
+                venueEvents = new ArrayList<>();
+                due.put(key, venueEvents);
+            }
+            venueEvents.add(event);
+        }
+        return due;
+    }
+
+    private boolean precompute(RegisteredEvent event, ForecastFrame forecast, Instant run) {
+        EventWindow window = event.window;
+        try {
+            CompiledRules rules = rulesRegistry.rules(window.profile());
+            HourMasks evaluation = HourMasks.evaluate(rules,
+                    forecast.slice(window.startTime(), window.endTime()), event.evaluation);
+            EventForecastResponse response = classificationService.classifyEvaluated(evaluation);
+            Precomputed previous = event.precomputed;
+            event.evaluation = evaluation;
+            event.precomputed = new Precomputed(response, run, rules.version());
+            if (previous == null || !previous.response.equals(response)) {
+                eventPublisher.publishEvent(new ForecastChangedEvent(event.id, event.name, response));
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Prefetch classification failed for registered event {}", event.id, ex);
+            return false;
+        }
+    }
+
+    private boolean isCurrent(Precomputed precomputed, String profile, Instant run) {
+        if (!precomputed.modelRun.equals(run)) {
+            return false;
+        }
+        try {
+            return precomputed.rulesVersion == rulesRegistry.rules(profile).version();
+        } catch (IllegalArgumentException ex) {
+            // The profile was removed by a rules reload
+            return false;
+        }
+    }
+
+    /** Spreads venue refreshes over the jitter window; stable for a venue within one model run. */
+    private long jitterMillis(ForecastKey key, Instant run) {
+        long bound = properties.getJitter().toMillis();
+        if (bound <= 0) {
+            return 0;
+        }
+        return new SplittableRandom(key.hashCode() * 31L + run.getEpochSecond()).nextLong(bound);
+    }
+
+    private synchronized void expire() {
+        LocalDateTime cutoff = expiryCutoff();
+        registrations.values().removeIf(event -> {
+            if (event.window.endTime().isBefore(cutoff)) {
+                byWindow.remove(event.window, event);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Event times are venue-local, so an event is only treated as over once it ended a full day
+     * ago in UTC, whatever its time zone.
+     */
+    private LocalDateTime expiryCutoff() {
+        return LocalDateTime.ofInstant(modelRunSchedule.now(), ZoneOffset.UTC).minusDays(1);
+    }
+
+    private EventWindow windowOf(EventRequest request) {
+        return new EventWindow(forecastCache.keyFor(request), request.getStartTime(), request.getEndTime(),
+                normalize(request.getProfile()));
+    }
+
+    private static String normalize(String profile) {
+        return profile == null || profile.isBlank() ? null : profile;
+    }
+
+    private record Precomputed(EventForecastResponse response, Instant modelRun, long rulesVersion) {
+    }
+
+    private static final class RegisteredEvent {
+
+        private final String id;
+        private final String name;
+        private final EventWindow window;
+        private volatile Precomputed precomputed;
+        private volatile HourMasks evaluation;
+
+        private RegisteredEvent(String id, String name, EventWindow window) {
+            this.id = id;
+            this.name = name;
+            this.window = window;
+        }
+
+        private EventRegistrationResponse describe() {
+            Precomputed current = precomputed;
+            return EventRegistrationResponse.builder()
+                    .id(id)
+                    .name(name)
+                    .startTime(window.startTime())
+                    .endTime(window.endTime())
+                    .profile(window.profile())
+                    .precomputed(current != null)
+                    .modelRun(current != null ? current.modelRun : null)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.aspora.prefetch;
+
+import com.aspora.forecast.ForecastKey;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a precomputed response depends on: the forecast cell, the event window and the
+ * classification profile. Events that agree on all three share one registration.
+ */
+record EventWindow(ForecastKey key, LocalDateTime startTime, LocalDateTime endTime, String profile) {
+}
@@ -0,0 +1,10 @@
+package com.aspora.prefetch;
+
+import com.aspora.dto.EventForecastResponse;
+
+/**
+ * Published when a registered event's precomputed classification, reasons or hourly values
+ * differ from the previous ones.
+ */
+public record ForecastChangedEvent(String eventId, String name, EventForecastResponse forecast) {
+}
@@ -0,0 +1,29 @@
+package com.aspora.prefetch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Background prefetching of registered events, bound from {@code prefetch.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "prefetch")
+public class PrefetchProperties {
+
+    /** Most events that may be registered at once; bounds the memory held by precomputed responses. */
+    private int maxEvents = 10_000;
+
+    /** How often the scheduler looks for events whose precomputed response is out of date. */
+    private Duration interval = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound on the random delay after a model update before a venue is refreshed, so
+     * venues are spread across this window instead of all refreshing at once.
+     */
+    private Duration jitter = Duration.ofMinutes(5);
+
+    /** Upstream calls a single scheduler round may make; limits prefetch traffic to this many per interval. */
+    private int maxUpstreamCallsPerRound = 5;
+}
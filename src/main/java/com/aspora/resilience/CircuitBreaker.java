@@ -0,0 +1,157 @@
+package com.aspora.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker. The outcomes of the last {@code slidingWindowSize} calls are kept
+ * in a ring buffer; once at least {@code minimumCalls} are recorded and either the failure rate or
+ * the slow-call rate reaches its threshold, the circuit opens and calls fail fast with
+ * {@link CircuitOpenException}. After {@code openDuration} a fixed number of trial calls is let
+ * through: if they stay under the thresholds the circuit closes, otherwise it opens again.
+ *
+ * <p>Guarding upstream calls that take milliseconds, a single monitor is cheap enough and keeps
+ * the state transitions easy to reason about.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final CircuitBreakerProperties properties;
+    private final Clock clock;
+    private final Predicate<Throwable> recordAsFailure;
+    private final long slowCallNanos;
+
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int halfOpenPermits;
+
+    public CircuitBreaker(String name, CircuitBreakerProperties properties, Clock clock,
+                          Predicate<Throwable> recordAsFailure) {
+        if (properties.getSlidingWindowSize() <= 0 || properties.getHalfOpenCalls() <= 0) {
+            throw new IllegalArgumentException("Circuit breaker window and half-open calls must be positive");
+        }
+        if (properties.getHalfOpenCalls() > properties.getSlidingWindowSize()) {
+            // The window could never hold enough trial calls to decide, and the circuit would stay open
+            throw new IllegalArgumentException("Circuit breaker half-open calls must not exceed the window size");
+        }
+        this.name = name;
+        this.properties = properties;
+        this.clock = clock;
+        this.recordAsFailure = recordAsFailure;
+        this.slowCallNanos = properties.getSlowCallDuration().toNanos();
+        this.failed = new boolean[properties.getSlidingWindowSize()];
+        this.slow = new boolean[properties.getSlidingWindowSize()];
+    }
+
+    /**
+     * Runs {@code call} if the circuit permits it and records its outcome. Exceptions from the call
+     * are rethrown unchanged; those rejected by the failure predicate count as successes. An
+     * {@link Error} always counts as a failure, so a trial call never leaves its permit unused.
+     */
+    public <T> T execute(Supplier<T> call) {
+        acquirePermission();
+        long started = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (Throwable ex) {
+            record(!(ex instanceof RuntimeException) || recordAsFailure.test(ex), System.nanoTime() - started);
+            throw ex;
+        }
+        record(false, System.nanoTime() - started);
+        return result;
+    }
+
+    public synchronized State state() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(properties.getOpenDuration()))) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            Duration remaining = Duration.between(clock.instant(), openedAt.plus(properties.getOpenDuration()));
+            if (!remaining.isNegative() && !remaining.isZero()) {
+                throw new CircuitOpenException(name, remaining);
+            }
+            transitionTo(State.HALF_OPEN);
+            halfOpenPermits = properties.getHalfOpenCalls();
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                throw new CircuitOpenException(name, Duration.ZERO);
+            }
+            halfOpenPermits--;
+        }
+    }
+
+    private synchronized void record(boolean failure, long elapsedNanos) {
+        if (state == State.OPEN) {
+            // A call that started before the circuit opened; its outcome is already accounted for
+            return;
+        }
+        boolean slowCall = elapsedNanos >= slowCallNanos;
+        if (recorded == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+
+        if (state == State.HALF_OPEN) {
+            if (recorded >= properties.getHalfOpenCalls()) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recorded >= Math.min(properties.getMinimumCalls(), failed.length) && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean exceedsThresholds() {
+        return failures * 100 >= properties.getFailureRateThreshold() * recorded
+                || slowCalls * 100 >= properties.getSlowCallRateThreshold() * recorded;
+    }
+
+    private void transitionTo(State target) {
+        if (target == State.CLOSED) {
+            log.info("Circuit '{}' {} -> {}", name, state, target);
+        } else {
+            log.warn("Circuit '{}' {} -> {} ({} of {} calls failed, {} slow)",
+                    name, state, target, failures, recorded, slowCalls);
+        }
+        state = target;
+        openedAt = target == State.OPEN ? clock.instant() : null;
+        // Every state starts from an empty window, so trial calls are judged on their own
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
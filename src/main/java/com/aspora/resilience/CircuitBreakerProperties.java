@@ -0,0 +1,38 @@
+package com.aspora.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Thresholds for the circuit breaker around Open-Meteo, bound from {@code openmeteo.circuit-breaker.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    /** Percentage of failed calls in the window at which the circuit opens. */
+    private int failureRateThreshold = 50;
+
+    /** Percentage of slow calls in the window at which the circuit opens. */
+    private int slowCallRateThreshold = 80;
+
+    /** Calls taking at least this long count as slow, whether or not they succeed. */
+    private Duration slowCallDuration = Duration.ofSeconds(3);
+
+    /** Number of most recent calls the rates are computed over. */
+    private int slidingWindowSize = 20;
+
+    /** Calls needed in the window before the rates are evaluated at all. */
+    private int minimumCalls = 10;
+
+    /** How long the circuit stays open before letting trial calls through. */
+    private Duration openDuration = Duration.ofSeconds(30);
+
+    /**
+     * Trial calls allowed while half-open; all of them decide whether the circuit closes again.
+     * At most {@link #slidingWindowSize}.
+     */
+    private int halfOpenCalls = 3;
+}
@@ -0,0 +1,20 @@
+package com.aspora.resilience;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of making a call while the circuit is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public CircuitOpenException(String name, Duration retryAfter) {
+        super("Circuit '" + name + "' is open; calls are suspended for " + retryAfter.toSeconds() + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
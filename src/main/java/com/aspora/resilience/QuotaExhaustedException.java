@@ -0,0 +1,22 @@
+package com.aspora.resilience;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Thrown instead of making a call when the upstream request budget for its priority is spent.
+ */
+public class QuotaExhaustedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public QuotaExhaustedException(UpstreamPriority priority, Duration retryAfter) {
+        super("Upstream request budget for " + priority.name().toLowerCase(Locale.ROOT) + " calls is exhausted; next call in "
+                + Math.max(1, retryAfter.toSeconds()) + "s");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
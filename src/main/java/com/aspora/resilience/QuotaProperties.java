@@ -0,0 +1,33 @@
+package com.aspora.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Open-Meteo request budgets, bound from {@code openmeteo.quota.*}. The defaults are the limits of
+ * the free API; one multi-coordinate call counts as one request.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.quota")
+public class QuotaProperties {
+
+    /** Whether upstream calls are metered at all. */
+    private boolean enabled = true;
+
+    private long perMinute = 600;
+
+    private long perHour = 5_000;
+
+    private long perDay = 10_000;
+
+    /** Fraction of each budget that batch calls leave untouched for interactive requests. */
+    private double batchReserve = 0.1;
+
+    /** Fraction of each budget that prefetch calls leave untouched for interactive and batch requests. */
+    private double prefetchReserve = 0.3;
+
+    /** How long batch and prefetch fetches wait in the queue for budget before giving up. */
+    private Duration maxQueueWait = Duration.ofSeconds(5);
+}
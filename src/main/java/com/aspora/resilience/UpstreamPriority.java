@@ -0,0 +1,17 @@
+package com.aspora.resilience;
+
+/**
+ * Who an upstream call is for, highest precedence first. Lower classes may only spend the budget
+ * left above the reserves kept for the classes ahead of them.
+ */
+public enum UpstreamPriority {
+
+    /** A user waiting on {@code POST /event-forecast}. */
+    INTERACTIVE,
+
+    /** Batch and heatmap requests: a user is waiting, but for many locations at once. */
+    BATCH,
+
+    /** Background prefetch and stale refreshes that nobody is waiting on. */
+    PREFETCH
+}
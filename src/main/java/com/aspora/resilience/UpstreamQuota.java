@@ -0,0 +1,197 @@
+package com.aspora.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters upstream calls against per-minute, per-hour and per-day budgets, each a token bucket
+ * refilled continuously from the clock. A call takes one token from every bucket. Batch and
+ * prefetch calls are only admitted while each bucket stays above the share reserved for the
+ * classes ahead of them, so background work runs out of budget well before a user does.
+ */
+public class UpstreamQuota implements MeterBinder {
+
+    private final QuotaProperties properties;
+    private final Clock clock;
+    private final List<TokenBucket> buckets;
+    private final Map<UpstreamPriority, AtomicLong> rejected = new EnumMap<>(UpstreamPriority.class);
+
+    public UpstreamQuota(QuotaProperties properties, Clock clock) {
+        if (properties.getPerMinute() <= 0 || properties.getPerHour() <= 0 || properties.getPerDay() <= 0) {
+            throw new IllegalArgumentException("Upstream request budgets must be positive");
+        }
+        this.properties = properties;
+        this.clock = clock;
+        Instant now = clock.instant();
+        this.buckets = List.of(
+                new TokenBucket("minute", properties.getPerMinute(), Duration.ofMinutes(1), now),
+                new TokenBucket("hour", properties.getPerHour(), Duration.ofHours(1), now),
+                new TokenBucket("day", properties.getPerDay(), Duration.ofDays(1), now));
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            rejected.put(priority, new AtomicLong());
+        }
+    }
+
+    /** A quota that admits every call, for callers and tests that do not meter the upstream. */
+    public static UpstreamQuota unlimited() {
+        QuotaProperties properties = new QuotaProperties();
+        properties.setEnabled(false);
+        return new UpstreamQuota(properties, Clock.systemUTC());
+    }
+
+    public QuotaProperties properties() {
+        return properties;
+    }
+
+    public Instant now() {
+        return clock.instant();
+    }
+
+    /** Takes one call from every budget if {@code priority} may spend it, and tells whether it did. */
+    public synchronized boolean tryAcquire(UpstreamPriority priority) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        Instant now = clock.instant();
+        double reserve = reserve(priority);
+        for (TokenBucket bucket : buckets) {
+            bucket.refill(now);
+            if (!bucket.has(1 + reserve * bucket.capacity())) {
+                rejected.get(priority).incrementAndGet();
+                return false;
+            }
+        }
+        for (TokenBucket bucket : buckets) {
+            bucket.take();
+        }
+        return true;
+    }
+
+    /** Like {@link #tryAcquire}, throwing {@link QuotaExhaustedException} when the call is not admitted. */
+    public void acquire(UpstreamPriority priority) {
+        if (!tryAcquire(priority)) {
+            throw new QuotaExhaustedException(priority, retryAfter(priority));
+        }
+    }
+
+    /** How long until a call of {@code priority} would be admitted, if nothing else spends budget meanwhile. */
+    public synchronized Duration retryAfter(UpstreamPriority priority) {
+        Instant now = clock.instant();
+        double reserve = reserve(priority);
+        Duration wait = Duration.ZERO;
+        for (TokenBucket bucket : buckets) {
+            bucket.refill(now);
+            Duration bucketWait = bucket.timeUntil(1 + reserve * bucket.capacity());
+            if (bucketWait.compareTo(wait) > 0) {
+                wait = bucketWait;
+            }
+        }
+        return wait;
+    }
+
+    /** Whole calls left in the named budget ({@code minute}, {@code hour} or {@code day}). */
+    public synchronized long remaining(String window) {
+        Instant now = clock.instant();
+        for (TokenBucket bucket : buckets) {
+            if (bucket.window().equals(window)) {
+                bucket.refill(now);
+                return bucket.available();
+            }
+        }
+        throw new IllegalArgumentException("Unknown quota window: " + window);
+    }
+
+    public long rejectedCount(UpstreamPriority priority) {
+        return rejected.get(priority).get();
+    }
+
+    private double reserve(UpstreamPriority priority) {
+        return switch (priority) {
+            case INTERACTIVE -> 0;
+            case BATCH -> properties.getBatchReserve();
+            case PREFETCH -> properties.getPrefetchReserve();
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (TokenBucket bucket : buckets) {
+            Gauge.builder("openmeteo.quota.remaining", this, quota -> quota.remaining(bucket.window()))
+                    .description("Upstream calls left in the budget")
+                    .tag("window", bucket.window())
+                    .register(registry);
+        }
+        for (UpstreamPriority priority : UpstreamPriority.values()) {
+            FunctionCounter.builder("openmeteo.quota.rejected", this, quota -> quota.rejectedCount(priority))
+                    .description("Upstream calls refused for lack of budget")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+    }
+
+    /** Token bucket holding up to {@code capacity} calls, refilled at {@code capacity} per {@code period}. */
+    private static final class TokenBucket {
+
+        private final String window;
+        private final long capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private Instant updated;
+
+        TokenBucket(String window, long capacity, Duration period, Instant now) {
+            this.window = window;
+            this.capacity = capacity;
+            this.tokensPerNano = (double) capacity / period.toNanos();
+            this.tokens = capacity;
+            this.updated = now;
+        }
+
+        String window() {
+            return window;
+        }
+
+        long capacity() {
+            return capacity;
+        }
+
+        void refill(Instant now) {
+            if (now.isAfter(updated)) {
+                tokens = Math.min(capacity, tokens + Duration.between(updated, now).toNanos() * tokensPerNano);
+                updated = now;
+            }
+        }
+
+        boolean has(double needed) {
+            return tokens >= needed;
+        }
+
+        void take() {
+            tokens -= 1;
+        }
+
+        long available() {
+            return (long) Math.floor(tokens);
+        }
+
+        Duration timeUntil(double needed) {
+            if (tokens >= needed) {
+                return Duration.ZERO;
+            }
+            if (needed > capacity) {
+                return Duration.ofNanos(Long.MAX_VALUE);
+            }
+            return Duration.ofNanos((long) Math.ceil((needed - tokens) / tokensPerNano));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.aspora.rules;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Classification rules bound from {@code classification.*}. {@code rules} is the default profile;
+ * {@code profiles} holds per-customer overrides that inherit any unset value from it.
+ */
+@Data
+@ConfigurationProperties(prefix = "classification")
+public class ClassificationProperties {
+
+    private RuleSet rules = RuleSet.defaults();
+
+    private Map<String, RuleSet> profiles = new LinkedHashMap<>();
+
+    /**
+     * Optional YAML file with the same {@code classification.*} layout. When set it replaces the
+     * rules above and is re-read whenever it changes, without a restart.
+     */
+    private String rulesFile;
+
+    private Duration reloadInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,109 @@
+package com.aspora.rules;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the compiled rules for every classification profile and swaps them atomically on reload.
+ * Each successful reload bumps {@link CompiledRules#version()}, so anything derived from a
+ * classification can tell whether the rules behind it have changed.
+ */
+@Slf4j
+@Component
+public class ClassificationRulesRegistry {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    private final ClassificationProperties properties;
+    private final AtomicLong versions = new AtomicLong();
+
+    private volatile Map<String, CompiledRules> rulesByProfile;
+    private volatile FileTime rulesFileModified;
+
+    public ClassificationRulesRegistry(ClassificationProperties properties) {
+        this.properties = properties;
+        this.rulesByProfile = compile(properties);
+        if (properties.getRulesFile() != null) {
+            reloadIfChanged();
+        }
+    }
+
+    public CompiledRules rules() {
+        return rulesByProfile.get(DEFAULT_PROFILE);
+    }
+
+    public CompiledRules rules(String profile) {
+        if (profile == null || profile.isBlank()) {
+            return rules();
+        }
+        CompiledRules rules = rulesByProfile.get(profile);
+        if (rules == null) {
+            throw new IllegalArgumentException("Unknown classification profile: " + profile);
+        }
+        return rules;
+    }
+
+    /** Every profile's rules, the default profile first and the others in configuration order. */
+    public Collection<CompiledRules> allRules() {
+        return rulesByProfile.values();
+    }
+
+    @Scheduled(fixedDelayString = "${classification.reload-interval:30s}")
+    public void reloadIfChanged() {
+        String rulesFile = properties.getRulesFile();
+        if (rulesFile == null || rulesFile.isBlank()) {
+            return;
+        }
+        Path path = Path.of(rulesFile);
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            if (!modified.equals(rulesFileModified)) {
+                reload(path);
+                rulesFileModified = modified;
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to reload classification rules from {}; keeping version {}",
+                    path, rules().version(), ex);
+        }
+    }
+
+    void reload(Path path) throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("classification-rules", new FileSystemResource(path));
+        ClassificationProperties loaded = new Binder(ConfigurationPropertySources.from(sources))
+                .bind("classification", ClassificationProperties.class)
+                .orElseGet(ClassificationProperties::new);
+
+        rulesByProfile = compile(loaded);
+        log.info("Loaded classification rules version {} with profiles {} from {}",
+                rules().version(), rulesByProfile.keySet(), path);
+    }
+
+    private Map<String, CompiledRules> compile(ClassificationProperties source) {
+        long version = versions.incrementAndGet();
+        RuleSet defaults = source.getRules().inheritFrom(RuleSet.defaults());
+
+        Map<String, CompiledRules> compiled = new LinkedHashMap<>();
+        compiled.put(DEFAULT_PROFILE, new CompiledRules(DEFAULT_PROFILE, version, defaults));
+        source.getProfiles().forEach((name, overrides) ->
+                compiled.put(name, new CompiledRules(name, version, overrides.inheritFrom(defaults))));
+        return Collections.unmodifiableMap(compiled);
+    }
+}
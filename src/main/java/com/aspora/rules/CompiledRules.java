@@ -0,0 +1,151 @@
+package com.aspora.rules;
+
+import com.aspora.forecast.ForecastFrame;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link RuleSet} compiled for evaluation. Each WMO code group becomes a bitset over codes
+ * 0–99, folded into one lookup table from code to rule bits; the numeric thresholds are plain
+ * fields. Evaluating an hour is a table lookup and three comparisons, and evaluating a window
+ * allocates nothing. Reason text is only produced, by {@link #reasons}, for the tier that won.
+ */
+public final class CompiledRules {
+
+    static final int MAX_WEATHER_CODE = 99;
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final String profile;
+    private final long version;
+    private final int rainProbabilityRisky;
+    private final double windRiskyKmh;
+    private final double windUnsafeKmh;
+    private final int[] codeRules = new int[MAX_WEATHER_CODE + 1];
+    private final long contentHash;
+
+    public CompiledRules(String profile, long version, RuleSet rules) {
+        this.profile = profile;
+        this.version = version;
+        this.rainProbabilityRisky = require(rules.getRainProbabilityRisky(), "rain-probability-risky");
+        this.windRiskyKmh = require(rules.getWindRiskyKmh(), "wind-risky-kmh");
+        this.windUnsafeKmh = require(rules.getWindUnsafeKmh(), "wind-unsafe-kmh");
+        addCodes(rules.getThunderstormCodes(), Rule.THUNDERSTORM, "thunderstorm-codes");
+        addCodes(rules.getHeavyPrecipitationCodes(), Rule.HEAVY_PRECIPITATION, "heavy-precipitation-codes");
+        addCodes(rules.getModeratePrecipitationCodes(), Rule.MODERATE_RAIN, "moderate-precipitation-codes");
+        long hash = mix(rainProbabilityRisky, Double.doubleToLongBits(windRiskyKmh));
+        hash = mix(hash, Double.doubleToLongBits(windUnsafeKmh));
+        for (int bits : codeRules) {
+            hash = mix(hash, bits);
+        }
+        this.contentHash = hash;
+    }
+
+    public String profile() {
+        return profile;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Hash of the thresholds and code groups, so the same in every process for the same rules.
+     * {@link #version()} only counts loads within this process.
+     */
+    public long contentHash() {
+        return contentHash;
+    }
+
+    /** Returns the bits of every {@link Rule} the given hour triggers. */
+    public int evaluate(int weatherCode, double windSpeed, int precipitationProbability) {
+        int mask = weatherCode >= 0 && weatherCode <= MAX_WEATHER_CODE ? codeRules[weatherCode] : 0;
+        if (windSpeed > windUnsafeKmh) {
+            mask |= Rule.DANGEROUS_WIND.bit();
+        } else if (windSpeed > windRiskyKmh) {
+            mask |= Rule.STRONG_WIND.bit();
+        }
+        if (precipitationProbability > rainProbabilityRisky) {
+            mask |= Rule.HIGH_RAIN_PROBABILITY.bit();
+        }
+        return mask;
+    }
+
+    public int evaluate(ForecastFrame frame, int index) {
+        return evaluate(frame.weatherCode(index), frame.windSpeed(index), frame.precipitationProbability(index));
+    }
+
+    /** Returns the union of the rule bits over every hour of the window. */
+    public int evaluateWindow(ForecastFrame frame) {
+        int mask = 0;
+        for (int i = 0; i < frame.size(); i++) {
+            mask |= evaluate(frame, i);
+            if ((mask & Rule.UNSAFE_MASK) == Rule.UNSAFE_MASK) {
+                break;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Formats the reasons for every hour matching a rule of the given severity: with
+     * {@link ReasonDetail#HOURLY} one per hour and rule, hour by hour and in rule order within an
+     * hour; with {@link ReasonDetail#SUMMARY} one per run of consecutive hours and rule.
+     */
+    public List<String> reasons(ForecastFrame frame, Severity severity, ReasonDetail detail) {
+        return reasons(frame, null, severity, detail);
+    }
+
+    /** Like {@link #reasons(ForecastFrame, Severity, ReasonDetail)}, for hours whose rule bits are already known. */
+    public List<String> reasons(ForecastFrame frame, int[] hourMasks, Severity severity, ReasonDetail detail) {
+        int tierMask = Rule.maskOf(severity);
+        if (detail == ReasonDetail.SUMMARY) {
+            ReasonRuns runs = new ReasonRuns(frame);
+            for (int i = 0; i < frame.size(); i++) {
+                runs.add(i, (hourMasks != null ? hourMasks[i] : evaluate(frame, i)) & tierMask);
+            }
+            return runs.reasons();
+        }
+        List<String> reasons = new ArrayList<>();
+        for (int i = 0; i < frame.size(); i++) {
+            addReasons(frame, i, (hourMasks != null ? hourMasks[i] : evaluate(frame, i)) & tierMask, reasons);
+        }
+        return reasons;
+    }
+
+    private static void addReasons(ForecastFrame frame, int index, int mask, List<String> reasons) {
+        if (mask == 0) {
+            return;
+        }
+        String time = frame.timeAt(index).format(HOUR_FORMATTER);
+        for (Rule rule : Rule.VALUES) {
+            if (rule.matches(mask)) {
+                reasons.add(rule.describe(time, frame.weatherCode(index), frame.windSpeed(index),
+                        frame.precipitationProbability(index)));
+            }
+        }
+    }
+
+    private static long mix(long hash, long value) {
+        long mixed = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 32);
+    }
+
+    private void addCodes(List<Integer> codes, Rule rule, String name) {
+        for (Integer code : require(codes, name)) {
+            if (code == null || code < 0 || code > MAX_WEATHER_CODE) {
+                throw new IllegalArgumentException("Invalid WMO weather code in " + name + ": " + code);
+            }
+            codeRules[code] |= rule.bit();
+        }
+    }
+
+    private static <T> T require(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("Classification rule " + name + " is not configured");
+        }
+        return value;
+    }
+}
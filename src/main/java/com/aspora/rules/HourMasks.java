@@ -0,0 +1,80 @@
+package com.aspora.rules;
+
+import com.aspora.forecast.ForecastFrame;
+
+import java.util.List;
+
+/**
+ * The rule bits of every hour in an event window, kept between evaluations so that a refreshed
+ * forecast only re-runs the rules for hours whose inputs changed. The previous evaluation is
+ * reused only for the same rules version and the same hours; otherwise every hour is evaluated.
+ */
+public final class HourMasks {
+
+    private final CompiledRules rules;
+    private final ForecastFrame window;
+    private final int[] masks;
+    private final int windowMask;
+    private final int evaluatedHours;
+
+    private HourMasks(CompiledRules rules, ForecastFrame window, int[] masks, int windowMask, int evaluatedHours) {
+        this.rules = rules;
+        this.window = window;
+        this.masks = masks;
+        this.windowMask = windowMask;
+        this.evaluatedHours = evaluatedHours;
+    }
+
+    public static HourMasks evaluate(CompiledRules rules, ForecastFrame window, HourMasks previous) {
+        int size = window.size();
+        int[] masks = new int[size];
+        int windowMask = 0;
+        int evaluated = 0;
+        boolean reusable = previous != null && previous.covers(rules, window);
+        for (int i = 0; i < size; i++) {
+            if (reusable && sameInputs(previous.window, window, i)) {
+                masks[i] = previous.masks[i];
+            } else {
+                masks[i] = rules.evaluate(window, i);
+                evaluated++;
+            }
+            windowMask |= masks[i];
+        }
+        return new HourMasks(rules, window, masks, windowMask, evaluated);
+    }
+
+    public ForecastFrame window() {
+        return window;
+    }
+
+    public int windowMask() {
+        return windowMask;
+    }
+
+    public Severity severity() {
+        return Rule.severityOf(windowMask);
+    }
+
+    /** Hours whose rules were run by the evaluation that produced this instance. */
+    public int evaluatedHours() {
+        return evaluatedHours;
+    }
+
+    public List<String> reasons(Severity severity, ReasonDetail detail) {
+        return rules.reasons(window, masks, severity, detail);
+    }
+
+    private boolean covers(CompiledRules other, ForecastFrame otherWindow) {
+        return rules.version() == other.version()
+                && rules.profile().equals(other.profile())
+                && window.size() == otherWindow.size()
+                && window.start().equals(otherWindow.start())
+                && window.step().equals(otherWindow.step());
+    }
+
+    private static boolean sameInputs(ForecastFrame before, ForecastFrame after, int index) {
+        return before.weatherCode(index) == after.weatherCode(index)
+                && before.precipitationProbability(index) == after.precipitationProbability(index)
+                && Double.compare(before.windSpeed(index), after.windSpeed(index)) == 0;
+    }
+}
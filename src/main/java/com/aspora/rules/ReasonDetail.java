@@ -0,0 +1,25 @@
+package com.aspora.rules;
+
+import java.util.Locale;
+
+/** How much detail the reasons of a classification carry. */
+public enum ReasonDetail {
+
+    /** Consecutive hours matching the same rule become one reason with the range of values seen. */
+    SUMMARY,
+
+    /** One reason per matching hour and rule. */
+    HOURLY;
+
+    /** Parses the {@code reasons} request option; {@link #SUMMARY} when it is absent. */
+    public static ReasonDetail of(String value) {
+        if (value == null || value.isBlank()) {
+            return SUMMARY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown reason detail '" + value + "', expected summary or hourly");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.aspora.rules;
+
+import com.aspora.forecast.ForecastFrame;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds {@link ReasonDetail#SUMMARY} reasons in one pass over a window: hours are fed in order,
+ * and each rule keeps at most one open run of consecutive matching hours with the lowest and
+ * highest value it tested. A run becomes one reason when it ends, so the work and the output grow
+ * with the number of weather changes rather than the number of hours. A run of a single hour keeps
+ * the per-hour wording.
+ */
+final class ReasonRuns {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Comparator<Run> REPORT_ORDER = Comparator.comparingInt(Run::first)
+            .thenComparing(Run::rule);
+
+    private final ForecastFrame frame;
+    private final DateTimeFormatter rangeFormatter;
+    private final int[] first = new int[Rule.VALUES.length];
+    private final int[] last = new int[Rule.VALUES.length];
+    private final double[] low = new double[Rule.VALUES.length];
+    private final double[] high = new double[Rule.VALUES.length];
+    private final List<Run> runs = new ArrayList<>();
+
+    ReasonRuns(ForecastFrame frame) {
+        this.frame = frame;
+        // Times alone are ambiguous once a window crosses midnight
+        boolean multiDay = !frame.isEmpty()
+                && !frame.start().toLocalDate().equals(frame.timeAt(frame.size() - 1).toLocalDate());
+        this.rangeFormatter = multiDay ? DATE_TIME : TIME;
+        Arrays.fill(first, -1);
+    }
+
+    /** Feeds the rule bits of hour {@code index}; every hour must be fed, in order. */
+    void add(int index, int mask) {
+        for (Rule rule : Rule.VALUES) {
+            int r = rule.ordinal();
+            if (rule.matches(mask)) {
+                double value = rule.testedValue(frame.weatherCode(index), frame.windSpeed(index),
+                        frame.precipitationProbability(index));
+                if (first[r] < 0) {
+                    first[r] = index;
+                    low[r] = value;
+                    high[r] = value;
+                } else {
+                    low[r] = Math.min(low[r], value);
+                    high[r] = Math.max(high[r], value);
+                }
+                last[r] = index;
+            } else if (first[r] >= 0) {
+                close(rule);
+            }
+        }
+    }
+
+    /** Closes every open run and returns one reason per run, by start hour and then rule order. */
+    List<String> reasons() {
+        for (Rule rule : Rule.VALUES) {
+            if (first[rule.ordinal()] >= 0) {
+                close(rule);
+            }
+        }
+        runs.sort(REPORT_ORDER);
+        List<String> reasons = new ArrayList<>(runs.size());
+        for (Run run : runs) {
+            reasons.add(describe(run));
+        }
+        return reasons;
+    }
+
+    private void close(Rule rule) {
+        int r = rule.ordinal();
+        runs.add(new Run(rule, first[r], last[r], low[r], high[r]));
+        first[r] = -1;
+    }
+
+    private String describe(Run run) {
+        if (run.first() == run.last()) {
+            int index = run.first();
+            return run.rule().describe(frame.timeAt(index).format(TIME), frame.weatherCode(index),
+                    frame.windSpeed(index), frame.precipitationProbability(index));
+        }
+        String from = frame.timeAt(run.first()).format(rangeFormatter);
+        String to = frame.timeAt(run.last()).plus(frame.step()).format(rangeFormatter);
+        return run.rule().describeRange(from, to, run.low(), run.high());
+    }
+
+    private record Run(Rule rule, int first, int last, double low, double high) {
+    }
+}
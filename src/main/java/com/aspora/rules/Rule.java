@@ -0,0 +1,113 @@
+package com.aspora.rules;
+
+/**
+ * The classification rules, in the order their reasons are reported within one hour.
+ * Each rule owns one bit so an hour's outcome fits in a single {@code int} mask.
+ */
+public enum Rule {
+
+    THUNDERSTORM(Severity.UNSAFE),
+    HEAVY_PRECIPITATION(Severity.UNSAFE),
+    DANGEROUS_WIND(Severity.UNSAFE),
+    MODERATE_RAIN(Severity.RISKY),
+    HIGH_RAIN_PROBABILITY(Severity.RISKY),
+    STRONG_WIND(Severity.RISKY);
+
+    static final Rule[] VALUES = values();
+
+    public static final int UNSAFE_MASK = collectMask(Severity.UNSAFE);
+    public static final int RISKY_MASK = collectMask(Severity.RISKY);
+
+    private final Severity severity;
+    private final int bit;
+
+    Rule(Severity severity) {
+        this.severity = severity;
+        this.bit = 1 << ordinal();
+    }
+
+    public Severity severity() {
+        return severity;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    public boolean matches(int mask) {
+        return (mask & bit) != 0;
+    }
+
+    public static Severity severityOf(int mask) {
+        if ((mask & UNSAFE_MASK) != 0) {
+            return Severity.UNSAFE;
+        }
+        if ((mask & RISKY_MASK) != 0) {
+            return Severity.RISKY;
+        }
+        return Severity.SAFE;
+    }
+
+    public static int maskOf(Severity severity) {
+        return switch (severity) {
+            case UNSAFE -> UNSAFE_MASK;
+            case RISKY -> RISKY_MASK;
+            case SAFE -> 0;
+        };
+    }
+
+    private static int collectMask(Severity severity) {
+        int mask = 0;
+        for (Rule rule : VALUES) {
+            if (rule.severity == severity) {
+                mask |= rule.bit;
+            }
+        }
+        return mask;
+    }
+
+    String describe(String time, int weatherCode, double windSpeed, int precipitationProbability) {
+        return switch (this) {
+            case THUNDERSTORM -> "Thunderstorm forecast at " + time + " (weather code: " + weatherCode + ")";
+            case HEAVY_PRECIPITATION -> "Heavy precipitation forecast at " + time + " (weather code: " + weatherCode + ")";
+            case DANGEROUS_WIND -> "Dangerous wind speed of " + windSpeed + " km/h at " + time;
+            case MODERATE_RAIN -> "Moderate rain forecast at " + time + " (weather code: " + weatherCode + ")";
+            case HIGH_RAIN_PROBABILITY -> "Rain probability is " + precipitationProbability + "% at " + time;
+            case STRONG_WIND -> "Wind speed is " + windSpeed + " km/h at " + time;
+        };
+    }
+
+    /** The hour's value this rule compares against its threshold or code list. */
+    double testedValue(int weatherCode, double windSpeed, int precipitationProbability) {
+        return switch (this) {
+            case THUNDERSTORM, HEAVY_PRECIPITATION, MODERATE_RAIN -> weatherCode;
+            case DANGEROUS_WIND, STRONG_WIND -> windSpeed;
+            case HIGH_RAIN_PROBABILITY -> precipitationProbability;
+        };
+    }
+
+    /** Reason for consecutive hours {@code [from, to)} in which this rule fired, with the range of its tested value. */
+    String describeRange(String from, String to, double low, double high) {
+        String hours = " from " + from + " to " + to;
+        return switch (this) {
+            case THUNDERSTORM -> "Thunderstorm forecast" + hours + " (" + codes(low, high) + ")";
+            case HEAVY_PRECIPITATION -> "Heavy precipitation forecast" + hours + " (" + codes(low, high) + ")";
+            case DANGEROUS_WIND -> "Dangerous wind speed of " + range(low, high) + " km/h" + hours;
+            case MODERATE_RAIN -> "Moderate rain forecast" + hours + " (" + codes(low, high) + ")";
+            case HIGH_RAIN_PROBABILITY -> "Rain probability " + range((int) low, (int) high) + "%" + hours;
+            case STRONG_WIND -> "Wind speed " + range(low, high) + " km/h" + hours;
+        };
+    }
+
+    private static String codes(double low, double high) {
+        return low == high ? "weather code: " + (int) low : "weather codes: " + range((int) low, (int) high);
+    }
+
+    private static String range(double low, double high) {
+        return low == high ? String.valueOf(low) : low + "\u2013" + high;
+    }
+
+    private static String range(int low, int high) {
+        return low == high ? String.valueOf(low) : low + "\u2013" + high;
+    }
+}
@@ -0,0 +1,55 @@
+package com.aspora.rules;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Thresholds and WMO code groups for one classification profile. In a customer profile any
+ * value left unset is inherited from the default rules.
+ */
+@Data
+@NoArgsConstructor
+public class RuleSet {
+
+    /** Rain probability (%) above which an hour is Risky. */
+    private Integer rainProbabilityRisky;
+
+    /** Wind speed (km/h) above which an hour is Risky. */
+    private Double windRiskyKmh;
+
+    /** Wind speed (km/h) above which an hour is Unsafe. */
+    private Double windUnsafeKmh;
+
+    private List<Integer> thunderstormCodes;
+
+    private List<Integer> heavyPrecipitationCodes;
+
+    private List<Integer> moderatePrecipitationCodes;
+
+    public static RuleSet defaults() {
+        RuleSet rules = new RuleSet();
+        rules.setRainProbabilityRisky(60);
+        rules.setWindRiskyKmh(30.0);
+        rules.setWindUnsafeKmh(50.0);
+        rules.setThunderstormCodes(List.of(95, 96, 99));
+        rules.setHeavyPrecipitationCodes(List.of(65, 67, 75, 77, 82, 85, 86));
+        rules.setModeratePrecipitationCodes(List.of(61, 63, 66, 80, 81));
+        return rules;
+    }
+
+    /** Returns a copy of this rule set with unset values taken from {@code base}. */
+    public RuleSet inheritFrom(RuleSet base) {
+        RuleSet merged = new RuleSet();
+        merged.setRainProbabilityRisky(rainProbabilityRisky != null ? rainProbabilityRisky : base.rainProbabilityRisky);
+        merged.setWindRiskyKmh(windRiskyKmh != null ? windRiskyKmh : base.windRiskyKmh);
+        merged.setWindUnsafeKmh(windUnsafeKmh != null ? windUnsafeKmh : base.windUnsafeKmh);
+        merged.setThunderstormCodes(thunderstormCodes != null ? thunderstormCodes : base.thunderstormCodes);
+        merged.setHeavyPrecipitationCodes(heavyPrecipitationCodes != null
+                ? heavyPrecipitationCodes : base.heavyPrecipitationCodes);
+        merged.setModeratePrecipitationCodes(moderatePrecipitationCodes != null
+                ? moderatePrecipitationCodes : base.moderatePrecipitationCodes);
+        return merged;
+    }
+}
@@ -0,0 +1,18 @@
+package com.aspora.rules;
+
+public enum Severity {
+
+    SAFE("Safe"),
+    RISKY("Risky"),
+    UNSAFE("Unsafe");
+
+    private final String label;
+
+    Severity(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
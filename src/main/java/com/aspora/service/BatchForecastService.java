@@ -0,0 +1,117 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.BatchForecastResponse;
+import com.aspora.dto.BatchForecastResult;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.rules.ReasonDetail;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Classifies a whole schedule in one call. Events are resolved to forecast keys up front so
+ * {@link WeatherService#fetchForecasts} can fetch every distinct venue/date group with as few
+ * upstream calls as possible; each event's window is then classified in parallel. A failure
+ * for one event is reported in its own slot and never fails the batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchForecastService {
+
+    private final WeatherService weatherService;
+    private final ClassificationService classificationService;
+    private final ForecastCache forecastCache;
+    private final Validator validator;
+
+    @Value("${openmeteo.batch.max-events:5000}")
+    private int maxEvents = 5000;
+
+    public BatchForecastResponse classifyAll(List<EventRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one event is required");
+        }
+        if (requests.size() > maxEvents) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxEvents + " events");
+        }
+
+        int size = requests.size();
+        BatchForecastResult[] results = new BatchForecastResult[size];
+        ForecastKey[] keys = new ForecastKey[size];
+
+        for (int i = 0; i < size; i++) {
+            List<String> violations = validate(requests.get(i));
+            if (violations.isEmpty()) {
+                keys[i] = forecastCache.keyFor(requests.get(i));
+            } else {
+                results[i] = failure(i, requests.get(i), "Validation failed", violations);
+            }
+        }
+
+        Map<ForecastKey, ForecastFrame> forecasts = weatherService.fetchForecasts(
+                Arrays.stream(keys).filter(Objects::nonNull).toList(), UpstreamPriority.BATCH);
+
+        IntStream.range(0, size).parallel()
+                .filter(i -> results[i] == null)
+                .forEach(i -> results[i] = classifyOne(i, requests.get(i), forecasts.get(keys[i])));
+
+        return BatchForecastResponse.builder()
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private BatchForecastResult classifyOne(int index, EventRequest request, ForecastFrame forecast) {
+        if (forecast == null) {
+            return failure(index, request, "Failed to fetch weather data from external API", null);
+        }
+        try {
+            return BatchForecastResult.builder()
+                    .index(index)
+                    .name(request.getName())
+                    .forecast(classificationService.classifyWindow(
+                            forecast.slice(request.getStartTime(), request.getEndTime()), request.getProfile(),
+                            ReasonDetail.of(request.getReasons())))
+                    .build();
+        } catch (IllegalArgumentException ex) {
+            return failure(index, request, ex.getMessage(), null);
+        } catch (RuntimeException ex) {
+            log.error("Batch classification failed for event at index {}", index, ex);
+            return failure(index, request, "An unexpected error occurred", List.of(String.valueOf(ex.getMessage())));
+        }
+    }
+
+    private List<String> validate(EventRequest request) {
+        if (request == null) {
+            return List.of("Event is required");
+        }
+        List<String> violations = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+        if (violations.isEmpty() && !request.getEndTime().isAfter(request.getStartTime())) {
+            return List.of("End time must be after start time");
+        }
+        return violations;
+    }
+
+    private static BatchForecastResult failure(int index, EventRequest request, String error, List<String> details) {
+        return BatchForecastResult.builder()
+                .index(index)
+                .name(request != null ? request.getName() : null)
+                .error(error)
+                .details(details)
+                .build();
+    }
+}
@@ -2,12 +2,18 @@ package com.aspora.service;
 
 import com.aspora.dto.EventForecastResponse;
 import com.aspora.dto.EventRequest;
-import com.aspora.dto.HourlyForecast;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.HourMasks;
+import com.aspora.rules.ReasonDetail;
+import com.aspora.rules.Rule;
+import com.aspora.rules.Severity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -15,83 +21,93 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ClassificationService {
 
-    private static final int RAIN_PROB_RISKY_THRESHOLD = 60;
-    private static final double WIND_RISKY_THRESHOLD = 30.0;
-    private static final double WIND_UNSAFE_THRESHOLD = 50.0;
-
-    private static final List<Integer> THUNDERSTORM_CODES = List.of(95, 96, 99);
-    private static final List<Integer> HEAVY_PRECIPITATION_CODES = List.of(65, 67, 75, 77, 82, 85, 86);
-    private static final List<Integer> MODERATE_PRECIPITATION_CODES = List.of(61, 63, 66, 80, 81);
-
     private final WeatherService weatherService;
+    private final ClassificationRulesRegistry rulesRegistry;
+    private final ForecastMetrics metrics;
 
     public EventForecastResponse classify(EventRequest request) {
-        List<HourlyForecast> forecasts = weatherService.fetchForecast(request);
+        return classifyWindow(weatherService.fetchForecast(request), request.getProfile(),
+                ReasonDetail.of(request.getReasons()));
+    }
+
+    public EventForecastResponse classifyWindow(ForecastFrame forecasts) {
+        return classifyWindow(forecasts, null, ReasonDetail.SUMMARY);
+    }
+
+    public EventForecastResponse classifyWindow(ForecastFrame forecasts, String profile) {
+        return classifyWindow(forecasts, profile, ReasonDetail.SUMMARY);
+    }
 
+    public EventForecastResponse classifyWindow(ForecastFrame forecasts, String profile, ReasonDetail detail) {
+        CompiledRules rules = rulesRegistry.rules(profile);
+        long started = System.nanoTime();
         if (forecasts.isEmpty()) {
-            return EventForecastResponse.builder()
-                    .classification("Safe")
-                    .summary("No hourly forecast data available for the event window")
-                    .reason(List.of("No weather data found for the specified time range"))
-                    .eventWindowForecast(forecasts)
-                    .build();
+            return respondEmpty(forecasts, started);
         }
+        Severity severity = Rule.severityOf(rules.evaluateWindow(forecasts));
+        // Reason text is only needed for the tier that won
+        List<String> tierReasons = severity == Severity.SAFE ? List.of() : rules.reasons(forecasts, severity, detail);
+        return respond(forecasts, severity, tierReasons, started);
+    }
 
-        List<String> unsafeReasons = new ArrayList<>();
-        List<String> riskyReasons = new ArrayList<>();
+    /**
+     * Classifies a window whose rules were already evaluated hour by hour, for callers that keep
+     * {@link HourMasks} between refreshes and only re-evaluate the hours that changed. Reasons are
+     * summarized.
+     */
+    public EventForecastResponse classifyEvaluated(HourMasks evaluation) {
+        long started = System.nanoTime();
+        ForecastFrame forecasts = evaluation.window();
+        if (forecasts.isEmpty()) {
+            return respondEmpty(forecasts, started);
+        }
+        Severity severity = evaluation.severity();
+        List<String> tierReasons = severity == Severity.SAFE ? List.of() : evaluation.reasons(severity, ReasonDetail.SUMMARY);
+        return respond(forecasts, severity, tierReasons, started);
+    }
 
-        for (HourlyForecast forecast : forecasts) {
-            int code = forecast.getWeatherCode();
-            double wind = forecast.getWindKmh();
-            int rainProb = forecast.getRainProb();
+    private EventForecastResponse respondEmpty(ForecastFrame forecasts, long started) {
+        metrics.recordClassification(System.nanoTime() - started, 0, Severity.SAFE);
+        return EventForecastResponse.builder()
+                .classification("Safe")
+                .summary("No hourly forecast data available for the event window")
+                .reason(List.of("No weather data found for the specified time range"))
+                .eventWindowForecast(forecasts.asHourlyForecasts())
+                .stale(forecasts.isStale() ? Boolean.TRUE : null)
+                .ageSeconds(forecasts.isStale() ? forecasts.staleAge().toSeconds() : null)
+                .window(forecasts)
+                .build();
+    }
 
-            if (THUNDERSTORM_CODES.contains(code)) {
-                unsafeReasons.add("Thunderstorm forecast at " + forecast.getTime()
-                        + " (weather code: " + code + ")");
-            }
-            if (HEAVY_PRECIPITATION_CODES.contains(code)) {
-                unsafeReasons.add("Heavy precipitation forecast at " + forecast.getTime()
-                        + " (weather code: " + code + ")");
-            }
-            if (wind > WIND_UNSAFE_THRESHOLD) {
-                unsafeReasons.add("Dangerous wind speed of " + wind + " km/h at " + forecast.getTime());
-            }
+    private EventForecastResponse respond(ForecastFrame forecasts, Severity severity,
+                                          List<String> tierReasons, long started) {
+        List<String> reasons;
+        String summary;
 
-            if (MODERATE_PRECIPITATION_CODES.contains(code)) {
-                riskyReasons.add("Moderate rain forecast at " + forecast.getTime()
-                        + " (weather code: " + code + ")");
+        switch (severity) {
+            case UNSAFE -> {
+                reasons = tierReasons;
+                summary = "Severe weather conditions expected during the event. It is not safe to proceed.";
             }
-            if (rainProb > RAIN_PROB_RISKY_THRESHOLD) {
-                riskyReasons.add("Rain probability is " + rainProb + "% at " + forecast.getTime());
+            case RISKY -> {
+                reasons = tierReasons;
+                summary = "Weather conditions may impact the event. Proceed with caution.";
             }
-            if (wind > WIND_RISKY_THRESHOLD && wind <= WIND_UNSAFE_THRESHOLD) {
-                riskyReasons.add("Wind speed is " + wind + " km/h at " + forecast.getTime());
+            default -> {
+                reasons = List.of("No adverse weather conditions detected during the event window");
+                summary = "Weather conditions look favorable for the event.";
             }
         }
-
-        String classification;
-        List<String> reasons;
-        String summary;
-
-        if (!unsafeReasons.isEmpty()) {
-            classification = "Unsafe";
-            reasons = unsafeReasons;
-            summary = "Severe weather conditions expected during the event. It is not safe to proceed.";
-        } else if (!riskyReasons.isEmpty()) {
-            classification = "Risky";
-            reasons = riskyReasons;
-            summary = "Weather conditions may impact the event. Proceed with caution.";
-        } else {
-            classification = "Safe";
-            reasons = List.of("No adverse weather conditions detected during the event window");
-            summary = "Weather conditions look favorable for the event.";
-        }
+        metrics.recordClassification(System.nanoTime() - started, forecasts.size(), severity);
 
         return EventForecastResponse.builder()
-                .classification(classification)
+                .classification(severity.label())
                 .summary(summary)
                 .reason(reasons)
-                .eventWindowForecast(forecasts)
+                .eventWindowForecast(forecasts.asHourlyForecasts())
+                .stale(forecasts.isStale() ? Boolean.TRUE : null)
+                .ageSeconds(forecasts.isStale() ? forecasts.staleAge().toSeconds() : null)
+                .window(forecasts)
                 .build();
     }
 }
@@ -0,0 +1,246 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.HeatmapRequest;
+import com.aspora.dto.HeatmapResponse;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.Rule;
+import com.aspora.rules.Severity;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Classifies every cell of a bounding box over one time window. Cells are resolved to forecast
+ * keys first, so cells sharing a forecast grid cell share a fetch and every distinct one is
+ * fetched through {@link WeatherService#fetchForecasts}' multi-coordinate batches. The cells are
+ * then classified with the same compiled rules as single events, split across a dedicated
+ * fork-join pool so a large grid neither waits on one core nor competes with the common pool.
+ */
+@Service
+public class HeatmapService {
+
+    /** Cells classified by one fork-join task before it stops splitting. */
+    static final int CELLS_PER_TASK = 64;
+
+    private static final char[] SYMBOLS = {'S', 'R', 'U'};
+    private static final char NO_DATA = '-';
+
+    private final WeatherService weatherService;
+    private final ForecastCache forecastCache;
+    private final ClassificationRulesRegistry rulesRegistry;
+    private final int maxCells;
+    private final ForkJoinPool pool;
+
+    public HeatmapService(WeatherService weatherService,
+                          ForecastCache forecastCache,
+                          ClassificationRulesRegistry rulesRegistry,
+                          @Value("${heatmap.max-cells:10000}") int maxCells,
+                          @Value("${heatmap.parallelism:0}") int parallelism) {
+        this.weatherService = weatherService;
+        this.forecastCache = forecastCache;
+        this.rulesRegistry = rulesRegistry;
+        this.maxCells = maxCells;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    public HeatmapResponse classify(HeatmapRequest request) {
+        HeatmapRequest.Bounds bounds = request.getBounds();
+        double resolution = request.getResolution();
+        validate(request);
+        int rows = cellsAcross(bounds.getNorth() - bounds.getSouth(), resolution);
+        int columns = cellsAcross(bounds.getEast() - bounds.getWest(), resolution);
+        if ((long) rows * columns > maxCells) {
+            throw new IllegalArgumentException("A heatmap may contain at most " + maxCells + " cells, requested "
+                    + rows + "x" + columns);
+        }
+        CompiledRules rules = rulesRegistry.rules(request.getProfile());
+
+        ForecastKey[] keys = new ForecastKey[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            double latitude = bounds.getNorth() - (row + 0.5) * resolution;
+            for (int column = 0; column < columns; column++) {
+                double longitude = bounds.getWest() + (column + 0.5) * resolution;
+                keys[row * columns + column] = forecastCache.keyFor(latitude, longitude,
+                        request.getStartTime(), request.getEndTime());
+            }
+        }
+        Map<ForecastKey, ForecastFrame> forecasts = weatherService.fetchForecasts(Arrays.asList(keys),
+                UpstreamPriority.BATCH);
+
+        Cells cells = new Cells(keys.length, request.getStartTime().truncatedTo(ChronoUnit.HOURS));
+        pool.invoke(new ClassifyCells(cells, keys, forecasts, rules, request.getStartTime(), request.getEndTime(),
+                0, keys.length));
+        return cells.toResponse(bounds, resolution, rows, columns, request);
+    }
+
+    private static void validate(HeatmapRequest request) {
+        HeatmapRequest.Bounds bounds = request.getBounds();
+        if (bounds.getNorth() > 90 || bounds.getSouth() < -90 || bounds.getEast() > 180 || bounds.getWest() < -180) {
+            throw new IllegalArgumentException("Bounds must lie within latitude -90..90 and longitude -180..180");
+        }
+        if (bounds.getNorth() <= bounds.getSouth() || bounds.getEast() <= bounds.getWest()) {
+            throw new IllegalArgumentException("Bounds must have north above south and east of west");
+        }
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+    }
+
+    /** Cells needed to cover {@code extent}; a final partial cell counts, rounding noise does not. */
+    static int cellsAcross(double extent, double resolution) {
+        return (int) Math.max(1, Math.ceil(extent / resolution - 1e-9));
+    }
+
+    @PreDestroy
+    void close() {
+        pool.shutdownNow();
+    }
+
+    /** Per-cell results, written by disjoint ranges of cells so tasks need no coordination. */
+    private static final class Cells {
+
+        private final LocalDateTime firstHour;
+        private final byte[] severity;
+        private final int[] worstHour;
+        private final int[] maxRainProb;
+        private final double[] maxWindKmh;
+        private final boolean[] stale;
+
+        Cells(int size, LocalDateTime firstHour) {
+            this.firstHour = firstHour;
+            this.severity = new byte[size];
+            this.worstHour = new int[size];
+            this.maxRainProb = new int[size];
+            this.maxWindKmh = new double[size];
+            this.stale = new boolean[size];
+        }
+
+        void classify(int cell, ForecastFrame window, CompiledRules rules) {
+            Severity worst = Severity.SAFE;
+            int worstIndex = -1;
+            int rain = 0;
+            double wind = 0;
+            for (int i = 0; i < window.size(); i++) {
+                Severity hour = Rule.severityOf(rules.evaluate(window, i));
+                if (hour.compareTo(worst) > 0) {
+                    worst = hour;
+                    worstIndex = i;
+                }
+                rain = Math.max(rain, window.precipitationProbability(i));
+                wind = Math.max(wind, window.windSpeed(i));
+            }
+            severity[cell] = (byte) worst.ordinal();
+            worstHour[cell] = worstIndex < 0 ? -1
+                    : (int) Duration.between(firstHour, window.timeAt(worstIndex)).toHours();
+            maxRainProb[cell] = rain;
+            maxWindKmh[cell] = wind;
+            stale[cell] = window.isStale();
+        }
+
+        void missing(int cell) {
+            severity[cell] = -1;
+            worstHour[cell] = -1;
+        }
+
+        HeatmapResponse toResponse(HeatmapRequest.Bounds bounds, double resolution, int rows, int columns,
+                                   HeatmapRequest request) {
+            List<String> grid = new ArrayList<>(rows);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Severity value : Severity.values()) {
+                counts.put(value.label(), 0);
+            }
+            int missing = 0;
+            boolean anyStale = false;
+            char[] line = new char[columns];
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    int cell = row * columns + column;
+                    if (severity[cell] < 0) {
+                        line[column] = NO_DATA;
+                        missing++;
+                    } else {
+                        line[column] = SYMBOLS[severity[cell]];
+                        counts.merge(Severity.values()[severity[cell]].label(), 1, Integer::sum);
+                        anyStale |= stale[cell];
+                    }
+                }
+                grid.add(new String(line));
+            }
+            return HeatmapResponse.builder()
+                    .north(bounds.getNorth())
+                    .west(bounds.getWest())
+                    .resolution(resolution)
+                    .rows(rows)
+                    .columns(columns)
+                    .startTime(request.getStartTime())
+                    .endTime(request.getEndTime())
+                    .classification(grid)
+                    .worstHour(worstHour)
+                    .maxRainProb(maxRainProb)
+                    .maxWindKmh(maxWindKmh)
+                    .counts(counts)
+                    .missing(missing)
+                    .stale(anyStale ? Boolean.TRUE : null)
+                    .build();
+        }
+    }
+
+    /** Classifies cells {@code [from, to)}, splitting in halves down to {@link #CELLS_PER_TASK}. */
+    private static final class ClassifyCells extends RecursiveAction {
+
+        private final Cells cells;
+        private final ForecastKey[] keys;
+        private final Map<ForecastKey, ForecastFrame> forecasts;
+        private final CompiledRules rules;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+        private final int from;
+        private final int to;
+
+        ClassifyCells(Cells cells, ForecastKey[] keys, Map<ForecastKey, ForecastFrame> forecasts, CompiledRules rules,
+                      LocalDateTime startTime, LocalDateTime endTime, int from, int to) {
+            this.cells = cells;
+            this.keys = keys;
+            this.forecasts = forecasts;
+            this.rules = rules;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CELLS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ClassifyCells(cells, keys, forecasts, rules, startTime, endTime, from, middle),
+                        new ClassifyCells(cells, keys, forecasts, rules, startTime, endTime, middle, to));
+                return;
+            }
+            for (int cell = from; cell < to; cell++) {
+                ForecastFrame forecast = forecasts.get(keys[cell]);
+                if (forecast == null) {
+                    cells.missing(cell);
+                } else {
+                    cells.classify(cell, forecast.slice(startTime, endTime), rules);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.aspora.service;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.resilience.UpstreamPriority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Forecast keys waiting for upstream budget. A key queued twice shares one fetch and keeps the
+ * higher of the two priorities. Keys leave in batches of one date span, led by the oldest key of
+ * the highest waiting priority; keys of lower priority ride along in the same call for free.
+ */
+final class UpstreamQueue {
+
+    private final Map<ForecastKey, Pending> pending = new LinkedHashMap<>();
+
+    synchronized CompletableFuture<ForecastFrame> submit(ForecastKey key, UpstreamPriority priority, Instant now) {
+        Pending existing = pending.get(key);
+        if (existing == null) {
+            Pending added = new Pending(key, priority, now, new CompletableFuture<>());
+            pending.put(key, added);
+            return added.future();
+        }
+        if (priority.compareTo(existing.priority()) < 0) {
+            pending.put(key, new Pending(key, priority, existing.queuedAt(), existing.future()));
+        }
+        return existing.future();
+    }
+
+    /**
+     * Removes the next batch of at most {@code maxKeys} keys if {@code admit} accepts the priority
+     * of its leading key. Returns an empty list when nothing is queued and {@code null} when the
+     * leading key was not admitted.
+     */
+    synchronized List<Pending> poll(int maxKeys, Predicate<UpstreamPriority> admit) {
+        Pending head = null;
+        for (Pending candidate : pending.values()) {
+            if (head == null || candidate.priority().compareTo(head.priority()) < 0) {
+                head = candidate;
+            }
+        }
+        if (head == null) {
+            return List.of();
+        }
+        if (!admit.test(head.priority())) {
+            return null;
+        }
+        String span = head.key().span();
+        List<Pending> batch = new ArrayList<>();
+        batch.add(head);
+        pending.remove(head.key());
+        for (Iterator<Pending> it = pending.values().iterator(); it.hasNext() && batch.size() < maxKeys; ) {
+            Pending candidate = it.next();
+            if (candidate.key().span().equals(span)) {
+                batch.add(candidate);
+                it.remove();
+            }
+        }
+        return batch;
+    }
+
+    /** Removes and returns the keys queued for longer than {@code maxWait}. */
+    synchronized List<Pending> expire(Instant now, Duration maxWait) {
+        List<Pending> expired = new ArrayList<>();
+        Instant cutoff = now.minus(maxWait);
+        for (Iterator<Pending> it = pending.values().iterator(); it.hasNext(); ) {
+            Pending candidate = it.next();
+            if (candidate.queuedAt().isBefore(cutoff)) {
+                expired.add(candidate);
+                it.remove();
+            }
+        }
+        return expired;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    record Pending(ForecastKey key, UpstreamPriority priority, Instant queuedAt,
+                   CompletableFuture<ForecastFrame> future) {
+    }
+}
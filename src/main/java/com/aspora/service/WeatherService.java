@@ -1,78 +1,361 @@
 package com.aspora.service;
 
+import com.aspora.cache.SingleFlight;
+import com.aspora.concurrent.Deadline;
+import com.aspora.concurrent.TaskScope;
 import com.aspora.dto.EventRequest;
-import com.aspora.dto.HourlyForecast;
-import com.aspora.dto.openmeteo.OpenMeteoResponse;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitOpenException;
+import com.aspora.resilience.QuotaExhaustedException;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.upstream.WeatherProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
-import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class WeatherService {
-
-    private final RestClient openMeteoRestClient;
-
-    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
-
-    public List<HourlyForecast> fetchForecast(EventRequest request) {
-        LocalDate startDate = request.getStartTime().toLocalDate();
-        LocalDate endDate = request.getEndTime().toLocalDate();
-
-        log.info("Fetching weather forecast for lat={}, lon={}, from={} to={}",
-                request.getLocation().getLatitude(),
-                request.getLocation().getLongitude(),
-                startDate, endDate);
-
-        OpenMeteoResponse response = openMeteoRestClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/forecast")
-                        .queryParam("latitude", request.getLocation().getLatitude())
-                        .queryParam("longitude", request.getLocation().getLongitude())
-                        .queryParam("hourly", "temperature_2m,precipitation_probability,weather_code,wind_speed_10m")
-                        .queryParam("start_date", startDate.toString())
-                        .queryParam("end_date", endDate.toString())
-                        .queryParam("timezone", "auto")
-                        .build())
-                .retrieve()
-                .body(OpenMeteoResponse.class);
-
-        if (response == null || response.getHourly() == null) {
-            throw new RuntimeException("Empty response from OpenMeteo API");
+public class WeatherService implements MeterBinder {
+
+    private final WeatherProvider weatherProvider;
+    private final TieredForecastStore forecasts;
+    private final ForecastMetrics metrics;
+    private final CircuitBreaker openMeteoCircuitBreaker;
+    private final UpstreamQuota openMeteoQuota;
+    private final SingleFlight<ForecastKey, ForecastFrame> upstreamFetches = new SingleFlight<>();
+    private final SingleFlight<WindowedFetch, ForecastFrame> windowedFetches = new SingleFlight<>();
+    private final Set<ForecastKey> staleKeys = ConcurrentHashMap.newKeySet();
+    private final UpstreamQueue upstreamQueue = new UpstreamQueue();
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    @Value("${openmeteo.batch.max-locations-per-request:100}")
+    private int maxLocationsPerRequest = 100;
+
+    @Value("${openmeteo.batch.max-concurrent-requests:4}")
+    private int maxConcurrentRequests = 4;
+
+    @Value("${openmeteo.stale.max-age:12h}")
+    private Duration maxStaleAge = Duration.ofHours(12);
+
+    /**
+     * Returns the forecast hours inside the event window as a view over the cached frame. If the
+     * upstream is failing or its circuit is open, the last known good forecast for the location is
+     * returned instead, flagged as stale, and queued for a background refresh. The same applies
+     * when the upstream request budget is spent: an interactive request never waits for budget.
+     */
+    public ForecastFrame fetchForecast(EventRequest request) {
+        ForecastKey key = forecasts.keyFor(request);
+        LocalDateTime startTime = request.getStartTime();
+        LocalDateTime endTime = request.getEndTime();
+
+        ForecastFrame forecast;
+        if (!forecasts.isEnabled()) {
+            // Nothing is shared through the cache, so only decode the hours this event needs
+            forecast = windowedFetches.execute(new WindowedFetch(key, startTime, endTime),
+                    () -> {
+                        openMeteoQuota.acquire(UpstreamPriority.INTERACTIVE);
+                        return fetchFromUpstream(List.of(key), startTime, endTime).get(0);
+                    });
+        } else {
+            forecast = forecasts.get(key);
+            if (forecast == null) {
+                try {
+                    forecast = upstreamFetches.execute(key,
+                            () -> fetchAndCache(key, UpstreamPriority.INTERACTIVE));
+                } catch (RuntimeException ex) {
+                    forecast = lastKnownGood(key, ex);
+                    if (forecast == null) {
+                        throw ex;
+                    }
+                }
+            }
+        }
+
+        long sliceStarted = System.nanoTime();
+        ForecastFrame window = forecast.slice(startTime, endTime);
+        metrics.recordSlice(System.nanoTime() - sliceStarted);
+        return window;
+    }
+
+    /**
+     * Resolves many forecast keys at once. Keys that miss the cache are queued for the upstream at
+     * {@code priority} and fetched grouped by date span with Open-Meteo's multi-coordinate query,
+     * so upstream calls grow with the number of distinct spans rather than the number of keys.
+     * While the request budget for {@code priority} is spent the keys wait in the queue, up to
+     * {@code openmeteo.quota.max-queue-wait} or the caller's {@link Deadline} if that is sooner,
+     * and are then answered from their last known good forecast if there is one. Keys that could
+     * not be fetched are absent from the returned map.
+     */
+    public Map<ForecastKey, ForecastFrame> fetchForecasts(Collection<ForecastKey> keys, UpstreamPriority priority) {
+        Map<ForecastKey, ForecastFrame> results = new HashMap<>();
+        Map<ForecastKey, CompletableFuture<ForecastFrame>> queued = new LinkedHashMap<>();
+
+        for (ForecastKey key : keys) {
+            if (results.containsKey(key) || queued.containsKey(key)) {
+                continue;
+            }
+            ForecastFrame cached = forecasts.get(key);
+            if (cached != null) {
+                results.put(key, cached);
+            } else {
+                queued.put(key, upstreamQueue.submit(key, priority, openMeteoQuota.now()));
+            }
         }
+        if (queued.isEmpty()) {
+            return results;
+        }
+
+        drainQueue();
+        Deadline deadline = Deadline.current().within(openMeteoQuota.properties().getMaxQueueWait());
+        for (Map.Entry<ForecastKey, CompletableFuture<ForecastFrame>> entry : queued.entrySet()) {
+            ForecastKey key = entry.getKey();
+            try {
+                results.put(key, entry.getValue().get(deadline.remainingNanos(), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException ex) {
+                RuntimeException failure = ex.getCause() instanceof RuntimeException runtime
+                        ? runtime : new IllegalStateException(ex.getCause());
+                putIfPresent(results, key, lastKnownGood(key, failure));
+            } catch (TimeoutException ex) {
+                // Still queued: answer from the last known good forecast, the fetch will land in the cache
+                putIfPresent(results, key, lastKnownGood(key,
+                        new QuotaExhaustedException(priority, openMeteoQuota.retryAfter(priority))));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Fetches queued keys while the request budget admits them, expiring keys that have waited
+     * longer than {@code openmeteo.quota.max-queue-wait}. Up to
+     * {@code openmeteo.batch.max-concurrent-requests} admitted calls are made at once. Callers that
+     * find another thread already draining leave the queue to it.
+     */
+    @Scheduled(fixedDelayString = "${openmeteo.quota.drain-interval:1s}")
+    public void drainQueue() {
+        boolean blocked;
+        do {
+            if (!drainLock.tryLock()) {
+                return;
+            }
+            try {
+                blocked = drainAdmitted();
+            } finally {
+                drainLock.unlock();
+            }
+        } while (!blocked && upstreamQueue.size() > 0);
+    }
+
+    public int queuedFetchCount() {
+        return upstreamQueue.size();
+    }
+
+    /**
+     * Retries the locations currently served from their last known good forecast, so fresh data
+     * replaces them as soon as the upstream recovers rather than on the next cache miss.
+     */
+    @Scheduled(fixedDelayString = "${openmeteo.stale.refresh-interval:15s}")
+    public void refreshStale() {
+        for (ForecastKey key : staleKeys) {
+            try {
+                upstreamFetches.execute(key, () -> fetchAndCache(key, UpstreamPriority.PREFETCH));
+                log.info("Replaced stale forecast for {}", key);
+            } catch (CircuitOpenException | QuotaExhaustedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                log.debug("Stale forecast refresh failed for {}", key, ex);
+                if (forecasts.getStale(key, maxStaleAge) == null) {
+                    staleKeys.remove(key);
+                }
+            }
+        }
+    }
+
+    public int staleLocationCount() {
+        return staleKeys.size();
+    }
+
+    /**
+     * Whether a failed call points at the upstream rather than at our request. Such failures count
+     * against the circuit breaker and may be answered from the last known good forecast.
+     */
+    public static boolean isUpstreamFault(Throwable ex) {
+        return ex instanceof CircuitOpenException
+                || (ex instanceof RestClientException && !(ex instanceof HttpClientErrorException));
+    }
+
+    public long upstreamFetchCount() {
+        return upstreamFetches.executionCount() + windowedFetches.executionCount();
+    }
 
-        return filterToEventWindow(response, request.getStartTime(), request.getEndTime());
+    public long coalescedFetchCount() {
+        return upstreamFetches.coalescedCount() + windowedFetches.coalescedCount();
     }
 
-    private List<HourlyForecast> filterToEventWindow(OpenMeteoResponse response,
-                                                      LocalDateTime startTime,
-                                                      LocalDateTime endTime) {
-        OpenMeteoResponse.Hourly hourly = response.getHourly();
-        List<HourlyForecast> forecasts = new ArrayList<>();
-        DateTimeFormatter apiFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("openmeteo.fetches", this, WeatherService::upstreamFetchCount)
+                .description("Forecast fetches that went upstream")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.fetches.coalesced", this, WeatherService::coalescedFetchCount)
+                .description("Forecast fetches that joined an identical in-flight fetch instead")
+                .register(registry);
+        Gauge.builder("openmeteo.circuit.state", openMeteoCircuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Open-Meteo circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(registry);
+        Gauge.builder("openmeteo.quota.queued", this, WeatherService::queuedFetchCount)
+                .description("Forecast keys waiting for upstream request budget")
+                .register(registry);
+        Gauge.builder("forecast.stale.locations", this, WeatherService::staleLocationCount)
+                .description("Locations currently answered from their last known good forecast")
+                .register(registry);
+    }
 
-        for (int i = 0; i < hourly.getTime().size(); i++) {
-            LocalDateTime forecastTime = LocalDateTime.parse(hourly.getTime().get(i), apiFormatter);
+    /** Drains until the queue is empty or its leading key is refused; tells whether it was refused. */
+    private boolean drainAdmitted() {
+        for (UpstreamQueue.Pending expired : upstreamQueue.expire(openMeteoQuota.now(),
+                openMeteoQuota.properties().getMaxQueueWait())) {
+            expired.future().completeExceptionally(
+                    new QuotaExhaustedException(expired.priority(), openMeteoQuota.retryAfter(expired.priority())));
+        }
+        while (true) {
+            List<List<UpstreamQueue.Pending>> round = new ArrayList<>();
+            boolean refused = false;
+            while (round.size() < Math.max(1, maxConcurrentRequests)) {
+                List<UpstreamQueue.Pending> batch = upstreamQueue.poll(maxLocationsPerRequest, openMeteoQuota::tryAcquire);
+                if (batch == null) {
+                    refused = true;
+                    break;
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                round.add(batch);
+            }
+            fetchAll(round);
+            if (refused) {
+                return true;
+            }
+            if (round.size() < Math.max(1, maxConcurrentRequests)) {
+                return false;
+            }
+        }
+    }
 
-            if (!forecastTime.isBefore(startTime) && forecastTime.isBefore(endTime)) {
-                forecasts.add(HourlyForecast.builder()
-                        .time(forecastTime.format(HOUR_FORMATTER))
-                        .rainProb(hourly.getPrecipitationProbability().get(i))
-                        .windKmh(hourly.getWindSpeed10m().get(i))
-                        .temperatureC(hourly.getTemperature2m().get(i))
-                        .weatherCode(hourly.getWeatherCode().get(i))
-                        .build());
+    /**
+     * Makes one upstream call per batch, concurrently when there are several. The calls answer
+     * every caller waiting on their keys, so they run without the deadline of whichever caller
+     * happens to be draining.
+     */
+    private void fetchAll(List<List<UpstreamQueue.Pending>> batches) {
+        if (batches.size() <= 1) {
+            batches.forEach(this::fetchBatch);
+            return;
+        }
+        try (TaskScope<Void> scope = TaskScope.open("forecast-batch", Deadline.none())) {
+            for (List<UpstreamQueue.Pending> batch : batches) {
+                scope.fork(() -> {
+                    fetchBatch(batch);
+                    return null;
+                });
             }
+            scope.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // The scope has cancelled the calls still running; their callers must not wait on
+            // futures nobody will complete, so fail them here
+            RestClientException interrupted = new RestClientException("Interrupted before the forecast was fetched", ex);
+            batches.forEach(batch -> batch.forEach(pending -> pending.future().completeExceptionally(interrupted)));
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Batch fetches without a deadline timed out", ex);
         }
+    }
+
+    private void fetchBatch(List<UpstreamQueue.Pending> batch) {
+        List<ForecastKey> chunk = batch.stream().map(UpstreamQueue.Pending::key).toList();
+        try {
+            List<ForecastFrame> fetched = fetchFromUpstream(chunk, null, null);
+            for (int i = 0; i < chunk.size(); i++) {
+                batch.get(i).future().complete(remember(chunk.get(i), fetched.get(i)));
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Batch forecast fetch failed for {} locations from {} to {}",
+                    chunk.size(), chunk.get(0).startHour(), chunk.get(0).endHour(), ex);
+            batch.forEach(pending -> pending.future().completeExceptionally(ex));
+        }
+    }
+
+    private static void putIfPresent(Map<ForecastKey, ForecastFrame> results, ForecastKey key, ForecastFrame frame) {
+        if (frame != null) {
+            results.put(key, frame);
+        }
+    }
+
+    private ForecastFrame fetchAndCache(ForecastKey key, UpstreamPriority priority) {
+        openMeteoQuota.acquire(priority);
+        ForecastFrame fetched = fetchFromUpstream(List.of(key), null, null).get(0);
+        return remember(key, fetched);
+    }
+
+    /** Stores a fetched forecast and returns it labelled with the model run it was stored under. */
+    private ForecastFrame remember(ForecastKey key, ForecastFrame fetched) {
+        ForecastFrame cached = forecasts.put(key, fetched);
+        staleKeys.remove(key);
+        return cached;
+    }
+
+    private ForecastFrame lastKnownGood(ForecastKey key, RuntimeException failure) {
+        if (!isUpstreamFault(failure) && !(failure instanceof QuotaExhaustedException)) {
+            return null;
+        }
+        ForecastFrame stale = forecasts.getStale(key, maxStaleAge);
+        if (stale != null) {
+            staleKeys.add(key);
+            metrics.recordStaleServed();
+            log.warn("Serving forecast for {} fetched {} ago: {}", key, stale.staleAge(), failure.getMessage());
+        }
+        return stale;
+    }
+
+    private List<ForecastFrame> fetchFromUpstream(List<ForecastKey> keys,
+                                                  LocalDateTime windowStart,
+                                                  LocalDateTime windowEnd) {
+        return openMeteoCircuitBreaker.execute(() -> weatherProvider.fetch(keys, windowStart, windowEnd));
+    }
 
-        return forecasts;
+    private record WindowedFetch(ForecastKey key, LocalDateTime startTime, LocalDateTime endTime) {
     }
 }
@@ -0,0 +1,121 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Fixed-layout binary form of a {@link StoredForecast}. A header with the key, model run and
+ * frame axis is followed by the columns back to back: temperature and wind speed as doubles,
+ * precipitation probability and weather code as single bytes. A 16-day frame takes about 7 KB
+ * and decodes with four bulk copies.
+ */
+public final class ForecastFrameCodec {
+
+    private static final byte VERSION = 2;
+
+    /** Bytes before the columns; {@link #readHeader} relies on the key and timestamps coming first. */
+    static final int HEADER_SIZE = 1 + 8 + 8 + 8 + 8 + 8 + 8 + 8 + 8 + 8 + 4 + 4;
+
+    private ForecastFrameCodec() {
+    }
+
+    public static int encodedSize(ForecastFrame frame) {
+        return HEADER_SIZE + frame.size() * (8 + 8 + 1 + 1);
+    }
+
+    /**
+     * Writes {@code forecast} at the buffer's position, advancing it by {@link #encodedSize}.
+     */
+    public static void encode(StoredForecast forecast, ByteBuffer buffer) {
+        ForecastKey key = forecast.key();
+        ForecastFrame frame = forecast.frame();
+        int size = frame.size();
+
+        buffer.put(VERSION);
+        buffer.putDouble(key.latitude());
+        buffer.putDouble(key.longitude());
+        buffer.putLong(key.startHour().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(key.endHour().toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(forecast.modelRun().getEpochSecond());
+        buffer.putLong(forecast.fetchedAt().getEpochSecond());
+        buffer.putDouble(frame.latitude());
+        buffer.putDouble(frame.longitude());
+        buffer.putLong(frame.start().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt((int) frame.step().getSeconds());
+        buffer.putInt(size);
+
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(frame.temperature(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(frame.windSpeed(i));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.put(toByte(frame.precipitationProbability(i)));
+        }
+        for (int i = 0; i < size; i++) {
+            buffer.put(toByte(frame.weatherCode(i)));
+        }
+    }
+
+    /**
+     * Reads a forecast from the buffer's position, advancing past it.
+     */
+    public static StoredForecast decode(ByteBuffer buffer) {
+        StoredForecast header = readHeader(buffer);
+        double latitude = buffer.getDouble();
+        double longitude = buffer.getDouble();
+        LocalDateTime start = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        Duration step = Duration.ofSeconds(buffer.getInt());
+        int size = buffer.getInt();
+
+        double[] temperature = new double[size];
+        double[] windSpeed = new double[size];
+        int[] precipitationProbability = new int[size];
+        int[] weatherCode = new int[size];
+        buffer.asDoubleBuffer().get(temperature);
+        buffer.position(buffer.position() + size * 8);
+        buffer.asDoubleBuffer().get(windSpeed);
+        buffer.position(buffer.position() + size * 8);
+        for (int i = 0; i < size; i++) {
+            precipitationProbability[i] = buffer.get();
+        }
+        for (int i = 0; i < size; i++) {
+            weatherCode[i] = buffer.get();
+        }
+
+        ForecastFrame frame = new ForecastFrame(latitude, longitude, start, step,
+                temperature, precipitationProbability, weatherCode, windSpeed);
+        return new StoredForecast(header.key(), frame, header.modelRun(), header.fetchedAt());
+    }
+
+    /**
+     * Reads only the key and timestamps, leaving the buffer positioned at the frame axis. The
+     * returned forecast has no frame.
+     */
+    static StoredForecast readHeader(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported forecast record version " + version);
+        }
+        ForecastKey key = new ForecastKey(buffer.getDouble(), buffer.getDouble(),
+                LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC));
+        Instant modelRun = Instant.ofEpochSecond(buffer.getLong());
+        Instant fetchedAt = Instant.ofEpochSecond(buffer.getLong());
+        return new StoredForecast(key, null, modelRun, fetchedAt);
+    }
+
+    private static byte toByte(int value) {
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Forecast value " + value + " does not fit the stored format");
+        }
+        return (byte) value;
+    }
+}
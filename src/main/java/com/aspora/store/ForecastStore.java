@@ -0,0 +1,40 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastKey;
+
+import java.time.Instant;
+import java.util.function.BiConsumer;
+
+/**
+ * One tier of forecast storage behind {@link TieredForecastStore}: the in-process
+ * {@link com.aspora.cache.ForecastCache}, the on-disk {@link SegmentForecastStore} that outlives
+ * the process, or a store shared by every instance of the service. Tiers hold forecasts with the
+ * model run and fetch time they were stored with and leave deciding what is fresh to the caller.
+ *
+ * <p>Tiers behind the in-process cache are best effort. A tier that cannot be read answers loads
+ * with {@code null} and drops saves rather than failing the request, which then falls through to
+ * the upstream.
+ */
+public interface ForecastStore {
+
+    /** Short name the tier's metrics are tagged with. */
+    String tier();
+
+    /** Whether other instances read and write the tier too; tiers local to this one are read first. */
+    boolean isShared();
+
+    boolean isEnabled();
+
+    /** The forecast last saved for {@code key}, whatever its age, or {@code null} if there is none. */
+    StoredForecast load(ForecastKey key);
+
+    void save(StoredForecast forecast);
+
+    /**
+     * Registers {@code listener} to be told when another instance saves a forecast, with its key
+     * and model run, so copies of older runs held elsewhere can be expired. Tiers not shared
+     * between instances never call it.
+     */
+    default void onSaved(BiConsumer<ForecastKey, Instant> listener) {
+    }
+}
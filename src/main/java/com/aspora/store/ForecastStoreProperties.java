@@ -0,0 +1,28 @@
+package com.aspora.store;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * On-disk forecast store, bound from {@code openmeteo.store.*}. The store is off unless a
+ * directory is configured.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.store")
+public class ForecastStoreProperties {
+
+    /** Directory holding the segment files; blank disables the store. */
+    private String directory;
+
+    /** Size each segment file is mapped at; a full segment is sealed and a new one started. */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /** Records fetched longer ago than this are not restored and are dropped by compaction. */
+    private Duration retention = Duration.ofHours(12);
+
+    /** How often superseded and expired records are compacted away. */
+    private Duration compactionInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,363 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastKey;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Forecast tier shared by every instance, kept in any server speaking the Redis protocol (Redis,
+ * Valkey, a Render Key Value instance). Each forecast is one key holding its
+ * {@link ForecastFrameCodec} bytes, about 7 KB for 16 days of hours, and expires after
+ * {@code openmeteo.shared-store.ttl}.
+ *
+ * <p>A save also publishes the key and model run on {@code openmeteo.shared-store.channel}, in the
+ * same round trip. Every other instance is subscribed and passes the announcement to its
+ * {@link #onSaved} listeners, which expire their own copies of older runs. Announcements sent while
+ * an instance's subscription is down are lost; its copies then expire on its own schedule.
+ *
+ * <p>The server is a cache, never a dependency: any failure is logged, counted and answered as a
+ * miss, and the store is skipped for {@code openmeteo.shared-store.retry-interval} after it.
+ */
+@Slf4j
+@Component
+public class RedisForecastStore implements ForecastStore, MeterBinder {
+
+    public static final String TIER = "shared";
+
+    private static final int DEFAULT_PORT = 6379;
+    private static final byte[] GET = RespConnection.arg("GET");
+    private static final byte[] SET = RespConnection.arg("SET");
+    private static final byte[] PX = RespConnection.arg("PX");
+    private static final byte[] PUBLISH = RespConnection.arg("PUBLISH");
+    private static final byte[] SUBSCRIBE = RespConnection.arg("SUBSCRIBE");
+
+    private final SharedStoreProperties properties;
+    private final String host;
+    private final int port;
+    private final List<byte[][]> handshake = new ArrayList<>();
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ConcurrentLinkedDeque<RespConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private final List<BiConsumer<ForecastKey, Instant>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder announcements = new LongAdder();
+
+    /** {@link System#nanoTime()} before which calls are skipped after a failure; 0 while healthy. */
+    private volatile long retryAt;
+    private volatile boolean closed;
+    private volatile RespConnection subscription;
+    private Thread subscriber;
+
+    public RedisForecastStore(SharedStoreProperties properties) {
+        this.properties = properties;
+        this.permits = new Semaphore(Math.max(1, properties.getPoolSize()));
+        if (!StringUtils.hasText(properties.getUrl())) {
+            this.host = null;
+            this.port = 0;
+            return;
+        }
+        URI uri = URI.create(properties.getUrl());
+        if (!"redis".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("Shared forecast store URL must look like redis://host:port, got "
+                    + properties.getUrl());
+        }
+        this.host = uri.getHost();
+        this.port = uri.getPort() < 0 ? DEFAULT_PORT : uri.getPort();
+        if (uri.getRawUserInfo() != null) {
+            String[] credentials = uri.getRawUserInfo().split(":", 2);
+            List<byte[]> auth = new ArrayList<>(List.of(RespConnection.arg("AUTH")));
+            for (String credential : credentials) {
+                if (!credential.isEmpty()) {
+                    auth.add(RespConnection.arg(URLDecoder.decode(credential, StandardCharsets.UTF_8)));
+                }
+            }
+            handshake.add(auth.toArray(byte[][]::new));
+        }
+        String database = uri.getPath() == null ? "" : uri.getPath().replace("/", "");
+        if (!database.isEmpty() && !database.equals("0")) {
+            handshake.add(new byte[][]{RespConnection.arg("SELECT"), RespConnection.arg(database)});
+        }
+        log.info("Shared forecast store at {}:{}", host, port);
+    }
+
+    /** A store that shares nothing, for wiring where no URL is configured. */
+    public static RedisForecastStore disabled() {
+        return new RedisForecastStore(new SharedStoreProperties());
+    }
+
+    @Override
+    public String tier() {
+        return TIER;
+    }
+
+    @Override
+    public boolean isShared() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return host != null;
+    }
+
+    @Override
+    public StoredForecast load(ForecastKey key) {
+        byte[] value = execute("read", connection -> (byte[]) connection.call(GET, RespConnection.arg(redisKey(key))));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ForecastFrameCodec.decode(ByteBuffer.wrap(value));
+        } catch (IllegalArgumentException | BufferUnderflowException ex) {
+            // Written by another layout, e.g. during a rolling deploy; the next save replaces it
+            log.debug("Ignoring shared forecast for {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    /** Stores {@code forecast} and announces its model run to the other instances. */
+    @Override
+    public void save(StoredForecast forecast) {
+        if (!isEnabled()) {
+            return;
+        }
+        byte[] value = new byte[ForecastFrameCodec.encodedSize(forecast.frame())];
+        try {
+            ForecastFrameCodec.encode(forecast, ByteBuffer.wrap(value));
+        } catch (IllegalArgumentException ex) {
+            log.warn("Could not share forecast for {}", forecast.key(), ex);
+            return;
+        }
+        String key = redisKey(forecast.key());
+        String announcement = instanceId + " " + forecast.modelRun().getEpochSecond() + " " + key;
+        execute("write", connection -> connection.pipeline(List.of(
+                new byte[][]{SET, RespConnection.arg(key), value,
+                        PX, RespConnection.arg(Long.toString(properties.getTtl().toMillis()))},
+                new byte[][]{PUBLISH, RespConnection.arg(properties.getChannel()), RespConnection.arg(announcement)})));
+    }
+
+    /** Subscribes to the announcements of the other instances on first use. */
+    @Override
+    public void onSaved(BiConsumer<ForecastKey, Instant> listener) {
+        listeners.add(listener);
+        synchronized (this) {
+            if (isEnabled() && subscriber == null && !closed) {
+                subscriber = Thread.ofVirtual().name("forecast-store-subscriber").start(this::subscribe);
+            }
+        }
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    /** Announcements received from other instances. */
+    public long announcementCount() {
+        return announcements.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!isEnabled()) {
+            return;
+        }
+        FunctionCounter.builder("forecast.tier.errors", this, RedisForecastStore::errorCount)
+                .description("Calls to the shared forecast store that failed and were answered as misses")
+                .tag("tier", TIER)
+                .register(registry);
+        FunctionCounter.builder("forecast.tier.announcements", this, RedisForecastStore::announcementCount)
+                .description("Forecast saves announced by other instances")
+                .tag("tier", TIER)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread thread;
+        synchronized (this) {
+            thread = subscriber;
+        }
+        closeQuietly(subscription);
+        if (thread != null) {
+            thread.interrupt();
+        }
+        RespConnection connection;
+        while ((connection = idle.poll()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private <T> T execute(String action, Call<T> call) {
+        if (!isEnabled() || closed || (retryAt != 0 && System.nanoTime() - retryAt < 0)) {
+            return null;
+        }
+        try {
+            if (!permits.tryAcquire(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        RespConnection connection = idle.pollFirst();
+        try {
+            T result;
+            if (connection == null) {
+                connection = connect(properties.getTimeout());
+                result = call.apply(connection);
+            } else {
+                try {
+                    result = call.apply(connection);
+                } catch (IOException ex) {
+                    if (ex instanceof RespConnection.ErrorReply || ex instanceof SocketTimeoutException) {
+                        throw ex;
+                    }
+                    // Closed while idle, e.g. by a server restart: retry once before calling it an outage
+                    closeQuietly(connection);
+                    connection = connect(properties.getTimeout());
+                    result = call.apply(connection);
+                }
+            }
+            idle.offerFirst(connection);
+            if (retryAt != 0) {
+                retryAt = 0;
+                log.info("Shared forecast store at {}:{} is reachable again", host, port);
+            }
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(connection);
+            if (!Thread.currentThread().isInterrupted()) {
+                errors.increment();
+                boolean wasHealthy = retryAt == 0;
+                retryAt = System.nanoTime() + properties.getRetryInterval().toNanos();
+                if (wasHealthy) {
+                    log.warn("Shared forecast store {} failed, skipping it for {}: {}",
+                            action, properties.getRetryInterval(), ex.toString());
+                }
+            }
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private RespConnection connect(Duration readTimeout) throws IOException {
+        RespConnection connection = new RespConnection(new InetSocketAddress(host, port),
+                properties.getTimeout(), readTimeout);
+        try {
+            for (byte[][] command : handshake) {
+                connection.call(command);
+            }
+        } catch (IOException ex) {
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+
+    private void subscribe() {
+        while (!closed) {
+            try (RespConnection connection = connect(Duration.ZERO)) {
+                subscription = connection;
+                if (closed) {
+                    return;
+                }
+                connection.call(SUBSCRIBE, RespConnection.arg(properties.getChannel()));
+                log.info("Listening for forecast saves on {}", properties.getChannel());
+                while (!closed) {
+                    if (connection.read() instanceof List<?> message && message.size() == 3
+                            && message.get(2) instanceof byte[] payload
+                            && message.get(0) instanceof byte[] kind && "message".equals(new String(kind, StandardCharsets.UTF_8))) {
+                        announced(new String(payload, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException ex) {
+                if (closed) {
+                    return;
+                }
+                log.warn("Lost forecast save announcements on {}, resubscribing in {}: {}",
+                        properties.getChannel(), properties.getRetryInterval(), ex.toString());
+                try {
+                    Thread.sleep(properties.getRetryInterval());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void announced(String announcement) {
+        String[] parts = announcement.split(" ", 3);
+        if (parts.length != 3 || parts[0].equals(instanceId) || !parts[2].startsWith(properties.getKeyPrefix())) {
+            return;
+        }
+        try {
+            ForecastKey key = parseKey(parts[2]);
+            Instant modelRun = Instant.ofEpochSecond(Long.parseLong(parts[1]));
+            announcements.increment();
+            for (BiConsumer<ForecastKey, Instant> listener : listeners) {
+                listener.accept(key, modelRun);
+            }
+        } catch (RuntimeException ex) {
+            log.debug("Ignoring forecast save announcement '{}'", announcement, ex);
+        }
+    }
+
+    String redisKey(ForecastKey key) {
+        return properties.getKeyPrefix() + key.latitude() + ":" + key.longitude() + ":"
+                + key.startHour().toEpochSecond(ZoneOffset.UTC) + ":" + key.endHour().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private ForecastKey parseKey(String redisKey) {
+        String[] parts = redisKey.substring(properties.getKeyPrefix().length()).split(":");
+        return new ForecastKey(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                LocalDateTime.ofEpochSecond(Long.parseLong(parts[2]), 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(Long.parseLong(parts[3]), 0, ZoneOffset.UTC));
+    }
+
+    private static void closeQuietly(RespConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (IOException ex) {
+            log.debug("Could not close shared store connection", ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+
+        T apply(RespConnection connection) throws IOException;
+    }
+}
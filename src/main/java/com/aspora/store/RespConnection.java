@@ -0,0 +1,158 @@
+package com.aspora.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single connection speaking the Redis serialization protocol (RESP2), enough for the handful
+ * of commands the shared forecast store sends. Replies decode to {@code byte[]} for bulk strings,
+ * {@code String} for simple strings, {@code Long} for integers, {@code List} for arrays and
+ * {@code null} for nil; an error reply is thrown as {@link ErrorReply}.
+ *
+ * <p>Not thread-safe: a connection is used by one thread at a time.
+ */
+final class RespConnection implements Closeable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+
+    /** Connects to {@code address}; {@code readTimeout} of zero blocks reads indefinitely. */
+    RespConnection(InetSocketAddress address, Duration connectTimeout, Duration readTimeout) throws IOException {
+        socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(address, (int) connectTimeout.toMillis());
+            socket.setSoTimeout((int) readTimeout.toMillis());
+            in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+        } catch (IOException ex) {
+            socket.close();
+            throw ex;
+        }
+    }
+
+    static byte[] arg(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Sends one command and returns its reply. */
+    Object call(byte[]... command) throws IOException {
+        send(command);
+        flush();
+        return read();
+    }
+
+    /** Sends every command in one write, then reads their replies in order. */
+    List<Object> pipeline(List<byte[][]> commands) throws IOException {
+        for (byte[][] command : commands) {
+            send(command);
+        }
+        flush();
+        List<Object> replies = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            replies.add(read());
+        }
+        return replies;
+    }
+
+    /** Buffers a command without flushing it. */
+    void send(byte[]... command) throws IOException {
+        out.write('*');
+        writeNumber(command.length);
+        for (byte[] argument : command) {
+            out.write('$');
+            writeNumber(argument.length);
+            out.write(argument);
+            out.write(CRLF);
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    Object read() throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException("Connection closed by the server");
+        }
+        String line = readLine();
+        return switch (type) {
+            case '+' -> line;
+            case '-' -> throw new ErrorReply(line);
+            case ':' -> Long.parseLong(line);
+            case '$' -> readBulk(Integer.parseInt(line));
+            case '*' -> {
+                int count = Integer.parseInt(line);
+                if (count < 0) {
+                    yield null;
+                }
+                List<Object> elements = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    elements.add(read());
+                }
+                yield elements;
+            }
+            default -> throw new IOException("Unexpected reply type '" + (char) type + "'");
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private byte[] readBulk(int length) throws IOException {
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = in.readNBytes(length);
+        if (value.length < length || in.read() != '\r' || in.read() != '\n') {
+            throw new EOFException("Connection closed inside a reply");
+        }
+        return value;
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(16);
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new EOFException("Connection closed inside a reply");
+            }
+            line.write(b);
+        }
+        if (in.read() != '\n') {
+            throw new IOException("Malformed reply line");
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeNumber(int value) throws IOException {
+        out.write(Integer.toString(value).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    /** An error reply from the server; the connection remains usable. */
+    static final class ErrorReply extends IOException {
+
+        ErrorReply(String message) {
+            super(message);
+        }
+    }
+}
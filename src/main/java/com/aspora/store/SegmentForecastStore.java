@@ -0,0 +1,411 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped log of fetched forecasts: the {@code disk} tier of
+ * {@link TieredForecastStore}, between the in-process cache and any shared tier, so a restarted
+ * instance starts with the forecasts its predecessor had instead of going to the upstream.
+ *
+ * <p>The log is a series of fixed-size segment files, each mapped in full. A record is
+ * {@code [int length][int crc32][payload]} with the payload in {@link ForecastFrameCodec} form.
+ * The length is written last and an empty slot reads as length 0, so a write torn by a crash
+ * either leaves no length or fails its checksum; recovery stops at the first such record and
+ * appends continue from there. Mapped writes survive a process crash; an OS crash may lose the
+ * unflushed tail, which recovery then discards the same way.
+ *
+ * <p>An in-memory index keeps the newest record per location cell and forecast run. At startup the
+ * segments are scanned and the index rebuilt from the record headers alone; a record is decoded,
+ * without touching JSON, the first time a near cache miss reads it, and is then served or kept as
+ * the last known good forecast like one from any other tier. Superseded and expired records are
+ * dropped by a background compaction that copies live records forward and deletes old segments.
+ *
+ * <p>The index and segments are guarded by a {@link ReentrantLock} rather than a monitor, so a
+ * request's virtual thread waiting for a write does not pin its carrier. Flushing segments to disk
+ * and deleting compacted ones happen after the lock is released.
+ */
+@Slf4j
+@Component
+public class SegmentForecastStore implements ForecastStore, MeterBinder {
+
+    public static final String TIER = "disk";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ForecastStoreProperties properties;
+    private final ModelRunSchedule modelRunSchedule;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<ForecastKey, RecordRef> index = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private Segment active;
+    private long liveBytes;
+
+    public SegmentForecastStore(ForecastStoreProperties properties, ModelRunSchedule modelRunSchedule) {
+        this.properties = properties;
+        this.modelRunSchedule = modelRunSchedule;
+        this.directory = StringUtils.hasText(properties.getDirectory()) ? Path.of(properties.getDirectory()) : null;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, properties.getSegmentSize().toBytes());
+        if (directory == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open forecast store in " + directory, ex);
+        }
+        log.info("Forecast store {}: {} records in {} segments, opened in {} ms",
+                directory, index.size(), segments.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** A store that persists nothing, for wiring where no directory is configured. */
+    public static SegmentForecastStore disabled() {
+        return new SegmentForecastStore(new ForecastStoreProperties(), null);
+    }
+
+    @Override
+    public String tier() {
+        return TIER;
+    }
+
+    @Override
+    public boolean isShared() {
+        return false;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /** Decodes the newest record for {@code key}; a record that cannot be read is a miss. */
+    @Override
+    public StoredForecast load(ForecastKey key) {
+        if (!isEnabled()) {
+            return null;
+        }
+        lock.lock();
+        try {
+            RecordRef ref = index.get(key);
+            return ref == null ? null : ForecastFrameCodec.decode(
+                    ref.segment().buffer.slice(ref.offset() + RECORD_HEADER, ref.length()));
+        } catch (RuntimeException ex) {
+            log.warn("Could not read stored forecast for {}", key, ex);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a forecast. Failures are logged, not thrown: losing a record only costs an upstream
+     * call after the next restart.
+     */
+    @Override
+    public void save(StoredForecast forecast) {
+        if (!isEnabled()) {
+            return;
+        }
+        ForecastKey key = forecast.key();
+        int length = ForecastFrameCodec.encodedSize(forecast.frame());
+        if (RECORD_HEADER + length + 4 > segmentSize) {
+            log.warn("Forecast for {} ({} bytes) does not fit a {} byte segment", key, length, segmentSize);
+            return;
+        }
+        try {
+            Segment filled;
+            lock.lock();
+            try {
+                Segment previous = active;
+                Segment segment = segmentWithRoom(length);
+                filled = segment != previous ? previous : null;
+                int offset = segment.position;
+                ForecastFrameCodec.encode(forecast, segment.buffer.slice(offset + RECORD_HEADER, length));
+                publish(segment, offset, length);
+                index(key, new RecordRef(segment, offset, length, forecast.modelRun(), forecast.fetchedAt()));
+            } finally {
+                lock.unlock();
+            }
+            if (filled != null) {
+                filled.buffer.force();
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not persist forecast for {}", key, ex);
+        }
+    }
+
+    /**
+     * Rewrites the log without superseded or expired records once they make up at least half of
+     * it. Live records are copied byte for byte into the active segment before the segments they
+     * came from are deleted, so a crash part-way leaves at worst duplicate copies.
+     */
+    @Scheduled(fixedDelayString = "${openmeteo.store.compaction-interval:10m}")
+    public void compact() {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Segment> old;
+        List<Segment> written;
+        int records;
+        lock.lock();
+        try {
+            Instant cutoff = modelRunSchedule.now().minus(properties.getRetention());
+            index.values().removeIf(ref -> {
+                boolean expired = ref.fetchedAt().isBefore(cutoff);
+                if (expired) {
+                    liveBytes -= RECORD_HEADER + ref.length();
+                }
+                return expired;
+            });
+            long usedBytes = segments.values().stream().mapToLong(segment -> segment.position).sum();
+            if (usedBytes - liveBytes < liveBytes || usedBytes == 0) {
+                return;
+            }
+
+            old = new ArrayList<>(segments.values());
+            active = createSegment(segments.lastKey() + 1);
+            for (Map.Entry<ForecastKey, RecordRef> entry : index.entrySet()) {
+                RecordRef ref = entry.getValue();
+                Segment segment = segmentWithRoom(ref.length());
+                int offset = segment.position;
+                segment.buffer.put(offset + RECORD_HEADER,
+                        ref.segment().buffer, ref.offset() + RECORD_HEADER, ref.length());
+                publish(segment, offset, ref.length());
+                entry.setValue(new RecordRef(segment, offset, ref.length(), ref.modelRun(), ref.fetchedAt()));
+            }
+            for (Segment segment : old) {
+                segments.remove(segment.id);
+            }
+            written = new ArrayList<>(segments.values());
+            records = index.size();
+        } catch (IOException ex) {
+            log.warn("Forecast store compaction failed", ex);
+            return;
+        } finally {
+            lock.unlock();
+        }
+
+        // Nothing reads the old segments any more; the copies must reach the disk before they go
+        try {
+            for (Segment segment : written) {
+                segment.buffer.force();
+            }
+            for (Segment segment : old) {
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+            log.info("Compacted forecast store to {} records in {} segments", records, written.size());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not remove compacted forecast segments", ex);
+        }
+    }
+
+    public int recordCount() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long usedBytes() {
+        lock.lock();
+        try {
+            return segments.values().stream().mapToLong(segment -> segment.position).sum();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!isEnabled()) {
+            return;
+        }
+        Gauge.builder("forecast.store.records", this, SegmentForecastStore::recordCount)
+                .description("Live forecasts in the on-disk store")
+                .register(registry);
+        Gauge.builder("forecast.store.used", this, SegmentForecastStore::usedBytes)
+                .description("Bytes written to the on-disk store, including superseded records")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.buffer.force();
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+            active = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = mapSegment(id, file);
+            segments.put(id, segment);
+            scan(segment);
+        }
+        active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+    }
+
+    /** Indexes every intact record in {@code segment} and leaves its position after the last one. */
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_HEADER <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < ForecastFrameCodec.HEADER_SIZE || length > segmentSize - position - RECORD_HEADER
+                    || buffer.getInt(position + 4) != checksum(buffer, position + RECORD_HEADER, length)) {
+                log.warn("Discarding torn forecast record at {}:{}", segment.path.getFileName(), position);
+                buffer.putInt(position, 0);
+                break;
+            }
+            try {
+                StoredForecast header = ForecastFrameCodec.readHeader(buffer.slice(position + RECORD_HEADER, length));
+                index(header.key(), new RecordRef(segment, position, length, header.modelRun(), header.fetchedAt()));
+            } catch (IllegalArgumentException ex) {
+                // Written by an older layout; left unindexed so the next compaction drops it
+                log.debug("Skipping forecast record at {}:{}: {}", segment.path.getFileName(), position, ex.getMessage());
+            }
+            position += RECORD_HEADER + length;
+        }
+        segment.position = position;
+    }
+
+    private void index(ForecastKey key, RecordRef ref) {
+        RecordRef previous = index.put(key, ref);
+        if (previous != null) {
+            liveBytes -= RECORD_HEADER + previous.length();
+        }
+        liveBytes += RECORD_HEADER + ref.length();
+    }
+
+    private Segment segmentWithRoom(int length) throws IOException {
+        // Keep room for the zero length that terminates the segment
+        if (active.position + RECORD_HEADER + length + 4 > segmentSize) {
+            active = createSegment(active.id + 1);
+        }
+        return active;
+    }
+
+    /**
+     * Completes a record whose payload is already in place: checksum, then the terminating zero of
+     * the next slot, then the length that makes the record visible to recovery.
+     */
+    private void publish(Segment segment, int offset, int length) {
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(offset + 4, checksum(buffer, offset + RECORD_HEADER, length));
+        buffer.putInt(offset + RECORD_HEADER + length, 0);
+        buffer.putInt(offset, length);
+        segment.position = offset + RECORD_HEADER + length;
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%012d", id) + SEGMENT_SUFFIX);
+        Segment segment = mapSegment(id, path);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment mapSegment(long id, Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private record RecordRef(Segment segment, int offset, int length, Instant modelRun, Instant fetchedAt) {
+    }
+
+    private static final class Segment {
+
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.debug("Could not close segment {}", path, ex);
+            }
+        }
+    }
+}
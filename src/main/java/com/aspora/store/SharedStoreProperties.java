@@ -0,0 +1,36 @@
+package com.aspora.store;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Forecast store shared between instances, bound from {@code openmeteo.shared-store.*}. The store
+ * is off unless a URL is configured.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.shared-store")
+public class SharedStoreProperties {
+
+    /** {@code redis://[[user]:password@]host[:port][/database]} of any Redis-compatible server; blank disables the store. */
+    private String url;
+
+    /** Prefix of the keys forecasts are stored under. */
+    private String keyPrefix = "aspora:forecast:";
+
+    /** Pub/sub channel on which saved model runs are announced to the other instances. */
+    private String channel = "aspora:forecast:saved";
+
+    /** Stored forecasts expire from the server after this long. */
+    private Duration ttl = Duration.ofHours(12);
+
+    /** Connect and read timeout of each call; a slower server is treated as unavailable. */
+    private Duration timeout = Duration.ofMillis(250);
+
+    /** Connections kept open to the server; calls beyond this wait for one up to the timeout. */
+    private int poolSize = 8;
+
+    /** After a failed call the store is skipped for this long rather than delaying every request. */
+    private Duration retryInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,13 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+
+import java.time.Instant;
+
+/**
+ * A forecast as persisted: the cache key it was fetched for, the model run it belongs to and when
+ * it was fetched.
+ */
+public record StoredForecast(ForecastKey key, ForecastFrame frame, Instant modelRun, Instant fetchedAt) {
+}
@@ -0,0 +1,186 @@
+package com.aspora.store;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The forecasts {@link com.aspora.service.WeatherService} reads and writes, layered over the
+ * in-process {@link ForecastCache} and any other enabled {@link ForecastStore}: the on-disk store
+ * this instance keeps across restarts, then tiers shared between instances.
+ *
+ * <p>Reads try the near cache first and go to the tiers behind it, local before shared, only on a
+ * miss. A forecast of the current model run found there is copied into the near cache and
+ * returned; one of an older run is copied too, as the last known good forecast, but is a miss.
+ * This is also how a restarted instance warms up from disk. Writes go to every tier, so a
+ * forecast one instance fetched spares the others their upstream call. When another instance
+ * saves a forecast of a newer run, the near copy of an older one is expired straight away rather
+ * than on this instance's own schedule, which may lag behind.
+ */
+@Slf4j
+@Component
+public class TieredForecastStore implements MeterBinder {
+
+    private final ForecastCache near;
+    private final List<ForecastStore> tiers;
+    private final ModelRunSchedule modelRunSchedule;
+    private final Map<String, TierStats> stats = new LinkedHashMap<>();
+    private final LongAdder invalidations = new LongAdder();
+
+    public TieredForecastStore(ForecastCache near, List<ForecastStore> stores, ModelRunSchedule modelRunSchedule) {
+        this.near = near;
+        this.tiers = stores.stream()
+                .filter(store -> store != near && store.isEnabled())
+                .sorted(Comparator.comparing(ForecastStore::isShared))
+                .toList();
+        this.modelRunSchedule = modelRunSchedule;
+        stats.put(near.tier(), new TierStats());
+        for (ForecastStore store : tiers) {
+            stats.put(store.tier(), new TierStats());
+            store.onSaved(this::expireOlderThan);
+        }
+        if (!tiers.isEmpty() && !near.isEnabled()) {
+            log.warn("Forecast tiers behind the in-process cache are unused while it is disabled");
+        }
+    }
+
+    /** Forecasts held in this process only. */
+    public static TieredForecastStore inProcess(ForecastCache near) {
+        return new TieredForecastStore(near, List.of(), null);
+    }
+
+    /** Whether forecasts are kept at all; the other tiers sit behind the near cache. */
+    public boolean isEnabled() {
+        return near.isEnabled();
+    }
+
+    public ForecastKey keyFor(EventRequest request) {
+        return near.keyFor(request);
+    }
+
+    /** The forecast of the current model run for {@code key} from the nearest tier holding one, or {@code null}. */
+    public ForecastFrame get(ForecastKey key) {
+        ForecastFrame cached = near.get(key);
+        stats.get(near.tier()).record(cached != null);
+        if (cached != null || tiers.isEmpty()) {
+            return cached;
+        }
+        Instant currentRun = modelRunSchedule.currentRun();
+        for (ForecastStore store : tiers) {
+            StoredForecast stored = store.load(key);
+            boolean current = stored != null && !stored.modelRun().isBefore(currentRun);
+            stats.get(store.tier()).record(current);
+            if (current) {
+                ForecastFrame frame = stored.frame().withModelRun(stored.modelRun());
+                near.save(new StoredForecast(key, frame, stored.modelRun(), stored.fetchedAt()));
+                return frame;
+            }
+            if (stored != null) {
+                keepAsLastKnownGood(stored);
+            }
+        }
+        return null;
+    }
+
+    /** See {@link ForecastCache#getStale}; forecasts {@link #get} found in other tiers are included. */
+    public ForecastFrame getStale(ForecastKey key, Duration maxAge) {
+        return near.getStale(key, maxAge);
+    }
+
+    /** Writes a forecast fetched now to every tier; returns it as {@link ForecastCache#put} does. */
+    public ForecastFrame put(ForecastKey key, ForecastFrame forecast) {
+        ForecastFrame cached = near.put(key, forecast);
+        if (tiers.isEmpty()) {
+            return cached;
+        }
+        StoredForecast stored = new StoredForecast(key, forecast, modelRunSchedule.currentRun(), modelRunSchedule.now());
+        for (ForecastStore store : tiers) {
+            store.save(stored);
+        }
+        return cached;
+    }
+
+    public long hitCount(String tier) {
+        TierStats tierStats = stats.get(tier);
+        return tierStats == null ? 0 : tierStats.hits.sum();
+    }
+
+    public long missCount(String tier) {
+        TierStats tierStats = stats.get(tier);
+        return tierStats == null ? 0 : tierStats.misses.sum();
+    }
+
+    /** Share of reads that reached {@code tier} and were answered by it; 0 before the first. */
+    public double hitRate(String tier) {
+        long hits = hitCount(tier);
+        long total = hits + missCount(tier);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /** Near forecasts expired because another instance saved a newer model run. */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String tier : stats.keySet()) {
+            FunctionCounter.builder("forecast.tier.gets", this, store -> store.hitCount(tier))
+                    .description("Forecast reads that reached the tier, by result")
+                    .tag("tier", tier)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("forecast.tier.gets", this, store -> store.missCount(tier))
+                    .description("Forecast reads that reached the tier, by result")
+                    .tag("tier", tier)
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("forecast.tier.hit.ratio", this, store -> store.hitRate(tier))
+                    .description("Share of the reads reaching the tier it answered since startup")
+                    .tag("tier", tier)
+                    .register(registry);
+        }
+        FunctionCounter.builder("forecast.tier.invalidations", this, TieredForecastStore::invalidationCount)
+                .description("Near forecasts expired because another instance saved a newer model run")
+                .register(registry);
+    }
+
+    private void keepAsLastKnownGood(StoredForecast stored) {
+        StoredForecast held = near.load(stored.key());
+        if (held == null || held.fetchedAt().isBefore(stored.fetchedAt())) {
+            near.save(stored);
+        }
+    }
+
+    private void expireOlderThan(ForecastKey key, Instant modelRun) {
+        if (near.expire(key, modelRun)) {
+            invalidations.increment();
+        }
+    }
+
+    private static final class TierStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private void record(boolean hit) {
+            (hit ? hits : misses).increment();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.aspora.stream;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.EventForecastUpdate;
+import com.aspora.dto.EventRegistrationResponse;
+import com.aspora.prefetch.EventPrefetchService;
+import com.aspora.prefetch.ForecastChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes forecast changes of registered events to server-sent event subscribers. Streams are
+ * asynchronous requests, so an open stream holds no servlet thread. Each write runs on its own
+ * virtual thread, so a client that stops reading stalls only its own stream, never the writes
+ * to anyone else. Each subscriber keeps at most one pending update per event and at
+ * most one write task in flight: while a slow client is being written to, newer updates replace
+ * the pending ones rather than queueing up, so it always receives the latest state and its
+ * backlog never grows beyond the events it follows.
+ */
+@Slf4j
+@Component
+public class ForecastStreamBroker implements MeterBinder {
+
+    private final EventPrefetchService prefetchService;
+    private final StreamProperties properties;
+    private final ExecutorService dispatcher;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> subscribersByEvent = new ConcurrentHashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+
+    public ForecastStreamBroker(EventPrefetchService prefetchService, StreamProperties properties) {
+        this.prefetchService = prefetchService;
+        this.properties = properties;
+        this.dispatcher = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("forecast-stream-", 1).factory());
+    }
+
+    public SseEmitter subscribe(List<String> eventIds) {
+        return subscribe(eventIds, new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    /**
+     * Subscribes the emitter to the given registered events and queues their current forecasts,
+     * so a new subscriber starts from the latest state.
+     */
+    SseEmitter subscribe(List<String> eventIds, SseEmitter emitter) {
+        Set<String> ids = new LinkedHashSet<>(eventIds == null ? List.of() : eventIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one event id is required");
+        }
+        if (ids.size() > properties.getMaxEventsPerSubscriber()) {
+            throw new IllegalArgumentException("A stream may follow at most "
+                    + properties.getMaxEventsPerSubscriber() + " events");
+        }
+        List<EventRegistrationResponse> registrations = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            EventRegistrationResponse registration = prefetchService.registration(id);
+            if (registration == null) {
+                throw new IllegalArgumentException("Unknown event registration: " + id);
+            }
+            registrations.add(registration);
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, ids);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        for (EventRegistrationResponse registration : registrations) {
+            subscribersByEvent.computeIfAbsent(registration.getId(), id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            EventForecastResponse latest = prefetchService.latestResponse(registration.getId());
+            if (latest != null) {
+                subscriber.offer(registration.getId(), new EventForecastUpdate(registration.getId(),
+                        registration.getName(), latest));
+            }
+        }
+        return emitter;
+    }
+
+    @EventListener
+    public void onForecastChanged(ForecastChangedEvent change) {
+        Set<Subscriber> followers = subscribersByEvent.get(change.eventId());
+        if (followers == null || followers.isEmpty()) {
+            return;
+        }
+        EventForecastUpdate update = new EventForecastUpdate(change.eventId(), change.name(), change.forecast());
+        for (Subscriber subscriber : followers) {
+            subscriber.offer(change.eventId(), update);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stream.heartbeat-interval:15s}")
+    public void heartbeat() {
+        long idleSince = System.nanoTime() - properties.getHeartbeatInterval().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastWrite - idleSince <= 0) {
+                subscriber.requestHeartbeat();
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    public long sentCount() {
+        return sent.get();
+    }
+
+    public long supersededCount() {
+        return superseded.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stream.subscribers", this, ForecastStreamBroker::subscriberCount)
+                .description("Open forecast change streams")
+                .register(registry);
+        FunctionCounter.builder("stream.updates.sent", this, ForecastStreamBroker::sentCount)
+                .description("Forecast updates written to subscribers")
+                .register(registry);
+        FunctionCounter.builder("stream.updates.superseded", this, ForecastStreamBroker::supersededCount)
+                .description("Forecast updates replaced by a newer one before a slow subscriber received them")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final Set<String> eventIds;
+        private final Map<String, EventForecastUpdate> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+        private volatile long lastWrite = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter, Set<String> eventIds) {
+            this.emitter = emitter;
+            this.eventIds = eventIds;
+        }
+
+        private void offer(String eventId, EventForecastUpdate update) {
+            if (pending.put(eventId, update) != null) {
+                superseded.incrementAndGet();
+            }
+            schedule();
+        }
+
+        private void requestHeartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (closed || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this);
+            } catch (RejectedExecutionException ex) {
+                scheduled.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                write();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Closing forecast stream after failed write: {}", ex.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // Anything offered while writing was not picked up by this run
+            if (!pending.isEmpty() || heartbeatDue) {
+                schedule();
+            }
+        }
+
+        private void write() throws IOException {
+            boolean wrote = false;
+            for (String eventId : pending.keySet()) {
+                EventForecastUpdate update = pending.remove(eventId);
+                if (update != null) {
+                    emitter.send(SseEmitter.event().name("forecast").data(update));
+                    sent.incrementAndGet();
+                    wrote = true;
+                }
+            }
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                if (!wrote) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    wrote = true;
+                }
+            }
+            if (wrote) {
+                lastWrite = System.nanoTime();
+            }
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.clear();
+            subscribers.remove(this);
+            for (String eventId : eventIds) {
+                subscribersByEvent.computeIfPresent(eventId, (id, followers) -> {
+                    followers.remove(this);
+                    return followers.isEmpty() ? null : followers;
+                });
+            }
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // Already completed by the container
+            }
+        }
+    }
+}
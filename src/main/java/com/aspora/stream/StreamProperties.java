@@ -0,0 +1,23 @@
+package com.aspora.stream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Server-sent event streams of forecast changes, bound from {@code stream.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "stream")
+public class StreamProperties {
+
+    /** A comment is sent to subscribers that received nothing for this long, keeping proxies from closing the connection. */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /** How long a stream stays open; clients reconnect afterwards. */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /** Most events one subscription may follow. */
+    private int maxEventsPerSubscriber = 500;
+}
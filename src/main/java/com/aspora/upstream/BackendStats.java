@@ -0,0 +1,94 @@
+package com.aspora.upstream;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Recent latencies and failures of one backend. Latencies of the last {@code latencyWindow}
+ * answered or cancelled calls are kept in a ring buffer; a cancelled call contributes the time it
+ * had been running, a lower bound that still pushes the percentiles up when the backend is slow.
+ * After {@code failureThreshold} consecutive failures the backend counts as unhealthy for
+ * {@code cooldown}; one more failure after that starts a new cooldown, one success ends it.
+ */
+final class BackendStats {
+
+    private final long[] latencies;
+    private final int minSamples;
+    private final int failureThreshold;
+    private final Duration cooldown;
+
+    private int recorded;
+    private int next;
+    private long[] sorted;
+    private int consecutiveFailures;
+    private Instant unhealthyUntil;
+    private long successes;
+    private long failures;
+    private long cancellations;
+
+    BackendStats(UpstreamProperties properties) {
+        if (properties.getLatencyWindow() <= 0) {
+            throw new IllegalArgumentException("The backend latency window must be positive");
+        }
+        this.latencies = new long[properties.getLatencyWindow()];
+        this.minSamples = Math.max(1, Math.min(properties.getMinSamples(), latencies.length));
+        this.failureThreshold = Math.max(1, properties.getFailureThreshold());
+        this.cooldown = properties.getCooldown();
+    }
+
+    synchronized void recordSuccess(long nanos) {
+        successes++;
+        consecutiveFailures = 0;
+        unhealthyUntil = null;
+        addLatency(nanos);
+    }
+
+    synchronized void recordFailure(Instant now) {
+        failures++;
+        if (++consecutiveFailures >= failureThreshold) {
+            unhealthyUntil = now.plus(cooldown);
+        }
+    }
+
+    synchronized void recordCancelled(long nanos) {
+        cancellations++;
+        addLatency(nanos);
+    }
+
+    synchronized boolean isHealthy(Instant now) {
+        return unhealthyUntil == null || !now.isBefore(unhealthyUntil);
+    }
+
+    /** Latency at {@code quantile} over the window, or -1 until {@code minSamples} are recorded. */
+    synchronized long percentileNanos(double quantile) {
+        if (recorded < minSamples) {
+            return -1;
+        }
+        if (sorted == null) {
+            sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    synchronized long successes() {
+        return successes;
+    }
+
+    synchronized long failures() {
+        return failures;
+    }
+
+    synchronized long cancellations() {
+        return cancellations;
+    }
+
+    private void addLatency(long nanos) {
+        latencies[next] = nanos;
+        next = (next + 1) % latencies.length;
+        recorded = Math.min(recorded + 1, latencies.length);
+        sorted = null;
+    }
+}
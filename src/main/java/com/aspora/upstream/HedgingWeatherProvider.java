@@ -0,0 +1,313 @@
+package com.aspora.upstream;
+
+import com.aspora.concurrent.Deadline;
+import com.aspora.concurrent.TaskScope;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Routes each fetch across several backends serving the same API. Backends are ranked on every
+ * call: healthy before failing ones, then by their recent median latency, then in configured
+ * order. The best one is asked first. If it has not answered by its adaptive hedge delay, the
+ * latency at {@code hedge-percentile} of its recent calls, the next one is asked as well. The
+ * first answer wins and the other request is cancelled. A request that fails on an upstream fault
+ * fails over to the next backend straight away; one that the backend rejects as invalid does not,
+ * since every backend would reject it.
+ *
+ * <p>With a single backend, or hedging off, calls run on the caller's thread and only fail over.
+ * Otherwise the attempts are forked in a {@link TaskScope}, each on its own virtual thread, so
+ * that the loser can be interrupted, which aborts its HTTP exchange. Hedges are capped at
+ * {@code max-hedge-ratio} of all requests. Neither moves on to another backend, nor waits for
+ * one, past the caller's {@link Deadline}.
+ */
+@Slf4j
+public class HedgingWeatherProvider implements WeatherProvider, MeterBinder {
+
+    private final List<Backend> backends;
+    private final UpstreamProperties properties;
+    private final Predicate<Throwable> isUpstreamFault;
+    private final Clock clock;
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private double hedgeAllowance;
+
+    public HedgingWeatherProvider(List<WeatherProvider> providers, UpstreamProperties properties,
+                                  Predicate<Throwable> isUpstreamFault, Clock clock) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one weather provider is required");
+        }
+        if (providers.stream().map(WeatherProvider::name).distinct().count() != providers.size()) {
+            throw new IllegalArgumentException("Weather provider names must be unique");
+        }
+        this.backends = providers.stream().map(provider -> new Backend(provider, new BackendStats(properties))).toList();
+        this.properties = properties;
+        this.isUpstreamFault = isUpstreamFault;
+        this.clock = clock;
+        this.hedgeAllowance = properties.getHedgeBurst();
+    }
+
+    @Override
+    public String name() {
+        return String.join(",", backends.stream().map(backend -> backend.provider.name()).toList());
+    }
+
+    @Override
+    public List<ForecastFrame> fetch(List<ForecastKey> keys, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        List<Backend> ranked = rank();
+        if (ranked.size() == 1 || !properties.isHedging()) {
+            return failOver(ranked, keys, windowStart, windowEnd);
+        }
+        return hedge(ranked, keys, windowStart, windowEnd);
+    }
+
+    /** Current hedge delay for the named backend: its adaptive percentile, clamped, or the initial delay. */
+    public Duration hedgeDelay(String backend) {
+        return Duration.ofNanos(hedgeDelayNanos(backend(backend)));
+    }
+
+    public boolean isHealthy(String backend) {
+        return backend(backend).stats.isHealthy(clock.instant());
+    }
+
+    public long cancelledCount(String backend) {
+        return backend(backend).stats.cancellations();
+    }
+
+    public long hedgesSent() {
+        return hedgesSent.get();
+    }
+
+    public long hedgesWon() {
+        return hedgesWon.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Backend backend : backends) {
+            String name = backend.provider.name();
+            Gauge.builder("openmeteo.backend.healthy", backend, b -> b.stats.isHealthy(clock.instant()) ? 1 : 0)
+                    .description("Whether the forecast backend is routed to normally (1) or only as a last resort (0)")
+                    .tag("backend", name)
+                    .register(registry);
+            Gauge.builder("openmeteo.backend.hedge.delay", backend, b -> hedgeDelayNanos(b) / 1e9)
+                    .description("How long a request to the backend waits before a hedge is sent elsewhere")
+                    .tag("backend", name)
+                    .baseUnit("seconds")
+                    .register(registry);
+            FunctionCounter.builder("openmeteo.backend.calls", backend, b -> b.stats.successes())
+                    .description("Forecast backend calls by outcome")
+                    .tags("backend", name, "outcome", "success")
+                    .register(registry);
+            FunctionCounter.builder("openmeteo.backend.calls", backend, b -> b.stats.failures())
+                    .tags("backend", name, "outcome", "failure")
+                    .register(registry);
+            FunctionCounter.builder("openmeteo.backend.calls", backend, b -> b.stats.cancellations())
+                    .tags("backend", name, "outcome", "cancelled")
+                    .register(registry);
+        }
+        FunctionCounter.builder("openmeteo.hedges", hedgesSent, AtomicLong::get)
+                .description("Hedged second requests sent, and those that answered first")
+                .tag("outcome", "sent")
+                .register(registry);
+        FunctionCounter.builder("openmeteo.hedges", hedgesWon, AtomicLong::get)
+                .tag("outcome", "won")
+                .register(registry);
+    }
+
+    private List<Backend> rank() {
+        Instant now = clock.instant();
+        List<Backend> ranked = new ArrayList<>(backends);
+        ranked.sort(Comparator.comparing((Backend backend) -> !backend.stats.isHealthy(now))
+                .thenComparingLong(backend -> {
+                    long median = backend.stats.percentileNanos(0.5);
+                    return median < 0 ? Long.MAX_VALUE : median;
+                }));
+        return ranked;
+    }
+
+    private List<ForecastFrame> failOver(List<Backend> ranked, List<ForecastKey> keys,
+                                         LocalDateTime windowStart, LocalDateTime windowEnd) {
+        RuntimeException failure = null;
+        for (Backend backend : ranked) {
+            long started = System.nanoTime();
+            try {
+                List<ForecastFrame> frames = backend.provider.fetch(keys, windowStart, windowEnd);
+                backend.stats.recordSuccess(System.nanoTime() - started);
+                return frames;
+            } catch (RuntimeException ex) {
+                if (!isUpstreamFault.test(ex)) {
+                    throw ex;
+                }
+                backend.stats.recordFailure(clock.instant());
+                failure = failure == null ? ex : failure;
+                if (Deadline.current().hasPassed()) {
+                    break;
+                }
+                if (ranked.size() > 1) {
+                    log.warn("Forecast backend {} failed, trying the next: {}", backend.provider.name(), ex.getMessage());
+                }
+            }
+        }
+        throw failure;
+    }
+
+    private List<ForecastFrame> hedge(List<Backend> ranked, List<ForecastKey> keys,
+                                      LocalDateTime windowStart, LocalDateTime windowEnd) {
+        synchronized (this) {
+            hedgeAllowance = Math.min(properties.getHedgeBurst(), hedgeAllowance + properties.getMaxHedgeRatio());
+        }
+        List<Attempt> running = new ArrayList<>();
+        RuntimeException failure = null;
+        int failureRank = 0;
+        int next = 0;
+        boolean hedged = false;
+        try (TaskScope<Attempt> scope = TaskScope.open("forecast-backend")) {
+            try {
+                running.add(start(scope, ranked, next++, false, keys, windowStart, windowEnd));
+                while (true) {
+                    Attempt attempt;
+                    if (!hedged && next < ranked.size()) {
+                        TaskScope.Subtask<Attempt> finished =
+                                scope.next(hedgeDelayNanos(running.get(0).backend), TimeUnit.NANOSECONDS);
+                        if (finished == null) {
+                            hedged = true;
+                            if (takeHedgeAllowance()) {
+                                hedgesSent.incrementAndGet();
+                                running.add(start(scope, ranked, next++, true, keys, windowStart, windowEnd));
+                            }
+                            continue;
+                        }
+                        attempt = finished.get();
+                    } else {
+                        attempt = scope.next().get();
+                    }
+                    running.remove(attempt);
+                    if (attempt.failure == null) {
+                        if (attempt.hedge) {
+                            hedgesWon.incrementAndGet();
+                        }
+                        return attempt.result;
+                    }
+                    if (!isUpstreamFault.test(attempt.failure)) {
+                        throw attempt.failure;
+                    }
+                    // Report the best-ranked backend's failure, whichever order the failures arrived in
+                    if (failure == null || attempt.rank < failureRank) {
+                        failure = attempt.failure;
+                        failureRank = attempt.rank;
+                    }
+                    log.warn("Forecast backend {} failed: {}", attempt.backend.provider.name(), attempt.failure.getMessage());
+                    if (running.isEmpty()) {
+                        if (next >= ranked.size() || scope.deadline().hasPassed()) {
+                            throw failure;
+                        }
+                        running.add(start(scope, ranked, next++, false, keys, windowStart, windowEnd));
+                    }
+                }
+            } finally {
+                // Settle the losers as cancelled before the scope interrupts them
+                running.forEach(Attempt::cancel);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting for a forecast backend", ex);
+        } catch (TimeoutException ex) {
+            throw new ResourceAccessException("No forecast backend answered within the request deadline",
+                    new HttpTimeoutException(ex.getMessage()));
+        }
+    }
+
+    private Attempt start(TaskScope<Attempt> scope, List<Backend> ranked, int rank, boolean hedge,
+                          List<ForecastKey> keys, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        Backend backend = ranked.get(rank);
+        Attempt attempt = new Attempt(backend, rank, hedge);
+        attempt.subtask = scope.fork(() -> {
+            try {
+                attempt.result = backend.provider.fetch(keys, windowStart, windowEnd);
+                if (attempt.settled.compareAndSet(false, true)) {
+                    backend.stats.recordSuccess(System.nanoTime() - attempt.started);
+                }
+            } catch (RuntimeException ex) {
+                attempt.failure = ex;
+                if (attempt.settled.compareAndSet(false, true) && isUpstreamFault.test(ex)) {
+                    backend.stats.recordFailure(clock.instant());
+                }
+            }
+            return attempt;
+        });
+        return attempt;
+    }
+
+    private synchronized boolean takeHedgeAllowance() {
+        if (hedgeAllowance < 1) {
+            return false;
+        }
+        hedgeAllowance--;
+        return true;
+    }
+
+    private long hedgeDelayNanos(Backend backend) {
+        long percentile = backend.stats.percentileNanos(properties.getHedgePercentile());
+        if (percentile < 0) {
+            return properties.getInitialHedgeDelay().toNanos();
+        }
+        return Math.max(properties.getMinHedgeDelay().toNanos(),
+                Math.min(properties.getMaxHedgeDelay().toNanos(), percentile));
+    }
+
+    private Backend backend(String name) {
+        return backends.stream()
+                .filter(backend -> backend.provider.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown forecast backend: " + name));
+    }
+
+    private record Backend(WeatherProvider provider, BackendStats stats) {
+    }
+
+    /** One request to one backend; settled once, by its outcome or by being cancelled. */
+    private static final class Attempt {
+        private final Backend backend;
+        private final int rank;
+        private final boolean hedge;
+        private final long started = System.nanoTime();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private TaskScope.Subtask<Attempt> subtask;
+        private volatile List<ForecastFrame> result;
+        private volatile RuntimeException failure;
+
+        Attempt(Backend backend, int rank, boolean hedge) {
+            this.backend = backend;
+            this.rank = rank;
+            this.hedge = hedge;
+        }
+
+        void cancel() {
+            if (settled.compareAndSet(false, true)) {
+                backend.stats.recordCancelled(System.nanoTime() - started);
+                subtask.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.aspora.upstream;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.metrics.CountingInputStream;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A backend speaking the Open-Meteo forecast API over a {@link RestClient} bound to its base URL.
+ * Several keys are fetched with one multi-coordinate call.
+ */
+@Slf4j
+public class OpenMeteoProvider implements WeatherProvider {
+
+    private static final ResponseErrorHandler ERROR_HANDLER = new DefaultResponseErrorHandler();
+
+    private final String name;
+    private final RestClient restClient;
+    private final OpenMeteoHourlyParser hourlyParser;
+    private final ForecastMetrics metrics;
+
+    public OpenMeteoProvider(String name, RestClient restClient, OpenMeteoHourlyParser hourlyParser,
+                             ForecastMetrics metrics) {
+        this.name = name;
+        this.restClient = restClient;
+        this.hourlyParser = hourlyParser;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public List<ForecastFrame> fetch(List<ForecastKey> keys, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        ForecastKey first = keys.get(0);
+        String latitudes = keys.stream().map(key -> String.valueOf(key.latitude())).collect(Collectors.joining(","));
+        String longitudes = keys.stream().map(key -> String.valueOf(key.longitude())).collect(Collectors.joining(","));
+
+        log.debug("Fetching weather forecast from {} for lat={}, lon={}, from={} to={}",
+                name, latitudes, longitudes, first.startHour(), first.endHour());
+
+        UpstreamCall call = new UpstreamCall();
+        List<ForecastFrame> responses;
+        try {
+            responses = restClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/forecast")
+                            .queryParam("latitude", latitudes)
+                            .queryParam("longitude", longitudes)
+                            .queryParam("hourly", OpenMeteoHourlyParser.HOURLY_VARIABLES)
+                            // Open-Meteo's end_hour is inclusive, the key's end is exclusive
+                            .queryParam("start_hour", first.startHour().toString())
+                            .queryParam("end_hour", first.endHour().minusHours(1).toString())
+                            .queryParam("timezone", "auto")
+                            .build())
+                    .exchange((request, response) -> {
+                        call.status = response.getStatusCode().value();
+                        if (ERROR_HANDLER.hasError(response)) {
+                            ERROR_HANDLER.handleError(request.getURI(), request.getMethod(), response);
+                        }
+                        CountingInputStream body = new CountingInputStream(response.getBody());
+                        long parseStarted = System.nanoTime();
+                        // Open-Meteo answers a single coordinate with an object and several with an array
+                        List<ForecastFrame> frames = hourlyParser.parse(body, windowStart, windowEnd);
+                        metrics.recordParse(System.nanoTime() - parseStarted, body.count());
+                        return frames;
+                    });
+        } catch (RuntimeException ex) {
+            call.timeout = isTimeout(ex);
+            throw ex;
+        } finally {
+            metrics.recordUpstream(System.nanoTime() - call.started, call.status, call.timeout, keys.size());
+        }
+
+        if (responses == null || responses.size() != keys.size() || responses.contains(null)) {
+            throw new RestClientException("Empty response from OpenMeteo API");
+        }
+
+        return responses;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpTimeoutException || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Outcome of one upstream call, filled in as the exchange progresses. */
+    private static final class UpstreamCall {
+        private final long started = System.nanoTime();
+        private int status;
+        private boolean timeout;
+    }
+}
@@ -0,0 +1,61 @@
+package com.aspora.upstream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forecast backends beyond {@code openmeteo.base-url} and how requests are routed and hedged
+ * across them, bound from {@code openmeteo.upstream.*}.
+ */
+@Data
+@ConfigurationProperties(prefix = "openmeteo.upstream")
+public class UpstreamProperties {
+
+    /** Further backends serving the same API, such as a self-hosted Open-Meteo instance. */
+    private List<Mirror> mirrors = new ArrayList<>();
+
+    /** Send a second request to another backend when the first is slow to answer. */
+    private boolean hedging = true;
+
+    /** Hedge delay until a backend has {@code minSamples} latencies recorded. */
+    private Duration initialHedgeDelay = Duration.ofMillis(500);
+
+    /** Bounds for the adaptive hedge delay, which is the backend's recent latency at {@code hedgePercentile}. */
+    private Duration minHedgeDelay = Duration.ofMillis(20);
+
+    private Duration maxHedgeDelay = Duration.ofSeconds(2);
+
+    private double hedgePercentile = 0.95;
+
+    /**
+     * Extra requests hedging may add, as a share of all requests, so a slow backend never doubles
+     * the load on the others. Unused allowance is kept up to {@code hedgeBurst} hedges.
+     */
+    private double maxHedgeRatio = 0.1;
+
+    private int hedgeBurst = 10;
+
+    /** Most recent latencies kept per backend. */
+    private int latencyWindow = 200;
+
+    /** Latencies needed before a backend's own percentiles are trusted for routing and hedging. */
+    private int minSamples = 20;
+
+    /** Consecutive failures after which a backend is only tried once the others have been. */
+    private int failureThreshold = 3;
+
+    /** How long a failing backend stays at the back of the line before it is trusted again. */
+    private Duration cooldown = Duration.ofSeconds(30);
+
+    @Data
+    public static class Mirror {
+
+        private String name;
+
+        private String baseUrl;
+    }
+}
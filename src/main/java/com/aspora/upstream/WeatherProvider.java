@@ -0,0 +1,24 @@
+package com.aspora.upstream;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A source of hourly forecasts serving the Open-Meteo API, such as the public service or a
+ * self-hosted mirror.
+ */
+public interface WeatherProvider {
+
+    /** Name used in logs and metric tags. */
+    String name();
+
+    /**
+     * Fetches the forecasts for {@code keys}, which share one hour range, in key order. When
+     * {@code windowStart} and {@code windowEnd} are given only those hours need to be decoded.
+     * Failures surface as {@link org.springframework.web.client.RestClientException}s.
+     */
+    List<ForecastFrame> fetch(List<ForecastKey> keys, LocalDateTime windowStart, LocalDateTime windowEnd);
+}
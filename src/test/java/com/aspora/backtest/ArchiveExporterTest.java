@@ -0,0 +1,105 @@
+package com.aspora.backtest;
+
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArchiveExporterTest {
+
+    private static final String TWO_VENUES = """
+            [{"hourly": {"time": ["2024-06-01T00:00", "2024-06-01T01:00", "2024-06-01T02:00"],
+                         "weather_code": [0, 61, 95],
+                         "wind_speed_10m": [12.5, 20.0, null],
+                         "precipitation": [0.0, 1.4, 0.05]}},
+             {"hourly": {"time": ["2024-06-01T00:00", "2024-06-01T01:00"],
+                         "weather_code": [3, 2],
+                         "wind_speed_10m": [5.0, 6.0],
+                         "precipitation": [0.2, 0.0]}}]
+            """;
+
+    private StubOpenMeteoServer server;
+    private ArchiveExporter exporter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubOpenMeteoServer();
+        exporter = new ArchiveExporter(HttpClient.newHttpClient(), new ObjectMapper(), server.baseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void shouldExportSeveralVenuesPerCallOnAUtcHourAxis() throws Exception {
+        AtomicReference<String> query = new AtomicReference<>();
+        server.setHandler(exchange -> {
+            query.set(exchange.getRequestURI().getQuery());
+            StubOpenMeteoServer.respond(exchange, 200, TWO_VENUES);
+        });
+
+        HistoricalWeather weather = exporter.export(List.of(new double[]{51.5, -0.12}, new double[]{40.7, -74.0}),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 1));
+
+        assertThat(server.requestCount()).isEqualTo(1);
+        assertThat(query.get()).contains("latitude=51.5,40.7", "longitude=-0.12,-74.0",
+                "start_date=2024-06-01", "end_date=2024-06-01", "timezone=GMT");
+        assertThat(weather.start()).isEqualTo(LocalDateTime.of(2024, 6, 1, 0, 0));
+        assertThat(weather.hours()).isEqualTo(24);
+        assertThat(weather.venueCount()).isEqualTo(2);
+        assertThat(weather.weatherCode(0, 2)).isEqualTo(95);
+        assertThat(weather.windSpeed(0, 1)).isEqualTo(20.0);
+        assertThat(weather.windSpeed(0, 2)).isNaN();
+        assertThat(weather.longitude(1)).isEqualTo(-74.0);
+        assertThat(weather.weatherCode(1, 0)).isEqualTo(3);
+        // Hours the archive did not answer are missing rather than fair
+        assertThat(weather.weatherCode(1, 5)).isEqualTo(-1);
+        assertThat(weather.windSpeed(1, 5)).isNaN();
+    }
+
+    @Test
+    void shouldTreatMeasurablePrecipitationAsCertainRain() throws Exception {
+        server.setHandler(StubOpenMeteoServer.serving(TWO_VENUES));
+
+        HistoricalWeather weather = exporter.export(List.of(new double[]{51.5, -0.12}, new double[]{40.7, -74.0}),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 1));
+
+        assertThat(weather.precipitationProbability(0, 0)).isZero();
+        assertThat(weather.precipitationProbability(0, 1)).isEqualTo(100);
+        assertThat(weather.precipitationProbability(0, 2)).isZero();
+        assertThat(weather.precipitationProbability(1, 0)).isEqualTo(100);
+    }
+
+    @Test
+    void shouldFailWhenTheArchiveAnswersTooFewLocations() {
+        server.setHandler(StubOpenMeteoServer.serving("{\"hourly\": {\"time\": []}}"));
+
+        assertThatThrownBy(() -> exporter.export(List.of(new double[]{51.5, -0.12}, new double[]{40.7, -74.0}),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 1)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("1 locations for 2");
+    }
+
+    @Test
+    void shouldFailOnArchiveErrors() {
+        server.setHandler(StubOpenMeteoServer.failing(400));
+
+        assertThatThrownBy(() -> exporter.export(List.<double[]>of(new double[]{51.5, -0.12}),
+                LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 2)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("400");
+    }
+}
@@ -0,0 +1,159 @@
+package com.aspora.backtest;
+
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.CompiledRules;
+import com.aspora.rules.Rule;
+import com.aspora.rules.RuleSet;
+import com.aspora.rules.Severity;
+import com.aspora.support.HistoricalWeathers;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BacktestEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    /** Dry, dry, moderate rain at 70%, 35 km/h wind, thunderstorm, dry; 5 km/h otherwise. */
+    private static final HistoricalWeather SIX_HOURS = HistoricalWeather.builder(START, 6)
+            .venue(51.5, -0.12, new int[]{0, 0, 61, 0, 95, 0}, new double[]{5, 5, 5, 35, 5, 5},
+                    new int[]{0, 0, 70, 0, 0, 0})
+            .build();
+
+    @Test
+    void shouldTallyTwoHourWindowsUnderDefaultRules() {
+        BacktestReport report = run(1, SIX_HOURS, List.of(defaultRules()), BacktestWindows.sweep(6, new int[]{2}, 1));
+
+        BacktestReport.RuleSetOutcome outcome = report.ruleSets().get(0);
+        assertThat(report.windows()).isEqualTo(5);
+        assertThat(outcome.profile()).isEqualTo(ClassificationRulesRegistry.DEFAULT_PROFILE);
+        assertThat(outcome.classifications()).containsExactly(
+                Map.entry("Safe", 1L), Map.entry("Risky", 2L), Map.entry("Unsafe", 2L));
+        assertThat(outcome.ruleHits()).containsEntry("thunderstorm", 2L).containsEntry("moderate_rain", 2L)
+                .containsEntry("high_rain_probability", 2L).containsEntry("strong_wind", 2L)
+                .containsEntry("dangerous_wind", 0L);
+        // Rain hour windows are Risky on two rules at once; the thunderstorm alone makes its windows Unsafe
+        assertThat(outcome.soleCause()).containsEntry("thunderstorm", 2L).containsEntry("moderate_rain", 0L)
+                .containsEntry("strong_wind", 0L);
+        assertThat(outcome.shiftFromBaseline()).isNull();
+    }
+
+    @Test
+    void shouldReportShiftsOfEachProfileAgainstTheDefaultRules() {
+        RuleSet breezy = new RuleSet();
+        breezy.setWindRiskyKmh(4.0);
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setProfiles(Map.of("breezy", breezy));
+        List<CompiledRules> rules = List.copyOf(new ClassificationRulesRegistry(properties).allRules());
+
+        BacktestReport report = run(2, SIX_HOURS, rules, BacktestWindows.sweep(6, new int[]{2}, 1));
+
+        BacktestReport.RuleSetOutcome outcome = report.ruleSets().get(1);
+        assertThat(outcome.profile()).isEqualTo("breezy");
+        assertThat(outcome.classifications()).containsEntry("Safe", 0L).containsEntry("Risky", 3L);
+        assertThat(outcome.shiftFromBaseline().get("Safe")).containsEntry("Risky", 1L).containsEntry("Safe", 0L);
+        assertThat(outcome.shiftFromBaseline().get("Unsafe")).containsEntry("Unsafe", 2L);
+        assertThat(outcome.soleCause()).containsEntry("strong_wind", 1L);
+        assertThat(report.describe()).contains("versus default: Safe->Risky 1");
+    }
+
+    @Test
+    void shouldSweepEveryLengthAndSkipLengthsLongerThanThePeriod() {
+        BacktestWindows windows = BacktestWindows.sweep(24, new int[]{3, 48, 6}, 2);
+
+        assertThat(windows.count(0)).isEqualTo(11 + 10);
+        assertThat(windows.start(0, 10)).isEqualTo(20);
+        assertThat(windows.length(0, 10)).isEqualTo(3);
+        assertThat(windows.start(0, 11)).isZero();
+        assertThat(windows.length(0, 11)).isEqualTo(6);
+        assertThat(windows.start(0, 20)).isEqualTo(18);
+        assertThat(windows.total(3)).isEqualTo(63);
+    }
+
+    @Test
+    void shouldPlaceEventsAtTheirNearestVenueAndSkipThoseOutsideTheData() {
+        HistoricalWeather weather = HistoricalWeather.builder(START, 6)
+                .venue(51.5, -0.12, new int[6], new double[6], new int[6])
+                .venue(40.7, -74.0, new int[]{0, 95, 0, 0, 0, 0}, new double[6], new int[6])
+                .build();
+        List<BacktestWindows.Event> events = List.of(
+                new BacktestWindows.Event(40.8, -73.9, START.plusMinutes(30), START.plusMinutes(90)),
+                new BacktestWindows.Event(51.4, -0.2, START.plusHours(1), START.plusHours(3)),
+                new BacktestWindows.Event(51.4, -0.2, START.plusHours(5), START.plusHours(7)),
+                new BacktestWindows.Event(51.4, -0.2, START.minusHours(1), START.plusHours(1)));
+
+        BacktestWindows windows = BacktestWindows.events(weather, events);
+        BacktestReport report = run(2, weather, List.of(defaultRules()), windows);
+
+        assertThat(windows.count(0)).isEqualTo(1);
+        assertThat(windows.count(1)).isEqualTo(1);
+        assertThat(windows.start(1, 0)).isZero();
+        assertThat(windows.length(1, 0)).isEqualTo(2);
+        assertThat(report.skippedWindows()).isEqualTo(2);
+        assertThat(report.ruleSets().get(0).classifications())
+                .containsEntry("Safe", 1L).containsEntry("Unsafe", 1L);
+    }
+
+    @Test
+    void shouldMatchHourByHourClassificationWhateverThePoolSize() {
+        HistoricalWeather weather = HistoricalWeathers.synthetic(3, 24 * 30, 42);
+        List<CompiledRules> rules = List.of(defaultRules());
+        BacktestWindows windows = BacktestWindows.sweep(weather.hours(), new int[]{3, 6, 12}, 1);
+
+        BacktestReport report = run(4, weather, rules, windows);
+
+        long[] expected = new long[Severity.values().length];
+        long thunderstorms = 0;
+        for (int venue = 0; venue < weather.venueCount(); venue++) {
+            for (int i = 0; i < windows.count(venue); i++) {
+                int mask = 0;
+                for (int hour = windows.start(venue, i); hour < windows.start(venue, i) + windows.length(venue, i); hour++) {
+                    mask |= rules.get(0).evaluate(weather.weatherCode(venue, hour), weather.windSpeed(venue, hour),
+                            weather.precipitationProbability(venue, hour));
+                }
+                expected[Rule.severityOf(mask).ordinal()]++;
+                thunderstorms += (mask & Rule.THUNDERSTORM.bit()) != 0 ? 1 : 0;
+            }
+        }
+        Map<String, Long> classifications = report.ruleSets().get(0).classifications();
+        assertThat(classifications.get("Safe")).isEqualTo(expected[Severity.SAFE.ordinal()]);
+        assertThat(classifications.get("Risky")).isEqualTo(expected[Severity.RISKY.ordinal()]);
+        assertThat(classifications.get("Unsafe")).isEqualTo(expected[Severity.UNSAFE.ordinal()]);
+        assertThat(report.ruleSets().get(0).ruleHits().get("thunderstorm")).isEqualTo(thunderstorms);
+    }
+
+    @Test
+    void shouldSplitLongVenuesIntoTasksWithoutChangingTheTallies() {
+        HistoricalWeather weather = HistoricalWeathers.synthetic(2, 24 * 365 * 2, 3);
+        RuleSet strict = new RuleSet();
+        strict.setRainProbabilityRisky(40);
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setProfiles(Map.of("strict", strict));
+        List<CompiledRules> rules = new ArrayList<>(new ClassificationRulesRegistry(properties).allRules());
+        BacktestWindows windows = BacktestWindows.sweep(weather.hours(), new int[]{3, 6, 12}, 1);
+        assertThat(windows.count(0)).isGreaterThan(BacktestEngine.WINDOWS_PER_TASK * 2);
+
+        BacktestReport single = run(1, weather, rules, windows);
+        BacktestReport parallel = run(4, weather, rules, windows);
+
+        assertThat(parallel.windows()).isEqualTo(single.windows()).isEqualTo(windows.total(2));
+        assertThat(parallel.ruleSets()).isEqualTo(single.ruleSets());
+    }
+
+    private static CompiledRules defaultRules() {
+        return new ClassificationRulesRegistry(new ClassificationProperties()).rules();
+    }
+
+    private static BacktestReport run(int parallelism, HistoricalWeather weather, List<CompiledRules> rules,
+                                      BacktestWindows windows) {
+        try (BacktestEngine engine = new BacktestEngine(parallelism)) {
+            return engine.run(weather, rules, windows);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.aspora.backtest;
+
+import com.aspora.support.HistoricalWeathers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoricalWeatherFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldRoundTripEveryColumnIncludingMissingHours() throws IOException {
+        HistoricalWeather weather = HistoricalWeather.builder(LocalDateTime.of(2024, 6, 1, 0, 0), 3)
+                .venue(51.5, -0.12, new int[]{0, 95, -1}, new double[]{12.5, 48.0, Double.NaN}, new int[]{5, 100, 0})
+                .venue(-33.9, 151.2, new int[]{61, 65, 3}, new double[]{0, 30.5, 7.25}, new int[]{70, 90, 10})
+                .build();
+        Path file = tempDir.resolve("history.wx");
+
+        HistoricalWeatherFile.write(weather, file);
+        HistoricalWeather read = HistoricalWeatherFile.read(file);
+
+        assertThat(read.start()).isEqualTo(weather.start());
+        assertThat(read.hours()).isEqualTo(3);
+        assertThat(read.venueCount()).isEqualTo(2);
+        assertThat(read.latitude(1)).isEqualTo(-33.9);
+        assertThat(read.longitude(0)).isEqualTo(-0.12);
+        assertThat(read.weatherCode(0, 1)).isEqualTo(95);
+        assertThat(read.weatherCode(0, 2)).isEqualTo(-1);
+        assertThat(read.windSpeed(0, 2)).isNaN();
+        assertThat(read.windSpeed(1, 2)).isEqualTo(7.25);
+        assertThat(read.precipitationProbability(0, 1)).isEqualTo(100);
+        assertThat(read.precipitationProbability(1, 0)).isEqualTo(70);
+    }
+
+    @Test
+    void shouldRoundTripSyntheticYears() throws IOException {
+        HistoricalWeather weather = HistoricalWeathers.synthetic(5, 24 * 365, 7);
+        Path file = tempDir.resolve("history.wx");
+
+        HistoricalWeatherFile.write(weather, file);
+        HistoricalWeather read = HistoricalWeatherFile.read(file);
+
+        assertThat(Files.size(file)).isEqualTo(HistoricalWeatherFile.HEADER_SIZE + 5 * 16L + 5L * 24 * 365 * 6);
+        assertThat(read.weatherCodes()).isEqualTo(weather.weatherCodes());
+        assertThat(Arrays.equals(read.windSpeeds(), weather.windSpeeds())).isTrue();
+        assertThat(read.precipitationProbabilities()).isEqualTo(weather.precipitationProbabilities());
+    }
+
+    @Test
+    void shouldRejectFilesThatAreNotHistoricalWeather() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("venues.csv"), "latitude,longitude\n51.5,-0.12\n");
+
+        assertThatThrownBy(() -> HistoricalWeatherFile.read(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a historical weather file");
+    }
+
+    @Test
+    void shouldRejectTruncatedFiles() throws IOException {
+        Path file = tempDir.resolve("history.wx");
+        HistoricalWeatherFile.write(HistoricalWeathers.synthetic(2, 48, 1), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertThatThrownBy(() -> HistoricalWeatherFile.read(file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("truncated or corrupt");
+    }
+}
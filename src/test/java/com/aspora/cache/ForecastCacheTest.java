@@ -0,0 +1,113 @@
+package com.aspora.cache;
+
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastCacheTest {
+
+    private MutableClock clock;
+    private ForecastCache cache;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        cache = new ForecastCache(2, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)));
+    }
+
+    private EventRequest buildRequest(double lat, double lon) {
+        return EventRequest.builder()
+                .name("Test Event")
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, 10, 17, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, 19, 0))
+                .build();
+    }
+
+    private ForecastKey key(double lat, double lon) {
+        return new ForecastKey(lat, lon, LocalDateTime.of(2026, 1, 10, 0, 0), LocalDateTime.of(2026, 1, 11, 0, 0));
+    }
+
+    private static ForecastFrame forecast() {
+        return ForecastFrame.empty(19.1, 72.9, LocalDateTime.of(2026, 1, 10, 0, 0), Duration.ofHours(1));
+    }
+
+    @Test
+    void shouldSnapNearbyVenuesToSameGridCell() {
+        ForecastKey first = cache.keyFor(buildRequest(19.0760, 72.8777));
+        ForecastKey second = cache.keyFor(buildRequest(19.0921, 72.8612));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.latitude()).isEqualTo(19.1);
+        assertThat(first.longitude()).isEqualTo(72.9);
+    }
+
+    @Test
+    void shouldReturnCachedResponse_withinSameModelRun() {
+        ForecastFrame response = cache.put(key(19.1, 72.9), forecast());
+
+        clock.advance(Duration.ofMinutes(40));
+
+        assertThat(response.modelRun()).isEqualTo(Instant.parse("2026-01-10T10:00:00Z"));
+        assertThat(cache.get(key(19.1, 72.9))).isSameAs(response);
+        assertThat(cache.hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExpireEntries_whenModelUpdates_butKeepThemAsLastKnownGood() {
+        cache.put(key(19.1, 72.9), forecast());
+
+        clock.advance(Duration.ofMinutes(45));
+
+        assertThat(cache.get(key(19.1, 72.9))).isNull();
+        ForecastFrame stale = cache.getStale(key(19.1, 72.9), Duration.ofHours(1));
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.staleAge()).isEqualTo(Duration.ofMinutes(45));
+    }
+
+    @Test
+    void shouldExpireEntry_whenNewerRunIsStoredElsewhere() {
+        cache.put(key(19.1, 72.9), forecast());
+        Instant currentRun = Instant.parse("2026-01-10T10:00:00Z");
+
+        assertThat(cache.expire(key(19.1, 72.9), currentRun)).isFalse();
+        assertThat(cache.expire(key(19.1, 72.9), currentRun.plus(Duration.ofHours(1)))).isTrue();
+
+        assertThat(cache.get(key(19.1, 72.9))).isNull();
+        assertThat(cache.getStale(key(19.1, 72.9), Duration.ofHours(1))).isNotNull();
+        assertThat(cache.load(key(19.1, 72.9)).modelRun()).isEqualTo(currentRun);
+    }
+
+    @Test
+    void shouldNotServeStaleForecast_olderThanMaxAge() {
+        cache.put(key(19.1, 72.9), forecast());
+
+        clock.advance(Duration.ofHours(3));
+
+        assertThat(cache.getStale(key(19.1, 72.9), Duration.ofHours(2))).isNull();
+        assertThat(cache.getStale(key(1, 1), Duration.ofHours(2))).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsed_whenFull() {
+        ForecastFrame first = cache.put(key(1, 1), forecast());
+        cache.put(key(2, 2), forecast());
+
+        cache.get(key(1, 1));
+        cache.put(key(3, 3), forecast());
+
+        assertThat(cache.get(key(1, 1))).isSameAs(first);
+        assertThat(cache.get(key(2, 2))).isNull();
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,42 @@
+package com.aspora.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineTest {
+
+    @Test
+    void withinKeepsTheEarlierDeadline() {
+        Deadline soon = Deadline.after(Duration.ofMillis(100));
+
+        assertThat(soon.within(Duration.ofHours(1))).isSameAs(soon);
+        assertThat(soon.within(Duration.ZERO).hasPassed()).isTrue();
+        assertThat(Deadline.none().within(Duration.ofHours(1)).remainingNanos())
+                .isBetween(Duration.ofMinutes(59).toNanos(), Duration.ofHours(1).toNanos());
+    }
+
+    @Test
+    void noDeadlineNeverPasses() {
+        assertThat(Deadline.none().hasPassed()).isFalse();
+        assertThat(Deadline.none().remainingNanos()).isEqualTo(Long.MAX_VALUE);
+        assertThat(Deadline.after(Duration.ofMillis(-5)).hasPassed()).isTrue();
+        assertThat(Deadline.after(Duration.ofMillis(-5)).remainingNanos()).isZero();
+    }
+
+    @Test
+    void bindingRestoresTheEnclosingDeadline() {
+        Deadline outer = Deadline.after(Duration.ofSeconds(10));
+        Deadline inner = Deadline.after(Duration.ofSeconds(1));
+
+        try (Deadline.Binding ignoredOuter = outer.bind()) {
+            try (Deadline.Binding ignoredInner = inner.bind()) {
+                assertThat(Deadline.current()).isSameAs(inner);
+            }
+            assertThat(Deadline.current()).isSameAs(outer);
+        }
+        assertThat(Deadline.current().isNone()).isTrue();
+    }
+}
@@ -0,0 +1,123 @@
+package com.aspora.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskScopeTest {
+
+    @Test
+    void subtasksRunOnVirtualThreadsUnderTheScopesDeadline() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(30));
+        try (Deadline.Binding ignored = deadline.bind();
+             TaskScope<String> scope = TaskScope.open("test")) {
+            TaskScope.Subtask<String> subtask = scope.fork(() -> {
+                assertThat(Deadline.current()).isSameAs(deadline);
+                return Thread.currentThread().isVirtual() + " " + Thread.currentThread().getName();
+            });
+            scope.join();
+
+            assertThat(subtask.state()).isEqualTo(TaskScope.Subtask.State.SUCCEEDED);
+            assertThat(subtask.get()).isEqualTo("true test-1");
+        }
+    }
+
+    @Test
+    void joinWaitsForEverySubtaskAndKeepsFailuresApart() throws Exception {
+        try (TaskScope<Integer> scope = TaskScope.open("test")) {
+            TaskScope.Subtask<Integer> slow = scope.fork(() -> {
+                Thread.sleep(100);
+                return 1;
+            });
+            TaskScope.Subtask<Integer> failing = scope.fork(() -> {
+                throw new IllegalStateException("boom");
+            });
+            scope.join();
+
+            assertThat(slow.get()).isEqualTo(1);
+            assertThat(failing.state()).isEqualTo(TaskScope.Subtask.State.FAILED);
+            assertThat(failing.exception()).hasMessage("boom");
+            assertThatThrownBy(failing::get).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void nextReturnsSubtasksInTheOrderTheyFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (TaskScope<String> scope = TaskScope.open("test")) {
+            scope.fork(() -> {
+                release.await();
+                return "second";
+            });
+            scope.fork(() -> "first");
+
+            assertThat(scope.next().get()).isEqualTo("first");
+            assertThat(scope.next(20, TimeUnit.MILLISECONDS)).isNull();
+            release.countDown();
+            assertThat(scope.next().get()).isEqualTo("second");
+            assertThat(scope.next()).isNull();
+        }
+    }
+
+    @Test
+    void passedDeadlineFailsTheWaitAndClosingCancelsWhatIsStillRunning() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        TaskScope.Subtask<String> stuck;
+        long started = System.nanoTime();
+        try (TaskScope<String> scope = TaskScope.open("test", Deadline.after(Duration.ofMillis(50)))) {
+            stuck = scope.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ex) {
+                    interrupted.set(true);
+                    throw ex;
+                }
+                return "late";
+            });
+
+            assertThatThrownBy(scope::join).isInstanceOf(TimeoutException.class);
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(5));
+        assertThat(stuck.state()).isEqualTo(TaskScope.Subtask.State.CANCELLED);
+        assertThat(interrupted).isTrue();
+    }
+
+    @Test
+    void cancelledSubtaskIgnoresWhatItReturnsAfterwards() throws Exception {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        try (TaskScope<String> scope = TaskScope.open("test")) {
+            TaskScope.Subtask<String> subtask = scope.fork(() -> {
+                cancelled.await();
+                return "ignored";
+            });
+
+            assertThat(subtask.cancel()).isTrue();
+            assertThat(subtask.cancel()).isFalse();
+            assertThat(scope.next()).isSameAs(subtask);
+            assertThat(subtask.state()).isEqualTo(TaskScope.Subtask.State.CANCELLED);
+            assertThatThrownBy(subtask::get).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void onlyTheOpeningThreadMayUseTheScope() throws Exception {
+        try (TaskScope<String> scope = TaskScope.open("test")) {
+            var executor = Executors.newSingleThreadExecutor();
+            try {
+                assertThatThrownBy(() -> executor.submit(() -> scope.fork(() -> "x")).get())
+                        .hasCauseInstanceOf(IllegalStateException.class);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.aspora.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientSystemPropertiesTest {
+
+    private static final List<String> PROPERTIES = List.of("jdk.httpclient.connectionPoolSize",
+            "jdk.httpclient.keepalive.timeout", "jdk.httpclient.keepalive.timeout.h2");
+
+    private final Map<String, String> saved = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String property : PROPERTIES) {
+            saved.put(property, System.getProperty(property));
+            System.clearProperty(property);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        saved.forEach((property, value) -> {
+            if (value == null) {
+                System.clearProperty(property);
+            } else {
+                System.setProperty(property, value);
+            }
+        });
+    }
+
+    @Test
+    void appliesConfiguredLimitsUnlessAlreadySetForTheJvm() {
+        System.setProperty("jdk.httpclient.connectionPoolSize", "7");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("openmeteo.http.pool-size", "50")
+                .withProperty("openmeteo.http.keep-alive", "45s");
+
+        new HttpClientSystemProperties().postProcessEnvironment(environment, null);
+
+        assertThat(System.getProperty("jdk.httpclient.connectionPoolSize")).isEqualTo("7");
+        assertThat(System.getProperty("jdk.httpclient.keepalive.timeout")).isEqualTo("45");
+        assertThat(System.getProperty("jdk.httpclient.keepalive.timeout.h2")).isEqualTo("45");
+    }
+}
@@ -0,0 +1,95 @@
+package com.aspora.config;
+
+import com.aspora.support.StubOpenMeteoServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestClientConfigTest {
+
+    private StubOpenMeteoServer stub;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubOpenMeteoServer();
+        OpenMeteoHttpProperties properties = new OpenMeteoHttpProperties();
+        properties.setReadTimeout(Duration.ofMillis(300));
+        restClient = RestClientConfig.createRestClient(stub.baseUrl(), properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void shouldFailWithinReadTimeout_whenUpstreamNeverResponds() {
+        stub.setHandler(exchange -> StubOpenMeteoServer.sleep(5_000));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> restClient.get().uri("/forecast").retrieve().body(String.class))
+                .isInstanceOf(ResourceAccessException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldFailWithinReadTimeout_whenUpstreamStallsMidBody() {
+        stub.setHandler(exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            body.write("{\"hourly\": {\"time\": [".getBytes(StandardCharsets.UTF_8));
+            body.flush();
+            StubOpenMeteoServer.sleep(5_000);
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> restClient.get().uri("/forecast").retrieve().body(String.class))
+                .isInstanceOf(RestClientException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void shouldInflateGzipResponses() {
+        stub.setHandler(exchange -> {
+            assertThat(exchange.getRequestHeaders().getFirst("Accept-Encoding")).isEqualTo("gzip");
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("{\"latitude\": 19.1}".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            exchange.getResponseBody().write(compressed.toByteArray());
+        });
+
+        String body = restClient.get().uri("/forecast").retrieve().body(String.class);
+
+        assertThat(body).isEqualTo("{\"latitude\": 19.1}");
+    }
+
+    @Test
+    void shouldReuseConnectionAcrossCalls() {
+        stub.setHandler(exchange -> StubOpenMeteoServer.respond(exchange, 200, "{}"));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(restClient.get().uri("/forecast").retrieve().body(String.class)).isEqualTo("{}");
+        }
+
+        assertThat(stub.requestCount()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,77 @@
+package com.aspora.config;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.Rule;
+import com.aspora.rules.Severity;
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StartupWarmUpTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ClassificationRulesRegistry rulesRegistry = new ClassificationRulesRegistry(new ClassificationProperties());
+    private StubOpenMeteoServer stub;
+    private OpenMeteoHttpProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubOpenMeteoServer();
+        stub.setHandler(StubOpenMeteoServer.failing(400));
+        properties = new OpenMeteoHttpProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private StartupWarmUp warmUp(boolean enabled) {
+        return new StartupWarmUp(new OpenMeteoHourlyParser(objectMapper), objectMapper,
+                new OpenMeteoWarmUp(RestClientConfig.createRestClient(stub.baseUrl(), properties), properties),
+                rulesRegistry, enabled, 5);
+    }
+
+    @Test
+    void shouldExerciseEverySeverity_withCannedResponse() throws Exception {
+        ForecastFrame frame = new OpenMeteoHourlyParser(objectMapper).parse(new ByteArrayInputStream(
+                StartupWarmUp.cannedResponse().getBytes(StandardCharsets.UTF_8))).get(0);
+
+        Set<Severity> seen = new HashSet<>();
+        for (int i = 0; i < frame.size(); i++) {
+            seen.add(Rule.severityOf(rulesRegistry.rules(null).evaluate(frame, i)));
+        }
+
+        assertThat(frame.size()).isEqualTo(24);
+        assertThat(seen).containsExactlyInAnyOrder(Severity.values());
+    }
+
+    @Test
+    void shouldOpenUpstreamConnection_onlyWhenEnabled() throws Exception {
+        warmUp(false).afterSingletonsInstantiated();
+        Thread.sleep(200);
+        assertThat(stub.requestCount()).isZero();
+
+        StartupWarmUp enabled = warmUp(true);
+        enabled.afterSingletonsInstantiated();
+        enabled.afterSingletonsInstantiated();
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (stub.requestCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(stub.requestCount()).isEqualTo(1);
+    }
+}
@@ -1,24 +1,44 @@
 package com.aspora.controller;
 
+import com.aspora.config.WireFormatConfig;
+import com.aspora.dto.BatchForecastResponse;
+import com.aspora.dto.BatchForecastResult;
 import com.aspora.dto.EventForecastResponse;
 import com.aspora.dto.HourlyForecast;
+import com.aspora.prefetch.EventPrefetchService;
+import com.aspora.resilience.CircuitOpenException;
+import com.aspora.resilience.QuotaExhaustedException;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.service.BatchForecastService;
 import com.aspora.service.ClassificationService;
+import com.aspora.support.ForecastFrames;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyString;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(EventForecastController.class)
+@Import(WireFormatConfig.class)
 class EventForecastControllerTest {
 
     @Autowired
@@ -27,9 +47,36 @@ class EventForecastControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    private static final String VALID_REQUEST = """
+            {
+              "name": "Football Match",
+              "location": {"latitude": 19.0760, "longitude": 72.8777},
+              "start_time": "2026-01-10T17:00:00",
+              "end_time": "2026-01-10T19:00:00"
+            }
+            """;
+
     @MockitoBean
     private ClassificationService classificationService;
 
+    @MockitoBean
+    private BatchForecastService batchForecastService;
+
+    @MockitoBean
+    private EventPrefetchService prefetchService;
+
+    @MockitoBean
+    private ForecastETags forecastETags;
+
+    private static final String ETAG = "\"5eed\"";
+
+    @BeforeEach
+    void stubETags() {
+        when(forecastETags.etag(any(), any())).thenReturn(ETAG);
+        when(forecastETags.etag(any(), any(), any())).thenReturn(ETAG);
+        when(forecastETags.maxAge()).thenReturn(Duration.ofMinutes(25));
+    }
+
     @Test
     void shouldReturnForecast_whenValidRequest() throws Exception {
         EventForecastResponse mockResponse = EventForecastResponse.builder()
@@ -60,7 +107,8 @@ class EventForecastControllerTest {
                         .content(requestBody))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.classification").value("Safe"))
-                .andExpect(jsonPath("$.event_window_forecast").isArray());
+                .andExpect(jsonPath("$.event_window_forecast").isArray())
+                .andExpect(jsonPath("$.stale").doesNotExist());
     }
 
     @Test
@@ -98,6 +146,27 @@ class EventForecastControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void shouldReturnBadRequest_whenReasonDetailUnknown() throws Exception {
+        String requestBody = """
+                {
+                  "name": "Football Match",
+                  "location": {
+                    "latitude": 19.0760,
+                    "longitude": 72.8777
+                  },
+                  "start_time": "2026-01-10T17:00:00",
+                  "end_time": "2026-01-10T19:00:00",
+                  "reasons": "verbose"
+                }
+                """;
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnBadRequest_whenEndTimeBeforeStartTime() throws Exception {
         when(classificationService.classify(any())).thenReturn(null);
@@ -119,4 +188,245 @@ class EventForecastControllerTest {
                         .content(requestBody))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void shouldReturnPerEventResults_whenBatchRequested() throws Exception {
+        BatchForecastResponse mockResponse = BatchForecastResponse.builder()
+                .results(List.of(
+                        BatchForecastResult.builder().index(0).name("Football Match")
+                                .forecast(EventForecastResponse.builder().classification("Safe").build())
+                                .build(),
+                        BatchForecastResult.builder().index(1).error("Validation failed")
+                                .details(List.of("name: Event name is required"))
+                                .build()))
+                .build();
+
+        when(batchForecastService.classifyAll(any())).thenReturn(mockResponse);
+
+        String requestBody = """
+                [
+                  {
+                    "name": "Football Match",
+                    "location": { "latitude": 19.0760, "longitude": 72.8777 },
+                    "start_time": "2026-01-10T17:00:00",
+                    "end_time": "2026-01-10T19:00:00"
+                  },
+                  {
+                    "location": { "latitude": 19.0760, "longitude": 72.8777 },
+                    "start_time": "2026-01-10T17:00:00",
+                    "end_time": "2026-01-10T19:00:00"
+                  }
+                ]
+                """;
+
+        mockMvc.perform(post("/event-forecast/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].forecast.classification").value("Safe"))
+                .andExpect(jsonPath("$.results[1].error").value("Validation failed"))
+                .andExpect(jsonPath("$.results[1].forecast").doesNotExist());
+    }
+
+    @Test
+    void shouldFlagStaleForecast_withItsAge() throws Exception {
+        when(classificationService.classify(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Safe")
+                .reason(List.of())
+                .eventWindowForecast(List.of())
+                .stale(true)
+                .ageSeconds(5400L)
+                .build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stale").value(true))
+                .andExpect(jsonPath("$.age_seconds").value(5400));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWithRetryAfter_whenCircuitIsOpen() throws Exception {
+        when(classificationService.classify(any()))
+                .thenThrow(new CircuitOpenException("openmeteo", Duration.ofSeconds(12)));
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.error").value("Failed to fetch weather data from external API"));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWithRetryAfter_whenQuotaIsExhausted() throws Exception {
+        when(classificationService.classify(any()))
+                .thenThrow(new QuotaExhaustedException(UpstreamPriority.INTERACTIVE, Duration.ofMillis(2_500)));
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.details").value(org.hamcrest.Matchers.containsString("interactive")));
+    }
+
+    @Test
+    void shouldServePrecomputedResponse_forRegisteredEvent() throws Exception {
+        when(prefetchService.precomputed(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Risky")
+                .reason(List.of("Rain probability is 70% at 17:00"))
+                .eventWindowForecast(List.of())
+                .build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.classification").value("Risky"));
+
+        verify(classificationService, never()).classify(any());
+    }
+
+    @Test
+    void shouldTagResponse_andCacheUntilNextModelUpdate() throws Exception {
+        when(classificationService.classify(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Safe").reason(List.of()).eventWindowForecast(List.of()).build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(header().string("Cache-Control", "max-age=1500"));
+    }
+
+    @Test
+    void shouldAnswerNotModified_withoutClassifying_whenTagMatches() throws Exception {
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"0ld\", W/" + ETAG)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", ETAG))
+                .andExpect(content().string(emptyString()));
+
+        verify(classificationService, never()).classify(any());
+        verify(prefetchService, never()).precomputed(any());
+    }
+
+    @Test
+    void shouldTagResponse_withTheModelRunItWasServedFrom() throws Exception {
+        when(forecastETags.etag(any(), any(), any())).thenReturn("\"n3w\"");
+        when(classificationService.classify(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Safe").reason(List.of()).eventWindowForecast(List.of()).build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"n3w\"")
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"n3w\""));
+    }
+
+    @Test
+    void shouldNotTagResponse_whoseModelRunIsUnknown() throws Exception {
+        when(forecastETags.etag(any(), any(), any())).thenReturn(null);
+        when(classificationService.classify(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Safe").reason(List.of()).eventWindowForecast(List.of()).build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void shouldNotTagStaleResponse() throws Exception {
+        when(classificationService.classify(any())).thenReturn(EventForecastResponse.builder()
+                .classification("Safe").reason(List.of()).eventWindowForecast(List.of())
+                .stale(true).ageSeconds(60L).build());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-None-Match", "\"0ld\"")
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    private static EventForecastResponse framedResponse() {
+        List<HourlyForecast> hours = List.of(
+                HourlyForecast.builder().time("17:00").rainProb(20).windKmh(10.5).temperatureC(25).weatherCode(0).build(),
+                HourlyForecast.builder().time("18:00").rainProb(70).windKmh(12).temperatureC(24.5).weatherCode(61).build());
+        return EventForecastResponse.builder()
+                .classification("Risky")
+                .summary("Weather conditions may impact the event. Proceed with caution.")
+                .reason(List.of("Rain probability is 70% at 18:00"))
+                .eventWindowForecast(hours)
+                .window(ForecastFrames.of(hours))
+                .build();
+    }
+
+    @Test
+    void shouldReturnColumnarForecast_whenRequested() throws Exception {
+        when(classificationService.classify(any())).thenReturn(framedResponse());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(ForecastMediaTypes.COLUMNAR_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ForecastMediaTypes.COLUMNAR_JSON))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andExpect(jsonPath("$.classification").value("Risky"))
+                .andExpect(jsonPath("$.event_window_forecast.start").value("2026-01-10T17:00"))
+                .andExpect(jsonPath("$.event_window_forecast.step_minutes").value(60))
+                .andExpect(jsonPath("$.event_window_forecast.rain_prob[1]").value(70))
+                .andExpect(jsonPath("$.event_window_forecast.wind_kmh[0]").value(10.5))
+                .andExpect(jsonPath("$.event_window_forecast.weather_code[1]").value(61));
+    }
+
+    @Test
+    void shouldEncodeCbor_inBothShapes() throws Exception {
+        when(classificationService.classify(any())).thenReturn(framedResponse());
+        CBORMapper cbor = new CBORMapper();
+
+        byte[] rows = mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(ForecastMediaTypes.CBOR)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ForecastMediaTypes.CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] columns = mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(ForecastMediaTypes.COLUMNAR_CBOR)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ForecastMediaTypes.COLUMNAR_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode rowTree = cbor.readTree(rows);
+        JsonNode columnTree = cbor.readTree(columns);
+        assertThat(rowTree.at("/event_window_forecast/1/rain_prob").asInt()).isEqualTo(70);
+        assertThat(columnTree.at("/event_window_forecast/rain_prob/1").asInt()).isEqualTo(70);
+        assertThat(columnTree.at("/classification").asText()).isEqualTo("Risky");
+    }
+
+    @Test
+    void shouldDefaultToJsonRows_withoutAcceptHeader() throws Exception {
+        when(classificationService.classify(any())).thenReturn(framedResponse());
+
+        mockMvc.perform(post("/event-forecast")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(VALID_REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.event_window_forecast[1].time").value("18:00"));
+    }
 }
@@ -0,0 +1,46 @@
+package com.aspora.controller;
+
+import com.aspora.stream.ForecastStreamBroker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(EventStreamController.class)
+class EventStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ForecastStreamBroker streamBroker;
+
+    @Test
+    void shouldOpenAsyncStream_forRequestedEvents() throws Exception {
+        when(streamBroker.subscribe(any())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/event-forecast/stream").param("ids", "a,b"))
+                .andExpect(request().asyncStarted());
+
+        verify(streamBroker).subscribe(List.of("a", "b"));
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenSubscriptionIsRejected() throws Exception {
+        when(streamBroker.subscribe(any())).thenThrow(new IllegalArgumentException("Unknown event registration: x"));
+
+        mockMvc.perform(get("/event-forecast/stream").param("ids", "x"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unknown event registration: x"));
+    }
+}
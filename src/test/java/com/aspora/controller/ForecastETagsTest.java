@@ -0,0 +1,119 @@
+package com.aspora.controller;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.rules.RuleSet;
+import com.aspora.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForecastETagsTest {
+
+    private MutableClock clock;
+    private ForecastETags etags;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-10T10:35:00Z"));
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        ClassificationProperties properties = new ClassificationProperties();
+        RuleSet marathon = new RuleSet();
+        marathon.setWindRiskyKmh(20.0);
+        properties.setProfiles(Map.of("marathon", marathon));
+        etags = new ForecastETags(new ForecastCache(100, 0.1, Duration.ofHours(6), schedule), schedule,
+                new ClassificationRulesRegistry(properties));
+    }
+
+    private static EventRequest event(double lat, double lon, int startHour, String profile) {
+        return EventRequest.builder()
+                .name("Match")
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, 10, startHour, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, 19, 0))
+                .profile(profile)
+                .build();
+    }
+
+    @Test
+    void shouldBeStableForSameInputs_withinGridCellAndModelRun() {
+        String tag = etags.etag(event(19.076, 72.8777, 17, null), MediaType.APPLICATION_JSON);
+
+        assertThat(tag).matches("\"[0-9a-f]+\"");
+        assertThat(etags.etag(event(19.08, 72.88, 17, null), MediaType.APPLICATION_JSON)).isEqualTo(tag);
+        clock.advance(Duration.ofMinutes(20));
+        assertThat(etags.etag(event(19.076, 72.8777, 17, null), MediaType.APPLICATION_JSON)).isEqualTo(tag);
+    }
+
+    @Test
+    void shouldChangeWithCellWindowProfileReasonsRepresentationOrModelRun() {
+        String tag = etags.etag(event(19.076, 72.8777, 17, null), MediaType.APPLICATION_JSON);
+        EventRequest hourly = event(19.076, 72.8777, 17, null);
+        hourly.setReasons("hourly");
+
+        assertThat(etags.etag(event(19.2, 72.8777, 17, null), MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+        assertThat(etags.etag(event(19.076, 72.8777, 16, null), MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+        assertThat(etags.etag(event(19.076, 72.8777, 17, "marathon"), MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+        assertThat(etags.etag(event(19.076, 72.8777, 17, null), ForecastMediaTypes.COLUMNAR_JSON)).isNotEqualTo(tag);
+        assertThat(etags.etag(hourly, MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(etags.etag(event(19.076, 72.8777, 17, null), MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void shouldTagServedForecast_withTheModelRunItWasStoredUnder() {
+        EventRequest event = event(19.076, 72.8777, 17, null);
+        String current = etags.etag(event, MediaType.APPLICATION_JSON);
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, LocalDateTime.of(2026, 1, 10, 0, 0),
+                Duration.ofHours(1), new double[24], new int[24], new int[24], new double[24]);
+
+        assertThat(etags.etag(event, MediaType.APPLICATION_JSON,
+                frame.withModelRun(Instant.parse("2026-01-10T10:00:00Z")))).isEqualTo(current);
+        // Fetched across the run boundary: the tag follows the forecast, not the request
+        assertThat(etags.etag(event, MediaType.APPLICATION_JSON,
+                frame.withModelRun(Instant.parse("2026-01-10T11:00:00Z")))).isNotEqualTo(current);
+        assertThat(etags.etag(event, MediaType.APPLICATION_JSON, frame)).isNull();
+    }
+
+    @Test
+    void shouldAgreeAcrossInstances_forTheSameRulesOnly() {
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        ForecastCache cache = new ForecastCache(100, 0.1, Duration.ofHours(6), schedule);
+        ClassificationProperties windier = new ClassificationProperties();
+        windier.getRules().setWindRiskyKmh(40.0);
+        ForecastETags sameRules = new ForecastETags(cache, schedule,
+                new ClassificationRulesRegistry(new ClassificationProperties()));
+        ForecastETags otherRules = new ForecastETags(cache, schedule, new ClassificationRulesRegistry(windier));
+        EventRequest event = event(19.076, 72.8777, 17, null);
+
+        String tag = etags.etag(event, MediaType.APPLICATION_JSON);
+
+        assertThat(sameRules.etag(event, MediaType.APPLICATION_JSON)).isEqualTo(tag);
+        assertThat(otherRules.etag(event, MediaType.APPLICATION_JSON)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void shouldExpireAtNextModelUpdate() {
+        assertThat(etags.maxAge()).isEqualTo(Duration.ofMinutes(25));
+    }
+
+    @Test
+    void shouldMatchIfNoneMatchLists() {
+        assertThat(ForecastETags.matches("\"a\", \"b\"", "\"b\"")).isTrue();
+        assertThat(ForecastETags.matches("W/\"b\"", "\"b\"")).isTrue();
+        assertThat(ForecastETags.matches("*", "\"b\"")).isTrue();
+        assertThat(ForecastETags.matches("\"a\"", "\"b\"")).isFalse();
+        assertThat(ForecastETags.matches(null, "\"b\"")).isFalse();
+    }
+}
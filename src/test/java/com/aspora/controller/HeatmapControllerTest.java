@@ -0,0 +1,62 @@
+package com.aspora.controller;
+
+import com.aspora.dto.HeatmapResponse;
+import com.aspora.service.HeatmapService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HeatmapController.class)
+class HeatmapControllerTest {
+
+    private static final String REQUEST = """
+            {"bounds": {"north": 19.3, "south": 19.1, "east": 73.0, "west": 72.8}, "resolution": 0.1,
+             "start_time": "2026-01-10T17:00:00", "end_time": "2026-01-10T19:00:00"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private HeatmapService heatmapService;
+
+    @Test
+    void shouldReturnCompactGrid() throws Exception {
+        when(heatmapService.classify(any())).thenReturn(HeatmapResponse.builder()
+                .north(19.3).west(72.8).resolution(0.1).rows(2).columns(2)
+                .classification(List.of("SR", "U-"))
+                .worstHour(new int[]{-1, 1, 0, -1})
+                .counts(Map.of("Safe", 1, "Risky", 1, "Unsafe", 1))
+                .missing(1)
+                .build());
+
+        mockMvc.perform(post("/event-forecast/heatmap").contentType(MediaType.APPLICATION_JSON).content(REQUEST))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.classification[1]").value("U-"))
+                .andExpect(jsonPath("$.worst_hour[1]").value(1))
+                .andExpect(jsonPath("$.missing").value(1))
+                .andExpect(jsonPath("$.stale").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectRequestWithoutBounds() throws Exception {
+        mockMvc.perform(post("/event-forecast/heatmap").contentType(MediaType.APPLICATION_JSON).content("""
+                        {"resolution": 0.1, "start_time": "2026-01-10T17:00:00", "end_time": "2026-01-10T19:00:00"}
+                        """))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(heatmapService);
+    }
+}
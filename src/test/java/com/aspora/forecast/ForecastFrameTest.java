@@ -0,0 +1,85 @@
+package com.aspora.forecast;
+
+import com.aspora.dto.HourlyForecast;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastFrameTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    private ForecastFrame twoDays() {
+        int hours = 48;
+        double[] temperature = new double[hours];
+        int[] rain = new int[hours];
+        int[] code = new int[hours];
+        double[] wind = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = i + 0.5;
+            rain[i] = i;
+            code[i] = i % 100;
+            wind[i] = i * 2.0;
+        }
+        return new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1), temperature, rain, code, wind);
+    }
+
+    @Test
+    void shouldSliceWindowHours_asViewWithShiftedIndices() {
+        ForecastFrame window = twoDays().slice(START.plusHours(17), START.plusHours(20));
+
+        assertThat(window.size()).isEqualTo(3);
+        assertThat(window.start()).isEqualTo(START.plusHours(17));
+        assertThat(window.end()).isEqualTo(START.plusHours(20));
+        assertThat(window.precipitationProbability(0)).isEqualTo(17);
+        assertThat(window.windSpeed(2)).isEqualTo(38.0);
+    }
+
+    @Test
+    void shouldRoundPartialHoursUp_likeTheHalfOpenWindow() {
+        ForecastFrame window = twoDays().slice(START.plusHours(17).plusMinutes(30), START.plusHours(19).plusMinutes(1));
+
+        assertThat(window.start()).isEqualTo(START.plusHours(18));
+        assertThat(window.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSliceAcrossMidnight_andSliceViewsAgain() {
+        ForecastFrame evening = twoDays().slice(START.plusHours(22), START.plusHours(30));
+        ForecastFrame afterMidnight = evening.slice(START.plusDays(1), START.plusHours(26));
+
+        assertThat(evening.size()).isEqualTo(8);
+        assertThat(afterMidnight.start()).isEqualTo(START.plusDays(1));
+        assertThat(afterMidnight.precipitationProbability(0)).isEqualTo(24);
+        assertThat(afterMidnight.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldClampWindowsOutsideTheFrame() {
+        ForecastFrame frame = twoDays();
+
+        assertThat(frame.slice(START.minusDays(1), START.plusHours(2)).size()).isEqualTo(2);
+        assertThat(frame.slice(START.plusDays(5), START.plusDays(6)).isEmpty()).isTrue();
+        assertThat(frame.slice(START.minusDays(1), START.plusDays(6))).isSameAs(frame);
+    }
+
+    @Test
+    void shouldConvertToHourlyForecastsLazily() {
+        ForecastFrame window = twoDays().slice(START.plusHours(17), START.plusHours(19));
+
+        assertThat(window.asHourlyForecasts()).containsExactly(
+                HourlyForecast.builder().time("17:00").rainProb(17).windKmh(34.0).temperatureC(17.5).weatherCode(17).build(),
+                HourlyForecast.builder().time("18:00").rainProb(18).windKmh(36.0).temperatureC(18.5).weatherCode(18).build());
+    }
+
+    @Test
+    void shouldRejectIndicesOutsideTheView() {
+        ForecastFrame window = twoDays().slice(START.plusHours(17), START.plusHours(19));
+
+        assertThatThrownBy(() -> window.temperature(2)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.aspora.forecast;
+
+import com.aspora.dto.EventRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastKeyTest {
+
+    private static final Duration SIX_HOURS = Duration.ofHours(6);
+
+    private static ForecastKey key(LocalDateTime start, LocalDateTime end, Duration granularity) {
+        EventRequest request = EventRequest.builder()
+                .location(EventRequest.Location.builder().latitude(19.076).longitude(72.8777).build())
+                .startTime(start)
+                .endTime(end)
+                .build();
+        return ForecastKey.of(request, 0.1, granularity);
+    }
+
+    @Test
+    void shouldPadWindowOutToBlockEdges() {
+        ForecastKey key = key(LocalDateTime.of(2026, 1, 10, 17, 30), LocalDateTime.of(2026, 1, 10, 19, 15), SIX_HOURS);
+
+        assertThat(key.latitude()).isEqualTo(19.1);
+        assertThat(key.startHour()).isEqualTo(LocalDateTime.of(2026, 1, 10, 12, 0));
+        assertThat(key.endHour()).isEqualTo(LocalDateTime.of(2026, 1, 11, 0, 0));
+    }
+
+    @Test
+    void shouldKeepAlignedEdges_andCrossMidnight() {
+        ForecastKey aligned = key(LocalDateTime.of(2026, 1, 10, 18, 0), LocalDateTime.of(2026, 1, 11, 0, 0), SIX_HOURS);
+        ForecastKey overnight = key(LocalDateTime.of(2026, 1, 10, 22, 0), LocalDateTime.of(2026, 1, 11, 1, 0), SIX_HOURS);
+
+        assertThat(aligned.startHour()).isEqualTo(LocalDateTime.of(2026, 1, 10, 18, 0));
+        assertThat(aligned.endHour()).isEqualTo(LocalDateTime.of(2026, 1, 11, 0, 0));
+        assertThat(overnight.startHour()).isEqualTo(LocalDateTime.of(2026, 1, 10, 18, 0));
+        assertThat(overnight.endHour()).isEqualTo(LocalDateTime.of(2026, 1, 11, 6, 0));
+    }
+
+    @Test
+    void shouldSpanWholeDays_forMultiDayEvent() {
+        ForecastKey festival = key(LocalDateTime.of(2026, 1, 10, 9, 0), LocalDateTime.of(2026, 1, 13, 21, 0),
+                Duration.ofHours(24));
+
+        assertThat(festival.startHour()).isEqualTo(LocalDateTime.of(2026, 1, 10, 0, 0));
+        assertThat(festival.endHour()).isEqualTo(LocalDateTime.of(2026, 1, 14, 0, 0));
+        assertThat(festival.span()).isEqualTo("2026-01-10T00:00/2026-01-14T00:00");
+    }
+
+    @Test
+    void shouldShareKey_betweenEventsInSameBlocks() {
+        ForecastKey match = key(LocalDateTime.of(2026, 1, 10, 13, 0), LocalDateTime.of(2026, 1, 10, 15, 0), SIX_HOURS);
+        ForecastKey concert = key(LocalDateTime.of(2026, 1, 10, 16, 0), LocalDateTime.of(2026, 1, 10, 18, 0), SIX_HOURS);
+        ForecastKey lateShow = key(LocalDateTime.of(2026, 1, 10, 19, 0), LocalDateTime.of(2026, 1, 10, 21, 0), SIX_HOURS);
+
+        assertThat(concert).isEqualTo(match);
+        assertThat(lateShow).isNotEqualTo(match);
+    }
+
+    @Test
+    void shouldRejectGranularity_thatDoesNotDivideADay() {
+        assertThatThrownBy(() -> ForecastKey.blockHours(Duration.ofHours(5)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ForecastKey.blockHours(Duration.ofMinutes(90)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ForecastKey.blockHours(Duration.ofHours(3))).isEqualTo(3);
+    }
+}
@@ -0,0 +1,33 @@
+package com.aspora.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "openmeteo.http.warm-up=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExposePipelineMetricsForScraping() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("forecast_classifications_total{classification=\"Unsafe\"")))
+                .andExpect(content().string(containsString("forecast_classify_seconds_bucket")))
+                .andExpect(content().string(containsString("openmeteo_response_size_bytes_count")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"forecasts\",result=\"hit\"")))
+                .andExpect(content().string(containsString("openmeteo_fetches_coalesced_total")));
+    }
+}
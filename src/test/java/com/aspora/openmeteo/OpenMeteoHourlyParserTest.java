@@ -0,0 +1,195 @@
+package com.aspora.openmeteo;
+
+import com.aspora.dto.HourlyForecast;
+import com.aspora.dto.openmeteo.OpenMeteoResponse;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.support.OpenMeteoPayloads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenMeteoHourlyParserTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OpenMeteoHourlyParser parser = new OpenMeteoHourlyParser(objectMapper);
+
+    @Test
+    void shouldDecodeHourlyArraysIntoPrimitiveColumns() throws IOException {
+        String json = OpenMeteoPayloads.hourly(START, 4);
+
+        ForecastFrame frame = parser.parse(stream(json)).get(0);
+        OpenMeteoResponse.Hourly pojo = objectMapper.readValue(json, OpenMeteoResponse.class).getHourly();
+
+        assertThat(frame.latitude()).isEqualTo(19.1);
+        assertThat(frame.longitude()).isEqualTo(72.9);
+        assertThat(frame.start()).isEqualTo(START);
+        assertThat(frame.step()).isEqualTo(Duration.ofHours(1));
+        assertThat(frame.size()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(frame.timeAt(i)).isEqualTo(LocalDateTime.parse(pojo.getTime().get(i)));
+            assertThat(frame.temperature(i)).isEqualTo(pojo.getTemperature2m().get(i));
+            assertThat(frame.precipitationProbability(i)).isEqualTo(pojo.getPrecipitationProbability().get(i));
+            assertThat(frame.weatherCode(i)).isEqualTo(pojo.getWeatherCode().get(i));
+            assertThat(frame.windSpeed(i)).isEqualTo(pojo.getWindSpeed10m().get(i));
+        }
+    }
+
+    @Test
+    void shouldDecodeMultiLocationArrayInOrder() throws IOException {
+        String json = "[" + OpenMeteoPayloads.hourly(START, 2) + ","
+                + OpenMeteoPayloads.hourly(START, 3).replace("19.1", "28.6") + "]";
+
+        List<ForecastFrame> locations = parser.parse(stream(json));
+
+        assertThat(locations).hasSize(2);
+        assertThat(locations.get(0).size()).isEqualTo(2);
+        assertThat(locations.get(1).latitude()).isEqualTo(28.6);
+        assertThat(locations.get(1).size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldKeepOnlyWindowHours_whenHintGiven() throws IOException {
+        ForecastFrame frame = parser.parse(stream(OpenMeteoPayloads.hourly(START, 48)),
+                START.plusHours(17), START.plusHours(19).plusMinutes(30)).get(0);
+
+        assertThat(frame.start()).isEqualTo(START.plusHours(17));
+        assertThat(frame.size()).isEqualTo(3);
+        assertThat(frame.asHourlyForecasts()).extracting(HourlyForecast::getRainProb).containsExactly(17, 18, 19);
+        assertThat(frame.asHourlyForecasts()).extracting(HourlyForecast::getTemperatureC).containsExactly(17.5, 18.5, 19.5);
+    }
+
+    @Test
+    void shouldTrimToWindow_whenTimeAxisArrivesLast() throws IOException {
+        String json = """
+                {"hourly": {
+                  "temperature_2m": [1.0, 2.0, 3.0, 4.0],
+                  "precipitation_probability": [10, 20, 30, 40],
+                  "weather_code": [0, 1, 2, 3],
+                  "wind_speed_10m": [5.0, 6.0, 7.0, 8.0],
+                  "time": ["2026-01-10T00:00", "2026-01-10T01:00", "2026-01-10T02:00", "2026-01-10T03:00"]
+                }}
+                """;
+
+        ForecastFrame frame = parser.parse(stream(json), START.plusHours(1), START.plusHours(3)).get(0);
+
+        assertThat(frame.start()).isEqualTo(START.plusHours(1));
+        assertThat(frame.asHourlyForecasts()).extracting(HourlyForecast::getWeatherCode).containsExactly(1, 2);
+        assertThat(frame.asHourlyForecasts()).extracting(HourlyForecast::getWindKmh).containsExactly(6.0, 7.0);
+    }
+
+    @Test
+    void shouldReturnEmptyWindow_whenColumnBeforeTheAxisEndsBeforeTheWindow() throws IOException {
+        String json = """
+                {"hourly": {
+                  "temperature_2m": [1.0, 2.0, 3.0],
+                  "time": %s,
+                  "precipitation_probability": %s,
+                  "weather_code": %s,
+                  "wind_speed_10m": %s
+                }}
+                """.formatted(hours(100), values(100), values(100), values(100));
+
+        ForecastFrame frame = parser.parse(stream(json), START.plusHours(80), START.plusHours(90)).get(0);
+
+        assertThat(frame.isEmpty()).isTrue();
+        assertThat(frame.start()).isEqualTo(START.plusHours(80));
+    }
+
+    private static String hours(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(hour -> "\"" + START.plusHours(hour) + "\"")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String values(int count) {
+        return IntStream.range(0, count).mapToObj(String::valueOf).collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    @Test
+    void shouldDropHoursBeyondTheLastCompleteValue() throws IOException {
+        String json = """
+                {"hourly": {
+                  "time": ["2026-01-10T00:00", "2026-01-10T01:00", "2026-01-10T02:00"],
+                  "temperature_2m": [1.0, 2.0, null],
+                  "precipitation_probability": [10, null, null],
+                  "weather_code": [0, 1, null],
+                  "wind_speed_10m": [5.0, 6.0, null]
+                }}
+                """;
+
+        ForecastFrame frame = parser.parse(stream(json)).get(0);
+
+        assertThat(frame.size()).isEqualTo(1);
+        assertThat(frame.precipitationProbability(0)).isEqualTo(10);
+    }
+
+    @Test
+    void shouldDecodeDecimalsExactlyLikeDoubleParse() throws IOException {
+        String[] values = {"0.1", "33.3", "-5.7", "1e3", "12", "123456789.123", "0.30000000000000004", "-0.0"};
+        String json = """
+                {"hourly": {"time": ["2026-01-10T00:00"], "precipitation_probability": [0], "weather_code": [0],
+                            "wind_speed_10m": [0.0], "temperature_2m": [%s]}}
+                """;
+
+        for (String value : values) {
+            ForecastFrame frame = parser.parse(stream(json.formatted(value))).get(0);
+            assertThat(frame.temperature(0)).as(value).isEqualTo(Double.parseDouble(value));
+        }
+    }
+
+    @Test
+    void shouldReturnNull_whenHourlyBlockMissing() throws IOException {
+        assertThat(parser.parse(stream("{\"latitude\": 1.0}"))).containsExactly((ForecastFrame) null);
+    }
+
+    @Test
+    void shouldAllocateFarLessThanPojoBinding_forSixteenDayPayload() throws IOException {
+        byte[] json = OpenMeteoPayloads.hourly(START, 16 * 24).getBytes(StandardCharsets.UTF_8);
+        LocalDateTime windowStart = START.plusDays(3).plusHours(17);
+        LocalDateTime windowEnd = windowStart.plusHours(3);
+
+        long pojo = allocatedPerCall(() -> objectMapper.readValue(json, OpenMeteoResponse.class));
+        long streaming = allocatedPerCall(() -> parser.parse(new ByteArrayInputStream(json)));
+        long windowed = allocatedPerCall(() -> parser.parse(new ByteArrayInputStream(json), windowStart, windowEnd));
+
+        assertThat(streaming).isLessThan(pojo / 4);
+        assertThat(windowed).isLessThan(streaming);
+    }
+
+    private long allocatedPerCall(ThrowingCall call) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        for (int i = 0; i < 200; i++) {
+            call.run();
+        }
+        int iterations = 200;
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / iterations;
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @FunctionalInterface
+    private interface ThrowingCall {
+        Object run() throws IOException;
+    }
+}
@@ -0,0 +1,254 @@
+package com.aspora.prefetch;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.EventRegistrationResponse;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.service.ClassificationService;
+import com.aspora.service.WeatherService;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.support.MutableClock;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class EventPrefetchServiceTest {
+
+    private static final String FORECAST_URL = "https://api.open-meteo.com/v1/forecast";
+
+    private static final String HOURLY = """
+            {
+              "latitude": %s, "longitude": %s,
+              "hourly": {
+                "time": ["2026-01-%02dT17:00", "2026-01-%02dT18:00"],
+                "temperature_2m": [25.0, 24.0],
+                "precipitation_probability": [%d, 20],
+                "weather_code": [3, 1],
+                "wind_speed_10m": [10.0, 8.0]
+              }
+            }
+            """;
+
+    private MockRestServiceServer server;
+    private MutableClock clock;
+    private PrefetchProperties properties;
+    private EventPrefetchService prefetchService;
+    private final List<Object> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("https://api.open-meteo.com/v1");
+        server = MockRestServiceServer.bindTo(builder).build();
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        ForecastCache cache = new ForecastCache(100, 0.1, Duration.ofHours(6), schedule);
+        ForecastMetrics metrics = new ForecastMetrics(new SimpleMeterRegistry());
+        CircuitBreaker circuitBreaker = new CircuitBreaker("openmeteo", new CircuitBreakerProperties(), clock,
+                WeatherService::isUpstreamFault);
+        WeatherService weatherService = new WeatherService(new OpenMeteoProvider("open-meteo", builder.build(),
+                new OpenMeteoHourlyParser(new ObjectMapper()), metrics), TieredForecastStore.inProcess(cache), metrics, circuitBreaker, UpstreamQuota.unlimited());
+        ClassificationRulesRegistry rulesRegistry = new ClassificationRulesRegistry(new ClassificationProperties());
+        properties = new PrefetchProperties();
+        properties.setJitter(Duration.ZERO);
+        prefetchService = new EventPrefetchService(weatherService,
+                new ClassificationService(weatherService, rulesRegistry, metrics),
+                cache, rulesRegistry, schedule, properties, changes::add);
+    }
+
+    private static EventRequest event(String name, double lat, double lon, int day) {
+        return EventRequest.builder()
+                .name(name)
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, day, 17, 0))
+                .endTime(LocalDateTime.of(2026, 1, day, 19, 0))
+                .build();
+    }
+
+    private void expectForecast(String latitude, int day, int rainProb) {
+        server.expect(once(), requestTo(startsWith(FORECAST_URL)))
+                .andExpect(queryParam("latitude", latitude))
+                .andExpect(queryParam("start_hour", "2026-01-%02dT12:00".formatted(day)))
+                .andRespond(withSuccess(HOURLY.formatted(latitude, "72.9", day, day, rainProb),
+                        MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldServePrecomputedResponse_afterRefresh() {
+        EventRequest match = event("Match", 19.076, 72.8777, 10);
+        prefetchService.register(match);
+        assertThat(prefetchService.precomputed(match)).isNull();
+        expectForecast("19.1", 10, 70);
+
+        prefetchService.refresh();
+        prefetchService.refresh();
+
+        server.verify();
+        EventForecastResponse response = prefetchService.precomputed(match);
+        assertThat(response.getClassification()).isEqualTo("Risky");
+        assertThat(response.getEventWindowForecast()).hasSize(2);
+        assertThat(prefetchService.servedCount()).isEqualTo(1);
+        assertThat(prefetchService.precomputed(event("Match", 19.2, 72.8777, 10))).isNull();
+        EventRequest hourly = event("Match", 19.076, 72.8777, 10);
+        hourly.setReasons("hourly");
+        assertThat(prefetchService.precomputed(hourly)).isNull();
+    }
+
+    @Test
+    void shouldFetchEachVenueOnce_forManyEventsThere() {
+        EventRequest afternoon = event("Afternoon", 19.076, 72.8777, 10);
+        EventRequest evening = event("Evening", 19.08, 72.88, 10);
+        evening.setStartTime(evening.getStartTime().plusMinutes(30));
+        prefetchService.register(afternoon);
+        prefetchService.register(evening);
+        expectForecast("19.1", 10, 10);
+
+        prefetchService.refresh();
+
+        server.verify();
+        assertThat(prefetchService.precomputed(afternoon).getEventWindowForecast()).hasSize(2);
+        assertThat(prefetchService.precomputed(evening).getEventWindowForecast()).hasSize(1);
+    }
+
+    @Test
+    void shouldRefreshAfterModelUpdate_onceItsJitterHasPassed() {
+        properties.setJitter(Duration.ofMinutes(10));
+        EventRequest match = event("Match", 19.076, 72.8777, 10);
+        prefetchService.register(match);
+        clock.advance(Duration.ofMinutes(10));
+        expectForecast("19.1", 10, 10);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(prefetchService.precomputed(match).getClassification()).isEqualTo("Safe");
+
+        server.reset();
+        clock.set(Instant.parse("2026-01-10T11:00:00Z"));
+        prefetchService.refresh();
+        assertThat(prefetchService.precomputed(match)).isNull();
+
+        clock.advance(Duration.ofMinutes(10));
+        expectForecast("19.1", 10, 80);
+        prefetchService.refresh();
+
+        server.verify();
+        assertThat(prefetchService.precomputed(match).getClassification()).isEqualTo("Risky");
+    }
+
+    @Test
+    void shouldPublishChange_onlyWhenResponseDiffers() {
+        EventRequest match = event("Match", 19.076, 72.8777, 10);
+        String id = prefetchService.register(match).getId();
+        expectForecast("19.1", 10, 10);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(changes).singleElement()
+                .isEqualTo(new ForecastChangedEvent(id, "Match", prefetchService.precomputed(match)));
+
+        server.reset();
+        clock.advance(Duration.ofHours(1));
+        expectForecast("19.1", 10, 10);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(changes).hasSize(1);
+
+        server.reset();
+        clock.advance(Duration.ofHours(1));
+        expectForecast("19.1", 10, 75);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(changes).hasSize(2);
+        assertThat(((ForecastChangedEvent) changes.get(1)).forecast().getClassification()).isEqualTo("Risky");
+    }
+
+    @Test
+    void shouldStayWithinUpstreamCallBudget_soonestEventsFirst() {
+        properties.setMaxUpstreamCallsPerRound(1);
+        EventRequest later = event("Later", 28.6139, 77.209, 12);
+        EventRequest sooner = event("Sooner", 19.076, 72.8777, 11);
+        prefetchService.register(later);
+        prefetchService.register(sooner);
+
+        expectForecast("19.1", 11, 10);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(prefetchService.precomputed(sooner)).isNotNull();
+        assertThat(prefetchService.precomputed(later)).isNull();
+
+        server.reset();
+        expectForecast("28.6", 12, 10);
+        prefetchService.refresh();
+        server.verify();
+        assertThat(prefetchService.precomputed(later)).isNotNull();
+    }
+
+    @Test
+    void shouldRetryNextRound_whenUpstreamFails() {
+        EventRequest match = event("Match", 19.076, 72.8777, 10);
+        prefetchService.register(match);
+        server.expect(once(), requestTo(startsWith(FORECAST_URL))).andRespond(withServerError());
+        prefetchService.refresh();
+        server.verify();
+        assertThat(prefetchService.precomputed(match)).isNull();
+
+        server.reset();
+        expectForecast("19.1", 10, 10);
+        prefetchService.refresh();
+
+        server.verify();
+        assertThat(prefetchService.precomputed(match)).isNotNull();
+    }
+
+    @Test
+    void shouldDeduplicateRegistrations_andEnforceLimit() {
+        properties.setMaxEvents(1);
+        EventRegistrationResponse first = prefetchService.register(event("Match", 19.076, 72.8777, 10));
+        EventRegistrationResponse again = prefetchService.register(event("Match", 19.08, 72.88, 10));
+
+        assertThat(again.getId()).isEqualTo(first.getId());
+        assertThatThrownBy(() -> prefetchService.register(event("Other", 28.6139, 77.209, 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("At most 1 events");
+
+        assertThat(prefetchService.unregister(first.getId())).isTrue();
+        assertThat(prefetchService.registeredCount()).isZero();
+    }
+
+    @Test
+    void shouldDropEvents_aDayAfterTheyEnded() {
+        prefetchService.register(event("Match", 19.076, 72.8777, 10));
+        assertThatThrownBy(() -> prefetchService.register(event("Past", 19.076, 72.8777, 8)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        clock.set(Instant.parse("2026-01-11T20:00:00Z"));
+        prefetchService.refresh();
+
+        assertThat(prefetchService.registeredCount()).isZero();
+    }
+}
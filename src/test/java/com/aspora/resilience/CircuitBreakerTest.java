@@ -0,0 +1,184 @@
+package com.aspora.resilience;
+
+import com.aspora.support.MutableClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTest {
+
+    private MutableClock clock;
+    private CircuitBreakerProperties properties;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        properties = new CircuitBreakerProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(50);
+        properties.setSlowCallRateThreshold(100);
+        properties.setSlowCallDuration(Duration.ofMillis(50));
+        properties.setOpenDuration(Duration.ofSeconds(30));
+        properties.setHalfOpenCalls(2);
+    }
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", properties, clock, ex -> !(ex instanceof IllegalArgumentException));
+    }
+
+    private String succeed() {
+        calls.incrementAndGet();
+        return "ok";
+    }
+
+    private String fail() {
+        calls.incrementAndGet();
+        throw new IllegalStateException("upstream down");
+    }
+
+    private void swallow(CircuitBreaker breaker, Runnable call) {
+        try {
+            breaker.execute(() -> {
+                call.run();
+                return null;
+            });
+        } catch (RuntimeException ignored) {
+            // outcome is recorded by the breaker
+        }
+    }
+
+    @Test
+    void shouldOpen_whenFailureRateReachesThreshold() {
+        CircuitBreaker breaker = breaker();
+        breaker.execute(this::succeed);
+        swallow(breaker, this::fail);
+        breaker.execute(this::succeed);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        swallow(breaker, this::fail);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(this::succeed))
+                .isInstanceOf(CircuitOpenException.class)
+                .satisfies(ex -> assertThat(((CircuitOpenException) ex).getRetryAfter()).isEqualTo(Duration.ofSeconds(30)));
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void shouldNotCountIgnoredExceptions_asFailures() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            swallow(breaker, () -> {
+                throw new IllegalArgumentException("bad request");
+            });
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldOpen_whenEveryCallIsSlow_evenIfSuccessful() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                sleep(60);
+                return succeed();
+            });
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldClose_whenTrialCallsSucceedAfterOpenDuration() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            swallow(breaker, this::fail);
+        }
+        clock.advance(Duration.ofSeconds(30));
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.execute(this::succeed);
+        breaker.execute(this::succeed);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldReopen_whenTrialCallsFail() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            swallow(breaker, this::fail);
+        }
+        clock.advance(Duration.ofSeconds(30));
+
+        breaker.execute(this::succeed);
+        swallow(breaker, this::fail);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> breaker.execute(this::succeed)).isInstanceOf(CircuitOpenException.class);
+    }
+
+    @Test
+    void shouldReopen_whenTrialCallThrowsAnError() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            swallow(breaker, this::fail);
+        }
+        clock.advance(Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> breaker.execute(() -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+        breaker.execute(this::succeed);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.advance(Duration.ofSeconds(30));
+        breaker.execute(this::succeed);
+        breaker.execute(this::succeed);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void shouldRejectMoreTrialCallsThanTheWindowHolds() {
+        properties.setHalfOpenCalls(5);
+
+        assertThatThrownBy(this::breaker)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("half-open calls");
+    }
+
+    @Test
+    void shouldLimitConcurrentTrialCalls_whileHalfOpen() {
+        properties.setHalfOpenCalls(1);
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            swallow(breaker, this::fail);
+        }
+        clock.advance(Duration.ofSeconds(30));
+
+        String nested = breaker.execute(() -> {
+            assertThatThrownBy(() -> breaker.execute(this::succeed)).isInstanceOf(CircuitOpenException.class);
+            return succeed();
+        });
+
+        assertThat(nested).isEqualTo("ok");
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.aspora.resilience;
+
+import com.aspora.support.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class UpstreamQuotaTest {
+
+    private MutableClock clock;
+    private QuotaProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        properties = new QuotaProperties();
+        properties.setPerMinute(10);
+        properties.setPerHour(1_000);
+        properties.setPerDay(10_000);
+        properties.setBatchReserve(0.2);
+        properties.setPrefetchReserve(0.5);
+    }
+
+    private int admitted(UpstreamQuota quota, UpstreamPriority priority) {
+        int calls = 0;
+        while (quota.tryAcquire(priority)) {
+            calls++;
+        }
+        return calls;
+    }
+
+    @Test
+    void shouldRefillContinuously_fromClock() {
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+
+        assertThat(admitted(quota, UpstreamPriority.INTERACTIVE)).isEqualTo(10);
+        clock.advance(Duration.ofSeconds(12));
+
+        assertThat(quota.remaining("minute")).isEqualTo(2);
+        assertThat(admitted(quota, UpstreamPriority.INTERACTIVE)).isEqualTo(2);
+        assertThat(quota.remaining("minute")).isZero();
+    }
+
+    @Test
+    void shouldKeepReservesForHigherPriorities() {
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+
+        assertThat(admitted(quota, UpstreamPriority.PREFETCH)).isEqualTo(5);
+        assertThat(admitted(quota, UpstreamPriority.BATCH)).isEqualTo(3);
+        assertThat(admitted(quota, UpstreamPriority.INTERACTIVE)).isEqualTo(2);
+        assertThat(quota.rejectedCount(UpstreamPriority.PREFETCH)).isEqualTo(1);
+        assertThat(quota.rejectedCount(UpstreamPriority.INTERACTIVE)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportRetryAfter_perPriority() {
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        admitted(quota, UpstreamPriority.INTERACTIVE);
+
+        assertThat(quota.retryAfter(UpstreamPriority.INTERACTIVE).toMillis()).isCloseTo(6_000, within(1L));
+        assertThat(quota.retryAfter(UpstreamPriority.PREFETCH).toMillis()).isCloseTo(36_000, within(1L));
+        assertThatThrownBy(() -> quota.acquire(UpstreamPriority.BATCH))
+                .isInstanceOf(QuotaExhaustedException.class)
+                .hasMessageContaining("batch")
+                .extracting(ex -> ((QuotaExhaustedException) ex).getRetryAfter().toSeconds())
+                .isEqualTo(18L);
+    }
+
+    @Test
+    void shouldAdmitEverything_whenDisabled() {
+        properties.setEnabled(false);
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+
+        assertThat(quota.tryAcquire(UpstreamPriority.PREFETCH)).isTrue();
+        for (int i = 0; i < 100; i++) {
+            quota.acquire(UpstreamPriority.PREFETCH);
+        }
+        assertThat(quota.remaining("minute")).isEqualTo(10);
+        assertThat(UpstreamQuota.unlimited().tryAcquire(UpstreamPriority.PREFETCH)).isTrue();
+    }
+
+    @Test
+    void shouldExposeRemainingBudgetAndRejections_asMetrics() {
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        quota.bindTo(registry);
+
+        admitted(quota, UpstreamPriority.BATCH);
+
+        assertThat(registry.get("openmeteo.quota.remaining").tag("window", "minute").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("openmeteo.quota.remaining").tag("window", "day").gauge().value()).isEqualTo(9_992);
+        assertThat(registry.get("openmeteo.quota.rejected").tag("priority", "batch").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectNonPositiveBudgets() {
+        properties.setPerHour(0);
+
+        assertThatThrownBy(() -> new UpstreamQuota(properties, clock)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,92 @@
+package com.aspora.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClassificationRulesRegistryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldInheritUnsetProfileValuesFromDefaults() {
+        RuleSet marathon = new RuleSet();
+        marathon.setWindRiskyKmh(20.0);
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setProfiles(Map.of("marathon", marathon));
+
+        ClassificationRulesRegistry registry = new ClassificationRulesRegistry(properties);
+
+        assertThat(registry.rules("marathon").evaluate(0, 25.0, 0)).isEqualTo(Rule.STRONG_WIND.bit());
+        assertThat(registry.rules("marathon").evaluate(0, 0, 61)).isEqualTo(Rule.HIGH_RAIN_PROBABILITY.bit());
+        assertThat(registry.rules(null).evaluate(0, 25.0, 0)).isZero();
+    }
+
+    @Test
+    void shouldRejectUnknownProfile() {
+        ClassificationRulesRegistry registry = new ClassificationRulesRegistry(new ClassificationProperties());
+
+        assertThatThrownBy(() -> registry.rules("festival"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown classification profile: festival");
+    }
+
+    @Test
+    void shouldHotReloadRulesFile_whenItChanges() throws IOException {
+        Path file = tempDir.resolve("rules.yml");
+        write(file, """
+                classification:
+                  rules:
+                    rain-probability-risky: 60
+                """, Instant.parse("2026-01-10T10:00:00Z"));
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setRulesFile(file.toString());
+        ClassificationRulesRegistry registry = new ClassificationRulesRegistry(properties);
+        long initialVersion = registry.rules().version();
+
+        write(file, """
+                classification:
+                  rules:
+                    rain-probability-risky: 40
+                  profiles:
+                    festival:
+                      wind-unsafe-kmh: 40.0
+                """, Instant.parse("2026-01-10T10:05:00Z"));
+        registry.reloadIfChanged();
+
+        assertThat(registry.rules().version()).isGreaterThan(initialVersion);
+        assertThat(registry.rules().evaluate(0, 0, 50)).isEqualTo(Rule.HIGH_RAIN_PROBABILITY.bit());
+        assertThat(registry.rules("festival").evaluate(0, 45.0, 0)).isEqualTo(Rule.DANGEROUS_WIND.bit());
+    }
+
+    @Test
+    void shouldKeepPreviousRules_whenReloadedFileIsInvalid() throws IOException {
+        Path file = tempDir.resolve("rules.yml");
+        write(file, "classification:\n  rules:\n    rain-probability-risky: 40\n", Instant.parse("2026-01-10T10:00:00Z"));
+        ClassificationProperties properties = new ClassificationProperties();
+        properties.setRulesFile(file.toString());
+        ClassificationRulesRegistry registry = new ClassificationRulesRegistry(properties);
+        long version = registry.rules().version();
+
+        write(file, "classification:\n  rules:\n    thunderstorm-codes: [95, 300]\n", Instant.parse("2026-01-10T10:05:00Z"));
+        registry.reloadIfChanged();
+
+        assertThat(registry.rules().version()).isEqualTo(version);
+        assertThat(registry.rules().evaluate(0, 0, 50)).isEqualTo(Rule.HIGH_RAIN_PROBABILITY.bit());
+    }
+
+    private static void write(Path file, String content, Instant modified) throws IOException {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(modified));
+    }
+}
@@ -0,0 +1,237 @@
+package com.aspora.rules;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.HourlyForecast;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.service.ClassificationService;
+import com.aspora.service.WeatherService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CompiledRulesTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    private final CompiledRules rules = new CompiledRules("default", 1, RuleSet.defaults());
+    private final ClassificationService classificationService = new ClassificationService(
+            mock(WeatherService.class), new ClassificationRulesRegistry(new ClassificationProperties()),
+            new ForecastMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void shouldMatchLegacyRules_onRandomWindows_withHourlyReasons() {
+        Random random = new Random(42);
+        double[] windSamples = {0.0, 29.9, 30.0, 30.1, 49.9, 50.0, 50.1, 72.4};
+
+        for (int run = 0; run < 5_000; run++) {
+            int hours = 1 + random.nextInt(48);
+            double[] temperature = new double[hours];
+            int[] rain = new int[hours];
+            int[] code = new int[hours];
+            double[] wind = new double[hours];
+            for (int i = 0; i < hours; i++) {
+                temperature[i] = random.nextInt(400) / 10.0;
+                rain[i] = random.nextInt(101);
+                // Bias towards calm hours so all three tiers show up
+                code[i] = random.nextInt(4) == 0 ? random.nextInt(100) : random.nextInt(4);
+                wind[i] = random.nextBoolean() ? windSamples[random.nextInt(windSamples.length)] : random.nextInt(400) / 10.0;
+            }
+            ForecastFrame frame = new ForecastFrame(19.1, 72.9, START.plusHours(random.nextInt(24)), Duration.ofHours(1),
+                    temperature, rain, code, wind);
+
+            EventForecastResponse actual = classificationService.classifyWindow(frame, null, ReasonDetail.HOURLY);
+            LegacyResult expected = legacyClassify(frame.asHourlyForecasts());
+
+            assertThat(actual.getClassification()).isEqualTo(expected.classification());
+            assertThat(actual.getReason()).containsExactlyElementsOf(expected.reasons());
+        }
+    }
+
+    @Test
+    void shouldEvaluateEachRuleToItsOwnBit() {
+        assertThat(rules.evaluate(95, 0, 0)).isEqualTo(Rule.THUNDERSTORM.bit());
+        assertThat(rules.evaluate(65, 0, 0)).isEqualTo(Rule.HEAVY_PRECIPITATION.bit());
+        assertThat(rules.evaluate(61, 0, 0)).isEqualTo(Rule.MODERATE_RAIN.bit());
+        assertThat(rules.evaluate(0, 50.1, 0)).isEqualTo(Rule.DANGEROUS_WIND.bit());
+        assertThat(rules.evaluate(0, 50.0, 0)).isEqualTo(Rule.STRONG_WIND.bit());
+        assertThat(rules.evaluate(0, 0, 61)).isEqualTo(Rule.HIGH_RAIN_PROBABILITY.bit());
+        assertThat(rules.evaluate(0, 30.0, 60)).isZero();
+        assertThat(rules.evaluate(-1, 0, 0)).isZero();
+        assertThat(rules.evaluate(100, 0, 0)).isZero();
+    }
+
+    @Test
+    void shouldApplyConfiguredThresholds() {
+        RuleSet strict = new RuleSet();
+        strict.setWindRiskyKmh(20.0);
+        strict.setThunderstormCodes(List.of(95));
+        CompiledRules compiled = new CompiledRules("marathon", 1, strict.inheritFrom(RuleSet.defaults()));
+
+        assertThat(compiled.evaluate(0, 25.0, 0)).isEqualTo(Rule.STRONG_WIND.bit());
+        assertThat(compiled.evaluate(96, 0, 0)).isZero();
+        assertThat(compiled.evaluate(61, 0, 0)).isEqualTo(Rule.MODERATE_RAIN.bit());
+    }
+
+    @Test
+    void shouldHashRuleContent_notLoadVersion() {
+        RuleSet moved = RuleSet.defaults();
+        moved.setModeratePrecipitationCodes(List.of(61, 63, 66, 80));
+
+        assertThat(new CompiledRules("default", 7, RuleSet.defaults()).contentHash()).isEqualTo(rules.contentHash());
+        assertThat(new CompiledRules("default", 1, moved).contentHash()).isNotEqualTo(rules.contentHash());
+    }
+
+    @Test
+    void shouldRejectWeatherCodesOutsideWmoRange() {
+        RuleSet invalid = RuleSet.defaults();
+        invalid.setThunderstormCodes(List.of(95, 120));
+
+        assertThatThrownBy(() -> new CompiledRules("default", 1, invalid))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("thunderstorm-codes");
+    }
+
+    @Test
+    void shouldNotAllocate_whenEvaluatingWindow() {
+        int hours = 16 * 24;
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1),
+                new double[hours], new int[hours], new int[hours], new double[hours]);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+
+        int sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sink |= rules.evaluateWindow(frame);
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 20_000; i++) {
+            sink |= rules.evaluateWindow(frame);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertThat(sink).isZero();
+        assertThat(allocated).isLessThan(20_000);
+    }
+
+    @Test
+    void shouldMergeConsecutiveHoursIntoRangedReasons() {
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, START.plusHours(14), Duration.ofHours(1), new double[9],
+                new int[]{62, 75, 88, 81, 70, 66, 64, 40, 90}, new int[]{61, 63, 61, 0, 0, 0, 0, 0, 0},
+                new double[]{10, 31.5, 45.0, 38.2, 10, 10, 10, 10, 10});
+
+        assertThat(rules.reasons(frame, Severity.RISKY, ReasonDetail.SUMMARY)).containsExactly(
+                "Moderate rain forecast from 14:00 to 17:00 (weather codes: 61\u201363)",
+                "Rain probability 62\u201388% from 14:00 to 21:00",
+                "Wind speed 31.5\u201345.0 km/h from 15:00 to 18:00",
+                "Rain probability is 90% at 22:00");
+    }
+
+    @Test
+    void shouldKeepHourlyWording_forSingleHoursAndIdenticalValuesAsOneFigure() {
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, START.plusHours(18), Duration.ofHours(1), new double[4],
+                new int[4], new int[]{95, 95, 95, 0}, new double[]{55.0, 0, 0, 55.0});
+
+        assertThat(rules.reasons(frame, Severity.UNSAFE, ReasonDetail.SUMMARY)).containsExactly(
+                "Thunderstorm forecast from 18:00 to 21:00 (weather code: 95)",
+                "Dangerous wind speed of 55.0 km/h at 18:00",
+                "Dangerous wind speed of 55.0 km/h at 21:00");
+    }
+
+    @Test
+    void shouldDateRanges_whenTheWindowSpansDays() {
+        int hours = 3 * 24;
+        int[] rain = new int[hours];
+        Arrays.fill(rain, 70);
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, START.plusHours(10), Duration.ofHours(1),
+                new double[hours], rain, new int[hours], new double[hours]);
+
+        assertThat(rules.reasons(frame, Severity.RISKY, ReasonDetail.SUMMARY))
+                .containsExactly("Rain probability 70% from 2026-01-10 10:00 to 2026-01-13 10:00");
+        assertThat(rules.reasons(frame, Severity.RISKY, ReasonDetail.HOURLY)).hasSize(hours);
+    }
+
+    @Test
+    void shouldReportOneSummaryReasonPerRunOfHourlyReasons_onRandomWindows() {
+        Random random = new Random(7);
+        for (int run = 0; run < 2_000; run++) {
+            int hours = 1 + random.nextInt(72);
+            int[] rain = new int[hours];
+            int[] code = new int[hours];
+            double[] wind = new double[hours];
+            for (int i = 0; i < hours; i++) {
+                rain[i] = random.nextBoolean() ? 0 : 55 + random.nextInt(46);
+                code[i] = random.nextInt(3) == 0 ? 61 : 0;
+                wind[i] = random.nextInt(3) == 0 ? 35.0 : 5.0;
+            }
+            ForecastFrame frame = new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1), new double[hours],
+                    rain, code, wind);
+
+            int runs = 0;
+            int previous = 0;
+            for (int i = 0; i < hours; i++) {
+                int mask = rules.evaluate(frame, i) & Rule.RISKY_MASK;
+                runs += Integer.bitCount(mask & ~previous);
+                previous = mask;
+            }
+            assertThat(rules.reasons(frame, Severity.RISKY, ReasonDetail.SUMMARY)).hasSize(runs);
+        }
+    }
+
+    private record LegacyResult(String classification, List<String> reasons) {
+    }
+
+    /** The classification rules as they were hard-coded before the rule engine. */
+    private static LegacyResult legacyClassify(List<HourlyForecast> forecasts) {
+        List<Integer> thunderstormCodes = List.of(95, 96, 99);
+        List<Integer> heavyPrecipitationCodes = List.of(65, 67, 75, 77, 82, 85, 86);
+        List<Integer> moderatePrecipitationCodes = List.of(61, 63, 66, 80, 81);
+
+        List<String> unsafeReasons = new ArrayList<>();
+        List<String> riskyReasons = new ArrayList<>();
+
+        for (HourlyForecast forecast : forecasts) {
+            int code = forecast.getWeatherCode();
+            double wind = forecast.getWindKmh();
+            int rainProb = forecast.getRainProb();
+
+            if (thunderstormCodes.contains(code)) {
+                unsafeReasons.add("Thunderstorm forecast at " + forecast.getTime() + " (weather code: " + code + ")");
+            }
+            if (heavyPrecipitationCodes.contains(code)) {
+                unsafeReasons.add("Heavy precipitation forecast at " + forecast.getTime() + " (weather code: " + code + ")");
+            }
+            if (wind > 50.0) {
+                unsafeReasons.add("Dangerous wind speed of " + wind + " km/h at " + forecast.getTime());
+            }
+            if (moderatePrecipitationCodes.contains(code)) {
+                riskyReasons.add("Moderate rain forecast at " + forecast.getTime() + " (weather code: " + code + ")");
+            }
+            if (rainProb > 60) {
+                riskyReasons.add("Rain probability is " + rainProb + "% at " + forecast.getTime());
+            }
+            if (wind > 30.0 && wind <= 50.0) {
+                riskyReasons.add("Wind speed is " + wind + " km/h at " + forecast.getTime());
+            }
+        }
+
+        if (!unsafeReasons.isEmpty()) {
+            return new LegacyResult("Unsafe", unsafeReasons);
+        }
+        if (!riskyReasons.isEmpty()) {
+            return new LegacyResult("Risky", riskyReasons);
+        }
+        return new LegacyResult("Safe", List.of("No adverse weather conditions detected during the event window"));
+    }
+}
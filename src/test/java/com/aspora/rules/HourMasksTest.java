@@ -0,0 +1,84 @@
+package com.aspora.rules;
+
+import com.aspora.forecast.ForecastFrame;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HourMasksTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 14, 0);
+
+    private final CompiledRules rules = new CompiledRules("default", 1, RuleSet.defaults());
+
+    private static ForecastFrame frame(LocalDateTime start, double[] temperature, int[] rain, int[] code, double[] wind) {
+        return new ForecastFrame(19.1, 72.9, start, Duration.ofHours(1), temperature, rain, code, wind);
+    }
+
+    private static ForecastFrame window(int[] rain, int[] code, double[] wind) {
+        return frame(START, new double[rain.length], rain, code, wind);
+    }
+
+    @Test
+    void shouldMatchFullEvaluation_onFirstRun() {
+        ForecastFrame window = window(new int[]{10, 70, 20, 0}, new int[]{0, 3, 95, 1}, new double[]{5, 10, 12, 35});
+
+        HourMasks masks = HourMasks.evaluate(rules, window, null);
+
+        assertThat(masks.evaluatedHours()).isEqualTo(4);
+        assertThat(masks.windowMask()).isEqualTo(rules.evaluateWindow(window));
+        assertThat(masks.severity()).isEqualTo(Severity.UNSAFE);
+        assertThat(masks.reasons(Severity.UNSAFE, ReasonDetail.HOURLY))
+                .isEqualTo(rules.reasons(window, Severity.UNSAFE, ReasonDetail.HOURLY));
+        assertThat(masks.reasons(Severity.RISKY, ReasonDetail.SUMMARY))
+                .isEqualTo(rules.reasons(window, Severity.RISKY, ReasonDetail.SUMMARY));
+    }
+
+    @Test
+    void shouldReevaluateOnlyChangedHours() {
+        HourMasks first = HourMasks.evaluate(rules,
+                window(new int[]{10, 70, 20, 0}, new int[]{0, 3, 95, 1}, new double[]{5, 10, 12, 35}), null);
+        ForecastFrame refreshed = window(new int[]{10, 70, 20, 0}, new int[]{0, 3, 2, 1}, new double[]{5, 10, 12, 35});
+
+        HourMasks second = HourMasks.evaluate(rules, refreshed, first);
+
+        assertThat(second.evaluatedHours()).isEqualTo(1);
+        assertThat(second.windowMask()).isEqualTo(rules.evaluateWindow(refreshed));
+        assertThat(second.severity()).isEqualTo(Severity.RISKY);
+        assertThat(second.reasons(Severity.RISKY, ReasonDetail.SUMMARY))
+                .isEqualTo(rules.reasons(refreshed, Severity.RISKY, ReasonDetail.SUMMARY));
+    }
+
+    @Test
+    void shouldNotReevaluate_whenOnlyTemperatureChanged() {
+        int[] rain = {10, 70};
+        int[] code = {0, 3};
+        double[] wind = {5, 10};
+        HourMasks first = HourMasks.evaluate(rules, frame(START, new double[]{20, 21}, rain, code, wind), null);
+
+        HourMasks second = HourMasks.evaluate(rules, frame(START, new double[]{25, 26}, rain, code, wind), first);
+
+        assertThat(second.evaluatedHours()).isZero();
+        assertThat(second.windowMask()).isEqualTo(first.windowMask());
+    }
+
+    @Test
+    void shouldReevaluateEverything_whenRulesOrHoursDiffer() {
+        ForecastFrame window = window(new int[]{10, 70}, new int[]{0, 3}, new double[]{5, 10});
+        HourMasks first = HourMasks.evaluate(rules, window, null);
+
+        RuleSet strict = new RuleSet();
+        strict.setRainProbabilityRisky(5);
+        CompiledRules reloaded = new CompiledRules("default", 2, strict.inheritFrom(RuleSet.defaults()));
+        HourMasks afterReload = HourMasks.evaluate(reloaded, window, first);
+        HourMasks shifted = HourMasks.evaluate(rules, frame(START.plusHours(1), new double[2],
+                new int[]{10, 70}, new int[]{0, 3}, new double[]{5, 10}), first);
+
+        assertThat(afterReload.evaluatedHours()).isEqualTo(2);
+        assertThat(afterReload.reasons(Severity.RISKY, ReasonDetail.HOURLY)).hasSize(2);
+        assertThat(shifted.evaluatedHours()).isEqualTo(2);
+    }
+}
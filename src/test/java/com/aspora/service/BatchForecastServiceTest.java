@@ -0,0 +1,137 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.BatchForecastResponse;
+import com.aspora.dto.BatchForecastResult;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.support.MutableClock;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class BatchForecastServiceTest {
+
+    private static final String HOURLY = """
+            "hourly": {
+              "time": ["2026-01-10T17:00", "2026-01-10T18:00"],
+              "temperature_2m": [25.0, 24.0],
+              "precipitation_probability": [%d, 20],
+              "weather_code": [%d, 1],
+              "wind_speed_10m": [10.0, 8.0]
+            }
+            """;
+
+    private MockRestServiceServer server;
+    private BatchForecastService batchForecastService;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("https://api.open-meteo.com/v1");
+        server = MockRestServiceServer.bindTo(builder).build();
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        ForecastCache cache = new ForecastCache(100, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)));
+        ForecastMetrics metrics = new ForecastMetrics(new SimpleMeterRegistry());
+        CircuitBreaker circuitBreaker = new CircuitBreaker("openmeteo", new CircuitBreakerProperties(), clock,
+                WeatherService::isUpstreamFault);
+        WeatherService weatherService = new WeatherService(new OpenMeteoProvider("open-meteo", builder.build(),
+                new OpenMeteoHourlyParser(new ObjectMapper()), metrics), TieredForecastStore.inProcess(cache), metrics, circuitBreaker, UpstreamQuota.unlimited());
+        batchForecastService = new BatchForecastService(weatherService, new ClassificationService(weatherService,
+                new ClassificationRulesRegistry(new ClassificationProperties()), metrics),
+                cache, Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private EventRequest event(String name, double lat, double lon, int day) {
+        return EventRequest.builder()
+                .name(name)
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, day, 17, 0))
+                .endTime(LocalDateTime.of(2026, 1, day, 19, 0))
+                .build();
+    }
+
+    private static String location(double lat, double lon, int rainProb, int code) {
+        return "{\"latitude\": " + lat + ", \"longitude\": " + lon + ", " + HOURLY.formatted(rainProb, code) + "}";
+    }
+
+    @Test
+    void shouldFetchManyVenuesWithOneUpstreamCall_andKeepInputOrder() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "19.1,28.6"))
+                .andExpect(queryParam("longitude", "72.9,77.2"))
+                .andRespond(withSuccess("[" + location(19.1, 72.9, 70, 3) + "," + location(28.6, 77.2, 10, 0) + "]",
+                        MediaType.APPLICATION_JSON));
+
+        List<EventRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(i % 2 == 0
+                    ? event("Mumbai " + i, 19.076, 72.8777, 10)
+                    : event("Delhi " + i, 28.6139, 77.209, 10));
+        }
+
+        BatchForecastResponse response = batchForecastService.classifyAll(requests);
+
+        server.verify();
+        assertThat(response.getResults()).hasSize(10);
+        assertThat(response.getResults()).extracting(BatchForecastResult::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(response.getResults().get(0).getForecast().getClassification()).isEqualTo("Risky");
+        assertThat(response.getResults().get(1).getForecast().getClassification()).isEqualTo("Safe");
+        assertThat(response.getResults().get(9).getName()).isEqualTo("Delhi 9");
+    }
+
+    @Test
+    void shouldReportPerEventErrors_withoutFailingTheBatch() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("start_hour", "2026-01-10T12:00"))
+                .andRespond(withSuccess(location(19.1, 72.9, 10, 0), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("start_hour", "2026-01-11T12:00"))
+                .andRespond(withServerError());
+
+        EventRequest invalidWindow = event("Backwards", 19.076, 72.8777, 10);
+        invalidWindow.setEndTime(invalidWindow.getStartTime().minusHours(1));
+
+        BatchForecastResponse response = batchForecastService.classifyAll(List.of(
+                event("Ok", 19.076, 72.8777, 10),
+                event(null, 19.076, 72.8777, 10),
+                invalidWindow,
+                event("Upstream down", 19.076, 72.8777, 11)));
+
+        server.verify();
+        List<BatchForecastResult> results = response.getResults();
+        assertThat(results.get(0).getForecast().getClassification()).isEqualTo("Safe");
+        assertThat(results.get(1).getError()).isEqualTo("Validation failed");
+        assertThat(results.get(1).getDetails()).containsExactly("name: Event name is required");
+        assertThat(results.get(2).getDetails()).containsExactly("End time must be after start time");
+        assertThat(results.get(3).getError()).isEqualTo("Failed to fetch weather data from external API");
+    }
+}
@@ -3,10 +3,16 @@ package com.aspora.service;
 import com.aspora.dto.EventForecastResponse;
 import com.aspora.dto.EventRequest;
 import com.aspora.dto.HourlyForecast;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.support.ForecastFrames;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -22,6 +28,14 @@ class ClassificationServiceTest {
     @Mock
     private WeatherService weatherService;
 
+    @Spy
+    private ClassificationRulesRegistry rulesRegistry = new ClassificationRulesRegistry(new ClassificationProperties());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ForecastMetrics metrics = new ForecastMetrics(meterRegistry);
+
     @InjectMocks
     private ClassificationService classificationService;
 
@@ -43,7 +57,7 @@ class ClassificationServiceTest {
                 HourlyForecast.builder().time("17:00").rainProb(20).windKmh(10).temperatureC(25).weatherCode(0).build(),
                 HourlyForecast.builder().time("18:00").rainProb(15).windKmh(8).temperatureC(24).weatherCode(1).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -57,7 +71,7 @@ class ClassificationServiceTest {
                 HourlyForecast.builder().time("17:00").rainProb(70).windKmh(10).temperatureC(25).weatherCode(3).build(),
                 HourlyForecast.builder().time("18:00").rainProb(40).windKmh(8).temperatureC(24).weatherCode(2).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -65,12 +79,30 @@ class ClassificationServiceTest {
         assertThat(response.getReason()).anyMatch(r -> r.contains("Rain probability is 70%"));
     }
 
+    @Test
+    void shouldSummarizeConsecutiveHours_unlessHourlyReasonsRequested() {
+        List<HourlyForecast> forecasts = List.of(
+                HourlyForecast.builder().time("17:00").rainProb(70).windKmh(10).temperatureC(25).weatherCode(3).build(),
+                HourlyForecast.builder().time("18:00").rainProb(85).windKmh(8).temperatureC(24).weatherCode(2).build()
+        );
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
+        EventRequest hourly = buildRequest();
+        hourly.setReasons("HOURLY");
+
+        EventForecastResponse summary = classificationService.classify(buildRequest());
+        EventForecastResponse detailed = classificationService.classify(hourly);
+
+        assertThat(summary.getReason()).containsExactly("Rain probability 70\u201385% from 17:00 to 19:00");
+        assertThat(detailed.getReason()).containsExactly("Rain probability is 70% at 17:00",
+                "Rain probability is 85% at 18:00");
+    }
+
     @Test
     void shouldClassifyAsRisky_whenModerateRainForecast() {
         List<HourlyForecast> forecasts = List.of(
                 HourlyForecast.builder().time("17:00").rainProb(50).windKmh(10).temperatureC(20).weatherCode(61).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -83,7 +115,7 @@ class ClassificationServiceTest {
         List<HourlyForecast> forecasts = List.of(
                 HourlyForecast.builder().time("17:00").rainProb(10).windKmh(35).temperatureC(22).weatherCode(0).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -96,7 +128,7 @@ class ClassificationServiceTest {
         List<HourlyForecast> forecasts = List.of(
                 HourlyForecast.builder().time("17:00").rainProb(90).windKmh(40).temperatureC(22).weatherCode(95).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -109,7 +141,7 @@ class ClassificationServiceTest {
         List<HourlyForecast> forecasts = List.of(
                 HourlyForecast.builder().time("17:00").rainProb(85).windKmh(20).temperatureC(18).weatherCode(65).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -122,7 +154,7 @@ class ClassificationServiceTest {
         List<HourlyForecast> forecasts = List.of(
                 HourlyForecast.builder().time("17:00").rainProb(10).windKmh(55).temperatureC(22).weatherCode(0).build()
         );
-        when(weatherService.fetchForecast(any())).thenReturn(forecasts);
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
@@ -132,11 +164,28 @@ class ClassificationServiceTest {
 
     @Test
     void shouldReturnSafe_whenNoForecastData() {
-        when(weatherService.fetchForecast(any())).thenReturn(List.of());
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(List.of()));
 
         EventForecastResponse response = classificationService.classify(buildRequest());
 
         assertThat(response.getClassification()).isEqualTo("Safe");
         assertThat(response.getSummary()).contains("No hourly forecast data");
     }
+
+    @Test
+    void shouldCountClassificationOutcomes() {
+        List<HourlyForecast> forecasts = List.of(
+                HourlyForecast.builder().time("17:00").rainProb(70).windKmh(10).temperatureC(22).weatherCode(0).build()
+        );
+        when(weatherService.fetchForecast(any())).thenReturn(ForecastFrames.of(forecasts));
+
+        classificationService.classify(buildRequest());
+        classificationService.classify(buildRequest());
+
+        assertThat(meterRegistry.get("forecast.classifications").tag("classification", "Risky").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("forecast.classifications").tag("classification", "Unsafe").counter().count())
+                .isZero();
+        assertThat(meterRegistry.get("forecast.window.hours").summary().totalAmount()).isEqualTo(2);
+    }
 }
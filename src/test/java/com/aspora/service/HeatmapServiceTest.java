@@ -0,0 +1,173 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.HeatmapRequest;
+import com.aspora.dto.HeatmapResponse;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.rules.ClassificationProperties;
+import com.aspora.rules.ClassificationRulesRegistry;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.support.MutableClock;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.ExpectedCount.manyTimes;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class HeatmapServiceTest {
+
+    private static final String FORECAST_URL = "https://api.open-meteo.com/v1/forecast";
+
+    private MockRestServiceServer server;
+    private HeatmapService heatmapService;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("https://api.open-meteo.com/v1");
+        server = MockRestServiceServer.bindTo(builder).build();
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        ForecastCache cache = new ForecastCache(10_000, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)));
+        ForecastMetrics metrics = new ForecastMetrics(new SimpleMeterRegistry());
+        WeatherService weatherService = new WeatherService(new OpenMeteoProvider("open-meteo", builder.build(),
+                new OpenMeteoHourlyParser(new ObjectMapper()), metrics), TieredForecastStore.inProcess(cache), metrics,
+                new CircuitBreaker("openmeteo", new CircuitBreakerProperties(), clock, WeatherService::isUpstreamFault),
+                UpstreamQuota.unlimited());
+        heatmapService = new HeatmapService(weatherService, cache,
+                new ClassificationRulesRegistry(new ClassificationProperties()), 2500, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        heatmapService.close();
+    }
+
+    private static HeatmapRequest request(double north, double south, double east, double west, double resolution) {
+        return HeatmapRequest.builder()
+                .bounds(HeatmapRequest.Bounds.builder().north(north).south(south).east(east).west(west).build())
+                .resolution(resolution)
+                .startTime(LocalDateTime.of(2026, 1, 10, 17, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, 20, 0))
+                .build();
+    }
+
+    /**
+     * Answers multi-coordinate requests with a storm at 19:00 for grid cells south of 19.05, rain at
+     * 18:00 for grid cells east of 73.05, and calm weather elsewhere.
+     */
+    private void expectGridForecast(ExpectedCount count) {
+        server.expect(count, requestTo(startsWith(FORECAST_URL)))
+                .andRespond(request -> {
+                    var query = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+                    String[] latitudes = query.getFirst("latitude").split(",");
+                    String[] longitudes = query.getFirst("longitude").split(",");
+                    List<String> bodies = new ArrayList<>();
+                    for (int i = 0; i < latitudes.length; i++) {
+                        double latitude = Double.parseDouble(latitudes[i]);
+                        double longitude = Double.parseDouble(longitudes[i]);
+                        int stormCode = latitude < 19.05 ? 95 : 1;
+                        int rain = longitude > 73.05 ? 80 : 10;
+                        bodies.add(String.format(Locale.ROOT, """
+                                {"latitude": %s, "longitude": %s, "hourly": {
+                                  "time": ["2026-01-10T17:00", "2026-01-10T18:00", "2026-01-10T19:00"],
+                                  "temperature_2m": [25.0, 24.0, 23.0],
+                                  "precipitation_probability": [10, %d, 10],
+                                  "weather_code": [1, 2, %d],
+                                  "wind_speed_10m": [10.0, 12.0, 8.0]}}""", latitudes[i], longitudes[i], rain, stormCode));
+                    }
+                    String body = bodies.size() == 1 ? bodies.get(0) : "[" + String.join(",", bodies) + "]";
+                    return withSuccess(body, MediaType.APPLICATION_JSON).createResponse(request);
+                });
+    }
+
+    @Test
+    void shouldClassifyEveryCell_fromOneMultiCoordinateFetch() {
+        expectGridForecast(once());
+
+        HeatmapResponse response = heatmapService.classify(request(19.25, 18.85, 73.25, 72.85, 0.1));
+
+        server.verify();
+        assertThat(response.getRows()).isEqualTo(4);
+        assertThat(response.getColumns()).isEqualTo(4);
+        assertThat(response.getClassification()).containsExactly("SSRR", "SSRR", "UUUU", "UUUU");
+        assertThat(response.getWorstHour()).startsWith(-1, -1, 1, 1, -1, -1, 1, 1, 2, 2, 2, 2);
+        assertThat(response.getMaxRainProb()[2]).isEqualTo(80);
+        assertThat(response.getMaxWindKmh()[0]).isEqualTo(12.0);
+        assertThat(response.getCounts()).containsEntry("Safe", 4).containsEntry("Risky", 4).containsEntry("Unsafe", 8);
+        assertThat(response.getMissing()).isZero();
+    }
+
+    @Test
+    void shouldShareForecasts_betweenCellsInOneGridCell_andServeRepeatsFromCache() {
+        expectGridForecast(once());
+
+        HeatmapResponse fine = heatmapService.classify(request(19.2, 19.1, 72.9, 72.8, 0.02));
+        HeatmapResponse again = heatmapService.classify(request(19.2, 19.1, 72.9, 72.8, 0.02));
+
+        server.verify();
+        assertThat(fine.getRows()).isEqualTo(5);
+        assertThat(fine.getClassification()).allMatch(row -> row.equals("SSSSS"));
+        assertThat(again.getClassification()).isEqualTo(fine.getClassification());
+    }
+
+    @Test
+    void shouldMarkCellsWithoutData_whenUpstreamFails() {
+        server.expect(once(), requestTo(startsWith(FORECAST_URL))).andRespond(withServerError());
+
+        HeatmapResponse response = heatmapService.classify(request(19.2, 19.0, 73.0, 72.8, 0.1));
+
+        assertThat(response.getClassification()).containsExactly("--", "--");
+        assertThat(response.getMissing()).isEqualTo(4);
+        assertThat(response.getWorstHour()).containsOnly(-1);
+    }
+
+    @Test
+    void shouldClassifyFiftyByFiftyGrid_fromCache_inWellUnderASecond() {
+        expectGridForecast(manyTimes());
+        HeatmapRequest request = request(19.5, 18.5, 73.5, 72.5, 0.02);
+        heatmapService.classify(request);
+
+        long started = System.nanoTime();
+        HeatmapResponse response = heatmapService.classify(request);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(response.getRows() * response.getColumns()).isEqualTo(2500);
+        assertThat(elapsed).isLessThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    void shouldRejectInvalidOrOversizedGrids() {
+        assertThatThrownBy(() -> heatmapService.classify(request(19.0, 19.2, 73.0, 72.8, 0.1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("north above south");
+        assertThatThrownBy(() -> heatmapService.classify(request(20.0, 19.0, 74.0, 72.0, 0.01)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 2500 cells");
+    }
+}
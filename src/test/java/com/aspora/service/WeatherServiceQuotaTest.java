@@ -0,0 +1,233 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.concurrent.Deadline;
+import com.aspora.config.OpenMeteoHttpProperties;
+import com.aspora.config.RestClientConfig;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.resilience.QuotaExhaustedException;
+import com.aspora.resilience.QuotaProperties;
+import com.aspora.resilience.UpstreamPriority;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.support.MutableClock;
+import com.aspora.support.OpenMeteoReplay;
+import com.aspora.support.StubOpenMeteoServer;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link WeatherService} with a small upstream request budget against the replay stand-in.
+ */
+class WeatherServiceQuotaTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 17, 0);
+
+    private StubOpenMeteoServer stub;
+    private OpenMeteoReplay replay;
+    private MutableClock clock;
+    private ForecastCache cache;
+    private QuotaProperties properties;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubOpenMeteoServer();
+        replay = OpenMeteoReplay.bundled(new ObjectMapper(), 1);
+        stub.setHandler(replay);
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        cache = new ForecastCache(100, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)));
+        properties = new QuotaProperties();
+        properties.setPerMinute(10);
+        properties.setPerHour(1_000);
+        properties.setPerDay(10_000);
+        properties.setBatchReserve(0.5);
+        properties.setMaxQueueWait(Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private WeatherService weatherService(UpstreamQuota quota) {
+        ForecastMetrics metrics = new ForecastMetrics(new SimpleMeterRegistry());
+        return new WeatherService(new OpenMeteoProvider("open-meteo",
+                RestClientConfig.createRestClient(stub.baseUrl(), new OpenMeteoHttpProperties()),
+                new OpenMeteoHourlyParser(new ObjectMapper()), metrics), TieredForecastStore.inProcess(cache), metrics,
+                new CircuitBreaker("openmeteo", new CircuitBreakerProperties(), clock, WeatherService::isUpstreamFault),
+                quota);
+    }
+
+    private EventRequest event(double lat, double lon) {
+        return EventRequest.builder()
+                .name("Test Event")
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(START)
+                .endTime(START.plusHours(2))
+                .build();
+    }
+
+    private List<ForecastKey> venues(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> cache.keyFor(28.6 + i * 0.2, 77.2, START, START.plusHours(2)))
+                .toList();
+    }
+
+    @Test
+    void shouldServeStaleForecastOrFailFast_whenInteractiveBudgetIsSpent() {
+        properties.setPerMinute(2);
+        properties.setPerDay(2);
+        WeatherService weatherService = weatherService(new UpstreamQuota(properties, clock));
+        weatherService.fetchForecast(event(19.076, 72.8777));
+        weatherService.fetchForecast(event(41.88, -87.63));
+        clock.advance(Duration.ofHours(1));
+
+        ForecastFrame stale = weatherService.fetchForecast(event(19.076, 72.8777));
+
+        assertThat(stale.isStale()).isTrue();
+        assertThatThrownBy(() -> weatherService.fetchForecast(event(25.2, 55.27)))
+                .isInstanceOf(QuotaExhaustedException.class);
+        assertThat(replay.requestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldQueueBatchFetches_andSendThemAsOneCallOnceBudgetRefills() throws Exception {
+        properties.setMaxQueueWait(Duration.ofSeconds(10));
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        WeatherService weatherService = weatherService(quota);
+        for (int i = 0; i < 5; i++) {
+            quota.acquire(UpstreamPriority.INTERACTIVE);
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<ForecastKey, ForecastFrame>> waiting = executor.submit(
+                    () -> weatherService.fetchForecasts(venues(3), UpstreamPriority.BATCH));
+            while (weatherService.queuedFetchCount() < 3) {
+                Thread.onSpinWait();
+            }
+            assertThat(replay.requestCount()).isZero();
+
+            clock.advance(Duration.ofSeconds(6));
+            while (weatherService.queuedFetchCount() > 0) {
+                weatherService.drainQueue();
+            }
+
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).hasSize(3);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(weatherService.queuedFetchCount()).isZero();
+        assertThat(replay.requestCount()).isEqualTo(1);
+        assertThat(replay.locationCount()).isEqualTo(3);
+        assertThat(weatherService.fetchForecasts(venues(3), UpstreamPriority.BATCH)).hasSize(3);
+        assertThat(replay.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLetQueuedPrefetchRideAlong_withBatchDemandForTheSameKey() {
+        properties.setPrefetchReserve(0.9);
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        WeatherService weatherService = weatherService(quota);
+        quota.acquire(UpstreamPriority.INTERACTIVE);
+
+        weatherService.fetchForecasts(venues(2), UpstreamPriority.PREFETCH);
+        assertThat(weatherService.queuedFetchCount()).isEqualTo(2);
+
+        Map<ForecastKey, ForecastFrame> batch = weatherService.fetchForecasts(venues(1), UpstreamPriority.BATCH);
+
+        assertThat(batch).hasSize(1);
+        assertThat(weatherService.queuedFetchCount()).isZero();
+        assertThat(replay.requestCount()).isEqualTo(1);
+        assertThat(replay.locationCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExpireQueuedFetches_afterMaxQueueWait() {
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        WeatherService weatherService = weatherService(quota);
+        for (int i = 0; i < 5; i++) {
+            quota.acquire(UpstreamPriority.INTERACTIVE);
+        }
+        weatherService.fetchForecasts(venues(2), UpstreamPriority.BATCH);
+
+        clock.advance(Duration.ofSeconds(1));
+        weatherService.drainQueue();
+
+        assertThat(weatherService.queuedFetchCount()).isZero();
+        assertThat(replay.requestCount()).isZero();
+    }
+
+    @Test
+    void shouldStopWaitingForBudget_atTheCallersDeadline() {
+        properties.setMaxQueueWait(Duration.ofSeconds(10));
+        UpstreamQuota quota = new UpstreamQuota(properties, clock);
+        WeatherService weatherService = weatherService(quota);
+        for (int i = 0; i < 5; i++) {
+            quota.acquire(UpstreamPriority.INTERACTIVE);
+        }
+
+        long started = System.nanoTime();
+        Map<ForecastKey, ForecastFrame> forecasts;
+        try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(100)).bind()) {
+            forecasts = weatherService.fetchForecasts(venues(2), UpstreamPriority.BATCH);
+        }
+
+        assertThat(forecasts).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(weatherService.queuedFetchCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMakeTheCallsOfOneDrainConcurrently_whenKeysSpanSeveralDateRanges() {
+        properties.setPerMinute(100);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        stub.setHandler(exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                StubOpenMeteoServer.sleep(200);
+                replay.handle(exchange);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        WeatherService weatherService = weatherService(new UpstreamQuota(properties, clock));
+        List<ForecastKey> keys = IntStream.range(0, 4)
+                .mapToObj(day -> cache.keyFor(28.6, 77.2, START.plusDays(day), START.plusDays(day).plusHours(2)))
+                .toList();
+
+        long started = System.nanoTime();
+        Map<ForecastKey, ForecastFrame> forecasts = weatherService.fetchForecasts(keys, UpstreamPriority.BATCH);
+
+        assertThat(forecasts).hasSize(4);
+        assertThat(replay.requestCount()).isEqualTo(4);
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofMillis(700));
+    }
+}
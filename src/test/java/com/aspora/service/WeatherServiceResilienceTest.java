@@ -0,0 +1,154 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.config.OpenMeteoHttpProperties;
+import com.aspora.config.RestClientConfig;
+import com.aspora.dto.EventRequest;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.resilience.CircuitOpenException;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.support.MutableClock;
+import com.aspora.support.OpenMeteoPayloads;
+import com.aspora.support.StubOpenMeteoServer;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link WeatherService} against a local stub that can be switched between healthy and
+ * faulty behaviour mid-test.
+ */
+class WeatherServiceResilienceTest {
+
+    private static final String PAYLOAD = OpenMeteoPayloads.hourly(LocalDateTime.of(2026, 1, 10, 0, 0), 24);
+
+    private StubOpenMeteoServer stub;
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private WeatherService weatherService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubOpenMeteoServer();
+        stub.setHandler(StubOpenMeteoServer.serving(PAYLOAD));
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+
+        OpenMeteoHttpProperties http = new OpenMeteoHttpProperties();
+        http.setReadTimeout(Duration.ofMillis(300));
+        CircuitBreakerProperties breaker = new CircuitBreakerProperties();
+        breaker.setSlidingWindowSize(4);
+        breaker.setMinimumCalls(3);
+        breaker.setOpenDuration(Duration.ofSeconds(30));
+        breaker.setHalfOpenCalls(1);
+
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker("openmeteo", breaker, clock, WeatherService::isUpstreamFault);
+        ForecastMetrics metrics = new ForecastMetrics(meterRegistry);
+        weatherService = new WeatherService(new OpenMeteoProvider("open-meteo",
+                RestClientConfig.createRestClient(stub.baseUrl(), http), new OpenMeteoHourlyParser(new ObjectMapper()), metrics),
+                TieredForecastStore.inProcess(
+                        new ForecastCache(100, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)))),
+                metrics, circuitBreaker, UpstreamQuota.unlimited());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private EventRequest event(double lat, double lon) {
+        return EventRequest.builder()
+                .name("Test Event")
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, 10, 17, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, 19, 0))
+                .build();
+    }
+
+    @Test
+    void shouldServeLastKnownGoodForecast_whenUpstreamFails_andReplaceItOnceRecovered() {
+        assertThat(weatherService.fetchForecast(event(19.076, 72.8777)).isStale()).isFalse();
+        clock.advance(Duration.ofHours(1));
+        stub.setHandler(StubOpenMeteoServer.failing(500));
+
+        ForecastFrame stale = weatherService.fetchForecast(event(19.076, 72.8777));
+
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.staleAge()).isEqualTo(Duration.ofHours(1));
+        assertThat(stale.size()).isEqualTo(2);
+        assertThat(weatherService.staleLocationCount()).isEqualTo(1);
+        assertThat(meterRegistry.get("forecast.stale.served").counter().count()).isEqualTo(1);
+
+        stub.setHandler(StubOpenMeteoServer.serving(PAYLOAD));
+        weatherService.refreshStale();
+
+        assertThat(weatherService.staleLocationCount()).isZero();
+        assertThat(weatherService.fetchForecast(event(19.076, 72.8777)).isStale()).isFalse();
+        assertThat(stub.requestCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldServeLastKnownGoodForecast_whenUpstreamTimesOut() {
+        weatherService.fetchForecast(event(19.076, 72.8777));
+        clock.advance(Duration.ofHours(1));
+        stub.setHandler(StubOpenMeteoServer.stalling(2_000));
+
+        long start = System.nanoTime();
+        ForecastFrame stale = weatherService.fetchForecast(event(19.076, 72.8777));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1_500));
+        assertThat(stale.isStale()).isTrue();
+        assertThat(meterRegistry.get("openmeteo.requests").tag("timeout", "true").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStopCallingUpstream_whileCircuitIsOpen() {
+        weatherService.fetchForecast(event(19.076, 72.8777));
+        clock.advance(Duration.ofHours(1));
+        stub.setHandler(StubOpenMeteoServer.failing(503));
+
+        weatherService.fetchForecast(event(19.076, 72.8777));
+        weatherService.fetchForecast(event(19.076, 72.8777));
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(weatherService.fetchForecast(event(19.076, 72.8777)).isStale()).isTrue();
+        assertThatThrownBy(() -> weatherService.fetchForecast(event(28.61, 77.21)))
+                .isInstanceOf(CircuitOpenException.class);
+        weatherService.refreshStale();
+        assertThat(stub.requestCount()).isEqualTo(3);
+
+        clock.advance(Duration.ofSeconds(30));
+        stub.setHandler(StubOpenMeteoServer.serving(PAYLOAD));
+        weatherService.refreshStale();
+
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(weatherService.fetchForecast(event(19.076, 72.8777)).isStale()).isFalse();
+        assertThat(stub.requestCount()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldPropagateFailure_whenNoLastKnownGoodForecastExists() {
+        stub.setHandler(StubOpenMeteoServer.failing(500));
+
+        assertThatThrownBy(() -> weatherService.fetchForecast(event(19.076, 72.8777)))
+                .isInstanceOf(HttpServerErrorException.class);
+    }
+}
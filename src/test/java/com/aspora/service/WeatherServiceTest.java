@@ -0,0 +1,223 @@
+package com.aspora.service;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.dto.EventRequest;
+import com.aspora.dto.HourlyForecast;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.resilience.CircuitBreaker;
+import com.aspora.resilience.CircuitBreakerProperties;
+import com.aspora.resilience.UpstreamQuota;
+import com.aspora.store.TieredForecastStore;
+import com.aspora.support.MutableClock;
+import com.aspora.upstream.OpenMeteoProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServiceUnavailable;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.hamcrest.Matchers.startsWith;
+
+class WeatherServiceTest {
+
+    private static final String FORECAST_JSON = """
+            {
+              "latitude": 19.1,
+              "longitude": 72.9,
+              "hourly": {
+                "time": ["2026-01-10T16:00", "2026-01-10T17:00", "2026-01-10T18:00", "2026-01-10T19:00"],
+                "temperature_2m": [26.0, 25.0, 24.0, 23.0],
+                "precipitation_probability": [10, 20, 70, 30],
+                "weather_code": [0, 1, 61, 2],
+                "wind_speed_10m": [8.0, 10.0, 12.0, 9.0]
+              }
+            }
+            """;
+
+    private MockRestServiceServer server;
+    private MutableClock clock;
+    private WeatherService weatherService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder().baseUrl("https://api.open-meteo.com/v1");
+        server = MockRestServiceServer.bindTo(builder).build();
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+        ForecastCache cache = new ForecastCache(100, 0.1, Duration.ofHours(6), new ModelRunSchedule(clock, Duration.ofHours(1)));
+        meterRegistry = new SimpleMeterRegistry();
+        ForecastMetrics metrics = new ForecastMetrics(meterRegistry);
+        weatherService = new WeatherService(new OpenMeteoProvider("open-meteo", builder.build(),
+                new OpenMeteoHourlyParser(new ObjectMapper()), metrics), TieredForecastStore.inProcess(cache),
+                metrics, new CircuitBreaker("openmeteo", new CircuitBreakerProperties(), clock,
+                WeatherService::isUpstreamFault), UpstreamQuota.unlimited());
+    }
+
+    private EventRequest buildRequest(double lat, double lon, int startHour, int endHour) {
+        return EventRequest.builder()
+                .name("Test Event")
+                .location(EventRequest.Location.builder().latitude(lat).longitude(lon).build())
+                .startTime(LocalDateTime.of(2026, 1, 10, startHour, 0))
+                .endTime(LocalDateTime.of(2026, 1, 10, endHour, 0))
+                .build();
+    }
+
+    @Test
+    void shouldFilterHourlySeriesToEventWindow() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+
+        List<HourlyForecast> forecasts = weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19))
+                .asHourlyForecasts();
+
+        assertThat(forecasts).extracting(HourlyForecast::getTime).containsExactly("17:00", "18:00");
+        assertThat(forecasts.get(1).getRainProb()).isEqualTo(70);
+        server.verify();
+    }
+
+    @Test
+    void shouldRecordUpstreamCallAndPipelineStages() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+
+        assertThat(meterRegistry.get("openmeteo.requests").tag("status", "200").tag("timeout", "false").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("openmeteo.response.size").summary().totalAmount())
+                .isEqualTo(FORECAST_JSON.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(meterRegistry.get("forecast.parse").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("forecast.slice").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTagFailedUpstreamCallWithStatus() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withServiceUnavailable());
+
+        assertThatThrownBy(() -> weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19)))
+                .isInstanceOf(RestClientException.class);
+
+        assertThat(meterRegistry.get("openmeteo.requests").tag("status", "503").tag("timeout", "false").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("forecast.parse").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldServeNearbyVenuesFromCache_withSingleUpstreamCall() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "19.1"))
+                .andExpect(queryParam("longitude", "72.9"))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+        List<HourlyForecast> second = weatherService.fetchForecast(buildRequest(19.0921, 72.8612, 16, 19))
+                .asHourlyForecasts();
+
+        assertThat(second).extracting(HourlyForecast::getTime).containsExactly("16:00", "17:00", "18:00");
+        server.verify();
+    }
+
+    @Test
+    void shouldRequestOnlyTheEventHours_paddedToWindowBlocks() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("start_hour", "2026-01-10T12:00"))
+                .andExpect(queryParam("end_hour", "2026-01-10T23:00"))
+                .andExpect(queryParam("timezone", "auto"))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+
+        server.verify();
+    }
+
+    @Test
+    void shouldPassLocalVenueHours_forWindowCrossingMidnight() {
+        // Open-Meteo reads start_hour/end_hour in the venue's own timezone under timezone=auto
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andExpect(queryParam("latitude", "40.7"))
+                .andExpect(queryParam("start_hour", "2026-01-10T18:00"))
+                .andExpect(queryParam("end_hour", "2026-01-11T05:00"))
+                .andExpect(queryParam("timezone", "auto"))
+                .andRespond(withSuccess(FORECAST_JSON.replace("19.1", "40.7"), MediaType.APPLICATION_JSON));
+
+        EventRequest lateShow = buildRequest(40.7128, -74.006, 22, 23);
+        lateShow.setEndTime(LocalDateTime.of(2026, 1, 11, 1, 0));
+        weatherService.fetchForecast(lateShow);
+
+        server.verify();
+    }
+
+    @Test
+    void shouldRefetch_afterModelUpdate() {
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON));
+
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+        clock.advance(Duration.ofHours(1));
+        weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19));
+
+        server.verify();
+    }
+
+    @Test
+    void shouldCoalesceParallelIdenticalFetches_intoSingleUpstreamCall() throws Exception {
+        int callers = 12;
+        server.expect(once(), requestTo(startsWith("https://api.open-meteo.com/v1/forecast")))
+                .andRespond(request -> {
+                    waitForCoalescedCallers(callers - 1);
+                    return withSuccess(FORECAST_JSON, MediaType.APPLICATION_JSON).createResponse(request);
+                });
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ForecastFrame>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> weatherService.fetchForecast(buildRequest(19.076, 72.8777, 17, 19))));
+            }
+            for (Future<ForecastFrame> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).size()).isEqualTo(2);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        server.verify();
+        assertThat(weatherService.upstreamFetchCount()).isEqualTo(1);
+        assertThat(weatherService.coalescedFetchCount()).isEqualTo(callers - 1);
+    }
+
+    private void waitForCoalescedCallers(int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (weatherService.coalescedFetchCount() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastFrameCodecTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+    private static final ForecastKey KEY = new ForecastKey(19.1, 72.9, LocalDateTime.of(2026, 1, 10, 12, 0), LocalDateTime.of(2026, 1, 11, 0, 0));
+
+    @Test
+    void shouldRoundTripFrameView() {
+        ForecastFrame frame = new ForecastFrame(19.08, 72.88, START, Duration.ofHours(1),
+                new double[]{21.5, 22.3, -3.7, 0.1}, new int[]{0, 45, 100, 12},
+                new int[]{0, 61, 95, 3}, new double[]{5.0, 31.2, 55.55, 0.0})
+                .slice(START.plusHours(1), START.plusHours(4));
+        StoredForecast stored = new StoredForecast(KEY, frame,
+                Instant.parse("2026-01-10T10:00:00Z"), Instant.parse("2026-01-10T10:12:31Z"));
+        ByteBuffer buffer = ByteBuffer.allocate(ForecastFrameCodec.encodedSize(frame));
+
+        ForecastFrameCodec.encode(stored, buffer);
+        assertThat(buffer.remaining()).isZero();
+        StoredForecast decoded = ForecastFrameCodec.decode(buffer.flip());
+
+        assertThat(decoded.key()).isEqualTo(KEY);
+        assertThat(decoded.modelRun()).isEqualTo(stored.modelRun());
+        assertThat(decoded.fetchedAt()).isEqualTo(stored.fetchedAt());
+        assertThat(decoded.frame().start()).isEqualTo(START.plusHours(1));
+        assertThat(decoded.frame().latitude()).isEqualTo(19.08);
+        assertThat(decoded.frame().asHourlyForecasts()).isEqualTo(frame.asHourlyForecasts());
+    }
+
+    @Test
+    void shouldRejectValuesOutsideStoredRange() {
+        ForecastFrame frame = new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1),
+                new double[]{20.0}, new int[]{0}, new int[]{300}, new double[]{5.0});
+        StoredForecast stored = new StoredForecast(KEY, frame, Instant.EPOCH, Instant.EPOCH);
+
+        assertThatThrownBy(() -> ForecastFrameCodec.encode(stored, ByteBuffer.allocate(ForecastFrameCodec.encodedSize(frame))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,180 @@
+package com.aspora.store;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.support.StubRedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisForecastStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+    private static final Instant RUN = Instant.parse("2026-01-10T10:00:00Z");
+
+    private StubRedisServer redis;
+    private final List<RedisForecastStore> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new StubRedisServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(RedisForecastStore::close);
+        redis.close();
+    }
+
+    private RedisForecastStore open(String url) {
+        SharedStoreProperties properties = new SharedStoreProperties();
+        properties.setUrl(url);
+        properties.setTimeout(Duration.ofSeconds(2));
+        properties.setRetryInterval(Duration.ofMillis(500));
+        RedisForecastStore store = new RedisForecastStore(properties);
+        opened.add(store);
+        return store;
+    }
+
+    private static ForecastKey key(int cell) {
+        return new ForecastKey(cell / 10.0, -72.9, START, START.plusDays(16));
+    }
+
+    private static StoredForecast forecast(ForecastKey key, Instant modelRun) {
+        int hours = 16 * 24;
+        double[] temperature = new double[hours];
+        int[] rain = new int[hours];
+        int[] code = new int[hours];
+        double[] wind = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = i % 40 + 0.5;
+            rain[i] = i % 101;
+            code[i] = i % 100;
+            wind[i] = i % 60 / 10.0;
+        }
+        ForecastFrame frame = new ForecastFrame(key.latitude(), key.longitude(), START, Duration.ofHours(1),
+                temperature, rain, code, wind);
+        return new StoredForecast(key, frame, modelRun, modelRun.plusSeconds(120));
+    }
+
+    private static void awaitSubscribers(StubRedisServer redis, String channel, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (redis.subscriberCount(channel) != count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(redis.subscriberCount(channel)).isEqualTo(count);
+    }
+
+    @Test
+    void storesTheBinaryFrameWithAnExpiryAndReadsItBack() {
+        RedisForecastStore store = open(redis.url());
+        StoredForecast saved = forecast(key(191), RUN);
+
+        store.save(saved);
+        StoredForecast loaded = store.load(key(191));
+
+        byte[] value = redis.get(store.redisKey(key(191)));
+        assertThat(value).hasSize(ForecastFrameCodec.encodedSize(saved.frame()));
+        assertThat(redis.ttlMillis(store.redisKey(key(191))))
+                .isBetween(Duration.ofHours(11).toMillis(), Duration.ofHours(12).toMillis());
+        assertThat(loaded.key()).isEqualTo(saved.key());
+        assertThat(loaded.modelRun()).isEqualTo(RUN);
+        assertThat(loaded.fetchedAt()).isEqualTo(saved.fetchedAt());
+        assertThat(loaded.frame().size()).isEqualTo(16 * 24);
+        assertThat(loaded.frame().temperature(41)).isEqualTo(1.5);
+        assertThat(loaded.frame().weatherCode(99)).isEqualTo(99);
+        assertThat(store.load(key(192))).isNull();
+        assertThat(store.errorCount()).isZero();
+    }
+
+    @Test
+    void announcesSavesToTheOtherInstancesOnly() throws Exception {
+        RedisForecastStore first = open(redis.url());
+        RedisForecastStore second = open(redis.url());
+        BlockingQueue<Map.Entry<ForecastKey, Instant>> seenByFirst = new LinkedBlockingQueue<>();
+        BlockingQueue<Map.Entry<ForecastKey, Instant>> seenBySecond = new LinkedBlockingQueue<>();
+        first.onSaved((key, run) -> seenByFirst.add(Map.entry(key, run)));
+        second.onSaved((key, run) -> seenBySecond.add(Map.entry(key, run)));
+        awaitSubscribers(redis, "aspora:forecast:saved", 2);
+
+        first.save(forecast(key(-337), RUN));
+
+        assertThat(seenBySecond.poll(5, TimeUnit.SECONDS)).isEqualTo(Map.entry(key(-337), RUN));
+        assertThat(seenByFirst.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(second.announcementCount()).isEqualTo(1);
+        assertThat(redis.commandCount("PUBLISH")).isEqualTo(1);
+    }
+
+    @Test
+    void resubscribesAfterTheServerDropsTheConnection() throws Exception {
+        RedisForecastStore first = open(redis.url());
+        RedisForecastStore second = open(redis.url());
+        BlockingQueue<ForecastKey> seen = new LinkedBlockingQueue<>();
+        second.onSaved((key, run) -> seen.add(key));
+        awaitSubscribers(redis, "aspora:forecast:saved", 1);
+
+        redis.disconnectAll();
+        awaitSubscribers(redis, "aspora:forecast:saved", 0);
+        first.save(forecast(key(1), RUN));
+        // Lost while the subscriber waits out its retry interval
+        assertThat(seen.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        awaitSubscribers(redis, "aspora:forecast:saved", 1);
+        first.save(forecast(key(2), RUN));
+
+        assertThat(seen.poll(5, TimeUnit.SECONDS)).isEqualTo(key(2));
+    }
+
+    @Test
+    void unreachableServerIsAMissAndIsSkippedForTheRetryInterval() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        RedisForecastStore store = open("redis://127.0.0.1:" + closedPort);
+
+        assertThat(store.load(key(1))).isNull();
+        store.save(forecast(key(1), RUN));
+        assertThat(store.load(key(1))).isNull();
+
+        assertThat(store.errorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void authenticatesWithThePasswordInTheUrl() {
+        redis.requirePassword("s3cret");
+        String address = redis.url().substring("redis://".length());
+        RedisForecastStore authenticated = open("redis://:s3cret@" + address + "/2");
+        RedisForecastStore anonymous = open(redis.url());
+
+        authenticated.save(forecast(key(5), RUN));
+
+        assertThat(authenticated.load(key(5))).isNotNull();
+        assertThat(anonymous.load(key(5))).isNull();
+        assertThat(anonymous.errorCount()).isEqualTo(1);
+        assertThat(redis.commandCount("SELECT")).isEqualTo(1);
+    }
+
+    @Test
+    void withoutUrlNothingIsShared() {
+        RedisForecastStore store = RedisForecastStore.disabled();
+
+        store.save(forecast(key(1), RUN));
+
+        assertThat(store.isEnabled()).isFalse();
+        assertThat(store.load(key(1))).isNull();
+        assertThat(store.errorCount()).isZero();
+    }
+}
@@ -0,0 +1,276 @@
+package com.aspora.store;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.support.MutableClock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentForecastStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+    private ModelRunSchedule schedule;
+    private ForecastStoreProperties properties;
+    private final List<SegmentForecastStore> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        properties = new ForecastStoreProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(256));
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(SegmentForecastStore::close);
+    }
+
+    private SegmentForecastStore open() {
+        SegmentForecastStore store = new SegmentForecastStore(properties, schedule);
+        opened.add(store);
+        return store;
+    }
+
+    /** A freshly started instance: an empty near cache in front of {@code store}. */
+    private TieredForecastStore restarted(SegmentForecastStore store) {
+        ForecastCache near = new ForecastCache(100_000, 0.1, Duration.ofHours(6), schedule);
+        return new TieredForecastStore(near, List.of(near, store), schedule);
+    }
+
+    private void save(SegmentForecastStore store, ForecastKey key, ForecastFrame frame) {
+        store.save(new StoredForecast(key, frame, schedule.currentRun(), schedule.now()));
+    }
+
+    private static ForecastKey key(int cell) {
+        return new ForecastKey(cell / 10.0, 72.9, LocalDateTime.of(2026, 1, 10, 0, 0), LocalDateTime.of(2026, 1, 26, 0, 0));
+    }
+
+    private static ForecastFrame frame(int hours, int seed) {
+        double[] temperature = new double[hours];
+        int[] rain = new int[hours];
+        int[] code = new int[hours];
+        double[] wind = new double[hours];
+        for (int i = 0; i < hours; i++) {
+            temperature[i] = (seed + i) % 40 + 0.5;
+            rain[i] = (seed + i) % 101;
+            code[i] = (seed + i) % 100;
+            wind[i] = (seed * 7 + i) % 60 / 10.0;
+        }
+        return new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1), temperature, rain, code, wind);
+    }
+
+    @Test
+    void shouldServeForecastsFromDisk_afterRestart() {
+        SegmentForecastStore store = open();
+        save(store, key(1), frame(48, 1));
+        save(store, key(2), frame(48, 2));
+        store.close();
+
+        TieredForecastStore forecasts = restarted(open());
+
+        assertThat(forecasts.get(key(1)).asHourlyForecasts()).isEqualTo(frame(48, 1).asHourlyForecasts());
+        assertThat(forecasts.get(key(2)).asHourlyForecasts()).isEqualTo(frame(48, 2).asHourlyForecasts());
+        assertThat(forecasts.get(key(1))).isNotNull();
+        assertThat(forecasts.hitCount(SegmentForecastStore.TIER)).isEqualTo(2);
+        assertThat(forecasts.hitCount(ForecastCache.TIER)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeOlderModelRunsAsLastKnownGood() {
+        save(open(), key(1), frame(24, 1));
+        opened.get(0).close();
+        clock.advance(Duration.ofHours(2));
+
+        TieredForecastStore forecasts = restarted(open());
+
+        assertThat(forecasts.get(key(1))).isNull();
+        assertThat(forecasts.missCount(SegmentForecastStore.TIER)).isEqualTo(1);
+        assertThat(forecasts.getStale(key(1), Duration.ofHours(12)).staleAge()).isEqualTo(Duration.ofHours(2));
+    }
+
+    @Test
+    void shouldKeepNewestRecordPerLocation() {
+        SegmentForecastStore store = open();
+        save(store, key(1), frame(24, 1));
+        save(store, key(1), frame(24, 9));
+        store.close();
+
+        SegmentForecastStore reopened = open();
+
+        assertThat(reopened.recordCount()).isEqualTo(1);
+        assertThat(reopened.load(key(1)).frame().asHourlyForecasts()).isEqualTo(frame(24, 9).asHourlyForecasts());
+    }
+
+    @Test
+    void shouldDiscardTornWrite_andAppendAfterLastIntactRecord() throws IOException {
+        SegmentForecastStore store = open();
+        save(store, key(1), frame(24, 1));
+        save(store, key(2), frame(24, 2));
+        store.close();
+        // Simulate a crash half-way through the second record's payload
+        int firstRecord = 8 + ForecastFrameCodec.encodedSize(frame(24, 1));
+        overwrite(onlySegment(), firstRecord + 8 + 100, new byte[200]);
+
+        SegmentForecastStore recovered = open();
+        assertThat(recovered.recordCount()).isEqualTo(1);
+        assertThat(recovered.load(key(2))).isNull();
+
+        save(recovered, key(3), frame(12, 3));
+        recovered.close();
+        SegmentForecastStore afterSecondRestart = open();
+
+        assertThat(afterSecondRestart.load(key(1))).isNotNull();
+        assertThat(afterSecondRestart.load(key(2))).isNull();
+        assertThat(afterSecondRestart.load(key(3)).frame().asHourlyForecasts())
+                .isEqualTo(frame(12, 3).asHourlyForecasts());
+    }
+
+    @Test
+    void shouldIgnoreRecordWhoseLengthPointsPastSegment() throws IOException {
+        SegmentForecastStore store = open();
+        save(store, key(1), frame(24, 1));
+        store.close();
+        int end = 8 + ForecastFrameCodec.encodedSize(frame(24, 1));
+        overwrite(onlySegment(), end, ByteBuffer.allocate(8).putInt(Integer.MAX_VALUE).putInt(42).array());
+
+        SegmentForecastStore recovered = open();
+
+        assertThat(recovered.recordCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRollOverToNewSegment_whenFull() {
+        SegmentForecastStore store = open();
+        for (int cell = 0; cell < 100; cell++) {
+            save(store, key(cell), frame(16 * 24, cell));
+        }
+        assertThat(store.segmentCount()).isGreaterThan(1);
+        store.close();
+
+        SegmentForecastStore reopened = open();
+
+        for (int cell = 0; cell < 100; cell++) {
+            assertThat(reopened.load(key(cell))).as("cell %d", cell).isNotNull();
+        }
+    }
+
+    @Test
+    void shouldCompactAwaySupersededAndExpiredRecords() throws IOException {
+        properties.setRetention(Duration.ofHours(6));
+        SegmentForecastStore store = open();
+        save(store, key(1), frame(16 * 24, 1));
+        clock.advance(Duration.ofHours(8));
+        for (int run = 0; run < 60; run++) {
+            save(store, key(2), frame(16 * 24, run));
+        }
+        long before = store.usedBytes();
+
+        store.compact();
+
+        assertThat(store.recordCount()).isEqualTo(1);
+        assertThat(store.usedBytes()).isLessThan(before / 10);
+        assertThat(segmentFiles()).hasSize(store.segmentCount());
+        store.close();
+
+        SegmentForecastStore reopened = open();
+        assertThat(reopened.load(key(1))).isNull();
+        assertThat(reopened.load(key(2)).frame().asHourlyForecasts()).isEqualTo(frame(16 * 24, 59).asHourlyForecasts());
+    }
+
+    @Test
+    void shouldKeepEveryRecord_savedWhileCompacting() throws Exception {
+        SegmentForecastStore store = open();
+        for (int run = 0; run < 40; run++) {
+            save(store, key(0), frame(16 * 24, run));
+        }
+
+        try (ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int cell = 1; cell <= 200; cell++) {
+                int venue = cell;
+                saves.add(writers.submit(() -> save(store, key(venue), frame(16 * 24, venue))));
+            }
+            store.compact();
+            for (Future<?> saved : saves) {
+                saved.get(5, TimeUnit.SECONDS);
+            }
+        }
+        store.close();
+
+        SegmentForecastStore reopened = open();
+        assertThat(reopened.recordCount()).isEqualTo(201);
+        for (int cell = 1; cell <= 200; cell++) {
+            assertThat(reopened.load(key(cell)).frame().asHourlyForecasts())
+                    .as("cell %d", cell).isEqualTo(frame(16 * 24, cell).asHourlyForecasts());
+        }
+    }
+
+    @Test
+    void shouldServeThousandsOfVenuesQuickly_afterRestart() {
+        properties.setSegmentSize(DataSize.ofMegabytes(8));
+        SegmentForecastStore store = open();
+        for (int cell = 0; cell < 2_000; cell++) {
+            save(store, key(cell), frame(16 * 24, cell));
+        }
+        store.close();
+
+        long started = System.nanoTime();
+        TieredForecastStore forecasts = restarted(open());
+        for (int cell = 0; cell < 2_000; cell++) {
+            assertThat(forecasts.get(key(cell))).isNotNull();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        assertThat(forecasts.hitCount(SegmentForecastStore.TIER)).isEqualTo(2_000);
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(1));
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSize(1);
+        return files.get(0);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.sorted().toList();
+        }
+    }
+
+    private static void overwrite(Path file, long position, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), position);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.aspora.store;
+
+import com.aspora.cache.ForecastCache;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.forecast.ModelRunSchedule;
+import com.aspora.support.MutableClock;
+import com.aspora.support.StubRedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredForecastStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+    private static final ForecastKey KEY = new ForecastKey(19.1, 72.9, START, START.plusDays(1));
+
+    private StubRedisServer redis;
+    private final List<RedisForecastStore> opened = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new StubRedisServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(RedisForecastStore::close);
+        redis.close();
+    }
+
+    /** One service instance: its own near cache and schedule, sharing {@link #redis} with the others. */
+    private TieredForecastStore instance(MutableClock clock) {
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        SharedStoreProperties properties = new SharedStoreProperties();
+        properties.setUrl(redis.url());
+        properties.setTimeout(Duration.ofSeconds(2));
+        RedisForecastStore shared = new RedisForecastStore(properties);
+        opened.add(shared);
+        ForecastCache near = new ForecastCache(100, 0.1, Duration.ofHours(6), schedule);
+        return new TieredForecastStore(near, List.of(near, shared), schedule);
+    }
+
+    private static ForecastFrame frame(double temperature) {
+        double[] temperatures = new double[24];
+        Arrays.fill(temperatures, temperature);
+        return new ForecastFrame(19.1, 72.9, START, Duration.ofHours(1),
+                temperatures, new int[24], new int[24], new double[24]);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void forecastFetchedByOneInstanceIsReadByAnotherFromTheSharedTierThenNearby() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        TieredForecastStore first = instance(clock);
+        TieredForecastStore second = instance(clock);
+
+        first.put(KEY, frame(24.0));
+        ForecastFrame fromShared = second.get(KEY);
+        ForecastFrame fromNear = second.get(KEY);
+
+        assertThat(fromShared.temperature(0)).isEqualTo(24.0);
+        assertThat(fromShared.modelRun()).isEqualTo(Instant.parse("2026-01-10T10:00:00Z"));
+        assertThat(fromNear).isSameAs(fromShared);
+        assertThat(redis.commandCount("GET")).isEqualTo(1);
+        assertThat(second.hitCount(ForecastCache.TIER)).isEqualTo(1);
+        assertThat(second.missCount(ForecastCache.TIER)).isEqualTo(1);
+        assertThat(second.hitCount(RedisForecastStore.TIER)).isEqualTo(1);
+        assertThat(second.hitRate(ForecastCache.TIER)).isEqualTo(0.5);
+        assertThat(second.hitRate(RedisForecastStore.TIER)).isEqualTo(1.0);
+    }
+
+    @Test
+    void sharedForecastOfAnOlderRunIsAMissButServedAsLastKnownGood() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        TieredForecastStore first = instance(clock);
+        TieredForecastStore second = instance(clock);
+        first.put(KEY, frame(24.0));
+
+        clock.advance(Duration.ofHours(1));
+
+        assertThat(second.get(KEY)).isNull();
+        assertThat(second.missCount(RedisForecastStore.TIER)).isEqualTo(1);
+        ForecastFrame stale = second.getStale(KEY, Duration.ofHours(12));
+        assertThat(stale.isStale()).isTrue();
+        assertThat(stale.temperature(0)).isEqualTo(24.0);
+    }
+
+    @Test
+    void newerRunSavedByAnotherInstanceExpiresTheNearCopy() throws Exception {
+        MutableClock lagging = new MutableClock(Instant.parse("2026-01-10T10:59:00Z"));
+        MutableClock leading = new MutableClock(Instant.parse("2026-01-10T11:01:00Z"));
+        TieredForecastStore behind = instance(lagging);
+        TieredForecastStore ahead = instance(leading);
+        waitFor(() -> redis.subscriberCount("aspora:forecast:saved") == 2);
+        behind.put(KEY, frame(24.0));
+
+        ahead.put(KEY, frame(31.0));
+        waitFor(() -> behind.invalidationCount() == 1);
+
+        assertThat(behind.get(KEY).temperature(0)).isEqualTo(31.0);
+        assertThat(behind.hitCount(RedisForecastStore.TIER)).isEqualTo(1);
+        assertThat(ahead.invalidationCount()).isZero();
+    }
+
+    @Test
+    void diskTierIsReadBeforeTheSharedOne(@TempDir Path directory) {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        ForecastStoreProperties properties = new ForecastStoreProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofKilobytes(256));
+        SegmentForecastStore disk = new SegmentForecastStore(properties, schedule);
+        SharedStoreProperties sharedProperties = new SharedStoreProperties();
+        sharedProperties.setUrl(redis.url());
+        RedisForecastStore shared = new RedisForecastStore(sharedProperties);
+        opened.add(shared);
+        try {
+            ForecastCache first = new ForecastCache(100, 0.1, Duration.ofHours(6), schedule);
+            new TieredForecastStore(first, List.of(shared, first, disk), schedule).put(KEY, frame(24.0));
+            ForecastCache restarted = new ForecastCache(100, 0.1, Duration.ofHours(6), schedule);
+            TieredForecastStore store = new TieredForecastStore(restarted, List.of(shared, restarted, disk), schedule);
+
+            assertThat(store.get(KEY).temperature(0)).isEqualTo(24.0);
+            assertThat(store.hitCount(SegmentForecastStore.TIER)).isEqualTo(1);
+            assertThat(redis.commandCount("GET")).isZero();
+            assertThat(redis.keys()).hasSize(1);
+        } finally {
+            disk.close();
+        }
+    }
+
+    @Test
+    void withoutSharedTiersOnlyTheNearCacheIsRead() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-10T10:15:00Z"));
+        ModelRunSchedule schedule = new ModelRunSchedule(clock, Duration.ofHours(1));
+        TieredForecastStore store = TieredForecastStore.inProcess(
+                new ForecastCache(100, 0.1, Duration.ofHours(6), schedule));
+
+        assertThat(store.get(KEY)).isNull();
+        store.put(KEY, frame(24.0));
+        assertThat(store.get(KEY)).isNotNull();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        assertThat(registry.get("forecast.tier.gets").tag("tier", "near").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("forecast.tier.hit.ratio").tag("tier", "near").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.find("forecast.tier.gets").tag("tier", "shared").functionCounter()).isNull();
+        assertThat(redis.keys()).isEmpty();
+    }
+}
@@ -0,0 +1,191 @@
+package com.aspora.stream;
+
+import com.aspora.dto.EventForecastResponse;
+import com.aspora.dto.EventForecastUpdate;
+import com.aspora.dto.EventRegistrationResponse;
+import com.aspora.prefetch.EventPrefetchService;
+import com.aspora.prefetch.ForecastChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ForecastStreamBrokerTest {
+
+    private EventPrefetchService prefetchService;
+    private StreamProperties properties;
+    private ForecastStreamBroker broker;
+
+    @BeforeEach
+    void setUp() {
+        prefetchService = mock(EventPrefetchService.class);
+        when(prefetchService.registration("match")).thenReturn(registration("match", "Match"));
+        when(prefetchService.registration("final")).thenReturn(registration("final", "Final"));
+        properties = new StreamProperties();
+        broker = new ForecastStreamBroker(prefetchService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    private static EventRegistrationResponse registration(String id, String name) {
+        return EventRegistrationResponse.builder().id(id).name(name).build();
+    }
+
+    private static EventForecastResponse forecast(String classification) {
+        return EventForecastResponse.builder().classification(classification).reason(List.of()).build();
+    }
+
+    private static ForecastChangedEvent change(String id, String classification) {
+        return new ForecastChangedEvent(id, id, forecast(classification));
+    }
+
+    @Test
+    void shouldSendCurrentStateOnSubscribe_thenOnlyFollowedChanges() {
+        when(prefetchService.latestResponse("match")).thenReturn(forecast("Safe"));
+        RecordingEmitter emitter = new RecordingEmitter();
+
+        broker.subscribe(List.of("match"), emitter);
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.updates.size() == 1);
+        broker.onForecastChanged(change("final", "Unsafe"));
+        broker.onForecastChanged(change("match", "Risky"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.updates.size() == 2);
+        assertThat(emitter.updates).extracting(update -> update.getForecast().getClassification())
+                .containsExactly("Safe", "Risky");
+        assertThat(emitter.updates).extracting(EventForecastUpdate::getId).containsOnly("match");
+        assertThat(emitter.updates.get(0).getName()).isEqualTo("Match");
+    }
+
+    @Test
+    void shouldDeliverOnlyLatestUpdate_toSlowSubscriber() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        slow.block();
+        broker.subscribe(List.of("match"), slow);
+
+        broker.onForecastChanged(change("match", "Safe"));
+        assertThat(slow.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (String classification : List.of("Risky", "Unsafe", "Risky", "Unsafe")) {
+            broker.onForecastChanged(change("match", classification));
+        }
+        slow.release();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> slow.updates.size() == 2);
+        assertThat(slow.updates).extracting(update -> update.getForecast().getClassification())
+                .containsExactly("Safe", "Unsafe");
+        assertThat(broker.supersededCount()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldNotHoldUpOtherSubscribers_whileManyAreStalled() {
+        List<RecordingEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            RecordingEmitter slow = new RecordingEmitter();
+            slow.block();
+            broker.subscribe(List.of("match"), slow);
+            stalled.add(slow);
+        }
+        RecordingEmitter fast = new RecordingEmitter();
+        broker.subscribe(List.of("match"), fast);
+
+        broker.onForecastChanged(change("match", "Risky"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> fast.updates.size() == 1);
+        assertThat(stalled).allSatisfy(slow -> assertThat(slow.updates).isEmpty());
+        stalled.forEach(RecordingEmitter::release);
+    }
+
+    @Test
+    void shouldSendHeartbeat_toIdleSubscribers() {
+        properties.setHeartbeatInterval(Duration.ZERO);
+        RecordingEmitter emitter = new RecordingEmitter();
+        broker.subscribe(List.of("match"), emitter);
+
+        broker.heartbeat();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> emitter.comments.size() == 1);
+        assertThat(emitter.updates).isEmpty();
+    }
+
+    @Test
+    void shouldDropSubscriber_whenWriteFails() {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failWrites = true;
+        broker.subscribe(List.of("match", "final"), broken);
+        assertThat(broker.subscriberCount()).isEqualTo(1);
+
+        broker.onForecastChanged(change("match", "Risky"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> broker.subscriberCount() == 0);
+    }
+
+    @Test
+    void shouldRejectUnknownOrTooManyEvents() {
+        assertThatThrownBy(() -> broker.subscribe(List.of("match", "nope"), new RecordingEmitter()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("nope");
+
+        properties.setMaxEventsPerSubscriber(1);
+        assertThatThrownBy(() -> broker.subscribe(List.of("match", "final"), new RecordingEmitter()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(broker.subscriberCount()).isZero();
+    }
+
+    /** Captures what would be written to the client, optionally stalling writes like a slow reader. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<EventForecastUpdate> updates = new CopyOnWriteArrayList<>();
+        private final List<String> comments = new CopyOnWriteArrayList<>();
+        private final CountDownLatch writeStarted = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+        private volatile boolean failWrites;
+
+        void block() {
+            gate = new CountDownLatch(1);
+        }
+
+        void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            writeStarted.countDown();
+            if (failWrites) {
+                throw new IOException("Broken pipe");
+            }
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (ResponseBodyEmitter.DataWithMediaType item : event.build()) {
+                if (item.getData() instanceof EventForecastUpdate update) {
+                    updates.add(update);
+                } else if (item.getData().toString().startsWith(":")) {
+                    comments.add(item.getData().toString());
+                }
+            }
+        }
+    }
+}
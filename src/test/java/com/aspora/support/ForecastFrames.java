@@ -0,0 +1,40 @@
+package com.aspora.support;
+
+import com.aspora.dto.HourlyForecast;
+import com.aspora.forecast.ForecastFrame;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Builds frames from consecutive hourly rows, for tests that describe forecasts hour by hour.
+ */
+public final class ForecastFrames {
+
+    public static final LocalDate DAY = LocalDate.of(2026, 1, 10);
+
+    private ForecastFrames() {
+    }
+
+    public static ForecastFrame of(List<HourlyForecast> hours) {
+        LocalDateTime start = hours.isEmpty()
+                ? DAY.atStartOfDay()
+                : DAY.atTime(LocalTime.parse(hours.get(0).getTime()));
+        int size = hours.size();
+        double[] temperature = new double[size];
+        int[] rain = new int[size];
+        int[] code = new int[size];
+        double[] wind = new double[size];
+        for (int i = 0; i < size; i++) {
+            HourlyForecast hour = hours.get(i);
+            temperature[i] = hour.getTemperatureC();
+            rain[i] = hour.getRainProb();
+            code[i] = hour.getWeatherCode();
+            wind[i] = hour.getWindKmh();
+        }
+        return new ForecastFrame(19.1, 72.9, start, Duration.ofHours(1), temperature, rain, code, wind);
+    }
+}
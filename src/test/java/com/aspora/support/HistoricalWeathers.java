@@ -0,0 +1,47 @@
+package com.aspora.support;
+
+import com.aspora.backtest.HistoricalWeather;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic historical weather for backtests and benchmarks: fair weather most hours, with
+ * rain spells, windy days and the occasional thunderstorm, reproducible from a seed.
+ */
+public final class HistoricalWeathers {
+
+    public static final LocalDateTime START = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    private HistoricalWeathers() {
+    }
+
+    public static HistoricalWeather synthetic(int venues, int hours, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        HistoricalWeather.Builder builder = HistoricalWeather.builder(START, hours);
+        for (int venue = 0; venue < venues; venue++) {
+            int[] code = new int[hours];
+            double[] wind = new double[hours];
+            int[] rain = new int[hours];
+            double gust = 10;
+            int spell = 0;
+            for (int hour = 0; hour < hours; hour++) {
+                gust = Math.max(0, Math.min(80, gust + random.nextDouble(-4, 4)));
+                if (spell == 0 && random.nextInt(60) == 0) {
+                    spell = 2 + random.nextInt(10);
+                }
+                if (spell > 0) {
+                    spell--;
+                    code[hour] = random.nextInt(40) == 0 ? 95 : random.nextInt(4) == 0 ? 65 : 61;
+                    rain[hour] = 50 + random.nextInt(51);
+                } else {
+                    code[hour] = random.nextInt(3);
+                    rain[hour] = random.nextInt(40);
+                }
+                wind[hour] = Math.round(gust * 10) / 10.0;
+            }
+            builder.venue(-60 + venue * 0.37 % 120, -170 + venue * 1.9 % 340, code, wind, rain);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.aspora.support;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Response delay distribution for {@link OpenMeteoReplay}. Parsed from {@code 0}, a fixed
+ * duration such as {@code 80ms}, {@code uniform:20ms:120ms}, or {@code lognormal:60ms:400ms}
+ * (median and 99th percentile), which is the shape real upstream latencies usually take.
+ */
+public sealed interface LatencyModel {
+
+    LatencyModel NONE = new Fixed(0);
+
+    long sampleMillis(RandomGenerator random);
+
+    static LatencyModel parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        return switch (parts[0]) {
+            case "uniform" -> {
+                requireArgs(spec, parts, 3);
+                yield new Uniform(millis(parts[1]), millis(parts[2]));
+            }
+            case "lognormal" -> {
+                requireArgs(spec, parts, 3);
+                yield Lognormal.of(millis(parts[1]), millis(parts[2]));
+            }
+            default -> {
+                requireArgs(spec, parts, 1);
+                yield new Fixed(millis(parts[0]));
+            }
+        };
+    }
+
+    private static void requireArgs(String spec, String[] parts, int expected) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Invalid latency model '" + spec + "'");
+        }
+    }
+
+    private static long millis(String value) {
+        return DurationStyle.detectAndParse(value).toMillis();
+    }
+
+    record Fixed(long millis) implements LatencyModel {
+
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return millis;
+        }
+    }
+
+    record Uniform(long minMillis, long maxMillis) implements LatencyModel {
+
+        public Uniform {
+            if (minMillis < 0 || maxMillis < minMillis) {
+                throw new IllegalArgumentException("Invalid uniform latency " + minMillis + ".." + maxMillis + "ms");
+            }
+        }
+
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return minMillis == maxMillis ? minMillis : random.nextLong(minMillis, maxMillis + 1);
+        }
+    }
+
+    record Lognormal(double mu, double sigma) implements LatencyModel {
+
+        /** z-score of the 99th percentile of a standard normal distribution. */
+        private static final double Z_99 = 2.3263;
+
+        static Lognormal of(long medianMillis, long p99Millis) {
+            if (medianMillis <= 0 || p99Millis < medianMillis) {
+                throw new IllegalArgumentException("Invalid lognormal latency median " + medianMillis
+                        + "ms, p99 " + p99Millis + "ms");
+            }
+            return new Lognormal(Math.log(medianMillis), Math.log((double) p99Millis / medianMillis) / Z_99);
+        }
+
+        @Override
+        public long sampleMillis(RandomGenerator random) {
+            return Math.round(Math.exp(mu + sigma * random.nextGaussian()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.aspora.support;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Canned Open-Meteo forecast bodies with deterministic, varied hourly values.
+ */
+public final class OpenMeteoPayloads {
+
+    private OpenMeteoPayloads() {
+    }
+
+    public static String hourly(LocalDateTime start, int hours) {
+        StringBuilder time = new StringBuilder();
+        StringBuilder temperature = new StringBuilder();
+        StringBuilder rain = new StringBuilder();
+        StringBuilder code = new StringBuilder();
+        StringBuilder wind = new StringBuilder();
+        for (int i = 0; i < hours; i++) {
+            String separator = i == 0 ? "" : ",";
+            time.append(separator).append('"').append(start.plusHours(i)).append('"');
+            temperature.append(separator).append(String.format(Locale.ROOT, "%.1f", i % 24 + 0.5));
+            rain.append(separator).append(i % 101);
+            code.append(separator).append(i % 100);
+            wind.append(separator).append(String.format(Locale.ROOT, "%.1f", (i % 60) * 1.0));
+        }
+        return """
+                {"latitude": 19.1, "longitude": 72.9, "utc_offset_seconds": 19800,
+                 "hourly_units": {"time": "iso8601", "temperature_2m": "°C"},
+                 "hourly": {"time": [%s], "temperature_2m": [%s], "precipitation_probability": [%s],
+                            "weather_code": [%s], "wind_speed_10m": [%s]}}
+                """.formatted(time, temperature, rain, code, wind);
+    }
+}
@@ -0,0 +1,66 @@
+package com.aspora.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handler for {@link StubOpenMeteoServer} that forwards each request to a real Open-Meteo
+ * endpoint and saves successful single-location {@code /forecast} bodies to a directory, so a
+ * session against the live API can later be served by {@link OpenMeteoReplay#fromDirectory}.
+ */
+public class OpenMeteoRecorder implements HttpHandler {
+
+    private final String targetBaseUrl;
+    private final Path directory;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    /**
+     * @param targetBaseUrl for example {@code https://api.open-meteo.com/v1}
+     */
+    public OpenMeteoRecorder(String targetBaseUrl, Path directory) throws IOException {
+        this.targetBaseUrl = targetBaseUrl;
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public int recordedCount() {
+        return recorded.get();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getRawPath().replaceFirst("^/v1", "");
+        String query = exchange.getRequestURI().getRawQuery();
+        URI target = URI.create(targetBaseUrl + path + (query == null ? "" : "?" + query));
+
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(HttpRequest.newBuilder(target).timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted forwarding " + target, ex);
+        }
+
+        byte[] body = response.body();
+        if (response.statusCode() == 200 && path.endsWith("/forecast") && body.length > 0 && body[0] == '{') {
+            Files.write(directory.resolve("recording-%04d.json".formatted(recorded.incrementAndGet())), body);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.statusCode(), body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
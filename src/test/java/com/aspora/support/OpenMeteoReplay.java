@@ -0,0 +1,260 @@
+package com.aspora.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Open-Meteo stand-in for {@link StubOpenMeteoServer} that replays recorded {@code /forecast}
+ * responses. Each requested location is answered with the hourly values of the nearest recording,
+ * moved onto the requested hours (keeping the hour of day, so daily cycles line up), and
+ * multi-location requests get an array like the real API. Latency, error rate and payload size
+ * are adjustable while it runs.
+ */
+public class OpenMeteoReplay implements HttpHandler {
+
+    public static final String DEFAULT_RECORDINGS = "classpath:openmeteo/recorded/*.json";
+
+    private static final String[] VARIABLES = {"temperature_2m", "precipitation_probability", "weather_code",
+            "wind_speed_10m"};
+
+    private final ObjectMapper objectMapper;
+    private final List<Recording> recordings;
+    private final SplittableRandom seed;
+
+    private volatile LatencyModel latency = LatencyModel.NONE;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile int payloadHours;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong locations = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private OpenMeteoReplay(ObjectMapper objectMapper, List<Recording> recordings, long seed) {
+        if (recordings.isEmpty()) {
+            throw new IllegalArgumentException("No Open-Meteo recordings to replay");
+        }
+        this.objectMapper = objectMapper;
+        this.recordings = recordings;
+        this.seed = new SplittableRandom(seed);
+    }
+
+    /** Replays the recordings bundled with the tests. */
+    public static OpenMeteoReplay bundled(ObjectMapper objectMapper, long seed) {
+        return fromResources(objectMapper, DEFAULT_RECORDINGS, seed);
+    }
+
+    public static OpenMeteoReplay fromResources(ObjectMapper objectMapper, String pattern, long seed) {
+        List<Recording> recordings = new ArrayList<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+                try (InputStream in = resource.getInputStream()) {
+                    recordings.add(Recording.of(objectMapper.readTree(in)));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new OpenMeteoReplay(objectMapper, recordings, seed);
+    }
+
+    /** Replays every {@code *.json} file in {@code directory}, e.g. ones captured by {@link OpenMeteoRecorder}. */
+    public static OpenMeteoReplay fromDirectory(ObjectMapper objectMapper, Path directory, long seed) {
+        List<Recording> recordings = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".json")).sorted().toList()) {
+                recordings.add(Recording.of(objectMapper.readTree(file.toFile())));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new OpenMeteoReplay(objectMapper, recordings, seed);
+    }
+
+    public OpenMeteoReplay latency(LatencyModel latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /** Fraction of requests, 0 to 1, answered with {@code status} instead of a forecast. */
+    public OpenMeteoReplay errors(double rate, int status) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1, got " + rate);
+        }
+        this.errorRate = rate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Answers with this many hours from the requested start regardless of the requested end, to
+     * model larger or smaller upstream bodies; 0 serves exactly the requested range.
+     */
+    public OpenMeteoReplay payloadHours(int hours) {
+        this.payloadHours = hours;
+        return this;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long locationCount() {
+        return locations.get();
+    }
+
+    public long errorCount() {
+        return errors.get();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        SplittableRandom random;
+        synchronized (seed) {
+            random = seed.split();
+        }
+        StubOpenMeteoServer.sleep(latency.sampleMillis(random));
+        if (random.nextDouble() < errorRate) {
+            errors.incrementAndGet();
+            StubOpenMeteoServer.respond(exchange, errorStatus,
+                    "{\"error\": true, \"reason\": \"Replayed upstream fault\"}");
+            return;
+        }
+
+        Map<String, List<String>> query = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build().getQueryParams();
+        String[] latitudes = first(query, "latitude", "0").split(",");
+        String[] longitudes = first(query, "longitude", "0").split(",");
+        if (latitudes.length != longitudes.length) {
+            StubOpenMeteoServer.respond(exchange, 400, "{\"error\": true, \"reason\": \"Coordinate lists differ\"}");
+            return;
+        }
+        LocalDateTime start = start(query);
+        int hours = payloadHours > 0 ? payloadHours : hours(query, start);
+
+        List<ObjectNode> bodies = new ArrayList<>(latitudes.length);
+        for (int i = 0; i < latitudes.length; i++) {
+            double latitude = Double.parseDouble(latitudes[i]);
+            double longitude = Double.parseDouble(longitudes[i]);
+            bodies.add(nearest(latitude, longitude).replay(latitude, longitude, start, hours));
+        }
+        locations.addAndGet(bodies.size());
+        Object body = bodies.size() == 1 ? bodies.get(0) : bodies;
+        StubOpenMeteoServer.respond(exchange, 200, objectMapper.writeValueAsString(body));
+    }
+
+    private Recording nearest(double latitude, double longitude) {
+        Recording best = recordings.get(0);
+        double bestDistance = Double.MAX_VALUE;
+        for (Recording recording : recordings) {
+            double dLat = recording.latitude - latitude;
+            double dLon = recording.longitude - longitude;
+            double distance = dLat * dLat + dLon * dLon;
+            if (distance < bestDistance) {
+                best = recording;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static LocalDateTime start(Map<String, List<String>> query) {
+        String startHour = first(query, "start_hour", null);
+        if (startHour != null) {
+            return LocalDateTime.parse(startHour);
+        }
+        String startDate = first(query, "start_date", null);
+        if (startDate != null) {
+            return LocalDate.parse(startDate).atStartOfDay();
+        }
+        return LocalDate.now(ZoneOffset.UTC).atStartOfDay();
+    }
+
+    private static int hours(Map<String, List<String>> query, LocalDateTime start) {
+        String endHour = first(query, "end_hour", null);
+        if (endHour != null) {
+            return (int) Duration.between(start, LocalDateTime.parse(endHour)).toHours() + 1;
+        }
+        String endDate = first(query, "end_date", null);
+        if (endDate != null) {
+            return (int) Duration.between(start, LocalDate.parse(endDate).plusDays(1).atStartOfDay()).toHours();
+        }
+        return 7 * 24;
+    }
+
+    private static String first(Map<String, List<String>> query, String name, String fallback) {
+        List<String> values = query.get(name);
+        return values == null || values.isEmpty() ? fallback : values.get(0);
+    }
+
+    /** One recorded location: its metadata and hourly columns, indexed from {@code start}. */
+    private record Recording(double latitude, double longitude, JsonNode metadata, LocalDateTime start,
+                             JsonNode[] columns, int size) {
+
+        static Recording of(JsonNode body) {
+            JsonNode hourly = body.path("hourly");
+            JsonNode time = hourly.path("time");
+            if (time.isEmpty()) {
+                throw new IllegalArgumentException("Recording has no hourly data");
+            }
+            JsonNode[] columns = new JsonNode[VARIABLES.length];
+            for (int i = 0; i < VARIABLES.length; i++) {
+                columns[i] = hourly.path(VARIABLES[i]);
+                if (columns[i].size() != time.size()) {
+                    throw new IllegalArgumentException("Recording column " + VARIABLES[i] + " has "
+                            + columns[i].size() + " values for " + time.size() + " hours");
+                }
+            }
+            ObjectNode metadata = body.deepCopy();
+            metadata.remove("hourly");
+            return new Recording(body.path("latitude").asDouble(), body.path("longitude").asDouble(), metadata,
+                    LocalDateTime.parse(time.get(0).asText()), columns, time.size());
+        }
+
+        ObjectNode replay(double latitude, double longitude, LocalDateTime from, int hours) {
+            ObjectNode body = metadata.deepCopy();
+            body.put("latitude", latitude);
+            body.put("longitude", longitude);
+            ObjectNode hourly = body.putObject("hourly");
+            ArrayNode time = hourly.putArray("time");
+            ArrayNode[] columns = new ArrayNode[VARIABLES.length];
+            for (int v = 0; v < VARIABLES.length; v++) {
+                columns[v] = hourly.putArray(VARIABLES[v]);
+            }
+            // Cycling over whole recorded days keeps each replayed hour on the hour of day it was recorded at
+            int cycle = size >= 24 ? size / 24 * 24 : size;
+            long offset = Math.floorMod(Duration.between(start, from).toHours(), cycle);
+            for (int i = 0; i < hours; i++) {
+                time.add(from.plusHours(i).toString());
+                int source = (int) ((offset + i) % cycle);
+                for (int v = 0; v < VARIABLES.length; v++) {
+                    columns[v].add(this.columns[v].get(source));
+                }
+            }
+            return body;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.aspora.support;
+
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenMeteoReplayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private StubOpenMeteoServer server;
+    private OpenMeteoReplay replay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubOpenMeteoServer();
+        replay = OpenMeteoReplay.bundled(objectMapper, 7);
+        server.setHandler(replay);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<byte[]> get(String query) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(server.baseUrl() + "/forecast?" + query)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private List<ForecastFrame> frames(HttpResponse<byte[]> response) throws Exception {
+        return new OpenMeteoHourlyParser(objectMapper).parse(new ByteArrayInputStream(response.body()));
+    }
+
+    @Test
+    void shouldReplayRecordedValues_onRequestedHours() throws Exception {
+        List<ForecastFrame> frames = frames(get(
+                "latitude=19.1&longitude=72.9&start_hour=2026-11-02T12:00&end_hour=2026-11-02T23:00"));
+
+        ForecastFrame frame = frames.get(0);
+        assertThat(frame.latitude()).isEqualTo(19.1);
+        assertThat(frame.start()).isEqualTo(LocalDateTime.of(2026, 11, 2, 12, 0));
+        assertThat(frame.size()).isEqualTo(12);
+        // Replayed hours keep their hour of day: Mumbai's recording is warmest mid-afternoon
+        assertThat(frame.temperature(3)).isGreaterThan(frame.temperature(11));
+        assertThat(replay.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerMultiLocationRequest_withArrayFromNearestRecordings() throws Exception {
+        List<ForecastFrame> frames = frames(get(
+                "latitude=19.1,41.9&longitude=72.9,-87.6&start_date=2026-11-02&end_date=2026-11-03"));
+
+        assertThat(frames).hasSize(2);
+        assertThat(frames).allSatisfy(frame -> assertThat(frame.size()).isEqualTo(48));
+        assertThat(frames.get(0).temperature(14)).isGreaterThan(frames.get(1).temperature(14) + 15);
+        assertThat(replay.locationCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldInjectErrors_andServeFixedPayloadSize() throws Exception {
+        replay.errors(1, 502);
+        assertThat(get("latitude=19.1&longitude=72.9&start_hour=2026-11-02T12:00&end_hour=2026-11-02T23:00")
+                .statusCode()).isEqualTo(502);
+
+        replay.errors(0, 503).payloadHours(16 * 24);
+        List<ForecastFrame> frames = frames(get(
+                "latitude=19.1&longitude=72.9&start_hour=2026-11-02T12:00&end_hour=2026-11-02T23:00"));
+
+        assertThat(frames.get(0).size()).isEqualTo(384);
+        assertThat(replay.errorCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldParseLatencyModels() {
+        SplittableRandom random = new SplittableRandom(1);
+
+        assertThat(LatencyModel.parse("0").sampleMillis(random)).isZero();
+        assertThat(LatencyModel.parse("80ms").sampleMillis(random)).isEqualTo(80);
+        assertThat(LatencyModel.parse("uniform:20ms:40ms").sampleMillis(random)).isBetween(20L, 40L);
+        long[] samples = random.longs(10_000).map(ignored -> LatencyModel.parse("lognormal:50ms:500ms")
+                .sampleMillis(random)).sorted().toArray();
+        assertThat(samples[5_000]).isBetween(45L, 55L);
+        assertThat(samples[9_900]).isBetween(400L, 600L);
+        assertThatThrownBy(() -> LatencyModel.parse("uniform:20ms")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.aspora.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local stand-in for the Open-Meteo API, backed by the JDK HTTP server.
+ */
+public class StubOpenMeteoServer implements AutoCloseable {
+
+    static {
+        // Without TCP_NODELAY the JDK server's separate header and body writes hit delayed ACKs,
+        // adding ~40 ms to every response and swamping anything a benchmark tries to measure
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile HttpHandler handler = exchange -> respond(exchange, 404, "{}");
+
+    public StubOpenMeteoServer() throws IOException {
+        this(0);
+    }
+
+    /** {@code backlog} pending connections are queued before new ones are refused; 0 for the JDK default. */
+    public StubOpenMeteoServer(int backlog) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), backlog);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        // One virtual thread per exchange, so injected delays cost no platform thread however many overlap
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public void setHandler(HttpHandler handler) {
+        this.handler = handler;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public static HttpHandler serving(String body) {
+        return exchange -> respond(exchange, 200, body);
+    }
+
+    /** Fault injection: answers every request with {@code status} and an Open-Meteo style error body. */
+    public static HttpHandler failing(int status) {
+        return exchange -> respond(exchange, status, "{\"error\": true, \"reason\": \"Injected fault\"}");
+    }
+
+    /** Fault injection: holds every request open for {@code millis} without answering. */
+    public static HttpHandler stalling(long millis) {
+        return exchange -> sleep(millis);
+    }
+
+    public static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
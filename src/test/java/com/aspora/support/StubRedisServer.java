@@ -0,0 +1,276 @@
+package com.aspora.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local stand-in for a Redis server: strings with an optional expiry and pub/sub, over the
+ * real wire protocol. Answers PING, AUTH, SELECT, GET, SET (with PX or EX), DEL, PUBLISH and
+ * SUBSCRIBE; anything else gets an error reply.
+ */
+public class StubRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> values = new ConcurrentHashMap<>();
+    private final Map<String, List<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> commandCounts = new ConcurrentHashMap<>();
+    private volatile String password;
+
+    public StubRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("stub-redis-accept").start(this::accept);
+    }
+
+    public String url() {
+        return "redis://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /** Requires clients to AUTH with {@code password} before anything else. */
+    public void requirePassword(String password) {
+        this.password = password;
+    }
+
+    /** The raw value stored under {@code key}, or {@code null}. */
+    public byte[] get(String key) {
+        Value value = values.get(key);
+        return value == null || value.hasExpired() ? null : value.bytes();
+    }
+
+    /** Milliseconds until {@code key} expires; -1 without an expiry, -2 if absent. */
+    public long ttlMillis(String key) {
+        Value value = values.get(key);
+        if (value == null || value.hasExpired()) {
+            return -2;
+        }
+        return value.expiresAt() == 0 ? -1 : value.expiresAt() - System.currentTimeMillis();
+    }
+
+    public Set<String> keys() {
+        return values.keySet();
+    }
+
+    public int commandCount(String command) {
+        AtomicInteger count = commandCounts.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    public int subscriberCount(String channel) {
+        return subscribers.getOrDefault(channel, List.of()).size();
+    }
+
+    /** Drops every open connection, as a restarting server would; new connections are still accepted. */
+    public void disconnectAll() {
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+        disconnectAll();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                Thread.ofVirtual().name("stub-redis-client").start(() -> serve(socket));
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Client client = null;
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            client = new Client(new BufferedOutputStream(socket.getOutputStream()));
+            boolean authenticated = password == null;
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                String name = new String(command.get(0), StandardCharsets.UTF_8).toUpperCase();
+                commandCounts.computeIfAbsent(name, ignored -> new AtomicInteger()).incrementAndGet();
+                if (name.equals("AUTH")) {
+                    authenticated = password == null
+                            || password.equals(new String(command.get(command.size() - 1), StandardCharsets.UTF_8));
+                    client.reply(authenticated ? "+OK\r\n" : "-WRONGPASS invalid password\r\n");
+                } else if (!authenticated) {
+                    client.reply("-NOAUTH Authentication required.\r\n");
+                } else {
+                    execute(name, command, client);
+                }
+            }
+        } catch (IOException ex) {
+            // Client went away
+        } finally {
+            sockets.remove(socket);
+            if (client != null) {
+                for (List<Client> channel : subscribers.values()) {
+                    channel.remove(client);
+                }
+            }
+        }
+    }
+
+    private void execute(String name, List<byte[]> command, Client client) throws IOException {
+        switch (name) {
+            case "PING" -> client.reply("+PONG\r\n");
+            case "SELECT" -> client.reply("+OK\r\n");
+            case "GET" -> client.replyBulk(get(text(command.get(1))));
+            case "SET" -> {
+                long expiresAt = 0;
+                for (int i = 3; i + 1 < command.size(); i += 2) {
+                    String option = text(command.get(i)).toUpperCase();
+                    long amount = Long.parseLong(text(command.get(i + 1)));
+                    expiresAt = System.currentTimeMillis() + (option.equals("EX") ? amount * 1000 : amount);
+                }
+                values.put(text(command.get(1)), new Value(command.get(2), expiresAt));
+                client.reply("+OK\r\n");
+            }
+            case "DEL" -> {
+                int removed = 0;
+                for (byte[] key : command.subList(1, command.size())) {
+                    removed += values.remove(text(key)) != null ? 1 : 0;
+                }
+                client.reply(":" + removed + "\r\n");
+            }
+            case "PUBLISH" -> {
+                List<Client> receivers = subscribers.getOrDefault(text(command.get(1)), List.of());
+                for (Client receiver : receivers) {
+                    receiver.message(command.get(1), command.get(2));
+                }
+                client.reply(":" + receivers.size() + "\r\n");
+            }
+            case "SUBSCRIBE" -> {
+                for (byte[] channel : command.subList(1, command.size())) {
+                    List<Client> channelSubscribers = subscribers.computeIfAbsent(text(channel),
+                            ignored -> new CopyOnWriteArrayList<>());
+                    channelSubscribers.add(client);
+                    client.subscribed(channel, channelSubscribers.size());
+                }
+            }
+            default -> client.reply("-ERR unknown command '" + name + "'\r\n");
+        }
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected an array of bulk strings");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> arguments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected a bulk string");
+            }
+            int length = Integer.parseInt(readLine(in));
+            arguments.add(in.readNBytes(length));
+            in.readNBytes(2);
+        }
+        return arguments;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            line.write(b);
+        }
+        in.read();
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Value(byte[] bytes, long expiresAt) {
+
+        boolean hasExpired() {
+            return expiresAt != 0 && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private static final class Client {
+
+        private final OutputStream out;
+
+        private Client(OutputStream out) {
+            this.out = out;
+        }
+
+        synchronized void reply(String reply) throws IOException {
+            out.write(reply.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        synchronized void replyBulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            } else {
+                writeBulk(value);
+            }
+            out.flush();
+        }
+
+        synchronized void subscribed(byte[] channel, int count) throws IOException {
+            out.write("*3\r\n".getBytes(StandardCharsets.US_ASCII));
+            writeBulk("subscribe".getBytes(StandardCharsets.US_ASCII));
+            writeBulk(channel);
+            out.write((":" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        synchronized void message(byte[] channel, byte[] payload) {
+            try {
+                out.write("*3\r\n".getBytes(StandardCharsets.US_ASCII));
+                writeBulk("message".getBytes(StandardCharsets.US_ASCII));
+                writeBulk(channel);
+                writeBulk(payload);
+                out.flush();
+            } catch (IOException ex) {
+                // The subscriber's own thread notices the broken connection and unsubscribes it
+            }
+        }
+
+        private void writeBulk(byte[] value) throws IOException {
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(value);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
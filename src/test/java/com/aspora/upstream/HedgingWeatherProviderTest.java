@@ -0,0 +1,242 @@
+package com.aspora.upstream;
+
+import com.aspora.concurrent.Deadline;
+import com.aspora.config.OpenMeteoHttpProperties;
+import com.aspora.config.RestClientConfig;
+import com.aspora.forecast.ForecastFrame;
+import com.aspora.forecast.ForecastKey;
+import com.aspora.metrics.ForecastMetrics;
+import com.aspora.openmeteo.OpenMeteoHourlyParser;
+import com.aspora.service.WeatherService;
+import com.aspora.support.MutableClock;
+import com.aspora.support.OpenMeteoPayloads;
+import com.aspora.support.StubOpenMeteoServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Drives {@link HedgingWeatherProvider} against two local stub backends with different latency
+ * profiles: a primary that is usually fast but now and then very slow, and a mirror that is
+ * steadily a little slower.
+ */
+class HedgingWeatherProviderTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 10, 0, 0);
+    private static final LocalDateTime END = START.plusHours(24);
+    private static final String PAYLOAD = OpenMeteoPayloads.hourly(START, 24);
+    private static final List<ForecastKey> KEYS = List.of(new ForecastKey(52.5, 13.4, START, END));
+
+    private StubOpenMeteoServer primary;
+    private StubOpenMeteoServer mirror;
+    private MutableClock clock;
+    private UpstreamProperties properties;
+    private HedgingWeatherProvider provider;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = new StubOpenMeteoServer();
+        mirror = new StubOpenMeteoServer();
+        mirror.setHandler(delayed(20, StubOpenMeteoServer.serving(PAYLOAD)));
+        clock = new MutableClock(Instant.parse("2026-01-10T10:00:00Z"));
+
+        properties = new UpstreamProperties();
+        properties.setInitialHedgeDelay(Duration.ofMillis(100));
+        properties.setMinHedgeDelay(Duration.ofMillis(10));
+        properties.setMinSamples(10);
+        properties.setMaxHedgeRatio(0.2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.close();
+        mirror.close();
+    }
+
+    @Test
+    void hedgingCutsTheTailLatencyOfAnOccasionallySlowBackend() {
+        primary.setHandler(everyNth(25, 300, StubOpenMeteoServer.serving(PAYLOAD)));
+        properties.setHedging(false);
+        long unhedged = p99Millis(createProvider(), 100);
+
+        primary.setHandler(everyNth(25, 300, StubOpenMeteoServer.serving(PAYLOAD)));
+        properties.setHedging(true);
+        long hedged = p99Millis(createProvider(), 100);
+
+        assertThat(unhedged).isGreaterThanOrEqualTo(300);
+        assertThat(hedged).isLessThan(unhedged / 2);
+        assertThat(provider.hedgesWon()).isGreaterThanOrEqualTo(3);
+        assertThat(provider.hedgeDelay("open-meteo")).isLessThan(properties.getInitialHedgeDelay());
+    }
+
+    @Test
+    void slowBackendLosesToTheHedgeAndIsCancelled() {
+        primary.setHandler(StubOpenMeteoServer.stalling(2_000));
+        createProvider();
+
+        long started = System.nanoTime();
+        List<ForecastFrame> frames = provider.fetch(KEYS, START, END);
+
+        assertThat(frames).hasSize(1);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(provider.hedgesSent()).isEqualTo(1);
+        assertThat(provider.hedgesWon()).isEqualTo(1);
+        assertThat(provider.cancelledCount("open-meteo")).isEqualTo(1);
+        assertThat(provider.isHealthy("open-meteo")).isTrue();
+    }
+
+    @Test
+    void callersDeadlineEndsTheWaitAndCancelsEveryAttempt() {
+        primary.setHandler(StubOpenMeteoServer.stalling(2_000));
+        mirror.setHandler(StubOpenMeteoServer.stalling(2_000));
+        createProvider();
+
+        long started = System.nanoTime();
+        try (Deadline.Binding ignored = Deadline.after(Duration.ofMillis(300)).bind()) {
+            assertThatThrownBy(() -> provider.fetch(KEYS, START, END))
+                    .isInstanceOf(ResourceAccessException.class)
+                    .hasMessageContaining("deadline");
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(provider.cancelledCount("open-meteo")).isEqualTo(1);
+        assertThat(provider.cancelledCount("mirror")).isEqualTo(1);
+        assertThat(provider.isHealthy("open-meteo")).isTrue();
+    }
+
+    @Test
+    void failingBackendIsFailedOverAndRoutedAroundUntilItsCooldownEnds() {
+        primary.setHandler(StubOpenMeteoServer.failing(500));
+        createProvider();
+
+        for (int i = 0; i < properties.getFailureThreshold(); i++) {
+            assertThat(provider.fetch(KEYS, START, END)).hasSize(1);
+        }
+        assertThat(primary.requestCount()).isEqualTo(3);
+        assertThat(provider.isHealthy("open-meteo")).isFalse();
+
+        provider.fetch(KEYS, START, END);
+        assertThat(primary.requestCount()).isEqualTo(3);
+        assertThat(mirror.requestCount()).isEqualTo(4);
+
+        clock.advance(properties.getCooldown());
+        primary.setHandler(StubOpenMeteoServer.serving(PAYLOAD));
+        assertThat(provider.isHealthy("open-meteo")).isTrue();
+        provider.fetch(KEYS, START, END);
+        assertThat(primary.requestCount()).isEqualTo(4);
+    }
+
+    @Test
+    void everyBackendFailingRethrowsTheBestRankedFailure() {
+        primary.setHandler(StubOpenMeteoServer.failing(503));
+        mirror.setHandler(StubOpenMeteoServer.failing(500));
+        // Far beyond a cold first exchange, so the mirror is reached by fail-over only
+        properties.setInitialHedgeDelay(Duration.ofSeconds(30));
+        createProvider();
+
+        assertThatThrownBy(() -> provider.fetch(KEYS, START, END))
+                .hasMessageContaining("503");
+        assertThat(mirror.requestCount()).isEqualTo(1);
+        assertThat(provider.hedgesSent()).isZero();
+    }
+
+    @Test
+    void hedgedBackendFailingFirstDoesNotMaskThePrimaryFailure() {
+        primary.setHandler(delayed(1000, StubOpenMeteoServer.failing(503)));
+        mirror.setHandler(StubOpenMeteoServer.failing(500));
+        properties.setInitialHedgeDelay(Duration.ofMillis(50));
+        createProvider();
+
+        assertThatThrownBy(() -> provider.fetch(KEYS, START, END))
+                .hasMessageContaining("503");
+        assertThat(provider.hedgesSent()).isEqualTo(1);
+        assertThat(mirror.requestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedRequestIsNotRetriedElsewhere() {
+        primary.setHandler(StubOpenMeteoServer.failing(400));
+        createProvider();
+
+        assertThatThrownBy(() -> provider.fetch(KEYS, START, END))
+                .isInstanceOf(HttpClientErrorException.BadRequest.class);
+        assertThat(mirror.requestCount()).isZero();
+        assertThat(provider.isHealthy("open-meteo")).isTrue();
+    }
+
+    @Test
+    void exhaustedHedgeBudgetWaitsForTheFirstBackend() {
+        primary.setHandler(delayed(300, StubOpenMeteoServer.serving(PAYLOAD)));
+        properties.setMaxHedgeRatio(0);
+        properties.setHedgeBurst(0);
+        createProvider();
+
+        assertThat(provider.fetch(KEYS, START, END)).hasSize(1);
+        assertThat(provider.hedgesSent()).isZero();
+        assertThat(mirror.requestCount()).isZero();
+    }
+
+    @Test
+    void backendNamesMustBeUnique() {
+        WeatherProvider backend = backend("open-meteo", primary);
+
+        assertThatThrownBy(() -> new HedgingWeatherProvider(List.of(backend, backend), properties,
+                WeatherService::isUpstreamFault, clock))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HedgingWeatherProvider createProvider() {
+        provider = new HedgingWeatherProvider(List.of(backend("open-meteo", primary), backend("mirror", mirror)),
+                properties, WeatherService::isUpstreamFault, clock);
+        return provider;
+    }
+
+    private static WeatherProvider backend(String name, StubOpenMeteoServer server) {
+        return new OpenMeteoProvider(name, RestClientConfig.createRestClient(server.baseUrl(), new OpenMeteoHttpProperties()),
+                new OpenMeteoHourlyParser(new ObjectMapper()), new ForecastMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static long p99Millis(HedgingWeatherProvider provider, int calls) {
+        long[] millis = new long[calls];
+        for (int i = 0; i < calls; i++) {
+            long started = System.nanoTime();
+            provider.fetch(KEYS, START, END);
+            millis[i] = (System.nanoTime() - started) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        return millis[(int) Math.ceil(calls * 0.99) - 1];
+    }
+
+    private static HttpHandler delayed(long millis, HttpHandler handler) {
+        return exchange -> {
+            StubOpenMeteoServer.sleep(millis);
+            handler.handle(exchange);
+        };
+    }
+
+    /** Answers every {@code n}-th request {@code millis} late and the others straight away. */
+    private static HttpHandler everyNth(int n, long millis, HttpHandler handler) {
+        AtomicInteger count = new AtomicInteger();
+        return exchange -> {
+            if (count.incrementAndGet() % n == 0) {
+                StubOpenMeteoServer.sleep(millis);
+            }
+            handler.handle(exchange);
+        };
+    }
+}